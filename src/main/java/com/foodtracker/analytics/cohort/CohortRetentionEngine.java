@@ -0,0 +1,71 @@
+package com.foodtracker.analytics.cohort;
+
+import com.foodtracker.api.analytics.CohortRetentionResponse;
+import com.foodtracker.api.analytics.CohortRow;
+import com.foodtracker.shared.activity.ActivityBitmapStore;
+import com.foodtracker.shared.activity.Granularity;
+import com.foodtracker.shared.activity.Segment;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Retention triangle: for every cohort day D, the users first seen on D who were active on D + N.
+ * <p>
+ * Each cell is the cardinality of the intersection of a cohort bitmap from {@link FirstSeenIndex}
+ * with a daily activity bitmap from {@link ActivityBitmapStore}; cohorts are computed in parallel.
+ */
+@Service
+@RequiredArgsConstructor
+public class CohortRetentionEngine {
+
+    public static final int MAX_DAYS = (int) Granularity.DAY.bucketCount();
+
+    private final FirstSeenIndex firstSeenIndex;
+    private final ActivityBitmapStore activityBitmapStore;
+
+    /**
+     * Cohorts of the {@code days} days starting with {@code startDate}, each followed up to the end
+     * of that range or today, whichever is earlier
+     */
+    public CohortRetentionResponse retention(LocalDate startDate, int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        long firstDay = startDate.toEpochDay();
+        long lastDay = Math.min(firstDay + days - 1, LocalDate.now(ZoneOffset.UTC).toEpochDay());
+        int size = (int) Math.max(lastDay - firstDay + 1, 0);
+
+        RoaringBitmap[] active = new RoaringBitmap[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            LocalDate day = LocalDate.ofEpochDay(firstDay + i);
+            active[i] = activityBitmapStore.users(Segment.ALL_USERS,
+                    day.atStartOfDay().toInstant(ZoneOffset.UTC),
+                    day.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        });
+
+        List<CohortRow> cohorts = IntStream.range(0, size).parallel()
+                .mapToObj(c -> cohortRow(c, firstDay, active))
+                .toList();
+        return new CohortRetentionResponse(startDate, size, cohorts);
+    }
+
+    private CohortRow cohortRow(int cohortIndex, long firstDay, RoaringBitmap[] active) {
+        RoaringBitmap cohort = firstSeenIndex.cohort(firstDay + cohortIndex);
+        long cohortSize = cohort.getLongCardinality();
+        List<Long> retained = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        for (int day = cohortIndex; day < active.length; day++) {
+            long users = RoaringBitmap.andCardinality(cohort, active[day]);
+            retained.add(users);
+            rates.add(cohortSize > 0 ? (double) users / cohortSize * 100 : 0.0);
+        }
+        return new CohortRow(LocalDate.ofEpochDay(firstDay + cohortIndex), cohortSize, retained, rates);
+    }
+}
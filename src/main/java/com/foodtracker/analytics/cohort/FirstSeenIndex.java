@@ -0,0 +1,128 @@
+package com.foodtracker.analytics.cohort;
+
+import com.foodtracker.shared.event.EventKeysBackfilled;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.FirstSeenRow;
+import com.foodtracker.shared.repository.UserFirstSeenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Day of the first event of every user, and the users first seen on each day.
+ * <p>
+ * Persisted in {@code user_first_seen} and kept in memory as an array indexed by dense user key
+ * plus one bitmap per cohort day. Updated at ingest; an event older than a user's known first
+ * day moves the user to the earlier cohort.
+ */
+@Component
+@Slf4j
+public class FirstSeenIndex {
+
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final UserFirstSeenRepository userFirstSeenRepository;
+    private final Map<Integer, RoaringBitmap> cohorts = new HashMap<>();
+    private int[] firstDays = newFirstDays(1024);
+
+    public FirstSeenIndex(UserFirstSeenRepository userFirstSeenRepository) {
+        this.userFirstSeenRepository = userFirstSeenRepository;
+    }
+
+    /**
+     * Catches up with events stored since the last run (all events on the first run) and loads the index
+     */
+    @PostConstruct
+    public void load() {
+        try {
+            int updated = userFirstSeenRepository.count() == 0
+                    ? userFirstSeenRepository.backfillAll()
+                    : userFirstSeenRepository.backfillSince(Instant.now().truncatedTo(ChronoUnit.DAYS).minus(1, ChronoUnit.DAYS));
+            List<FirstSeenRow> rows = userFirstSeenRepository.findAllEntries();
+            rows.forEach(row -> update(row.getUserkey(), Math.toIntExact(row.getDay())));
+            log.info("First-seen index loaded {} users, {} updated from recent events", rows.size(), updated);
+        } catch (Exception e) {
+            log.warn("Could not load first-seen index, starting empty", e);
+        }
+    }
+
+    /**
+     * Catches up with events that only got their user keys after startup
+     */
+    @EventListener
+    public void onEventKeysBackfilled(EventKeysBackfilled backfilled) {
+        try {
+            int updated = userFirstSeenRepository.backfillAll();
+            userFirstSeenRepository.findAllEntries().forEach(row -> update(row.getUserkey(), Math.toIntExact(row.getDay())));
+            log.info("First-seen index updated {} users from backfilled events", updated);
+        } catch (Exception e) {
+            log.warn("Could not add backfilled events to first-seen index", e);
+        }
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        Event event = eventTracked.event();
+        if (event.getUserKey() == null || event.getTimestamp() == null) {
+            return;
+        }
+        int day = Math.toIntExact(Math.floorDiv(event.getTimestamp().getEpochSecond(), 86400L));
+        if (update(event.getUserKey(), day)) {
+            userFirstSeenRepository.upsertEarliest(event.getUserKey(), day);
+        }
+    }
+
+    /**
+     * Users first seen on {@code epochDay}
+     *
+     * @return a new bitmap the caller may modify
+     */
+    public synchronized RoaringBitmap cohort(long epochDay) {
+        RoaringBitmap cohort = cohorts.get(Math.toIntExact(epochDay));
+        return cohort != null ? cohort.clone() : new RoaringBitmap();
+    }
+
+    /**
+     * First day of the user, or null if never seen
+     */
+    public synchronized Long firstDay(int userKey) {
+        return userKey < firstDays.length && firstDays[userKey] != UNKNOWN ? (long) firstDays[userKey] : null;
+    }
+
+    /**
+     * @return whether {@code day} became the user's first day
+     */
+    synchronized boolean update(int userKey, int day) {
+        if (userKey >= firstDays.length) {
+            int[] grown = newFirstDays(Math.max(userKey + 1, firstDays.length << 1));
+            System.arraycopy(firstDays, 0, grown, 0, firstDays.length);
+            firstDays = grown;
+        }
+        int known = firstDays[userKey];
+        if (known != UNKNOWN && known <= day) {
+            return false;
+        }
+        if (known != UNKNOWN) {
+            cohorts.get(known).remove(userKey);
+        }
+        firstDays[userKey] = day;
+        cohorts.computeIfAbsent(day, d -> new RoaringBitmap()).add(userKey);
+        return true;
+    }
+
+    private static int[] newFirstDays(int size) {
+        int[] days = new int[size];
+        Arrays.fill(days, UNKNOWN);
+        return days;
+    }
+}
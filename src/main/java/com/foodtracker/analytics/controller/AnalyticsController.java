@@ -1,9 +1,14 @@
 package com.foodtracker.analytics.controller;
 
+import com.foodtracker.api.analytics.ActiveUsersResponse;
+import com.foodtracker.api.analytics.CohortRetentionResponse;
 import com.foodtracker.api.analytics.ConversionFunnelResponse;
+import com.foodtracker.api.analytics.SegmentResponse;
 import com.foodtracker.analytics.service.AnalyticsService;
 import com.foodtracker.shared.repository.Event;
 import com.foodtracker.core.validation.UnsafeString;
+import com.foodtracker.shared.sampling.Accuracy;
+import com.foodtracker.shared.sampling.Estimate;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -31,7 +37,9 @@ public class AnalyticsController {
 
     @Operation(
             summary = "Get daily active users",
-            description = "Retrieves the count of unique users who performed a specific event type on a given date",
+            description = "Retrieves the count of unique users who performed a specific event type on a given date. "
+                    + "With accuracy=approx the count is scaled up from a sample of users and the "
+                    + "X-Sample-Rate, X-Confidence-Level and X-Confidence-Interval headers describe its error",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Daily active user count retrieved successfully",
                             content = @Content(schema = @Schema(implementation = Long.class))),
@@ -43,11 +51,21 @@ public class AnalyticsController {
             @Parameter(description = "Type of event to analyze", required = true)
             @RequestParam String eventType,
             @Parameter(description = "Date in ISO format (e.g., 2024-01-01)", required = true)
-            @RequestParam String date) {
+            @RequestParam String date,
+            @Parameter(description = "exact, or approx for a faster estimate over a sample of users")
+            @RequestParam(defaultValue = "exact") String accuracy) {
         try {
             LocalDate localDate = LocalDate.parse(date);
             LocalDateTime startOfDay = localDate.atStartOfDay();
             Instant instant = startOfDay.toInstant(ZoneOffset.UTC);
+            if (Accuracy.fromParameter(accuracy) == Accuracy.APPROX) {
+                Estimate estimate = analyticsService.estimateDistinctUserCountByEventTypeAndDate(eventType, instant);
+                return ResponseEntity.ok()
+                        .header("X-Sample-Rate", String.valueOf(estimate.sampleRate()))
+                        .header("X-Confidence-Level", String.valueOf(Estimate.CONFIDENCE_LEVEL))
+                        .header("X-Confidence-Interval", Math.round(estimate.lower()) + "," + Math.round(estimate.upper()))
+                        .body(estimate.rounded());
+            }
             long dauCount = analyticsService.getDistinctUserCountByEventTypeAndDate(eventType, instant);
             return ResponseEntity.ok(dauCount);
         } catch (Exception e) {
@@ -57,7 +75,9 @@ public class AnalyticsController {
 
     @Operation(
             summary = "Get conversion funnel analytics",
-            description = "Retrieves conversion funnel metrics for a specific category within a date range",
+            description = "Retrieves conversion funnel metrics for a specific category within a date range. "
+                    + "With accuracy=approx the counts are scaled up from a sample of users and the additional "
+                    + "metrics report the sample rate and confidence intervals",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Conversion funnel analytics retrieved successfully",
                             content = @Content(schema = @Schema(implementation = ConversionFunnelResponse.class))),
@@ -73,7 +93,9 @@ public class AnalyticsController {
             @Parameter(description = "Start date and time in ISO format (e.g., 2024-01-01T10:00:00)", required = true)
             @RequestParam String startDate,
             @Parameter(description = "End date and time in ISO format (e.g., 2024-01-02T10:00:00)", required = true)
-            @RequestParam String endDate) {
+            @RequestParam String endDate,
+            @Parameter(description = "exact, or approx for a faster estimate over a sample of users")
+            @RequestParam(defaultValue = "exact") String accuracy) {
         try {
             LocalDateTime startDateTime = LocalDateTime.parse(startDate);
             LocalDateTime endDateTime = LocalDateTime.parse(endDate);
@@ -81,13 +103,97 @@ public class AnalyticsController {
             Instant start = startDateTime.toInstant(ZoneOffset.UTC);
             Instant end = endDateTime.toInstant(ZoneOffset.UTC);
 
-            ConversionFunnelResponse analytics = analyticsService.getConversionFunnelAnalytics(category, start, end);
+            ConversionFunnelResponse analytics = Accuracy.fromParameter(accuracy) == Accuracy.APPROX
+                    ? analyticsService.getApproximateConversionFunnelAnalytics(category, start, end)
+                    : analyticsService.getConversionFunnelAnalytics(category, start, end);
             return ResponseEntity.ok(analytics);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
 
+    @Operation(
+            summary = "Get daily, weekly and monthly active users",
+            description = "Retrieves exact counts of distinct users active on a day and in the 7 and 30 days ending with it",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Active user counts retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = ActiveUsersResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+            }
+    )
+    @GetMapping("/active-users")
+    public ResponseEntity<ActiveUsersResponse> getActiveUsers(
+            @Parameter(description = "Last day of the windows in ISO format (e.g., 2024-01-01), defaults to today (UTC)")
+            @RequestParam(required = false) String date) {
+        try {
+            LocalDate localDate = date != null ? LocalDate.parse(date) : LocalDate.now(ZoneOffset.UTC);
+            return ResponseEntity.ok(analyticsService.getActiveUsers(localDate));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    @Operation(
+            summary = "Get user segment size",
+            description = "Counts users who are in every 'all' segment, in at least one 'any' segment and in no 'none' "
+                    + "segment within a date range. A segment is an event type, optionally with a category, "
+                    + "e.g. item_viewed:pizza",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Segment size retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = SegmentResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+            }
+    )
+    @GetMapping("/segments")
+    public ResponseEntity<SegmentResponse> getSegmentSize(
+            @Parameter(description = "Segments every user must be in (e.g., item_viewed:pizza)")
+            @RequestParam(defaultValue = "") List<String> all,
+            @Parameter(description = "Segments a user must be in at least one of")
+            @RequestParam(defaultValue = "") List<String> any,
+            @Parameter(description = "Segments a user must not be in")
+            @RequestParam(defaultValue = "") List<String> none,
+            @Parameter(description = "Start date and time in ISO format (e.g., 2024-01-01T00:00:00), defaults to 7 days before the end")
+            @RequestParam(required = false) String startDate,
+            @Parameter(description = "End date and time in ISO format (e.g., 2024-01-08T00:00:00), defaults to now")
+            @RequestParam(required = false) String endDate) {
+        try {
+            Instant end = endDate != null ? LocalDateTime.parse(endDate).toInstant(ZoneOffset.UTC) : Instant.now();
+            Instant start = startDate != null ? LocalDateTime.parse(startDate).toInstant(ZoneOffset.UTC) : end.minus(Duration.ofDays(7));
+            SegmentResponse segment = analyticsService.getSegmentSize(nonBlank(all), nonBlank(any), nonBlank(none), start, end);
+            return ResponseEntity.ok(segment);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    private static List<String> nonBlank(List<String> values) {
+        return values.stream().filter(value -> !value.isBlank()).toList();
+    }
+
+    @Operation(
+            summary = "Get cohort retention",
+            description = "Retrieves the retention triangle of users grouped by the day they were first seen: "
+                    + "for every cohort day D, the users active on D + N for each following day of the range",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Cohort retention retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = CohortRetentionResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+            }
+    )
+    @GetMapping("/cohorts")
+    public ResponseEntity<CohortRetentionResponse> getCohortRetention(
+            @Parameter(description = "Day of the first cohort in ISO format (e.g., 2024-01-01), defaults to days - 1 days ago (UTC)")
+            @RequestParam(required = false) String startDate,
+            @Parameter(description = "Number of cohort days, at most 400")
+            @RequestParam(defaultValue = "90") int days) {
+        try {
+            LocalDate start = startDate != null ? LocalDate.parse(startDate) : LocalDate.now(ZoneOffset.UTC).minusDays(days - 1L);
+            return ResponseEntity.ok(analyticsService.getCohortRetention(start, days));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
     @Operation(
             summary = "Get all events",
             description = "Retrieves a list of all recorded events in the system",
@@ -1,9 +1,14 @@
 package com.foodtracker.analytics.service;
 
+import com.foodtracker.api.analytics.ActiveUsersResponse;
+import com.foodtracker.api.analytics.CohortRetentionResponse;
 import com.foodtracker.api.analytics.ConversionFunnelResponse;
+import com.foodtracker.api.analytics.SegmentResponse;
 import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.sampling.Estimate;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface AnalyticsService {
@@ -13,6 +18,11 @@ public interface AnalyticsService {
      */
     long getDistinctUserCountByEventTypeAndDate(String eventType, Instant fromDate);
 
+    /**
+     * Estimate the distinct user count for an event type from a specific date over a sample of users
+     */
+    Estimate estimateDistinctUserCountByEventTypeAndDate(String eventType, Instant fromDate);
+
     /**
      * Get events by event type within a time range
      */
@@ -23,6 +33,29 @@ public interface AnalyticsService {
      */
     ConversionFunnelResponse getConversionFunnelAnalytics(String category, Instant start, Instant end);
 
+    /**
+     * Get conversion funnel analytics scaled up from a sample of users; confidence intervals
+     * and the sample rate are reported in the additional metrics
+     */
+    ConversionFunnelResponse getApproximateConversionFunnelAnalytics(String category, Instant start, Instant end);
+
+    /**
+     * Get exact daily, weekly and monthly active users for the windows ending with a day
+     */
+    ActiveUsersResponse getActiveUsers(LocalDate date);
+
+    /**
+     * Get the number of users in every {@code all} segment, in at least one {@code any} segment
+     * and in no {@code none} segment within a time range. Segments are {@code eventType} or
+     * {@code eventType:category}.
+     */
+    SegmentResponse getSegmentSize(List<String> all, List<String> any, List<String> none, Instant start, Instant end);
+
+    /**
+     * Get the retention triangle of the cohorts first seen on each of {@code days} days from {@code startDate}
+     */
+    CohortRetentionResponse getCohortRetention(LocalDate startDate, int days);
+
     /**
      * Get all events
      */
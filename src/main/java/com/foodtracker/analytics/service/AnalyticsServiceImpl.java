@@ -1,13 +1,25 @@
 package com.foodtracker.analytics.service;
 
+import com.foodtracker.analytics.cohort.CohortRetentionEngine;
+import com.foodtracker.api.analytics.ActiveUsersResponse;
+import com.foodtracker.api.analytics.CohortRetentionResponse;
 import com.foodtracker.api.analytics.ConversionFunnelResponse;
+import com.foodtracker.api.analytics.SegmentResponse;
+import com.foodtracker.shared.activity.ActivityBitmapStore;
+import com.foodtracker.shared.activity.Segment;
 import com.foodtracker.shared.repository.Event;
 import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.sampling.Estimate;
+import com.foodtracker.shared.sampling.SampledEventStats;
+import com.foodtracker.shared.sampling.SampledEventStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,12 +29,20 @@ import java.util.Map;
 public class AnalyticsServiceImpl implements AnalyticsService {
 
     private final EventRepository eventRepository;
+    private final SampledEventStatsService sampledEventStatsService;
+    private final ActivityBitmapStore activityBitmapStore;
+    private final CohortRetentionEngine cohortRetentionEngine;
 
     @Override
     public long getDistinctUserCountByEventTypeAndDate(String eventType, Instant fromDate) {
         return eventRepository.countDistinctUsersByEventTypeAndTimestampAfter(eventType, fromDate);
     }
 
+    @Override
+    public Estimate estimateDistinctUserCountByEventTypeAndDate(String eventType, Instant fromDate) {
+        return sampledEventStatsService.sample(fromDate, Instant.now(), null).users(eventType);
+    }
+
     @Override
     public List<Event> getEventsByTypeAndTimeRange(String eventType, Instant start, Instant end) {
         return eventRepository.findByEventTypeAndTimestampBetween(eventType, start, end);
@@ -47,6 +67,70 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         );
     }
 
+    @Override
+    public ConversionFunnelResponse getApproximateConversionFunnelAnalytics(String category, Instant start, Instant end) {
+        // One sampled query covers all funnel steps
+        SampledEventStats stats = sampledEventStatsService.sample(start, end, category);
+        Estimate viewed = stats.events("item_viewed");
+        Estimate added = stats.events("item_added_to_cart");
+        Estimate ordered = stats.events("order_placed");
+        Estimate conversionRate = Estimate.ratePercent(ordered, viewed);
+
+        Map<String, Object> confidenceIntervals = new LinkedHashMap<>();
+        confidenceIntervals.put("viewedCount", interval(viewed));
+        confidenceIntervals.put("addedCount", interval(added));
+        confidenceIntervals.put("orderedCount", interval(ordered));
+        confidenceIntervals.put("conversionRate", interval(conversionRate));
+
+        Map<String, Object> additionalMetrics = new LinkedHashMap<>();
+        additionalMetrics.put("timeRange", String.format("%s to %s", start, end));
+        additionalMetrics.put("accuracy", "approx");
+        additionalMetrics.put("sampleRate", stats.sampleRate());
+        additionalMetrics.put("confidenceLevel", Estimate.CONFIDENCE_LEVEL);
+        additionalMetrics.put("confidenceIntervals", confidenceIntervals);
+
+        return new ConversionFunnelResponse(
+                category,
+                viewed.rounded(),
+                added.rounded(),
+                ordered.rounded(),
+                conversionRate.value(),
+                additionalMetrics
+        );
+    }
+
+    private static Map<String, Double> interval(Estimate estimate) {
+        return Map.of("lower", estimate.lower(), "upper", estimate.upper());
+    }
+
+    @Override
+    public ActiveUsersResponse getActiveUsers(LocalDate date) {
+        // Exact counts from the cardinality of unions of daily user bitmaps
+        Instant day = date.atStartOfDay().toInstant(ZoneOffset.UTC);
+        return new ActiveUsersResponse(
+                date,
+                activityBitmapStore.activeUsers(day, 1),
+                activityBitmapStore.activeUsers(day, 7),
+                activityBitmapStore.activeUsers(day, 30)
+        );
+    }
+
+    @Override
+    public SegmentResponse getSegmentSize(List<String> all, List<String> any, List<String> none, Instant start, Instant end) {
+        long users = activityBitmapStore.segment(segments(all), segments(any), segments(none), start, end)
+                .getLongCardinality();
+        return new SegmentResponse(all, any, none, start, end, users);
+    }
+
+    private static List<Segment> segments(List<String> values) {
+        return values.stream().map(Segment::parse).toList();
+    }
+
+    @Override
+    public CohortRetentionResponse getCohortRetention(LocalDate startDate, int days) {
+        return cohortRetentionEngine.retention(startDate, days);
+    }
+
     @Override
     public List<Event> getAllEvents() {
         return eventRepository.findAll();
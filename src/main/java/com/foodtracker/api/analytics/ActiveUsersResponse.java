@@ -0,0 +1,26 @@
+package com.foodtracker.api.analytics;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO for daily, weekly and monthly active users")
+public class ActiveUsersResponse {
+    @Schema(description = "Last day of the windows (UTC)", example = "2024-01-01", requiredMode = Schema.RequiredMode.REQUIRED)
+    private LocalDate date;
+
+    @Schema(description = "Distinct users active on the day", example = "1200", requiredMode = Schema.RequiredMode.REQUIRED)
+    private long dau;
+
+    @Schema(description = "Distinct users active in the 7 days ending with the day", example = "5400", requiredMode = Schema.RequiredMode.REQUIRED)
+    private long wau;
+
+    @Schema(description = "Distinct users active in the 30 days ending with the day", example = "16000", requiredMode = Schema.RequiredMode.REQUIRED)
+    private long mau;
+}
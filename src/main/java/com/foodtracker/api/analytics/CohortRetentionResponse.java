@@ -0,0 +1,25 @@
+package com.foodtracker.api.analytics;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO for the cohort retention triangle")
+public class CohortRetentionResponse {
+    @Schema(description = "Day of the first cohort (UTC)", example = "2024-01-01", requiredMode = Schema.RequiredMode.REQUIRED)
+    private LocalDate startDate;
+
+    @Schema(description = "Number of cohorts, capped at today", example = "90", requiredMode = Schema.RequiredMode.REQUIRED)
+    private int days;
+
+    @Schema(description = "One row per cohort day, oldest first; row i has days - i retention values",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<CohortRow> cohorts;
+}
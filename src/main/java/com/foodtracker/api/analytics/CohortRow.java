@@ -0,0 +1,29 @@
+package com.foodtracker.api.analytics;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Retention of the users first seen on one day")
+public class CohortRow {
+    @Schema(description = "Day the cohort's users were first seen (UTC)", example = "2024-01-01", requiredMode = Schema.RequiredMode.REQUIRED)
+    private LocalDate cohortDate;
+
+    @Schema(description = "Number of users first seen on the cohort day", example = "250", requiredMode = Schema.RequiredMode.REQUIRED)
+    private long size;
+
+    @Schema(description = "Users of the cohort active N days after the cohort day, starting with N = 0", example = "[250, 90, 64]",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<Long> retained;
+
+    @Schema(description = "Retained users as a percentage of the cohort size, starting with N = 0", example = "[100.0, 36.0, 25.6]",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<Double> retentionRates;
+}
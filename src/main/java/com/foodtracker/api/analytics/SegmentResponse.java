@@ -0,0 +1,33 @@
+package com.foodtracker.api.analytics;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO for the size of a user segment")
+public class SegmentResponse {
+    @Schema(description = "Segments every user must be in", example = "[\"item_viewed:pizza\", \"order_placed\"]")
+    private List<String> all;
+
+    @Schema(description = "Segments a user must be in at least one of", example = "[]")
+    private List<String> any;
+
+    @Schema(description = "Segments a user must not be in", example = "[\"checkout_started\"]")
+    private List<String> none;
+
+    @Schema(description = "Start of the time range", example = "2024-01-01T00:00:00Z", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Instant from;
+
+    @Schema(description = "End of the time range", example = "2024-01-08T00:00:00Z", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Instant to;
+
+    @Schema(description = "Number of distinct users in the segment", example = "420", requiredMode = Schema.RequiredMode.REQUIRED)
+    private long users;
+}
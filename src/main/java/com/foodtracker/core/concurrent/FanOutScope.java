@@ -0,0 +1,127 @@
+package com.foodtracker.core.concurrent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs independent subtasks concurrently on virtual threads as one unit of work.
+ * <p>
+ * All subtasks share one deadline, the first failure cancels the remaining subtasks,
+ * and closing the scope cancels anything still running. This follows
+ * {@code StructuredTaskScope.ShutdownOnFailure}, which is still a preview API on Java 21.
+ * <p>
+ * Scopes created with a {@link Semaphore} run a subtask only while holding one of its permits, so scopes sharing
+ * the semaphore never run more subtasks at once than it has permits, whatever the number of forks. Time spent
+ * waiting for a permit counts against the deadline.
+ * <pre>{@code
+ * try (FanOutScope scope = new FanOutScope(Duration.ofSeconds(5))) {
+ *     Future<Long> users = scope.fork(() -> repository.countUsers());
+ *     Future<Long> orders = scope.fork(() -> repository.countOrders());
+ *     scope.join();
+ *     return users.resultNow() + orders.resultNow();
+ * }
+ * }</pre>
+ */
+public class FanOutScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> subtasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private final Semaphore permits;
+    private final long deadlineNanos;
+
+    public FanOutScope(Duration timeout) {
+        this(timeout, null);
+    }
+
+    /**
+     * @param permits bounds the subtasks running at once across all scopes sharing it, or {@code null} for no bound
+     */
+    public FanOutScope(Duration timeout, Semaphore permits) {
+        this.permits = permits;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * Start a subtask. Its result is available through {@link Future#resultNow()} after {@link #join()}.
+     */
+    public <T> Future<T> fork(Callable<T> task) {
+        Future<T> subtask = executor.submit(() -> {
+            try {
+                return callWithPermit(task);
+            } catch (Exception e) {
+                if (firstFailure.compareAndSet(null, e)) {
+                    cancelAll();
+                }
+                throw e;
+            }
+        });
+        subtasks.add(subtask);
+        if (firstFailure.get() != null) {
+            subtask.cancel(true);
+        }
+        return subtask;
+    }
+
+    /**
+     * Wait for all subtasks to complete.
+     *
+     * @throws ExecutionException   if any subtask failed; the remaining subtasks are cancelled
+     * @throws TimeoutException     if the deadline passed first; all subtasks are cancelled
+     * @throws InterruptedException if the calling thread was interrupted; all subtasks are cancelled
+     */
+    public void join() throws ExecutionException, TimeoutException, InterruptedException {
+        try {
+            for (Future<?> subtask : subtasks) {
+                long remaining = deadlineNanos - System.nanoTime();
+                subtask.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException | CancellationException e) {
+            cancelAll();
+            Throwable failure = firstFailure.get();
+            throw new ExecutionException(failure != null ? failure : e);
+        } catch (TimeoutException | InterruptedException e) {
+            cancelAll();
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels unfinished subtasks. Threads blocked in calls that ignore interrupts, such as JDBC,
+     * are left to finish on their own so the caller is not held past the deadline.
+     */
+    @Override
+    public void close() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private <T> T callWithPermit(Callable<T> task) throws Exception {
+        if (permits == null) {
+            return task.call();
+        }
+        if (!permits.tryAcquire(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No permit to run subtask before the deadline");
+        }
+        try {
+            return task.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void cancelAll() {
+        subtasks.forEach(subtask -> subtask.cancel(true));
+    }
+}
@@ -0,0 +1,177 @@
+package com.foodtracker.core.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the application's periodic jobs on a pool of their own, so a slow job does not delay the other jobs.
+ * <p>
+ * A periodic job starts at a random point of its first period and every run fires up to {@code jitter} of a period
+ * after its slot, so nodes do not fire in lockstep. A run is skipped if the previous run of the same job is still
+ * going, or if the pool only gets to it after the next slot has begun. Run time, start lag and skipped runs are
+ * recorded as {@code dashboard.job.duration}, {@code dashboard.job.lag} and {@code dashboard.job.skipped}.
+ */
+@Component
+@Slf4j
+public class RefreshExecutor {
+
+    static final String OVERRUN = "overrun";
+    static final String DEADLINE = "deadline";
+
+    private final MeterRegistry meterRegistry;
+    private final double jitter;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private final Map<String, JobMeters> meters = new ConcurrentHashMap<>();
+
+    public RefreshExecutor(MeterRegistry meterRegistry,
+                           @Value("${app.dashboard.jobs.pool-size:4}") int poolSize,
+                           @Value("${app.dashboard.jobs.jitter:0.1}") double jitter) {
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("jitter must be at least 0 and below 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.jitter = jitter;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs {@code task} once per {@code period} until shutdown, never two runs at a time
+     */
+    public void schedule(String job, Duration period, Runnable task) {
+        long periodNanos = period.toNanos();
+        long firstSlot = System.nanoTime() + ThreadLocalRandom.current().nextLong(periodNanos);
+        scheduleSlot(job, periodNanos, firstSlot, task);
+        log.info("Scheduled dashboard job {} every {}", job, period);
+    }
+
+    /**
+     * Runs {@code task} once on the pool unless a run for the same {@code key} is still in progress
+     *
+     * @param job name the run is recorded under
+     * @return false if the run was skipped
+     */
+    public boolean execute(String job, String key, Runnable task) {
+        if (!running.add(key)) {
+            meters(job).overrun.increment();
+            return false;
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                meters(job).lag.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                run(job, key, task);
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(key);
+            log.debug("Job executor shut down, not running {} for {}", job, key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs {@code task} once on the pool after {@code delay}. Never skipped, so runs of the same job may overlap.
+     */
+    public void executeLater(String job, Duration delay, Runnable task) {
+        long dueAt = System.nanoTime() + delay.toNanos();
+        try {
+            executor.schedule(() -> {
+                meters(job).lag.record(Math.max(System.nanoTime() - dueAt, 0), TimeUnit.NANOSECONDS);
+                timed(job, job, task);
+            }, delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Job executor shut down, not running {}", job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void scheduleSlot(String job, long periodNanos, long slot, Runnable task) {
+        long fireAt = slot + (long) (ThreadLocalRandom.current().nextDouble() * jitter * periodNanos);
+        try {
+            executor.schedule(() -> fire(job, periodNanos, slot, fireAt, task), fireAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Job executor shut down, not scheduling {}", job);
+        }
+    }
+
+    private void fire(String job, long periodNanos, long slot, long fireAt, Runnable task) {
+        long now = System.nanoTime();
+        JobMeters jobMeters = meters(job);
+        jobMeters.lag.record(Math.max(now - fireAt, 0), TimeUnit.NANOSECONDS);
+
+        // The next run is planned before this one starts, so an overrun shows up as a skip instead of a queue
+        long nextSlot = slot + periodNanos;
+        long missed = 0;
+        while (nextSlot <= now) {
+            nextSlot += periodNanos;
+            missed++;
+        }
+        scheduleSlot(job, periodNanos, nextSlot, task);
+
+        if (missed > 0) {
+            log.debug("Dashboard job {} started {} period(s) late, skipping", job, missed);
+            jobMeters.deadline.increment(missed);
+        } else if (!running.add(job)) {
+            log.debug("Dashboard job {} still running, skipping this run", job);
+            jobMeters.overrun.increment();
+        } else {
+            run(job, job, task);
+        }
+    }
+
+    private void run(String job, String key, Runnable task) {
+        try {
+            timed(job, key, task);
+        } finally {
+            running.remove(key);
+        }
+    }
+
+    private void timed(String job, String key, Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("Dashboard job {} failed for {}", job, key, e);
+        } finally {
+            meters(job).duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private JobMeters meters(String job) {
+        return meters.computeIfAbsent(job, name -> new JobMeters(
+                Timer.builder("dashboard.job.duration").tag("job", name).register(meterRegistry),
+                Timer.builder("dashboard.job.lag").tag("job", name).register(meterRegistry),
+                Counter.builder("dashboard.job.skipped").tag("job", name).tag("reason", OVERRUN).register(meterRegistry),
+                Counter.builder("dashboard.job.skipped").tag("job", name).tag("reason", DEADLINE).register(meterRegistry)));
+    }
+
+    private record JobMeters(Timer duration, Timer lag, Counter overrun, Counter deadline) {
+    }
+}
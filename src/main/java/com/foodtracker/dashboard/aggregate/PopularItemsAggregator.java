@@ -0,0 +1,167 @@
+package com.foodtracker.dashboard.aggregate;
+
+import com.foodtracker.dashboard.sketch.ItemCount;
+import com.foodtracker.dashboard.sketch.SpaceSavingSketch;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.ItemMinuteCount;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a Space-Saving summary of viewed items per category and per minute for the last hour.
+ * <p>
+ * Summaries are updated at ingest from {@link EventTracked} and merged on read, so memory is
+ * bounded by {@code categories x 60 x sketchCapacity} counters regardless of the number of distinct items.
+ */
+@Component
+@Slf4j
+public class PopularItemsAggregator {
+
+    public static final String ALL_CATEGORIES = "all";
+    static final String ITEM_VIEWED = "item_viewed";
+    static final String ITEM_NAME = "item_name";
+    static final String CATEGORY = "category";
+    static final int WINDOW_MINUTES = 60;
+
+    private final EventRepository eventRepository;
+    private final int sketchCapacity;
+    private final int maxCategories;
+    private final Map<String, MinuteBuckets> bucketsByCategory = new ConcurrentHashMap<>();
+
+    public PopularItemsAggregator(EventRepository eventRepository,
+                                  @Value("${app.dashboard.popular-items.sketch-capacity:100}") int sketchCapacity,
+                                  @Value("${app.dashboard.popular-items.max-categories:256}") int maxCategories) {
+        this.eventRepository = eventRepository;
+        this.sketchCapacity = sketchCapacity;
+        this.maxCategories = maxCategories;
+    }
+
+    /**
+     * Rebuilds the last hour from the database once, before the application starts taking traffic
+     */
+    @PostConstruct
+    public void backfill() {
+        Instant since = Instant.now().minus(Duration.ofMinutes(WINDOW_MINUTES));
+        try {
+            List<ItemMinuteCount> counts = eventRepository.countItemsByCategoryAndMinuteSince(ITEM_VIEWED, since);
+            counts.forEach(count -> record(count.getCategory(), count.getItem(), count.getMinute(), count.getViews()));
+            log.info("Popular items aggregator backfilled with {} item/minute counts", counts.size());
+        } catch (Exception e) {
+            log.warn("Could not backfill popular items aggregator, starting empty", e);
+        }
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        Event event = eventTracked.event();
+        if (!ITEM_VIEWED.equals(event.getEventType()) || event.getProperties() == null || event.getTimestamp() == null) {
+            return;
+        }
+        Object itemName = event.getProperties().get(ITEM_NAME);
+        if (itemName == null) {
+            return;
+        }
+        Object category = event.getProperties().get(CATEGORY);
+        record(category != null ? category.toString() : null,
+                itemName.toString(),
+                event.getTimestamp().getEpochSecond() / 60,
+                1);
+    }
+
+    /**
+     * Top viewed items for a category (or all categories when {@code category} is null or empty)
+     * over the given window, capped at one hour.
+     */
+    public List<ItemCount> topItems(String category, Duration window, int limit) {
+        return merged(category, window).top(limit);
+    }
+
+    /**
+     * Merged summary for a category over the given window, capped at one hour.
+     */
+    public SpaceSavingSketch merged(String category, Duration window) {
+        String key = category == null || category.isEmpty() ? ALL_CATEGORIES : category;
+        long nowMinute = Instant.now().getEpochSecond() / 60;
+        long fromMinute = nowMinute - Math.min(window.toMinutes(), WINDOW_MINUTES - 1);
+
+        SpaceSavingSketch merged = new SpaceSavingSketch(sketchCapacity);
+        MinuteBuckets buckets = bucketsByCategory.get(key);
+        if (buckets != null) {
+            buckets.mergeInto(merged, fromMinute, nowMinute);
+        }
+        return merged;
+    }
+
+    private void record(String category, String item, long minute, long views) {
+        long nowMinute = Instant.now().getEpochSecond() / 60;
+        if (minute <= nowMinute - WINDOW_MINUTES || minute > nowMinute) {
+            return;
+        }
+        bucketsFor(ALL_CATEGORIES).add(minute, item, views);
+        if (category != null && !category.isEmpty()) {
+            MinuteBuckets buckets = bucketsFor(category);
+            if (buckets != null) {
+                buckets.add(minute, item, views);
+            }
+        }
+    }
+
+    private MinuteBuckets bucketsFor(String category) {
+        MinuteBuckets buckets = bucketsByCategory.get(category);
+        if (buckets != null) {
+            return buckets;
+        }
+        if (bucketsByCategory.size() >= maxCategories) {
+            log.debug("Category limit {} reached, not tracking popular items for {}", maxCategories, category);
+            return null;
+        }
+        return bucketsByCategory.computeIfAbsent(category, ignored -> new MinuteBuckets(sketchCapacity));
+    }
+
+    /**
+     * Ring of one-minute summaries; a slot is reset when a newer minute lands on it.
+     */
+    private static final class MinuteBuckets {
+        private final long[] minutes = new long[WINDOW_MINUTES];
+        private final SpaceSavingSketch[] sketches = new SpaceSavingSketch[WINDOW_MINUTES];
+
+        private MinuteBuckets(int sketchCapacity) {
+            Arrays.fill(minutes, Long.MIN_VALUE);
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                sketches[i] = new SpaceSavingSketch(sketchCapacity);
+            }
+        }
+
+        private synchronized void add(long minute, String item, long views) {
+            int slot = (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+            if (minutes[slot] != minute) {
+                if (minutes[slot] > minute) {
+                    return; // the slot already holds a newer minute
+                }
+                minutes[slot] = minute;
+                sketches[slot].clear();
+            }
+            sketches[slot].offer(item, views);
+        }
+
+        private synchronized void mergeInto(SpaceSavingSketch target, long fromMinute, long toMinute) {
+            for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+                if (minutes[slot] >= fromMinute && minutes[slot] <= toMinute) {
+                    target.merge(sketches[slot]);
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,42 @@
 package com.foodtracker.dashboard.cache;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public interface CacheService {
     <T> Optional<T> get(String key, Class<T> type);
+
+    /**
+     * Like {@link #get(String, Class)}, with the time left before the entry expires
+     */
+    <T> Optional<CachedValue<T>> getEntry(String key, Class<T> type);
     <T> void put(String key, T value, int expirySeconds);
+
+    /**
+     * Entries of the cached keys among {@code keyTypes}, each converted to the type it maps to, fetched together;
+     * missing keys are left out of the result
+     */
+    Map<String, CachedValue<?>> getAll(Map<String, Class<?>> keyTypes);
+
+    /**
+     * Stores all {@code values} with the same expiry in one batch
+     */
+    void putAll(Map<String, ?> values, int expirySeconds);
+
+    /**
+     * Cached value for {@code key}; on a miss, {@code loader} runs once and its result is cached,
+     * while concurrent callers for the same key wait for that result instead of loading again.
+     */
+    <T> T getOrLoad(String key, Class<T> type, int expirySeconds, Supplier<T> loader);
+
+    /**
+     * Cached value for {@code key}, served stale past the soft TTL while one background refresh runs.
+     * Callers only wait for {@code loader} when the key is missing or past the hard TTL.
+     */
+    <T> T getOrLoad(String key, Class<T> type, CacheTtl ttl, Supplier<T> loader);
     void evict(String key);
+    void evictAll(Collection<String> keys);
     void clear();
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.foodtracker.dashboard.cache;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.dashboard.cache.codec.CacheCodec;
+import com.foodtracker.dashboard.cache.codec.JacksonCacheCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persists the in-memory cache to a local file, so a restarted node serves warm dashboards instead of
+ * recomputing every value on its first requests.
+ * <p>
+ * The cache is written every {@code interval} and on shutdown: Smile-encoded values with their type and expiry,
+ * gzipped into a temporary file that is then moved over the previous snapshot, so a crash mid-write leaves the
+ * old snapshot intact. It is read back before the application takes traffic, unless it is older than
+ * {@code max-age}; entries that expired in the meantime are dropped. Only the in-memory cache is snapshotted,
+ * the metric aggregates already rebuild from the database on startup.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.snapshot.enabled", havingValue = "true")
+@Slf4j
+public class CacheSnapshotter {
+
+    static final String SNAPSHOT_JOB = "cache-snapshot";
+    static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x46544353;
+    // Values are only decoded into the application's own types and the JDK's value types
+    private static final List<String> RESTORABLE_PACKAGES = List.of("com.foodtracker.", "java.lang.");
+
+    private final CacheService cacheService;
+    private final RefreshExecutor refreshExecutor;
+    private final Path file;
+    private final Duration interval;
+    private final Duration maxAge;
+    private final LongSupplier wallClock;
+    private final CacheCodec codec = JacksonCacheCodec.smile();
+
+    @Autowired
+    public CacheSnapshotter(CacheService cacheService,
+                            RefreshExecutor refreshExecutor,
+                            @Value("${app.cache.snapshot.path:${java.io.tmpdir}/food-tracker/cache-snapshot.bin}") Path file,
+                            @Value("${app.cache.snapshot.interval:30s}") Duration interval,
+                            @Value("${app.cache.snapshot.max-age:15m}") Duration maxAge) {
+        this(cacheService, refreshExecutor, file, interval, maxAge, System::currentTimeMillis);
+    }
+
+    CacheSnapshotter(CacheService cacheService, RefreshExecutor refreshExecutor, Path file, Duration interval,
+                     Duration maxAge, LongSupplier wallClock) {
+        this.cacheService = cacheService;
+        this.refreshExecutor = refreshExecutor;
+        this.file = file;
+        this.interval = interval;
+        this.maxAge = maxAge;
+        this.wallClock = wallClock;
+    }
+
+    /**
+     * Loads the previous snapshot, before the web server starts
+     */
+    @PostConstruct
+    public void restore() {
+        if (cacheService instanceof InMemoryCacheServiceImpl inMemoryCache) {
+            long start = System.nanoTime();
+            int restored = restore(inMemoryCache);
+            if (restored > 0) {
+                log.info("Restored {} cache entries from {} in {} ms", restored, file,
+                        Duration.ofNanos(System.nanoTime() - start).toMillis());
+            }
+        } else {
+            log.info("Cache snapshots are only taken of the in-memory cache, not of {}",
+                    cacheService.getClass().getSimpleName());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (cacheService instanceof InMemoryCacheServiceImpl) {
+            refreshExecutor.schedule(SNAPSHOT_JOB, interval, this::write);
+        }
+    }
+
+    /**
+     * Takes a last snapshot, so a graceful restart loses nothing since the previous one
+     */
+    @PreDestroy
+    public void shutdown() {
+        write();
+    }
+
+    /**
+     * Writes the current entries of the in-memory cache, replacing the previous snapshot
+     */
+    public void write() {
+        if (!(cacheService instanceof InMemoryCacheServiceImpl inMemoryCache)) {
+            return;
+        }
+        try {
+            int written = write(inMemoryCache.entries());
+            log.debug("Wrote {} cache entries to {}", written, file);
+        } catch (IOException e) {
+            log.warn("Could not write cache snapshot to {}: {}", file, e.getMessage());
+        }
+    }
+
+    int restore(InMemoryCacheServiceImpl inMemoryCache) {
+        try {
+            Map<String, CachedValue<Object>> entries = read();
+            inMemoryCache.restore(entries);
+            return entries.size();
+        } catch (NoSuchFileException e) {
+            log.info("No cache snapshot at {}, starting empty", file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read cache snapshot {}, starting empty: {}", file, e.getMessage());
+        }
+        return 0;
+    }
+
+    private int write(Map<String, CachedValue<Object>> entries) throws IOException {
+        long now = wallClock.getAsLong();
+        List<SnapshotEntry> encoded = new ArrayList<>(entries.size());
+        entries.forEach((key, entry) -> encode(key, entry, now).ifPresent(encoded::add));
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(now);
+                out.writeInt(encoded.size());
+                for (SnapshotEntry entry : encoded) {
+                    out.writeUTF(entry.key());
+                    out.writeUTF(entry.type());
+                    out.writeLong(entry.expiresAt());
+                    out.writeInt(entry.value().length);
+                    out.write(entry.value());
+                }
+            }
+            move(temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return encoded.size();
+    }
+
+    private Optional<SnapshotEntry> encode(String key, CachedValue<Object> entry, long now) {
+        try {
+            return Optional.of(new SnapshotEntry(key, entry.value().getClass().getName(),
+                    now + entry.expiresInMillis(), codec.encode(entry.value())));
+        } catch (IllegalArgumentException e) {
+            log.debug("Not snapshotting cache key {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void move(Path temp) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Map<String, CachedValue<Object>> read() throws IOException {
+        Map<String, CachedValue<Object>> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                log.info("Cache snapshot {} has an unknown format, ignoring it", file);
+                return entries;
+            }
+            long now = wallClock.getAsLong();
+            long writtenAt = in.readLong();
+            if (now - writtenAt > maxAge.toMillis()) {
+                log.info("Cache snapshot {} is {} old, ignoring it", file, Duration.ofMillis(now - writtenAt));
+                return entries;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String type = in.readUTF();
+                long expiresAt = in.readLong();
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                if (expiresAt > now) {
+                    decode(key, type, value).ifPresent(decoded -> entries.put(key, new CachedValue<>(decoded, expiresAt - now)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * A value whose class was renamed or changed incompatibly since the snapshot is skipped, not fatal
+     */
+    private Optional<Object> decode(String key, String type, byte[] value) {
+        if (RESTORABLE_PACKAGES.stream().noneMatch(type::startsWith)) {
+            log.debug("Not restoring cache key {} of type {}", key, type);
+            return Optional.empty();
+        }
+        try {
+            Object decoded = codec.decode(value, Class.forName(type, false, getClass().getClassLoader()));
+            return Optional.of(decoded);
+        } catch (ClassNotFoundException | IllegalArgumentException e) {
+            log.debug("Could not restore cache key {} of type {}: {}", key, type, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private record SnapshotEntry(String key, String type, long expiresAt, byte[] value) {
+    }
+}
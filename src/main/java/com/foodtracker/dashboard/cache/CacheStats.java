@@ -0,0 +1,18 @@
+package com.foodtracker.dashboard.cache;
+
+/**
+ * Counters of a local cache since it was created.
+ *
+ * @param hits        reads that found a live entry
+ * @param misses      reads that found nothing or an expired entry
+ * @param evictions   entries removed to stay within the maximum size
+ * @param expirations entries removed because their expiry passed
+ * @param size        current number of entries
+ */
+public record CacheStats(long hits, long misses, long evictions, long expirations, long size) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,22 @@
+package com.foodtracker.dashboard.cache;
+
+import java.time.Duration;
+
+/**
+ * Freshness of a cached value.
+ *
+ * @param soft age after which the value is served stale while one refresh runs in the background
+ * @param hard age after which the value is gone and callers must wait for a load
+ */
+public record CacheTtl(Duration soft, Duration hard) {
+
+    public CacheTtl {
+        if (soft.isNegative() || soft.compareTo(hard) > 0) {
+            throw new IllegalArgumentException("soft TTL must be between zero and the hard TTL");
+        }
+    }
+
+    public int hardSeconds() {
+        return (int) Math.max(hard.toSeconds(), 1);
+    }
+}
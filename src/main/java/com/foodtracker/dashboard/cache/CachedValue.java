@@ -0,0 +1,10 @@
+package com.foodtracker.dashboard.cache;
+
+/**
+ * A cache hit together with the time left before it expires.
+ *
+ * @param value           cached value
+ * @param expiresInMillis milliseconds until the entry expires; negative if unknown
+ */
+public record CachedValue<T>(T value, long expiresInMillis) {
+}
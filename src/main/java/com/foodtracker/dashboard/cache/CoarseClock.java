@@ -0,0 +1,39 @@
+package com.foodtracker.dashboard.cache;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall clock in milliseconds, refreshed by a background thread every {@link #RESOLUTION_MILLIS},
+ * so cache reads pay for a volatile read instead of a system call. The same daemon thread runs
+ * cache maintenance.
+ */
+final class CoarseClock {
+
+    static final long RESOLUTION_MILLIS = 10;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile long now = System.currentTimeMillis();
+
+    static {
+        SCHEDULER.scheduleAtFixedRate(() -> now = System.currentTimeMillis(),
+                RESOLUTION_MILLIS, RESOLUTION_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private CoarseClock() {
+    }
+
+    static long millis() {
+        return now;
+    }
+
+    static ScheduledExecutorService scheduler() {
+        return SCHEDULER;
+    }
+}
@@ -1,75 +1,232 @@
 package com.foodtracker.dashboard.cache;
 
-import com.foodtracker.dashboard.service.DashboardMetricsService;
-import lombok.RequiredArgsConstructor;
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.dashboard.scheduling.RefreshLease;
+import com.foodtracker.shared.event.EventTracked;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the dashboard caches warm for the keys that are actually being read.
+ * <p>
+ * Every cached read registers its key through {@link #track}. Each tracked key is recomputed once its own interval
+ * has passed since the last refresh, re-evaluated on every tick:
+ * {@code min-interval} for a key read at least {@value #HOT_ACCESS_RATE} times per second whose category receives
+ * at least {@value #BUSY_EVENT_RATE} event per second, stretching towards {@code max-interval} as reads or new
+ * events slow down. A key that is not read for {@code idle-after} is dropped, so nobody looking means no work.
+ * Due keys are recomputed in parallel on the {@link RefreshExecutor}, at most one refresh per key at a time.
+ * <p>
+ * With a shared cache, each refresh runs under the key's {@link RefreshLease} and is skipped when the cached value
+ * is younger than {@code min-interval}, so a value that several nodes keep warm is computed by one node per interval.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DashboardCacheRefreshService {
 
-    private final DashboardMetricsService dashboardMetricsService;
+    static final double HOT_ACCESS_RATE = 1.0;
+    static final double BUSY_EVENT_RATE = 1.0;
+    static final String ALL_CATEGORIES = "all";
+    static final String TICK_JOB = "cache-refresh-tick";
+    static final String REFRESH_JOB = "cache-refresh";
+    private static final double RATE_WINDOW_SECONDS = 60;
+    private static final String CATEGORY = "category";
+
+    private final CacheService cacheService;
+    private final RefreshExecutor refreshExecutor;
+    private final RefreshLease refreshLease;
+    private final Duration tick;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration idleAfter;
+    private final LongSupplier nanoClock;
+    private final Map<String, TrackedKey> tracked = new ConcurrentHashMap<>();
+    // Event rates of the categories that tracked keys depend on
+    private final Map<String, DecayingRate> eventRates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DashboardCacheRefreshService(CacheService cacheService,
+                                        RefreshExecutor refreshExecutor,
+                                        RefreshLease refreshLease,
+                                        @Value("${app.dashboard.refresh.tick-ms:1000}") long tickMillis,
+                                        @Value("${app.dashboard.refresh.min-interval:5s}") Duration minInterval,
+                                        @Value("${app.dashboard.refresh.max-interval:60s}") Duration maxInterval,
+                                        @Value("${app.dashboard.refresh.idle-after:2m}") Duration idleAfter) {
+        this(cacheService, refreshExecutor, refreshLease, Duration.ofMillis(tickMillis), minInterval, maxInterval, idleAfter,
+                System::nanoTime);
+    }
+
+    DashboardCacheRefreshService(CacheService cacheService, RefreshExecutor refreshExecutor, RefreshLease refreshLease,
+                                 Duration tick, Duration minInterval, Duration maxInterval, Duration idleAfter,
+                                 LongSupplier nanoClock) {
+        if (minInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException("min-interval must not be longer than max-interval");
+        }
+        this.cacheService = cacheService;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshLease = refreshLease;
+        this.tick = tick;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.idleAfter = idleAfter;
+        this.nanoClock = nanoClock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refreshExecutor.schedule(TICK_JOB, tick, this::refreshDueKeys);
+    }
+
+    /**
+     * Records a read of {@code key} and keeps it refreshed with {@code loader} while it stays in demand
+     *
+     * @param category category the value is computed for, or null for all categories
+     */
+    public <T> void track(String key, String category, CacheTtl ttl, Supplier<T> loader) {
+        long now = nanoClock.getAsLong();
+        String dependsOn = category != null ? category : ALL_CATEGORIES;
+        eventRates.computeIfAbsent(dependsOn, c -> new DecayingRate(RATE_WINDOW_SECONDS, now));
+        tracked.compute(key, (k, existing) -> {
+            // A new key was just loaded by the caller, so its interval starts now
+            TrackedKey trackedKey = existing != null ? existing : new TrackedKey(k, dependsOn, now);
+            trackedKey.accessed(now, ttl, loader);
+            return trackedKey;
+        });
+    }
 
     /**
-     * Updates the dashboard metrics cache every 10 seconds to provide near real-time metrics
+     * Records a read of {@code key} served without going through {@link #track}; untracked keys are ignored
      */
-    @Scheduled(fixedRate = 10000)
-    public void refreshDashboardMetricsCache() {
-        log.debug("Refreshing dashboard metrics cache...");
-        try {
-            dashboardMetricsService.getDashboardMetrics(); // This will recalculate and cache the metrics
-            log.debug("Dashboard metrics cache refreshed successfully");
-        } catch (Exception e) {
-            log.error("Error refreshing dashboard metrics cache", e);
+    public void recordAccess(String key) {
+        long now = nanoClock.getAsLong();
+        tracked.computeIfPresent(key, (k, trackedKey) -> {
+            trackedKey.accessed(now, trackedKey.ttl, trackedKey.loader);
+            return trackedKey;
+        });
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        long now = nanoClock.getAsLong();
+        DecayingRate all = eventRates.get(ALL_CATEGORIES);
+        if (all != null) {
+            all.record(now);
+        }
+        Map<String, Object> properties = eventTracked.event().getProperties();
+        Object category = properties != null ? properties.get(CATEGORY) : null;
+        DecayingRate rate = category != null ? eventRates.get(category.toString()) : null;
+        if (rate != null) {
+            rate.record(now);
         }
     }
 
     /**
-     * Updates the DAU metrics cache every 5 seconds for real-time DAU tracking
+     * Starts a refresh of each tracked key whose interval has passed and drops the idle ones
      */
-    @Scheduled(fixedRate = 5000)
-    public void refreshDauMetricsCache() {
-        log.debug("Refreshing DAU metrics cache...");
-        try {
-            dashboardMetricsService.getDauMetrics(); // This will recalculate and cache the DAU metrics
-            log.debug("DAU metrics cache refreshed successfully");
-        } catch (Exception e) {
-            log.error("Error refreshing DAU metrics cache", e);
+    public void refreshDueKeys() {
+        long now = nanoClock.getAsLong();
+        for (TrackedKey trackedKey : tracked.values()) {
+            TrackedKey active = tracked.computeIfPresent(trackedKey.key,
+                    (k, candidate) -> now - candidate.lastAccess >= idleAfter.toNanos() ? null : candidate);
+            if (active == null) {
+                log.debug("Stopped refreshing idle cache key {}", trackedKey.key);
+            } else if (now - active.refreshedAt >= interval(active, now).toNanos()) {
+                refreshExecutor.execute(REFRESH_JOB, active.key, () -> refresh(active));
+            }
         }
+        Set<String> categories = tracked.values().stream().map(TrackedKey::category).collect(Collectors.toSet());
+        eventRates.keySet().retainAll(categories);
     }
 
     /**
-     * Updates the conversion metrics cache every 15 seconds
+     * Current refresh interval of {@code key}, or null if it is not tracked
      */
-    @Scheduled(fixedRate = 15000)
-    public void refreshConversionMetricsCache() {
-        log.debug("Refreshing conversion metrics cache...");
+    Duration interval(String key) {
+        TrackedKey trackedKey = tracked.get(key);
+        return trackedKey != null ? interval(trackedKey, nanoClock.getAsLong()) : null;
+    }
+
+    Set<String> trackedKeys() {
+        return Set.copyOf(tracked.keySet());
+    }
+
+    private void refresh(TrackedKey trackedKey) {
         try {
-            dashboardMetricsService.getConversionMetrics(null); // Refresh general conversion metrics
-            dashboardMetricsService.getConversionMetrics("pizza"); // Refresh pizza-specific metrics
-            dashboardMetricsService.getConversionMetrics("burger"); // Refresh burger-specific metrics
-            log.debug("Conversion metrics cache refreshed successfully");
+            boolean owner = refreshLease.runIfOwner(trackedKey.key, () -> {
+                Optional<Duration> age = age(trackedKey);
+                if (age.isPresent() && age.get().compareTo(minInterval) < 0) {
+                    // Refreshed elsewhere since this node's last refresh, so count from there
+                    log.debug("Cache key {} was refreshed {} ago, skipping", trackedKey.key, age.get());
+                    trackedKey.refreshedAt = nanoClock.getAsLong() - age.get().toNanos();
+                    return;
+                }
+                log.debug("Refreshing cache key {}", trackedKey.key);
+                cacheService.put(trackedKey.key, trackedKey.loader.get(), trackedKey.ttl.hardSeconds());
+                trackedKey.refreshedAt = nanoClock.getAsLong();
+            });
+            if (!owner) {
+                log.debug("Cache key {} is being refreshed by another node", trackedKey.key);
+            }
         } catch (Exception e) {
-            log.error("Error refreshing conversion metrics cache", e);
+            log.error("Error refreshing cache key {}", trackedKey.key, e);
+            trackedKey.refreshedAt = nanoClock.getAsLong();
         }
     }
 
     /**
-     * Updates the popular items metrics cache every 20 seconds
+     * Time since the cached value was written, if the cache knows its expiry
      */
-    @Scheduled(fixedRate = 20000)
-    public void refreshPopularItemsMetricsCache() {
-        log.debug("Refreshing popular items metrics cache...");
-        try {
-            dashboardMetricsService.getPopularItemsMetrics(null); // Refresh general popular items
-            dashboardMetricsService.getPopularItemsMetrics("pizza"); // Refresh pizza-specific items
-            dashboardMetricsService.getPopularItemsMetrics("burger"); // Refresh burger-specific items
-            log.debug("Popular items metrics cache refreshed successfully");
-        } catch (Exception e) {
-            log.error("Error refreshing popular items metrics cache", e);
+    private Optional<Duration> age(TrackedKey trackedKey) {
+        return cacheService.getEntry(trackedKey.key, Object.class)
+                .filter(entry -> entry.expiresInMillis() >= 0)
+                .map(entry -> trackedKey.ttl.hard().minusMillis(entry.expiresInMillis()));
+    }
+
+    private Duration interval(TrackedKey trackedKey, long now) {
+        double demand = Math.min(1, trackedKey.accessRate.current(now) / HOT_ACCESS_RATE);
+        DecayingRate eventRate = eventRates.get(trackedKey.category);
+        double change = eventRate != null ? Math.min(1, eventRate.current(now) / BUSY_EVENT_RATE) : 0;
+        long span = maxInterval.toMillis() - minInterval.toMillis();
+        return minInterval.plusMillis(Math.round(span * (1 - demand * change)));
+    }
+
+    private static final class TrackedKey {
+        private final String key;
+        private final String category;
+        private final DecayingRate accessRate;
+        private volatile long lastAccess;
+        private volatile long refreshedAt;
+        private volatile CacheTtl ttl;
+        private volatile Supplier<?> loader;
+
+        private TrackedKey(String key, String category, long now) {
+            this.key = key;
+            this.category = category;
+            this.accessRate = new DecayingRate(RATE_WINDOW_SECONDS, now);
+            this.refreshedAt = now;
+        }
+
+        private void accessed(long now, CacheTtl ttl, Supplier<?> loader) {
+            accessRate.record(now);
+            lastAccess = now;
+            this.ttl = ttl;
+            this.loader = loader;
+        }
+
+        private String category() {
+            return category;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.foodtracker.dashboard.cache;
+
+/**
+ * Exponentially decayed occurrences per second over roughly the last {@code windowSeconds} seconds
+ */
+final class DecayingRate {
+
+    private final double windowSeconds;
+    private double rate;
+    private long lastNanos;
+
+    DecayingRate(double windowSeconds, long nowNanos) {
+        this.windowSeconds = windowSeconds;
+        this.lastNanos = nowNanos;
+    }
+
+    synchronized double record(long nowNanos) {
+        decay(nowNanos);
+        rate += 1 / windowSeconds;
+        return rate;
+    }
+
+    synchronized double current(long nowNanos) {
+        decay(nowNanos);
+        return rate;
+    }
+
+    private void decay(long nowNanos) {
+        double elapsedSeconds = (nowNanos - lastNanos) / 1e9;
+        rate *= Math.exp(-elapsedSeconds / windowSeconds);
+        lastNanos = nowNanos;
+    }
+}
@@ -0,0 +1,50 @@
+package com.foodtracker.dashboard.cache;
+
+/**
+ * Decides which keys leave a size-bounded cache.
+ * <p>
+ * Implementations are not thread-safe; the cache calls them while holding its lock.
+ * Accesses may be dropped under contention, so policies must tolerate an incomplete access history.
+ */
+public interface EvictionPolicy {
+
+    enum Type {
+        /**
+         * Least recently used
+         */
+        LRU,
+        /**
+         * Least frequently used, oldest first among equal counts
+         */
+        LFU,
+        /**
+         * Small LRU window in front of a segmented LRU main area, with admission by estimated frequency
+         */
+        W_TINY_LFU
+    }
+
+    static EvictionPolicy create(Type type, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        return switch (type) {
+            case LRU -> new LruPolicy(maximumSize);
+            case LFU -> new LfuPolicy(maximumSize);
+            case W_TINY_LFU -> new WindowTinyLfuPolicy(maximumSize);
+        };
+    }
+
+    void recordInsert(String key);
+
+    void recordAccess(String key);
+
+    void recordRemoval(String key);
+
+    /**
+     * Next key to evict, or null while the policy is within its maximum size.
+     * The returned key is already forgotten by the policy.
+     */
+    String nextVictim();
+
+    void clear();
+}
@@ -1,62 +1,308 @@
 package com.foodtracker.dashboard.cache;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
+/**
+ * Size-bounded local cache.
+ * <p>
+ * Reads are lock-free lookups against a coarse clock. Writes, evictions and expiry run under one lock:
+ * the {@link EvictionPolicy} picks victims once the maximum size is exceeded, and a {@link TimingWheel}
+ * advanced every {@value #TICK_MILLIS} ms removes expired entries even if they are never read again.
+ * Access recording is skipped when the lock is busy, so hot reads never wait on writers.
+ */
 @Service
 @Slf4j
 public class InMemoryCacheServiceImpl implements CacheService {
 
-    private static class CacheEntry<T> {
-        private final T value;
-        private final long expiryTime;
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+    static final long TICK_MILLIS = 100;
+    static final int WHEEL_SLOTS = 1024;
 
-        public CacheEntry(T value, long expiryTime) {
-            this.value = value;
-            this.expiryTime = expiryTime;
+    private record CacheEntry(Object value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now > expiresAt;
         }
+    }
 
-        public T getValue() {
-            return value;
-        }
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final EvictionPolicy policy;
+    private final LongSupplier clock;
+    private final TimingWheel wheel;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final RefreshingLoader refreshingLoader = new RefreshingLoader(singleFlight);
+    private final ScheduledFuture<?> maintenance;
 
-        public boolean isExpired() {
-            return System.currentTimeMillis() > expiryTime;
-        }
+    public InMemoryCacheServiceImpl() {
+        this(DEFAULT_MAXIMUM_SIZE, EvictionPolicy.Type.W_TINY_LFU);
+    }
+
+    public InMemoryCacheServiceImpl(int maximumSize, EvictionPolicy.Type policyType) {
+        this(EvictionPolicy.create(policyType, maximumSize), CoarseClock::millis, true);
     }
 
-    private final Map<String, CacheEntry<Object>> cache = new ConcurrentHashMap<>();
+    InMemoryCacheServiceImpl(EvictionPolicy policy, LongSupplier clock, boolean scheduleMaintenance) {
+        this.policy = policy;
+        this.clock = clock;
+        this.wheel = new TimingWheel(WHEEL_SLOTS, TICK_MILLIS, clock.getAsLong());
+        this.maintenance = scheduleMaintenance ? scheduleMaintenance(this) : null;
+    }
 
     @Override
     public <T> Optional<T> get(String key, Class<T> type) {
-        CacheEntry<Object> entry = cache.get(key);
-        if (entry != null) {
-            if (entry.isExpired()) {
-                cache.remove(key); // Remove expired entry
-                return Optional.empty();
+        return this.<T>getEntry(key, type).map(CachedValue::value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Optional<CachedValue<T>> getEntry(String key, Class<T> type) {
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        long now = clock.getAsLong();
+        if (entry.isExpired(now)) {
+            misses.increment();
+            expire(key, entry);
+            return Optional.empty();
+        }
+        hits.increment();
+        if (lock.tryLock()) {
+            try {
+                policy.recordAccess(key);
+            } finally {
+                lock.unlock();
             }
-            return Optional.ofNullable((T) entry.getValue());
         }
-        return Optional.empty();
+        return entry.value() != null
+                ? Optional.of(new CachedValue<>((T) entry.value(), entry.expiresAt() - now))
+                : Optional.empty();
+    }
+
+    @Override
+    public Map<String, CachedValue<?>> getAll(Map<String, Class<?>> keyTypes) {
+        Map<String, CachedValue<?>> entries = new HashMap<>();
+        keyTypes.forEach((key, type) -> getEntry(key, type).ifPresent(entry -> entries.put(key, entry)));
+        return entries;
     }
 
     @Override
     public <T> void put(String key, T value, int expirySeconds) {
-        long expiryTime = System.currentTimeMillis() + (expirySeconds * 1000L);
-        cache.put(key, new CacheEntry<>(value, expiryTime));
+        CacheEntry entry = new CacheEntry(value, clock.getAsLong() + (expirySeconds * 1000L));
+        lock.lock();
+        try {
+            insert(key, entry);
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the lock once for the whole batch and evicts only after all values are in
+     */
+    @Override
+    public void putAll(Map<String, ?> values, int expirySeconds) {
+        long expiresAt = clock.getAsLong() + (expirySeconds * 1000L);
+        lock.lock();
+        try {
+            values.forEach((key, value) -> insert(key, new CacheEntry(value, expiresAt)));
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void insert(String key, CacheEntry entry) {
+        CacheEntry previous = cache.put(key, entry);
+        if (previous != null) {
+            wheel.cancel(key, previous.expiresAt());
+            policy.recordAccess(key);
+        } else {
+            policy.recordInsert(key);
+        }
+        wheel.schedule(key, entry.expiresAt());
+    }
+
+    private void evictOverflow() {
+        String victim;
+        while ((victim = policy.nextVictim()) != null) {
+            CacheEntry evicted = cache.remove(victim);
+            if (evicted != null) {
+                wheel.cancel(victim, evicted.expiresAt());
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public <T> T getOrLoad(String key, Class<T> type, int expirySeconds, Supplier<T> loader) {
+        return singleFlight.getOrLoad(this, key, type, expirySeconds, loader);
+    }
+
+    @Override
+    public <T> T getOrLoad(String key, Class<T> type, CacheTtl ttl, Supplier<T> loader) {
+        return refreshingLoader.getOrLoad(this, key, type, ttl, loader);
     }
 
     @Override
     public void evict(String key) {
-        cache.remove(key);
+        lock.lock();
+        try {
+            remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void evictAll(Collection<String> keys) {
+        lock.lock();
+        try {
+            keys.forEach(this::remove);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String key) {
+        CacheEntry removed = cache.remove(key);
+        if (removed != null) {
+            wheel.cancel(key, removed.expiresAt());
+            policy.recordRemoval(key);
+        }
     }
 
     @Override
     public void clear() {
-        cache.clear();
+        lock.lock();
+        try {
+            cache.clear();
+            policy.clear();
+            wheel.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), cache.size());
+    }
+
+    /**
+     * Live entries with the time each has left, for {@link CacheSnapshotter}
+     */
+    Map<String, CachedValue<Object>> entries() {
+        long now = clock.getAsLong();
+        Map<String, CachedValue<Object>> entries = new HashMap<>();
+        cache.forEach((key, entry) -> {
+            if (!entry.isExpired(now) && entry.value() != null) {
+                entries.put(key, new CachedValue<>(entry.value(), entry.expiresAt() - now));
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Puts entries read back from a snapshot, each with the time it had left; keys written since startup win
+     */
+    void restore(Map<String, CachedValue<Object>> entries) {
+        long now = clock.getAsLong();
+        lock.lock();
+        try {
+            entries.forEach((key, entry) -> {
+                if (!cache.containsKey(key)) {
+                    insert(key, new CacheEntry(entry.value(), now + entry.expiresInMillis()));
+                }
+            });
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entries whose expiry passed since the previous run
+     */
+    void cleanUp() {
+        long now = clock.getAsLong();
+        lock.lock();
+        try {
+            wheel.advance(now, key -> {
+                CacheEntry entry = cache.get(key);
+                if (entry == null) {
+                    return true;
+                }
+                if (!entry.isExpired(now)) {
+                    return false;
+                }
+                cache.remove(key);
+                policy.recordRemoval(key);
+                expirations.increment();
+                return true;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (maintenance != null) {
+            maintenance.cancel(false);
+        }
+    }
+
+    private void expire(String key, CacheEntry entry) {
+        lock.lock();
+        try {
+            if (cache.remove(key, entry)) {
+                wheel.cancel(key, entry.expiresAt());
+                policy.recordRemoval(key);
+                expirations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The task only holds a weak reference, so a cache that is dropped without {@link #shutdown()} stops its own maintenance
+     */
+    private static ScheduledFuture<?> scheduleMaintenance(InMemoryCacheServiceImpl cache) {
+        WeakReference<InMemoryCacheServiceImpl> reference = new WeakReference<>(cache);
+        return CoarseClock.scheduler().scheduleWithFixedDelay(() -> {
+            InMemoryCacheServiceImpl target = reference.get();
+            if (target == null) {
+                // An exception suppresses further runs of this task
+                throw new CancellationException("Cache was garbage collected");
+            }
+            try {
+                target.cleanUp();
+            } catch (Exception e) {
+                log.warn("Cache maintenance failed", e);
+            }
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
     }
-}
\ No newline at end of file
+}
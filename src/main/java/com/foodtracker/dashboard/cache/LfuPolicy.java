@@ -0,0 +1,77 @@
+package com.foodtracker.dashboard.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+final class LfuPolicy implements EvictionPolicy {
+
+    private final int maximumSize;
+    private final Map<String, Integer> frequencies = new HashMap<>();
+    private final TreeMap<Integer, LinkedHashSet<String>> keysByFrequency = new TreeMap<>();
+
+    LfuPolicy(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void recordInsert(String key) {
+        if (frequencies.containsKey(key)) {
+            recordAccess(key);
+            return;
+        }
+        frequencies.put(key, 1);
+        keysByFrequency.computeIfAbsent(1, frequency -> new LinkedHashSet<>()).add(key);
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        Integer frequency = frequencies.get(key);
+        if (frequency == null) {
+            return;
+        }
+        unlink(key, frequency);
+        frequencies.put(key, frequency + 1);
+        keysByFrequency.computeIfAbsent(frequency + 1, f -> new LinkedHashSet<>()).add(key);
+    }
+
+    @Override
+    public void recordRemoval(String key) {
+        Integer frequency = frequencies.remove(key);
+        if (frequency != null) {
+            unlink(key, frequency);
+        }
+    }
+
+    @Override
+    public String nextVictim() {
+        if (frequencies.size() <= maximumSize) {
+            return null;
+        }
+        Map.Entry<Integer, LinkedHashSet<String>> lowest = keysByFrequency.firstEntry();
+        Iterator<String> oldest = lowest.getValue().iterator();
+        String victim = oldest.next();
+        oldest.remove();
+        if (lowest.getValue().isEmpty()) {
+            keysByFrequency.remove(lowest.getKey());
+        }
+        frequencies.remove(victim);
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        frequencies.clear();
+        keysByFrequency.clear();
+    }
+
+    private void unlink(String key, int frequency) {
+        LinkedHashSet<String> keys = keysByFrequency.get(frequency);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            keysByFrequency.remove(frequency);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.foodtracker.dashboard.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+final class LruPolicy implements EvictionPolicy {
+
+    private final int maximumSize;
+    private final LinkedHashMap<String, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+
+    LruPolicy(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void recordInsert(String key) {
+        order.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        order.get(key);
+    }
+
+    @Override
+    public void recordRemoval(String key) {
+        order.remove(key);
+    }
+
+    @Override
+    public String nextVictim() {
+        if (order.size() <= maximumSize) {
+            return null;
+        }
+        Iterator<String> eldest = order.keySet().iterator();
+        String victim = eldest.next();
+        eldest.remove();
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        order.clear();
+    }
+}
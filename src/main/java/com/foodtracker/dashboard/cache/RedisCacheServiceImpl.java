@@ -2,27 +2,187 @@ package com.foodtracker.dashboard.cache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import lombok.RequiredArgsConstructor;
+import com.foodtracker.dashboard.cache.codec.CacheCodec;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.stereotype.Service;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
-@Service
-@RequiredArgsConstructor
+/**
+ * Cache in Redis, shared by all nodes.
+ * <p>
+ * Keys live under {@link #NAMESPACE} followed by a generation number kept in {@link #GENERATION_KEY}.
+ * {@link #clear()} is a single INCR of that number: entries of older generations are no longer read and expire
+ * on their own, while {@link #reapOrphanedGenerations()}, run periodically by the cache configuration, unlinks them
+ * in SCAN-sized batches. Other nodes pick up the new generation within {@link #GENERATION_REFRESH}.
+ */
 @Slf4j
 public class RedisCacheServiceImpl implements CacheService {
 
+    static final String NAMESPACE = "foodtracker:cache:";
+    // Outside the namespace so the reaper never matches it
+    static final String GENERATION_KEY = "foodtracker:cache-generation";
+    static final String LOCK_PREFIX = "lock:";
+    static final Duration GENERATION_REFRESH = Duration.ofSeconds(1);
+    static final int REAP_BATCH = 500;
+    private static final Duration LOCK_POLL_INTERVAL = Duration.ofMillis(50);
+    // Deletes the lock only if this node still owns it
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration loadLockTimeout;
+    // Null stores values through the template's JSON serializer
+    private final CacheCodec codec;
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final RefreshingLoader refreshingLoader = new RefreshingLoader(singleFlight);
+    private final AtomicBoolean refreshingGeneration = new AtomicBoolean();
+    private volatile long generation;
+    private volatile long generationCheckedAt = System.nanoTime() - GENERATION_REFRESH.toNanos();
+    // Generations below this one were already reaped by this node
+    private volatile long reapedThrough;
+
+    public RedisCacheServiceImpl(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, Duration.ZERO);
+    }
+
+    /**
+     * @param loadLockTimeout how long one node may hold the cross-node load lock of a key; zero coalesces loads within this node only
+     */
+    public RedisCacheServiceImpl(RedisTemplate<String, Object> redisTemplate, Duration loadLockTimeout) {
+        this(redisTemplate, loadLockTimeout, null);
+    }
+
+    /**
+     * @param codec binary codec for values, written as raw bytes; null keeps the template's JSON serializer
+     */
+    public RedisCacheServiceImpl(RedisTemplate<String, Object> redisTemplate, Duration loadLockTimeout, CacheCodec codec) {
+        this.redisTemplate = redisTemplate;
+        this.loadLockTimeout = loadLockTimeout;
+        this.codec = codec;
+    }
 
     @Override
     public <T> Optional<T> get(String key, Class<T> type) {
-        Object cachedValue = redisTemplate.opsForValue().get(key);
+        String redisKey = redisKey(key);
+        if (codec != null) {
+            byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(raw(redisKey)));
+            return decode(key, bytes, type);
+        }
+        return convert(key, redisTemplate.opsForValue().get(redisKey), type);
+    }
+
+    @Override
+    public <T> Optional<CachedValue<T>> getEntry(String key, Class<T> type) {
+        String redisKey = redisKey(key);
+        // GET and PTTL in one round trip
+        List<Object> results = codec != null
+                ? redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    connection.stringCommands().get(raw(redisKey));
+                    connection.keyCommands().pTtl(raw(redisKey));
+                    return null;
+                }, RedisSerializer.byteArray())
+                : redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                        redisOperations.opsForValue().get(redisKey);
+                        redisOperations.getExpire(redisKey, TimeUnit.MILLISECONDS);
+                        return null;
+                    }
+                });
+        if (results == null || results.size() < 2) {
+            return Optional.empty();
+        }
+        long expiresIn = expiresIn(results.get(1));
+        return read(key, results.get(0), type).map(hit -> new CachedValue<>(hit, expiresIn));
+    }
+
+    @Override
+    public Map<String, CachedValue<?>> getAll(Map<String, Class<?>> keyTypes) {
+        Map<String, CachedValue<?>> entries = new HashMap<>();
+        if (keyTypes.isEmpty()) {
+            return entries;
+        }
+        List<String> keys = new ArrayList<>(keyTypes.keySet());
+        List<String> redisKeys = redisKeys(keys);
+        // One MGET and a PTTL per key in one round trip
+        List<Object> results = codec != null
+                ? redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    connection.stringCommands().mGet(redisKeys.stream().map(RedisCacheServiceImpl::raw).toArray(byte[][]::new));
+                    redisKeys.forEach(redisKey -> connection.keyCommands().pTtl(raw(redisKey)));
+                    return null;
+                }, RedisSerializer.byteArray())
+                : redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                        redisOperations.opsForValue().multiGet(redisKeys);
+                        redisKeys.forEach(redisKey -> redisOperations.getExpire(redisKey, TimeUnit.MILLISECONDS));
+                        return null;
+                    }
+                });
+        if (results == null || results.size() < keys.size() + 1 || !(results.get(0) instanceof List<?> values)) {
+            return entries;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            long expiresIn = expiresIn(results.get(i + 1));
+            read(key, i < values.size() ? values.get(i) : null, keyTypes.get(key))
+                    .ifPresent(hit -> entries.put(key, new CachedValue<>(hit, expiresIn)));
+        }
+        return entries;
+    }
+
+    private <T> Optional<T> read(String key, Object cachedValue, Class<T> type) {
+        return codec != null
+                ? decode(key, cachedValue instanceof byte[] bytes ? bytes : null, type)
+                : convert(key, cachedValue, type);
+    }
+
+    private static long expiresIn(Object ttl) {
+        return ttl instanceof Number millis && millis.longValue() >= 0 ? millis.longValue() : -1;
+    }
+
+    private <T> Optional<T> decode(String key, byte[] bytes, Class<T> type) {
+        if (bytes == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(codec.decode(bytes, type));
+        } catch (IllegalArgumentException e) {
+            // E.g. written in another format before a codec change; the next load overwrites it
+            log.warn("Could not decode cached value for key {} as {}, treating it as a miss: {}",
+                    key, type.getSimpleName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
 
+    private <T> Optional<T> convert(String key, Object cachedValue, Class<T> type) {
         if (cachedValue == null) {
             return Optional.empty();
         }
@@ -52,19 +212,231 @@ public class RedisCacheServiceImpl implements CacheService {
 
     @Override
     public <T> void put(String key, T value, int expirySeconds) {
-        redisTemplate.opsForValue().set(key, value, expirySeconds, TimeUnit.SECONDS);
+        String redisKey = redisKey(key);
+        if (codec != null) {
+            byte[] bytes = codec.encode(value);
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(raw(redisKey), bytes, Expiration.seconds(expirySeconds), RedisStringCommands.SetOption.upsert()));
+            return;
+        }
+        redisTemplate.opsForValue().set(redisKey, value, expirySeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * One pipelined SET EX per value, so the batch costs a single round trip
+     */
+    @Override
+    public void putAll(Map<String, ?> values, int expirySeconds) {
+        if (values.isEmpty()) {
+            return;
+        }
+        String prefix = prefix();
+        if (codec != null) {
+            List<Map.Entry<byte[], byte[]>> encoded = values.entrySet().stream()
+                    .map(entry -> Map.entry(raw(prefix + entry.getKey()), codec.encode(entry.getValue())))
+                    .toList();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                encoded.forEach(entry -> connection.stringCommands().set(entry.getKey(), entry.getValue(),
+                        Expiration.seconds(expirySeconds), RedisStringCommands.SetOption.upsert()));
+                return null;
+            });
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                values.forEach((key, value) -> redisOperations.opsForValue().set(prefix + key, value, expirySeconds, TimeUnit.SECONDS));
+                return null;
+            }
+        });
+    }
+
+    private static byte[] raw(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <T> T getOrLoad(String key, Class<T> type, int expirySeconds, Supplier<T> loader) {
+        if (loadLockTimeout.isZero() || loadLockTimeout.isNegative()) {
+            return singleFlight.getOrLoad(this, key, type, expirySeconds, loader);
+        }
+        Optional<T> cached = get(key, type);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return singleFlight.execute(key, () -> get(key, type)
+                .orElseGet(() -> loadAcrossNodes(key, type, expirySeconds, loader)));
+    }
+
+    @Override
+    public <T> T getOrLoad(String key, Class<T> type, CacheTtl ttl, Supplier<T> loader) {
+        return refreshingLoader.getOrLoad(this, key, type, ttl, loader);
+    }
+
+    /**
+     * Loads under a Redis lock so only one node computes the value; the other nodes wait for it to appear
+     * in the cache, and load themselves only if it does not show up before the lock expires.
+     */
+    private <T> T loadAcrossNodes(String key, Class<T> type, int expirySeconds, Supplier<T> loader) {
+        String lockKey = LOCK_PREFIX + redisKey(key);
+        String token = UUID.randomUUID().toString();
+        boolean acquired;
+        try {
+            acquired = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, loadLockTimeout));
+        } catch (Exception e) {
+            log.warn("Could not acquire load lock for key {}, loading without it: {}", key, e.getMessage());
+            acquired = true;
+            token = null;
+        }
+
+        if (acquired) {
+            try {
+                T value = loader.get();
+                put(key, value, expirySeconds);
+                return value;
+            } finally {
+                if (token != null) {
+                    redisTemplate.execute(RELEASE_LOCK, List.of(lockKey), token);
+                }
+            }
+        }
+
+        long deadline = System.nanoTime() + loadLockTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for key " + key, e);
+            }
+            Optional<T> loaded = get(key, type);
+            if (loaded.isPresent()) {
+                return loaded.get();
+            }
+        }
+        log.warn("Load lock for key {} expired without a value, loading locally", key);
+        T value = loader.get();
+        put(key, value, expirySeconds);
+        return value;
     }
 
     @Override
     public void evict(String key) {
-        redisTemplate.delete(key);
+        redisTemplate.delete(redisKey(key));
+    }
+
+    @Override
+    public void evictAll(Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            redisTemplate.delete(redisKeys(keys));
+        }
     }
 
+    /**
+     * Moves every node to a new generation with one INCR; the old entries are reaped in the background
+     */
     @Override
     public void clear() {
-        // This would clear all keys in Redis - be careful in production
-        // For a more targeted approach, we could implement pattern-based deletion
-        log.warn("Clearing entire Redis cache - use with caution in production");
-        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        Long next = redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().incr(raw(GENERATION_KEY)));
+        if (next != null) {
+            generation = next;
+            generationCheckedAt = System.nanoTime();
+        }
+        log.info("Cache cleared, now at generation {}", generation);
+    }
+
+    /**
+     * Unlinks the entries of generations older than the current one, scanning the namespace in batches of
+     * {@link #REAP_BATCH} so Redis is never blocked for long. Does nothing until the generation changes.
+     *
+     * @return number of keys unlinked
+     */
+    public long reapOrphanedGenerations() {
+        long current = readGeneration();
+        if (current <= reapedThrough) {
+            return 0;
+        }
+        long reaped = 0;
+        List<String> batch = new ArrayList<>(REAP_BATCH);
+        ScanOptions options = ScanOptions.scanOptions().match(NAMESPACE + "*").count(REAP_BATCH).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String redisKey = cursor.next();
+                if (generationOf(redisKey) < current) {
+                    batch.add(redisKey);
+                }
+                if (batch.size() >= REAP_BATCH) {
+                    reaped += unlink(batch);
+                }
+            }
+        }
+        reaped += unlink(batch);
+        reapedThrough = current;
+        if (reaped > 0) {
+            log.info("Reaped {} cache entries of generations before {}", reaped, current);
+        }
+        return reaped;
+    }
+
+    String redisKey(String key) {
+        return prefix() + key;
+    }
+
+    private List<String> redisKeys(Collection<String> keys) {
+        String prefix = prefix();
+        return keys.stream().map(key -> prefix + key).toList();
+    }
+
+    private String prefix() {
+        return NAMESPACE + generation() + ":";
+    }
+
+    /**
+     * Current generation, re-read from Redis at most every {@link #GENERATION_REFRESH} by one caller at a time
+     */
+    private long generation() {
+        long now = System.nanoTime();
+        if (now - generationCheckedAt >= GENERATION_REFRESH.toNanos() && refreshingGeneration.compareAndSet(false, true)) {
+            try {
+                generation = readGeneration();
+            } catch (Exception e) {
+                log.warn("Could not read cache generation, keeping {}: {}", generation, e.getMessage());
+            } finally {
+                generationCheckedAt = now;
+                refreshingGeneration.set(false);
+            }
+        }
+        return generation;
+    }
+
+    private long readGeneration() {
+        byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(raw(GENERATION_KEY)));
+        return value != null ? Long.parseLong(new String(value, StandardCharsets.UTF_8)) : 0;
+    }
+
+    /**
+     * Generation in a namespaced key, or {@link Long#MAX_VALUE} for keys this cache did not write
+     */
+    private static long generationOf(String redisKey) {
+        int end = redisKey.indexOf(':', NAMESPACE.length());
+        if (!redisKey.startsWith(NAMESPACE) || end < 0) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(redisKey.substring(NAMESPACE.length(), end));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private long unlink(List<String> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Long unlinked = redisTemplate.unlink(List.copyOf(batch));
+        batch.clear();
+        return unlinked != null ? unlinked : 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.foodtracker.dashboard.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate loading on top of a {@link CacheService}.
+ * <p>
+ * Entries are stored for the hard TTL. Once older than the soft TTL they are still returned at once,
+ * and a single background refresh replaces them. Keys read at least {@link #HOT_ACCESS_RATE} times per
+ * second are refreshed earlier, at {@link #REFRESH_AHEAD_FACTOR} of the soft TTL, so their readers never
+ * see a stale value either. Only a cold or hard-expired key makes the caller wait, and concurrent callers
+ * then share one load.
+ * <p>
+ * Keys can carry caller input such as a category, so read rates are kept for at most {@link #MAX_RATED_KEYS}
+ * keys and forgotten once a key has not been read for {@link #RATE_IDLE_EXPIRY}, by which time they have
+ * decayed to nothing.
+ */
+@Slf4j
+public class RefreshingLoader {
+
+    static final double HOT_ACCESS_RATE = 1.0;
+    static final double REFRESH_AHEAD_FACTOR = 0.8;
+    static final int MAX_RATED_KEYS = 10_000;
+    static final Duration RATE_IDLE_EXPIRY = Duration.ofMinutes(1);
+    private static final double RATE_WINDOW_SECONDS = 10;
+
+    private final SingleFlight singleFlight;
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Cache<String, DecayingRate> accessRates;
+
+    /**
+     * @param singleFlight the flight group the cache uses for its own loads, so refreshes and loads of a key never overlap
+     */
+    public RefreshingLoader(SingleFlight singleFlight) {
+        this(singleFlight, Ticker.systemTicker());
+    }
+
+    RefreshingLoader(SingleFlight singleFlight, Ticker ticker) {
+        this.singleFlight = singleFlight;
+        this.accessRates = Caffeine.newBuilder()
+                .maximumSize(MAX_RATED_KEYS)
+                .expireAfterAccess(RATE_IDLE_EXPIRY)
+                .ticker(ticker)
+                .build();
+    }
+
+    public <T> T getOrLoad(CacheService cache, String key, Class<T> type, CacheTtl ttl, Supplier<T> loader) {
+        long now = System.nanoTime();
+        double rate = accessRates.get(key, k -> new DecayingRate(RATE_WINDOW_SECONDS, now)).record(now);
+        Optional<CachedValue<T>> cached = cache.getEntry(key, type);
+        if (cached.isEmpty()) {
+            // Shares the cache's own coalesced load, including its cross-node lock if it has one
+            return cache.getOrLoad(key, type, ttl.hardSeconds(), loader);
+        }
+
+        long expiresIn = cached.get().expiresInMillis();
+        if (expiresIn >= 0) {
+            long age = ttl.hard().toMillis() - expiresIn;
+            long refreshAfter = rate >= HOT_ACCESS_RATE
+                    ? (long) (ttl.soft().toMillis() * REFRESH_AHEAD_FACTOR)
+                    : ttl.soft().toMillis();
+            if (age >= refreshAfter) {
+                refreshAsync(cache, key, ttl, loader);
+            }
+        }
+        return cached.get().value();
+    }
+
+    /**
+     * Recent reads per second of {@code key}
+     */
+    double accessRate(String key) {
+        DecayingRate accessRate = accessRates.getIfPresent(key);
+        return accessRate != null ? accessRate.current(System.nanoTime()) : 0;
+    }
+
+    private void refreshAsync(CacheService cache, String key, CacheTtl ttl, Supplier<?> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                singleFlight.execute(key, () -> load(cache, key, ttl, loader));
+            } catch (Exception e) {
+                log.warn("Background refresh of cache key {} failed, serving the stale value: {}", key, e.getMessage());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private static <T> T load(CacheService cache, String key, CacheTtl ttl, Supplier<T> loader) {
+        T value = loader.get();
+        cache.put(key, value, ttl.hardSeconds());
+        return value;
+    }
+}
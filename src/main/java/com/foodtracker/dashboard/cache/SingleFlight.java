@@ -0,0 +1,66 @@
+package com.foodtracker.dashboard.cache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time; callers arriving while a load is running wait for it
+ * and receive the same result or exception.
+ */
+public class SingleFlight {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Cached value for {@code key}, or the result of one shared load that is then cached
+     */
+    public <T> T getOrLoad(CacheService cache, String key, Class<T> type, int expirySeconds, Supplier<T> loader) {
+        Optional<T> cached = cache.get(key, type);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        // Check again inside the flight: a load that finished after our miss has already filled the cache
+        return execute(key, () -> cache.get(key, type).orElseGet(() -> {
+            T value = loader.get();
+            cache.put(key, value, expirySeconds);
+            return value;
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            return (T) await(running);
+        }
+        try {
+            T value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
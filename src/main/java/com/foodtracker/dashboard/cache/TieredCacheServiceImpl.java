@@ -0,0 +1,224 @@
+package com.foodtracker.dashboard.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Local near-cache (L1) in front of a shared cache (L2, normally Redis).
+ * <p>
+ * L1 is a bounded Caffeine cache (W-TinyLFU admission) holding already deserialized values for at most
+ * {@code l1Ttl}, so repeated reads cost a hash lookup instead of a network round trip and a JSON conversion.
+ * Every put, evict and clear is published on {@link #INVALIDATION_CHANNEL}, batches as one message with one
+ * key per line; other nodes drop their L1 copy when they receive it. Pub/sub delivery is best effort, so the short L1 TTL bounds staleness if a message is lost.
+ */
+@Slf4j
+public class TieredCacheServiceImpl implements CacheService {
+
+    public static final String INVALIDATION_CHANNEL = "foodtracker:cache:invalidate";
+    static final String CLEAR_ALL = "*";
+    static final String KEY_SEPARATOR = "\n";
+
+    private final CacheService l2;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration l1Ttl;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Cache<String, Entry> l1;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final RefreshingLoader refreshingLoader = new RefreshingLoader(singleFlight);
+
+    public TieredCacheServiceImpl(CacheService l2, StringRedisTemplate redisTemplate, long l1MaxEntries, Duration l1Ttl) {
+        this.l2 = l2;
+        this.redisTemplate = redisTemplate;
+        this.l1Ttl = l1Ttl;
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaxEntries)
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    @Override
+    public <T> Optional<T> get(String key, Class<T> type) {
+        return getEntry(key, type).map(CachedValue::value);
+    }
+
+    @Override
+    public <T> Optional<CachedValue<T>> getEntry(String key, Class<T> type) {
+        Entry local = l1.getIfPresent(key);
+        if (local != null && type.isInstance(local.value())) {
+            return Optional.of(new CachedValue<>(type.cast(local.value()), expiresIn(local)));
+        }
+
+        Optional<CachedValue<T>> remote = l2.getEntry(key, type);
+        remote.ifPresent(hit -> l1.put(key, new Entry(hit.value(), l1Ttl.toNanos(), expiresAt(hit.expiresInMillis()))));
+        return remote;
+    }
+
+    @Override
+    public Map<String, CachedValue<?>> getAll(Map<String, Class<?>> keyTypes) {
+        Map<String, CachedValue<?>> entries = new HashMap<>();
+        Map<String, Class<?>> remoteKeys = new HashMap<>();
+        keyTypes.forEach((key, type) -> {
+            Entry local = l1.getIfPresent(key);
+            if (local != null && type.isInstance(local.value())) {
+                entries.put(key, new CachedValue<>(local.value(), expiresIn(local)));
+            } else {
+                remoteKeys.put(key, type);
+            }
+        });
+        if (!remoteKeys.isEmpty()) {
+            l2.getAll(remoteKeys).forEach((key, hit) -> {
+                l1.put(key, new Entry(hit.value(), l1Ttl.toNanos(), expiresAt(hit.expiresInMillis())));
+                entries.put(key, hit);
+            });
+        }
+        return entries;
+    }
+
+    @Override
+    public <T> void put(String key, T value, int expirySeconds) {
+        l2.put(key, value, expirySeconds);
+        l1.put(key, new Entry(value, l1TtlNanos(expirySeconds), expiresAt(expirySeconds * 1000L)));
+        publish(key);
+    }
+
+    @Override
+    public void putAll(Map<String, ?> values, int expirySeconds) {
+        if (values.isEmpty()) {
+            return;
+        }
+        l2.putAll(values, expirySeconds);
+        values.forEach((key, value) -> l1.put(key, new Entry(value, l1TtlNanos(expirySeconds), expiresAt(expirySeconds * 1000L))));
+        publish(String.join(KEY_SEPARATOR, values.keySet()));
+    }
+
+    @Override
+    public <T> T getOrLoad(String key, Class<T> type, int expirySeconds, Supplier<T> loader) {
+        Entry local = l1.getIfPresent(key);
+        if (local != null && type.isInstance(local.value())) {
+            return type.cast(local.value());
+        }
+        return singleFlight.execute(key, () -> {
+            boolean[] loaded = {false};
+            T value = l2.getOrLoad(key, type, expirySeconds, () -> {
+                loaded[0] = true;
+                return loader.get();
+            });
+            if (loaded[0]) {
+                // Freshly computed here, so other nodes must drop their copies
+                l1.put(key, new Entry(value, l1TtlNanos(expirySeconds), expiresAt(expirySeconds * 1000L)));
+                publish(key);
+            } else {
+                // The remaining L2 expiry is unknown, so the copy lives for the L1 TTL only
+                l1.put(key, new Entry(value, l1Ttl.toNanos(), -1));
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public <T> T getOrLoad(String key, Class<T> type, CacheTtl ttl, Supplier<T> loader) {
+        return refreshingLoader.getOrLoad(this, key, type, ttl, loader);
+    }
+
+    @Override
+    public void evict(String key) {
+        l2.evict(key);
+        l1.invalidate(key);
+        publish(key);
+    }
+
+    @Override
+    public void evictAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        l2.evictAll(keys);
+        l1.invalidateAll(keys);
+        publish(String.join(KEY_SEPARATOR, keys));
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        publish(CLEAR_ALL);
+    }
+
+    /**
+     * Handles an invalidation message from {@link #INVALIDATION_CHANNEL}; messages from this node are ignored
+     */
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(' ');
+        if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        for (String key : message.substring(separator + 1).split(KEY_SEPARATOR)) {
+            if (CLEAR_ALL.equals(key)) {
+                l1.invalidateAll();
+                return;
+            }
+            l1.invalidate(key);
+        }
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    private static long expiresAt(long expiresInMillis) {
+        return expiresInMillis >= 0 ? System.currentTimeMillis() + expiresInMillis : -1;
+    }
+
+    private static long expiresIn(Entry local) {
+        return local.expiresAtMillis() >= 0 ? Math.max(local.expiresAtMillis() - System.currentTimeMillis(), 0) : -1;
+    }
+
+    private long l1TtlNanos(int expirySeconds) {
+        return Math.min(l1Ttl.toNanos(), Duration.ofSeconds(Math.max(expirySeconds, 0)).toNanos());
+    }
+
+    private void publish(String keys) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + " " + keys);
+        } catch (Exception e) {
+            log.warn("Could not publish cache invalidation for keys {}: {}", keys.replace(KEY_SEPARATOR, ","), e.getMessage());
+        }
+    }
+
+    /**
+     * @param expiresAtMillis when the entry expires in L2, or -1 if unknown
+     */
+    private record Entry(Object value, long ttlNanos, long expiresAtMillis) {
+    }
+
+    /**
+     * Expires each L1 entry after its own TTL, which is never longer than the L1 TTL
+     */
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
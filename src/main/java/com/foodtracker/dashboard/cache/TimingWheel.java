@@ -0,0 +1,71 @@
+package com.foodtracker.dashboard.cache;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timing wheel of expiring keys (Varghese and Lauck).
+ * <p>
+ * A key is placed in the slot of the first tick after its expiry. Advancing the clock visits only the
+ * slots passed since the previous advance, so expiring entries costs time proportional to the entries
+ * due rather than to the cache size. Expiries more than one rotation ahead stay in their slot until a
+ * later visit finds them due. Not thread-safe; the cache calls it while holding its lock.
+ */
+final class TimingWheel {
+
+    private final long tickMillis;
+    private final Set<String>[] slots;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(int slotCount, long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new Set[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new HashSet<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    void schedule(String key, long expiresAtMillis) {
+        slot(tickOf(expiresAtMillis)).add(key);
+    }
+
+    void cancel(String key, long expiresAtMillis) {
+        slot(tickOf(expiresAtMillis)).remove(key);
+    }
+
+    /**
+     * Visits the slots passed since the previous call. {@code expire} is called for each key found there
+     * and returns true if the key has expired and can leave the wheel.
+     */
+    void advance(long nowMillis, Predicate<String> expire) {
+        long targetTick = nowMillis / tickMillis;
+        long ticks = Math.min(targetTick - currentTick, slots.length);
+        for (long tick = targetTick - ticks + 1; tick <= targetTick; tick++) {
+            Iterator<String> keys = slot(tick).iterator();
+            while (keys.hasNext()) {
+                if (expire.test(keys.next())) {
+                    keys.remove();
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+    }
+
+    void clear() {
+        for (Set<String> slot : slots) {
+            slot.clear();
+        }
+    }
+
+    private long tickOf(long expiresAtMillis) {
+        return expiresAtMillis / tickMillis + 1;
+    }
+
+    private Set<String> slot(long tick) {
+        return slots[(int) Math.floorMod(tick, (long) slots.length)];
+    }
+}
@@ -0,0 +1,108 @@
+package com.foodtracker.dashboard.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * W-TinyLFU (Einziger et al.): new keys enter a small LRU window (1% of the size); keys pushed out of
+ * the window only replace the main area's least recently used key if they were seen more often.
+ * The main area is a segmented LRU where keys accessed twice move from probation to a protected segment
+ * (80% of the main area). One-off keys therefore cannot flush frequently read ones.
+ */
+final class WindowTinyLfuPolicy implements EvictionPolicy {
+
+    private final int maximumSize;
+    private final int windowSize;
+    private final int protectedSize;
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<String, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> protectedKeys = new LinkedHashMap<>(16, 0.75f, true);
+
+    WindowTinyLfuPolicy(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.windowSize = Math.max(1, maximumSize / 100);
+        this.protectedSize = (maximumSize - windowSize) * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public void recordInsert(String key) {
+        if (window.containsKey(key) || probation.containsKey(key) || protectedKeys.containsKey(key)) {
+            recordAccess(key);
+            return;
+        }
+        sketch.increment(key);
+        window.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+        if (window.get(key) != null || protectedKeys.get(key) != null) {
+            return;
+        }
+        if (probation.remove(key) != null) {
+            protectedKeys.put(key, Boolean.TRUE);
+            if (protectedKeys.size() > protectedSize) {
+                // Demote the least recently used protected key back to probation
+                probation.put(removeEldest(protectedKeys), Boolean.TRUE);
+            }
+        }
+    }
+
+    @Override
+    public void recordRemoval(String key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedKeys.remove(key);
+        }
+    }
+
+    @Override
+    public String nextVictim() {
+        if (size() <= maximumSize) {
+            while (window.size() > windowSize) {
+                probation.put(removeEldest(window), Boolean.TRUE);
+            }
+            return null;
+        }
+
+        if (window.size() > windowSize) {
+            String candidate = removeEldest(window);
+            String victim = eldest(probation.isEmpty() ? protectedKeys : probation);
+            if (victim == null || sketch.frequency(candidate) <= sketch.frequency(victim)) {
+                return candidate;
+            }
+            // The candidate was seen more often than the main area's eldest key, so it takes its place
+            recordRemoval(victim);
+            probation.put(candidate, Boolean.TRUE);
+            return victim;
+        }
+
+        LinkedHashMap<String, Boolean> segment = !probation.isEmpty() ? probation
+                : !protectedKeys.isEmpty() ? protectedKeys : window;
+        return removeEldest(segment);
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedKeys.clear();
+    }
+
+    private int size() {
+        return window.size() + probation.size() + protectedKeys.size();
+    }
+
+    private static String eldest(LinkedHashMap<String, Boolean> segment) {
+        return segment.isEmpty() ? null : segment.keySet().iterator().next();
+    }
+
+    private static String removeEldest(LinkedHashMap<String, Boolean> segment) {
+        Iterator<String> eldest = segment.keySet().iterator();
+        String key = eldest.next();
+        eldest.remove();
+        return key;
+    }
+}
@@ -0,0 +1,28 @@
+package com.foodtracker.dashboard.cache.codec;
+
+/**
+ * Turns cached values into bytes and back, decoding straight into the requested type
+ */
+public interface CacheCodec {
+
+    byte[] encode(Object value);
+
+    /**
+     * @throws IllegalArgumentException if the bytes cannot be decoded into {@code type}
+     */
+    <T> T decode(byte[] bytes, Class<T> type);
+
+    /**
+     * Codec for {@code app.cache.codec}: {@code smile} or {@code cbor}, compressed above {@code compressionThreshold}
+     * bytes when it is positive. Returns null for {@code json}, which keeps the Redis template's JSON serializer.
+     */
+    static CacheCodec create(String name, int compressionThreshold) {
+        CacheCodec codec = switch (name.toLowerCase()) {
+            case "json" -> null;
+            case "smile" -> JacksonCacheCodec.smile();
+            case "cbor" -> JacksonCacheCodec.cbor();
+            default -> throw new IllegalArgumentException("Unknown cache codec: " + name);
+        };
+        return codec != null && compressionThreshold > 0 ? new CompressingCacheCodec(codec, compressionThreshold) : codec;
+    }
+}
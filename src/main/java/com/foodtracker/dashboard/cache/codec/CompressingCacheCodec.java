@@ -0,0 +1,94 @@
+package com.foodtracker.dashboard.cache.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflates payloads of at least {@code threshold} bytes at the fastest level, keeping the result
+ * only if it is smaller. The first byte tells the reader whether the rest is compressed.
+ */
+public class CompressingCacheCodec implements CacheCodec {
+
+    static final byte PLAIN = 0;
+    static final byte DEFLATED = 1;
+
+    private final CacheCodec delegate;
+    private final int threshold;
+
+    public CompressingCacheCodec(CacheCodec delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        byte[] payload = delegate.encode(value);
+        if (payload.length >= threshold) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length < payload.length) {
+                return withHeader(DEFLATED, compressed);
+            }
+        }
+        return withHeader(PLAIN, payload);
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Empty payload");
+        }
+        byte[] payload = Arrays.copyOfRange(bytes, 1, bytes.length);
+        return switch (bytes[0]) {
+            case PLAIN -> delegate.decode(payload, type);
+            case DEFLATED -> delegate.decode(inflate(payload), type);
+            default -> throw new IllegalArgumentException("Unknown payload header: " + bytes[0]);
+        };
+    }
+
+    private static byte[] withHeader(byte header, byte[] payload) {
+        byte[] bytes = new byte[payload.length + 1];
+        bytes[0] = header;
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] payload) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compressed payload");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
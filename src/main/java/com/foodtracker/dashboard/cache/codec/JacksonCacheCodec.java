@@ -0,0 +1,55 @@
+package com.foodtracker.dashboard.cache.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * Jackson binary formats without type information in the payload: the reader names the type, so a hit is
+ * decoded once into the DTO instead of into a map that is converted again. Smile also back-references
+ * repeated field names and short strings, which suits the dashboard DTOs' repeated category maps.
+ */
+public class JacksonCacheCodec implements CacheCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public JacksonCacheCodec(JsonFactory factory) {
+        this.objectMapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                // Nodes on an older release may still read entries written by a newer one
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public static JacksonCacheCodec smile() {
+        return new JacksonCacheCodec(new SmileFactory());
+    }
+
+    public static JacksonCacheCodec cbor() {
+        return new JacksonCacheCodec(new CBORFactory());
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        try {
+            return objectMapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not decode " + type.getSimpleName(), e);
+        }
+    }
+}
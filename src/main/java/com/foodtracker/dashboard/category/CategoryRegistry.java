@@ -0,0 +1,89 @@
+package com.foodtracker.dashboard.category;
+
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Categories seen in tracked events.
+ * <p>
+ * Seeded from recent events on startup and extended at ingest, so new categories
+ * show up on the dashboard without code changes.
+ */
+@Component
+@Slf4j
+public class CategoryRegistry {
+
+    static final String CATEGORY = "category";
+
+    private final EventRepository eventRepository;
+    private final Duration seedLookback;
+    private final int maxCategories;
+    private final Set<String> categories = ConcurrentHashMap.newKeySet();
+
+    public CategoryRegistry(EventRepository eventRepository,
+                            @Value("${app.dashboard.categories.seed-lookback:30d}") Duration seedLookback,
+                            @Value("${app.dashboard.categories.max:256}") int maxCategories) {
+        this.eventRepository = eventRepository;
+        this.seedLookback = seedLookback;
+        this.maxCategories = maxCategories;
+    }
+
+    @PostConstruct
+    public void seed() {
+        try {
+            registerAll(eventRepository.findDistinctCategoriesSince(Instant.now().minus(seedLookback)));
+            log.info("Category registry seeded with {} categories", categories.size());
+        } catch (Exception e) {
+            log.warn("Could not seed category registry, categories will be discovered at ingest", e);
+        }
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        Map<String, Object> properties = eventTracked.event().getProperties();
+        if (properties != null && properties.get(CATEGORY) != null) {
+            register(properties.get(CATEGORY).toString());
+        }
+    }
+
+    /**
+     * Known categories in alphabetical order
+     */
+    public Set<String> categories() {
+        return new TreeSet<>(categories);
+    }
+
+    public boolean contains(String category) {
+        return categories.contains(category);
+    }
+
+    public void registerAll(Collection<String> newCategories) {
+        newCategories.forEach(this::register);
+    }
+
+    public void register(String category) {
+        if (category == null || category.isBlank() || categories.contains(category)) {
+            return;
+        }
+        if (categories.size() >= maxCategories) {
+            log.debug("Category limit {} reached, ignoring category {}", maxCategories, category);
+            return;
+        }
+        if (categories.add(category)) {
+            log.info("Discovered new category: {}", category);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.foodtracker.dashboard.cluster;
+
+import com.foodtracker.dashboard.sketch.HyperLogLog;
+import com.foodtracker.dashboard.sketch.ItemCount;
+import com.foodtracker.dashboard.sketch.SpaceSavingSketch;
+import com.foodtracker.shared.repository.Event;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Mergeable aggregates of one minute: event counts, distinct users and viewed items,
+ * overall and per category.
+ * <p>
+ * Every part merges without loss of its guarantees (sums, HyperLogLog register maxima,
+ * Space-Saving merges), so partials of several nodes or minutes combine into one view.
+ */
+public class MinutePartial {
+
+    public static final int PAYLOAD_VERSION = 1;
+    public static final String ALL_CATEGORIES = "all";
+
+    static final String ITEM_VIEWED = "item_viewed";
+    static final String ITEM_NAME = "item_name";
+    static final String CATEGORY = "category";
+    static final int ALL_PRECISION = 12;
+    static final int CATEGORY_PRECISION = 10;
+
+    private final long minute;
+    private final int sketchCapacity;
+    private final int maxCategories;
+    private final Map<String, Map<String, Long>> counts = new HashMap<>();
+    private final Map<String, HyperLogLog> users = new HashMap<>();
+    private final Map<String, SpaceSavingSketch> items = new HashMap<>();
+    private long sequence;
+
+    public MinutePartial(long minute, int sketchCapacity, int maxCategories) {
+        this.minute = minute;
+        this.sketchCapacity = sketchCapacity;
+        this.maxCategories = maxCategories;
+    }
+
+    public long minute() {
+        return minute;
+    }
+
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    public synchronized void record(Event event) {
+        Map<String, Object> properties = event.getProperties();
+        Object category = properties != null ? properties.get(CATEGORY) : null;
+        Object item = properties != null ? properties.get(ITEM_NAME) : null;
+
+        recordFor(ALL_CATEGORIES, event, item);
+        String name = category != null ? category.toString() : "";
+        // A category named like the overall bucket would be counted into it twice
+        if (!name.isEmpty() && !name.equals(ALL_CATEGORIES)
+                && (counts.containsKey(name) || categoryCount() < maxCategories)) {
+            recordFor(name, event, item);
+        }
+        sequence++;
+    }
+
+    public void merge(MinutePartial other) {
+        // Snapshot first, so two partials merging into each other cannot deadlock
+        merge(other.toPayload(""));
+    }
+
+    public synchronized void merge(PartialPayload payload) {
+        payload.counts().forEach((category, byType) -> byType.forEach((eventType, count) ->
+                counts.computeIfAbsent(category, c -> new HashMap<>()).merge(eventType, count, Long::sum)));
+        payload.users().forEach((category, bytes) -> {
+            HyperLogLog sketch = HyperLogLog.fromBytes(bytes);
+            HyperLogLog existing = users.get(category);
+            if (existing == null) {
+                users.put(category, sketch);
+            } else {
+                existing.merge(sketch);
+            }
+        });
+        payload.items().forEach((category, itemCounts) -> items
+                .computeIfAbsent(category, c -> new SpaceSavingSketch(sketchCapacity))
+                .merge(SpaceSavingSketch.fromItems(payload.sketchCapacity(), itemCounts)));
+        sequence += payload.sequence();
+    }
+
+    public synchronized long count(String category, String eventType) {
+        return counts.getOrDefault(category, Map.of()).getOrDefault(eventType, 0L);
+    }
+
+    public synchronized long distinctUsers(String category) {
+        HyperLogLog sketch = users.get(category);
+        return sketch != null ? sketch.cardinality() : 0;
+    }
+
+    public synchronized List<ItemCount> topItems(String category, int limit) {
+        SpaceSavingSketch sketch = items.get(category);
+        return sketch != null ? sketch.top(limit) : List.of();
+    }
+
+    /**
+     * Categories with activity, without {@link #ALL_CATEGORIES}, in alphabetical order
+     */
+    public synchronized Set<String> categories() {
+        Set<String> categories = new TreeSet<>(counts.keySet());
+        categories.remove(ALL_CATEGORIES);
+        return categories;
+    }
+
+    public synchronized PartialPayload toPayload(String node) {
+        Map<String, Map<String, Long>> countsCopy = new HashMap<>();
+        counts.forEach((category, byType) -> countsCopy.put(category, Map.copyOf(byType)));
+        Map<String, byte[]> usersCopy = new HashMap<>();
+        users.forEach((category, sketch) -> usersCopy.put(category, sketch.toBytes()));
+        Map<String, List<ItemCount>> itemsCopy = new HashMap<>();
+        items.forEach((category, sketch) -> itemsCopy.put(category, sketch.items()));
+        return new PartialPayload(PAYLOAD_VERSION, node, minute, sequence, countsCopy, usersCopy, itemsCopy, sketchCapacity);
+    }
+
+    private int categoryCount() {
+        return counts.size() - (counts.containsKey(ALL_CATEGORIES) ? 1 : 0);
+    }
+
+    private void recordFor(String category, Event event, Object item) {
+        counts.computeIfAbsent(category, c -> new HashMap<>()).merge(event.getEventType(), 1L, Long::sum);
+        users.computeIfAbsent(category, c -> new HyperLogLog(
+                ALL_CATEGORIES.equals(c) ? ALL_PRECISION : CATEGORY_PRECISION)).add(event.getUserId());
+        if (ITEM_VIEWED.equals(event.getEventType()) && item != null) {
+            items.computeIfAbsent(category, c -> new SpaceSavingSketch(sketchCapacity)).offer(item.toString(), 1);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.foodtracker.dashboard.cluster;
+
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minute partials of the events ingested by this node over the last hour.
+ * <p>
+ * Unlike the dashboard aggregates, nothing is backfilled from the database: every event is
+ * recorded by exactly the node that ingested it, so partials of all nodes can be summed.
+ */
+@Component
+public class NodePartialRecorder {
+
+    public static final int WINDOW_MINUTES = 60;
+
+    private final int sketchCapacity;
+    private final int maxCategories;
+    private final MinutePartial[] slots = new MinutePartial[WINDOW_MINUTES];
+
+    public NodePartialRecorder(@Value("${app.dashboard.popular-items.sketch-capacity:100}") int sketchCapacity,
+                               @Value("${app.dashboard.categories.max:256}") int maxCategories) {
+        this.sketchCapacity = sketchCapacity;
+        this.maxCategories = maxCategories;
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        Event event = eventTracked.event();
+        if (event.getTimestamp() == null || event.getUserId() == null) {
+            return;
+        }
+        long minute = Math.floorDiv(event.getTimestamp().getEpochSecond(), 60L);
+        long nowMinute = currentMinute();
+        if (minute <= nowMinute - WINDOW_MINUTES || minute > nowMinute) {
+            return;
+        }
+        MinutePartial partial = slotFor(minute);
+        if (partial != null) {
+            partial.record(event);
+        }
+    }
+
+    /**
+     * Partials of minutes in {@code [fromMinute, toMinute]} that are still in the ring
+     */
+    public List<MinutePartial> partials(long fromMinute, long toMinute) {
+        List<MinutePartial> partials = new ArrayList<>();
+        synchronized (slots) {
+            for (MinutePartial partial : slots) {
+                if (partial != null && partial.minute() >= fromMinute && partial.minute() <= toMinute) {
+                    partials.add(partial);
+                }
+            }
+        }
+        return partials;
+    }
+
+    public int sketchCapacity() {
+        return sketchCapacity;
+    }
+
+    public static long currentMinute() {
+        return Math.floorDiv(Instant.now().getEpochSecond(), 60L);
+    }
+
+    private MinutePartial slotFor(long minute) {
+        int slot = (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+        synchronized (slots) {
+            MinutePartial partial = slots[slot];
+            if (partial == null || partial.minute() < minute) {
+                partial = new MinutePartial(minute, sketchCapacity, maxCategories);
+                slots[slot] = partial;
+            } else if (partial.minute() > minute) {
+                return null; // the slot already holds a newer minute
+            }
+            return partial;
+        }
+    }
+}
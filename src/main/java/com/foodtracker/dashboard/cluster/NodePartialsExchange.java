@@ -0,0 +1,172 @@
+package com.foodtracker.dashboard.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares the minute partials of every node through Redis and merges them into a global view.
+ * <p>
+ * Each node writes its changed minutes every second to {@code foodtracker:partials:v1:<node>:<minute>},
+ * expiring after the window, and records itself in the {@code foodtracker:partials:v1:nodes} sorted set
+ * scored by its last publish time. The version in the key lets nodes with different payload formats
+ * run side by side during a rolling upgrade. Reading costs one range query and one MGET; ingest
+ * makes no network calls.
+ * <p>
+ * When disabled, the global view is the local node's view.
+ */
+@Component
+@Slf4j
+public class NodePartialsExchange {
+
+    static final String KEY_PREFIX = "foodtracker:partials:v" + MinutePartial.PAYLOAD_VERSION + ":";
+    static final String NODES_KEY = KEY_PREFIX + "nodes";
+    static final String PUBLISH_JOB = "partials-publish";
+
+    private static final Duration KEY_TTL = Duration.ofMinutes(NodePartialRecorder.WINDOW_MINUTES + 5L);
+
+    private final NodePartialRecorder recorder;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    private final ObjectMapper objectMapper;
+    private final RefreshExecutor refreshExecutor;
+    private final Duration publishInterval;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Map<Long, Long> publishedSequences = new ConcurrentHashMap<>();
+
+    public NodePartialsExchange(NodePartialRecorder recorder,
+                                ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                                ObjectMapper objectMapper,
+                                RefreshExecutor refreshExecutor,
+                                @Value("${app.cluster.partials.publish-interval-ms:1000}") long publishIntervalMillis,
+                                @Value("${app.cluster.partials.enabled:false}") boolean enabled,
+                                @Value("${app.cluster.node-id:}") String nodeId) {
+        this.recorder = recorder;
+        this.redisTemplateProvider = redisTemplateProvider;
+        this.objectMapper = objectMapper;
+        this.refreshExecutor = refreshExecutor;
+        this.publishInterval = Duration.ofMillis(publishIntervalMillis);
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            refreshExecutor.schedule(PUBLISH_JOB, publishInterval, this::publish);
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Publishes the minutes that changed since the last run
+     */
+    public void publish() {
+        if (!enabled) {
+            return;
+        }
+        long nowMinute = NodePartialRecorder.currentMinute();
+        try {
+            StringRedisTemplate redisTemplate = redisTemplateProvider.getObject();
+            for (MinutePartial partial : recorder.partials(nowMinute - NodePartialRecorder.WINDOW_MINUTES + 1, nowMinute)) {
+                PartialPayload payload = partial.toPayload(nodeId);
+                Long published = publishedSequences.get(payload.minute());
+                if (published != null && published == payload.sequence()) {
+                    continue;
+                }
+                redisTemplate.opsForValue().set(key(nodeId, payload.minute()), objectMapper.writeValueAsString(payload), KEY_TTL);
+                publishedSequences.put(payload.minute(), payload.sequence());
+            }
+            redisTemplate.opsForZSet().add(NODES_KEY, nodeId, System.currentTimeMillis());
+            publishedSequences.keySet().removeIf(minute -> minute <= nowMinute - NodePartialRecorder.WINDOW_MINUTES);
+        } catch (Exception e) {
+            log.warn("Could not publish node partials: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Merged partials of all nodes over the last {@code window}, capped at the recorder window.
+     * Falls back to the local node if Redis cannot be read.
+     */
+    public GlobalPartials global(Duration window) {
+        long nowMinute = NodePartialRecorder.currentMinute();
+        long fromMinute = nowMinute - Math.min(Math.max(window.toMinutes(), 1), NodePartialRecorder.WINDOW_MINUTES) + 1;
+        if (enabled) {
+            try {
+                return remote(fromMinute, nowMinute);
+            } catch (Exception e) {
+                log.warn("Could not read node partials, using local partials only: {}", e.getMessage());
+            }
+        }
+        MinutePartial merged = new MinutePartial(-1, sketchCapacity(), Integer.MAX_VALUE);
+        recorder.partials(fromMinute, nowMinute).forEach(merged::merge);
+        return new GlobalPartials(merged, 1);
+    }
+
+    private GlobalPartials remote(long fromMinute, long toMinute) throws JsonProcessingException {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getObject();
+        long oldestPublish = fromMinute * 60_000L;
+        redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, oldestPublish - KEY_TTL.toMillis());
+        Set<String> nodes = redisTemplate.opsForZSet().rangeByScore(NODES_KEY, oldestPublish, Double.MAX_VALUE);
+        if (nodes == null || nodes.isEmpty()) {
+            return new GlobalPartials(new MinutePartial(-1, sketchCapacity(), Integer.MAX_VALUE), 0);
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (String node : nodes) {
+            for (long minute = fromMinute; minute <= toMinute; minute++) {
+                keys.add(key(node, minute));
+            }
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+
+        MinutePartial merged = new MinutePartial(-1, sketchCapacity(), Integer.MAX_VALUE);
+        if (values != null) {
+            for (String value : values) {
+                if (value == null) {
+                    continue;
+                }
+                PartialPayload payload = objectMapper.readValue(value, PartialPayload.class);
+                if (payload.version() == MinutePartial.PAYLOAD_VERSION) {
+                    merged.merge(payload);
+                }
+            }
+        }
+        return new GlobalPartials(merged, nodes.size());
+    }
+
+    private int sketchCapacity() {
+        return recorder.sketchCapacity();
+    }
+
+    static String key(String node, long minute) {
+        return KEY_PREFIX + node + ":" + minute;
+    }
+
+    /**
+     * Partials merged over nodes and minutes
+     *
+     * @param merged merged aggregates
+     * @param nodes  number of nodes that contributed
+     */
+    public record GlobalPartials(MinutePartial merged, int nodes) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.foodtracker.dashboard.cluster;
+
+import com.foodtracker.dashboard.sketch.ItemCount;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format of one node's partial aggregates for one minute
+ *
+ * @param version        payload format version, see {@link MinutePartial#PAYLOAD_VERSION}
+ * @param node           publishing node
+ * @param minute         minute index, i.e. epoch seconds divided by 60
+ * @param sequence       number of events recorded into the minute when it was published
+ * @param counts         event counts per category (including {@code all}) and event type
+ * @param users          serialized HyperLogLog of distinct users per category
+ * @param items          Space-Saving summary of viewed items per category
+ * @param sketchCapacity capacity of the item summaries
+ */
+public record PartialPayload(int version,
+                             String node,
+                             long minute,
+                             long sequence,
+                             Map<String, Map<String, Long>> counts,
+                             Map<String, byte[]> users,
+                             Map<String, List<ItemCount>> items,
+                             int sketchCapacity) {
+}
@@ -1,28 +1,105 @@
 package com.foodtracker.dashboard.config;
 
+import com.foodtracker.core.concurrent.RefreshExecutor;
 import com.foodtracker.dashboard.cache.CacheService;
+import com.foodtracker.dashboard.cache.EvictionPolicy;
 import com.foodtracker.dashboard.cache.InMemoryCacheServiceImpl;
 import com.foodtracker.dashboard.cache.RedisCacheServiceImpl;
+import com.foodtracker.dashboard.cache.TieredCacheServiceImpl;
+import com.foodtracker.dashboard.cache.codec.CacheCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @Configuration
 @Slf4j
 public class CacheConfig {
 
+    private static final String REAP_JOB = "cache-reap";
+
     @Value("${app.cache.type:in-memory}")
     private String cacheType;
 
+    @Value("${app.cache.in-memory.maximum-size:10000}")
+    private int inMemoryMaximumSize;
+
+    @Value("${app.cache.in-memory.eviction-policy:W_TINY_LFU}")
+    private EvictionPolicy.Type inMemoryEvictionPolicy;
+
+    @Value("${app.cache.load-lock.enabled:false}")
+    private boolean loadLockEnabled;
+
+    @Value("${app.cache.load-lock.timeout:10s}")
+    private Duration loadLockTimeout;
+
+    @Value("${app.cache.codec:json}")
+    private String codec;
+
+    @Value("${app.cache.codec.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    @Value("${app.cache.redis.reap-interval:1m}")
+    private Duration reapInterval;
+
+    @Value("${app.cache.tiered.l1-max-entries:10000}")
+    private long l1MaxEntries;
+
+    @Value("${app.cache.tiered.l1-ttl:5s}")
+    private Duration l1Ttl;
+
     @Bean
-    public CacheService cacheService(RedisTemplate<String, Object> redisTemplate) {
+    public CacheService cacheService(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                                     RefreshExecutor refreshExecutor) {
         if ("redis".equalsIgnoreCase(cacheType)) {
             log.info("Redis cache enabled");
-            return new RedisCacheServiceImpl(redisTemplate);
+            return redisCacheService(redisTemplate, refreshExecutor);
+        } else if ("tiered".equalsIgnoreCase(cacheType)) {
+            log.info("Tiered cache enabled: local L1 of {} entries for {} in front of Redis", l1MaxEntries, l1Ttl);
+            return new TieredCacheServiceImpl(redisCacheService(redisTemplate, refreshExecutor), stringRedisTemplate,
+                    l1MaxEntries, l1Ttl);
         } else {
-            return new InMemoryCacheServiceImpl();
+            return new InMemoryCacheServiceImpl(inMemoryMaximumSize, inMemoryEvictionPolicy);
+        }
+    }
+
+    /**
+     * Redis cache whose entries of cleared generations are reaped on the dashboard job pool every reap-interval
+     */
+    private RedisCacheServiceImpl redisCacheService(RedisTemplate<String, Object> redisTemplate, RefreshExecutor refreshExecutor) {
+        log.info("Redis cache values encoded as {}", codec);
+        RedisCacheServiceImpl redisCacheService = new RedisCacheServiceImpl(redisTemplate,
+                loadLockEnabled ? loadLockTimeout : Duration.ZERO,
+                CacheCodec.create(codec, compressionThreshold));
+        if (reapInterval.isPositive()) {
+            refreshExecutor.schedule(REAP_JOB, reapInterval, redisCacheService::reapOrphanedGenerations);
+        }
+        return redisCacheService;
+    }
+
+    /**
+     * Delivers invalidation messages from other nodes to the local L1 of the tiered cache
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.type", havingValue = "tiered")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheService cacheService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheService instanceof TieredCacheServiceImpl tieredCacheService) {
+            container.addMessageListener(
+                    (message, pattern) -> tieredCacheService.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(TieredCacheServiceImpl.INVALIDATION_CHANNEL));
         }
+        return container;
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,12 @@ package com.foodtracker.dashboard.controller;
 
 import com.foodtracker.dashboard.dto.ConversionMetricsDto;
 import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import com.foodtracker.dashboard.dto.DashboardOverviewDto;
 import com.foodtracker.dashboard.dto.DauMetricsDto;
 import com.foodtracker.dashboard.dto.PopularItemsMetricsDto;
+import com.foodtracker.dashboard.dto.TimeSeriesResponseDto;
 import com.foodtracker.dashboard.service.DashboardMetricsService;
+import com.foodtracker.shared.sampling.Accuracy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +16,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/dashboard/metrics")
 @RequiredArgsConstructor
@@ -22,9 +34,23 @@ public class DashboardMetricsController {
     private final DashboardMetricsService dashboardMetricsService;
 
     @GetMapping
-    public ResponseEntity<DashboardMetricsResponseDto> getDashboardMetrics() {
-        log.info("Received request for dashboard metrics");
-        DashboardMetricsResponseDto metrics = dashboardMetricsService.getDashboardMetrics();
+    public ResponseEntity<DashboardMetricsResponseDto> getDashboardMetrics(@RequestParam(defaultValue = "exact") String accuracy) {
+        log.info("Received request for dashboard metrics, accuracy: {}", accuracy);
+        try {
+            DashboardMetricsResponseDto metrics = Accuracy.fromParameter(accuracy) == Accuracy.APPROX
+                    ? dashboardMetricsService.getApproximateDashboardMetrics()
+                    : dashboardMetricsService.getDashboardMetrics();
+            return ResponseEntity.ok(metrics);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid dashboard metrics request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/global")
+    public ResponseEntity<DashboardMetricsResponseDto> getGlobalDashboardMetrics() {
+        log.info("Received request for global dashboard metrics");
+        DashboardMetricsResponseDto metrics = dashboardMetricsService.getGlobalDashboardMetrics();
         return ResponseEntity.ok(metrics);
     }
 
@@ -36,10 +62,18 @@ public class DashboardMetricsController {
     }
 
     @GetMapping("/conversion")
-    public ResponseEntity<ConversionMetricsDto> getConversionMetrics(@RequestParam(required = false) String category) {
-        log.info("Received request for conversion metrics, category: {}", category);
-        ConversionMetricsDto conversionMetrics = dashboardMetricsService.getConversionMetrics(category);
-        return ResponseEntity.ok(conversionMetrics);
+    public ResponseEntity<ConversionMetricsDto> getConversionMetrics(@RequestParam(required = false) String category,
+                                                                     @RequestParam(defaultValue = "exact") String accuracy) {
+        log.info("Received request for conversion metrics, category: {}, accuracy: {}", category, accuracy);
+        try {
+            ConversionMetricsDto conversionMetrics = Accuracy.fromParameter(accuracy) == Accuracy.APPROX
+                    ? dashboardMetricsService.getApproximateConversionMetrics(category)
+                    : dashboardMetricsService.getConversionMetrics(category);
+            return ResponseEntity.ok(conversionMetrics);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid conversion metrics request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/popular-items")
@@ -48,4 +82,31 @@ public class DashboardMetricsController {
         PopularItemsMetricsDto popularItemsMetrics = dashboardMetricsService.getPopularItemsMetrics(category);
         return ResponseEntity.ok(popularItemsMetrics);
     }
+
+    @GetMapping("/overview")
+    public ResponseEntity<DashboardOverviewDto> getDashboardOverview(@RequestParam(required = false) String category) {
+        log.info("Received request for dashboard overview, category: {}", category);
+        DashboardOverviewDto overview = dashboardMetricsService.getDashboardOverview(category);
+        return ResponseEntity.ok(overview);
+    }
+
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeSeriesResponseDto> getTimeSeries(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "events,dau,conversion,revenue") List<String> metrics,
+            @RequestParam(defaultValue = "500") int maxPoints) {
+        log.info("Received request for time series metrics, from: {}, to: {}, metrics: {}", from, to, metrics);
+        try {
+            // Dates are ISO local date-times in UTC, defaulting to the last hour
+            Instant end = to != null ? LocalDateTime.parse(to).toInstant(ZoneOffset.UTC) : Instant.now();
+            Instant start = from != null ? LocalDateTime.parse(from).toInstant(ZoneOffset.UTC) : end.minus(Duration.ofHours(1));
+            Set<String> metricNames = new LinkedHashSet<>(metrics);
+            TimeSeriesResponseDto timeSeries = dashboardMetricsService.getTimeSeries(start, end, metricNames, maxPoints);
+            return ResponseEntity.ok(timeSeries);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            log.warn("Invalid time series request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.foodtracker.dashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.foodtracker.shared.sampling.Estimate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ApproximationDto {
+    private Double sampleRate; // Fraction of users the metrics were computed from
+    private Double confidenceLevel;
+    private Map<String, ConfidenceIntervalDto> confidenceIntervals; // Keyed by metric name
+
+    public static ApproximationDto of(double sampleRate, Map<String, Estimate> estimates) {
+        Map<String, ConfidenceIntervalDto> intervals = new LinkedHashMap<>();
+        estimates.forEach((metric, estimate) -> intervals.put(metric, new ConfidenceIntervalDto(
+                estimate.value(), estimate.lower(), estimate.upper())));
+        return new ApproximationDto(sampleRate, Estimate.CONFIDENCE_LEVEL, intervals);
+    }
+}
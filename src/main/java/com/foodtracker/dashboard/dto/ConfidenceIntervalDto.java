@@ -0,0 +1,18 @@
+package com.foodtracker.dashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ConfidenceIntervalDto {
+    private Double estimate;
+    private Double lower;
+    private Double upper;
+}
@@ -1,6 +1,7 @@
 package com.foodtracker.dashboard.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,4 +22,6 @@ public class ConversionMetricsDto {
     private Integer conversions;
     private LocalDateTime timestamp;
     private List<ConversionStepDto> conversionSteps; // Detailed step-by-step conversion
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ApproximationDto approximation; // Sample rate and confidence intervals, only for approximate results
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.foodtracker.dashboard.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,4 +21,6 @@ public class DashboardMetricsResponseDto {
     private Double conversionRate; // Conversion rate percentage
     private Map<String, Long> popularItems; // Popular items data
     private Map<String, Object> categoryMetrics; // Category-specific metrics
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ApproximationDto approximation; // Sample rate and confidence intervals, only for approximate results
 }
\ No newline at end of file
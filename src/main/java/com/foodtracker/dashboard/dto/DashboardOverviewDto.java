@@ -0,0 +1,19 @@
+package com.foodtracker.dashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DashboardOverviewDto {
+    private DashboardMetricsResponseDto dashboard;
+    private DauMetricsDto dau;
+    private ConversionMetricsDto conversion;
+    private PopularItemsMetricsDto popularItems; // For the requested category, or all categories
+}
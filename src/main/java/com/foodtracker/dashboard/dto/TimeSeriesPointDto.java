@@ -0,0 +1,19 @@
+package com.foodtracker.dashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TimeSeriesPointDto {
+    private LocalDateTime timestamp; // Bucket start (UTC)
+    private Double value;
+}
@@ -0,0 +1,24 @@
+package com.foodtracker.dashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TimeSeriesResponseDto {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String resolution; // minute, hour, day
+    private Long bucketSeconds;
+    private Map<String, List<TimeSeriesPointDto>> series; // events, dau, conversion, revenue
+}
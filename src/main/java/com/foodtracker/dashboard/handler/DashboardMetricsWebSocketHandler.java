@@ -1,64 +1,180 @@
 package com.foodtracker.dashboard.handler;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.foodtracker.dashboard.category.CategoryRegistry;
 import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
 import com.foodtracker.dashboard.service.DashboardMetricsService;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 import java.io.IOException;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Pushes dashboard metrics to the connected WebSocket clients.
+ * <p>
+ * Every session is wrapped in a {@link ConcurrentWebSocketSessionDecorator}: a send while another one is still
+ * writing to the same client is queued instead of waiting, so concurrent sends are safe and a slow client only
+ * holds up the thread already writing to it. Broadcasts fan out on a pool of their own, one task per session.
+ * A client whose queue grows past {@code buffer-size-limit} bytes has its oldest pushes dropped with
+ * {@code overflow=drop}, as each push replaces the previous one, or is disconnected with {@code overflow=terminate};
+ * a client that takes longer than {@code send-time-limit} to accept one push is disconnected either way.
+ * <p>
+ * Clients choose what they receive by sending
+ * {@code {"action":"subscribe","topic":"conversion:pizza","intervalMs":5000}} and
+ * {@code {"action":"unsubscribe","topic":"conversion:pizza"}}, with the topics of {@link MetricsTopic} and an
+ * optional minimum interval between pushes. A client that never subscribes gets the whole {@code dashboard} topic.
+ * Each topic is computed once per push for all its subscribers, and only while it has any.
+ * <p>
+ * A client receives a topic's full snapshot when it subscribes and then only deltas, each tagged with a sequence
+ * number (see {@link MetricsStream}); nothing is sent while the topic does not change. A client that misses a
+ * sequence number, for example because its oldest pushes were dropped, sends {@value #RESYNC} or
+ * {@code {"action":"resync","topic":...}} to get new snapshots.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class DashboardMetricsWebSocketHandler implements WebSocketHandler {
 
+    static final String RESYNC = "resync";
+    static final String SUBSCRIBE = "subscribe";
+    static final String UNSUBSCRIBE = "unsubscribe";
+    // Changes with every computation, so a change of the timestamp alone is not pushed
+    private static final String TIMESTAMP = "timestamp";
+
     private final DashboardMetricsService dashboardMetricsService;
     private final ObjectMapper objectMapper;
+    private final CategoryRegistry categoryRegistry;
+    private final Executor broadcastExecutor;
+    private final int sendTimeLimitMillis;
+    private final int bufferSizeLimit;
+    private final OverflowStrategy overflowStrategy;
 
-    private final CopyOnWriteArraySet<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    private final TopicSubscriptions subscriptions;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
     private final AtomicInteger connectionCounter = new AtomicInteger(0);
 
+    @Autowired
+    public DashboardMetricsWebSocketHandler(DashboardMetricsService dashboardMetricsService,
+                                            ObjectMapper objectMapper,
+                                            CategoryRegistry categoryRegistry,
+                                            @Value("${app.dashboard.websocket.send-threads:8}") int sendThreads,
+                                            @Value("${app.dashboard.websocket.send-time-limit:5s}") Duration sendTimeLimit,
+                                            @Value("${app.dashboard.websocket.buffer-size-limit:65536}") int bufferSizeLimit,
+                                            @Value("${app.dashboard.websocket.overflow:drop}") String overflow) {
+        this(dashboardMetricsService, objectMapper, categoryRegistry, sendExecutor(sendThreads), sendTimeLimit, bufferSizeLimit,
+                OverflowStrategy.valueOf(overflow.toUpperCase()));
+    }
+
+    DashboardMetricsWebSocketHandler(DashboardMetricsService dashboardMetricsService, ObjectMapper objectMapper,
+                                     CategoryRegistry categoryRegistry, Executor broadcastExecutor,
+                                     Duration sendTimeLimit, int bufferSizeLimit, OverflowStrategy overflowStrategy) {
+        this.dashboardMetricsService = dashboardMetricsService;
+        this.objectMapper = objectMapper;
+        this.categoryRegistry = categoryRegistry;
+        this.broadcastExecutor = broadcastExecutor;
+        this.sendTimeLimitMillis = Math.toIntExact(sendTimeLimit.toMillis());
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.overflowStrategy = overflowStrategy;
+        this.subscriptions = new TopicSubscriptions(objectMapper, Set.of(TIMESTAMP), System::nanoTime);
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.add(session);
+        WebSocketSession concurrentSession = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMillis, bufferSizeLimit, overflowStrategy);
+        sessions.put(session.getId(), concurrentSession);
         int connectionCount = connectionCounter.incrementAndGet();
         log.info("New WebSocket connection established. Session ID: {}, Total connections: {}",
                 session.getId(), connectionCount);
 
-        // Send initial metrics data to the newly connected client
-        sendInitialMetrics(session);
+        // Send the current dashboard snapshot to the newly connected client
+        sendSnapshot(concurrentSession, subscriptions.subscribeImplicitly(session.getId(), MetricsTopic.DASHBOARD));
     }
 
     @Override
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        // For now, we only send data to clients, so we don't expect incoming messages
-        // But we log for debugging purposes
         log.debug("Received message from session {}: {}", session.getId(), message.getPayload());
 
-        // Optionally, implement response to specific commands from clients
         if (message.getPayload() instanceof String) {
-            String payload = (String) message.getPayload();
-            if ("refresh".equalsIgnoreCase(payload)) {
-                // Send fresh metrics when client requests refresh
-                sendInitialMetrics(session);
+            String payload = ((String) message.getPayload()).trim();
+            WebSocketSession target = sessions.getOrDefault(session.getId(), session);
+            if (RESYNC.equalsIgnoreCase(payload) || "refresh".equalsIgnoreCase(payload)) {
+                // Client missed a delta or wants to start over, so send the whole current snapshots
+                subscriptions.streams(session.getId()).forEach(stream -> sendSnapshot(target, stream));
+            } else if (payload.startsWith("{")) {
+                handleCommand(target, payload);
             }
         }
     }
 
+    private void handleCommand(WebSocketSession session, String payload) {
+        try {
+            JsonNode command = objectMapper.readTree(payload);
+            String action = command.path("action").asText();
+            JsonNode topicName = command.get("topic");
+            MetricsTopic topic = topicName != null ? MetricsTopic.parse(topicName.asText(), categoryRegistry::contains) : null;
+            switch (action) {
+                case SUBSCRIBE -> {
+                    Duration interval = Duration.ofMillis(command.path("intervalMs").asLong(0));
+                    sendSnapshot(session, subscriptions.subscribe(session.getId(), required(topic), interval));
+                }
+                case UNSUBSCRIBE -> subscriptions.unsubscribe(session.getId(), required(topic));
+                case RESYNC -> {
+                    if (topic == null) {
+                        subscriptions.streams(session.getId()).forEach(stream -> sendSnapshot(session, stream));
+                    } else {
+                        TopicSubscriptions.Stream stream = subscriptions.stream(session.getId(), topic);
+                        if (stream != null) {
+                            sendSnapshot(session, stream);
+                        }
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown action: " + action);
+            }
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            log.debug("Rejected command from session {}: {}", session.getId(), e.getMessage());
+            sendError(session, e instanceof JsonProcessingException ? "Malformed command" : e.getMessage());
+        }
+    }
+
+    private static MetricsTopic required(MetricsTopic topic) {
+        if (topic == null) {
+            throw new IllegalArgumentException("Topic is missing");
+        }
+        return topic;
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         log.error("Transport error in WebSocket session {}: {}", session.getId(), exception.getMessage(), exception);
-        sessions.remove(session);
+        sessions.remove(session.getId());
+        subscriptions.removeSession(session.getId());
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        sessions.remove(session);
+        sessions.remove(session.getId());
+        subscriptions.removeSession(session.getId());
         int connectionCount = connectionCounter.decrementAndGet();
         log.info("WebSocket connection closed. Session ID: {}, Close status: {}, Total connections: {}",
                 session.getId(), closeStatus, connectionCount);
@@ -70,47 +186,168 @@ public class DashboardMetricsWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * Send metrics data to all connected WebSocket clients
+     * Send what changed in the dashboard to its subscribers, nothing if nothing changed;
+     * returns once the sends are queued
      */
     public void broadcastMetrics(DashboardMetricsResponseDto metrics) {
-        String metricsJson;
+        publish(MetricsTopic.DASHBOARD, metrics);
+    }
+
+    /**
+     * Topics that have subscribers
+     */
+    public Set<MetricsTopic> subscribedTopics() {
+        return subscriptions.topics();
+    }
+
+    /**
+     * Topics with subscribers that are due for a push
+     */
+    public Set<MetricsTopic> dueTopics() {
+        return subscriptions.dueTopics();
+    }
+
+    /**
+     * Topics with subscribers that were marked dirty and are due for a push
+     */
+    public Set<MetricsTopic> dirtyTopics() {
+        return subscriptions.dirtyTopics();
+    }
+
+    /**
+     * Records that {@code topic} may have changed; does nothing if it has no subscribers
+     *
+     * @return false if the topic has no subscribers
+     */
+    public boolean markDirty(MetricsTopic topic) {
+        return subscriptions.markDirty(topic);
+    }
+
+    /**
+     * Time until a dirty topic is due for a push, zero if one is due now, empty if no topic is dirty
+     */
+    public Optional<Duration> untilNextDirtyPush() {
+        return subscriptions.untilNextDirty();
+    }
+
+    /**
+     * Send what changed in {@code topic} to its subscribers that are due for a push, nothing if nothing changed;
+     * returns once the sends are queued
+     */
+    public void publish(MetricsTopic topic, Object value) {
+        publish(topic, value, false);
+    }
+
+    /**
+     * Like {@link #publish(MetricsTopic, Object)}, for the subscribers that have not received the topic since it
+     * was last marked dirty
+     */
+    public void publishDirty(MetricsTopic topic, Object value) {
+        publish(topic, value, true);
+    }
+
+    private void publish(MetricsTopic topic, Object value, boolean dirtyOnly) {
+        List<TopicSubscriptions.Stream> due = subscriptions.takeDue(topic, dirtyOnly);
+        if (due.isEmpty()) {
+            return;
+        }
+        ObjectNode tree;
         try {
-            metricsJson = objectMapper.writeValueAsString(metrics);
+            tree = objectMapper.valueToTree(value);
         } catch (Exception e) {
             log.error("Error serializing metrics to JSON", e);
             return;
         }
+        for (TopicSubscriptions.Stream stream : due) {
+            String update = stream.metrics().publish(tree);
+            if (update == null) {
+                log.debug("Topic {} unchanged, nothing to push", topic);
+            } else {
+                fanOut(stream, update);
+            }
+        }
+    }
 
-        for (WebSocketSession session : sessions) {
+    private void fanOut(TopicSubscriptions.Stream stream, String update) {
+        TextMessage message = new TextMessage(update);
+        for (String sessionId : stream.sessionIds()) {
+            WebSocketSession session = sessions.get(sessionId);
+            if (session == null) {
+                continue;
+            }
             try {
-                if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(metricsJson));
-                }
-            } catch (IOException e) {
-                log.error("Error broadcasting metrics to session {}", session.getId(), e);
-                // Remove session if there's an error
-                sessions.remove(session);
-                try {
-                    session.close(CloseStatus.SERVER_ERROR);
-                } catch (IOException ioException) {
-                    log.error("Error closing failed session", ioException);
-                }
+                broadcastExecutor.execute(() -> send(session, message));
+            } catch (RejectedExecutionException e) {
+                log.debug("WebSocket send pool shut down, not broadcasting");
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (broadcastExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void send(WebSocketSession session, TextMessage message) {
+        try {
+            if (session.isOpen()) {
+                session.sendMessage(message);
+            }
+        } catch (SessionLimitExceededException e) {
+            log.info("Disconnecting slow WebSocket client {}: {}", session.getId(), e.getMessage());
+            sessions.remove(session.getId());
+            try {
+                session.close(e.getStatus());
+            } catch (IOException ioException) {
+                log.debug("Error closing slow session {}", session.getId(), ioException);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error broadcasting metrics to session {}", session.getId(), e);
+            // Remove session if there's an error
+            sessions.remove(session.getId());
+            try {
+                session.close(CloseStatus.SERVER_ERROR);
+            } catch (IOException ioException) {
+                log.error("Error closing failed session", ioException);
             }
         }
     }
 
     /**
-     * Send initial metrics data to a newly connected client
+     * Send the current snapshot of a topic to one client, computing it if nothing was pushed yet
      */
-    private void sendInitialMetrics(WebSocketSession session) {
+    private void sendSnapshot(WebSocketSession session, TopicSubscriptions.Stream stream) {
         try {
-            DashboardMetricsResponseDto metrics = dashboardMetricsService.getDashboardMetrics();
-            String metricsJson = objectMapper.writeValueAsString(metrics);
+            MetricsStream metrics = stream.metrics();
+            String snapshot = metrics.snapshot();
+            if (snapshot == null) {
+                Object value = stream.topic().compute(dashboardMetricsService);
+                String update = metrics.publish(objectMapper.valueToTree(value));
+                if (update != null && !update.equals(metrics.snapshot())) {
+                    // A push published the first version meanwhile, so the others need this one as a delta
+                    fanOut(stream, update);
+                }
+                snapshot = metrics.snapshot();
+            }
             if (session.isOpen()) {
-                session.sendMessage(new TextMessage(metricsJson));
+                session.sendMessage(new TextMessage(snapshot));
             }
         } catch (Exception e) {
-            log.error("Error sending initial metrics to session {}", session.getId(), e);
+            log.error("Error sending metrics snapshot to session {}", session.getId(), e);
+        }
+    }
+
+    private void sendError(WebSocketSession session, String error) {
+        try {
+            String message = objectMapper.writeValueAsString(Map.of("type", "error", "message", error));
+            if (session.isOpen()) {
+                session.sendMessage(new TextMessage(message));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Error sending error to session {}", session.getId(), e);
         }
     }
 
@@ -120,4 +357,13 @@ public class DashboardMetricsWebSocketHandler implements WebSocketHandler {
     public int getConnectedClientCount() {
         return sessions.size();
     }
-}
\ No newline at end of file
+
+    private static ExecutorService sendExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-ws-send-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
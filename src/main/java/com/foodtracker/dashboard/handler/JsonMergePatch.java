@@ -0,0 +1,47 @@
+package com.foodtracker.dashboard.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7386) between two documents: fields that changed, with nested objects diffed
+ * field by field, arrays and scalars replaced whole, and removed fields set to null.
+ */
+final class JsonMergePatch {
+
+    private JsonMergePatch() {
+    }
+
+    /**
+     * Patch that turns {@code source} into {@code target}; an empty object if they are equal
+     */
+    static ObjectNode diff(ObjectNode source, ObjectNode target) {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+        Iterator<String> sourceFields = source.fieldNames();
+        while (sourceFields.hasNext()) {
+            String field = sourceFields.next();
+            if (!target.has(field)) {
+                patch.putNull(field);
+            }
+        }
+        Iterator<Map.Entry<String, JsonNode>> targetFields = target.fields();
+        while (targetFields.hasNext()) {
+            Map.Entry<String, JsonNode> field = targetFields.next();
+            JsonNode previous = source.get(field.getKey());
+            JsonNode current = field.getValue();
+            if (previous != null && previous.equals(current)) {
+                continue;
+            }
+            if (previous instanceof ObjectNode previousObject && current instanceof ObjectNode currentObject) {
+                patch.set(field.getKey(), diff(previousObject, currentObject));
+            } else {
+                patch.set(field.getKey(), current);
+            }
+        }
+        return patch;
+    }
+}
@@ -0,0 +1,98 @@
+package com.foodtracker.dashboard.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sequence of versions of one pushed document, as the messages sent to clients.
+ * <p>
+ * The first version is published as {@code {"topic":t,"type":"snapshot","seq":n,"data":{...}}} and every later one
+ * as {@code {"topic":t,"type":"delta","seq":n,"patch":{...}}}, a JSON Merge Patch against the previous version. A version that
+ * differs from the previous one only in {@code volatileFields}, such as the time it was computed, is not published.
+ * A client applies a delta only on top of the version before it and asks for a resync when it sees a gap.
+ */
+final class MetricsStream {
+
+    static final String SNAPSHOT = "snapshot";
+    static final String DELTA = "delta";
+
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final Set<String> volatileFields;
+    private ObjectNode current;
+    private long sequence;
+    // Serialized once per version, however many clients connect or resync
+    private String snapshotMessage;
+
+    MetricsStream(ObjectMapper objectMapper, String topic, Set<String> volatileFields) {
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.volatileFields = volatileFields;
+    }
+
+    /**
+     * Makes {@code next} the current version
+     *
+     * @return the message to send to subscribed clients, or null if nothing changed
+     */
+    synchronized String publish(ObjectNode next) {
+        if (current == null) {
+            current = next;
+            sequence++;
+            return snapshot();
+        }
+        ObjectNode patch = JsonMergePatch.diff(current, next);
+        if (volatileFields.containsAll(fieldNames(patch))) {
+            return null;
+        }
+        current = next;
+        sequence++;
+        snapshotMessage = null;
+        ObjectNode message = objectMapper.createObjectNode()
+                .put("topic", topic)
+                .put("type", DELTA)
+                .put("seq", sequence);
+        message.set("patch", patch);
+        return write(message);
+    }
+
+    /**
+     * Full current version, or null if nothing was published yet
+     */
+    synchronized String snapshot() {
+        if (current == null) {
+            return null;
+        }
+        if (snapshotMessage == null) {
+            ObjectNode message = objectMapper.createObjectNode()
+                    .put("topic", topic)
+                    .put("type", SNAPSHOT)
+                    .put("seq", sequence);
+            message.set("data", current);
+            snapshotMessage = write(message);
+        }
+        return snapshotMessage;
+    }
+
+    synchronized long sequence() {
+        return sequence;
+    }
+
+    private static Set<String> fieldNames(ObjectNode patch) {
+        Set<String> fields = new HashSet<>();
+        patch.fieldNames().forEachRemaining(fields::add);
+        return fields;
+    }
+
+    private String write(ObjectNode message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize metrics message", e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.foodtracker.dashboard.handler;
+
+import com.foodtracker.dashboard.service.DashboardMetricsService;
+
+import java.util.function.Predicate;
+
+/**
+ * Metric a WebSocket client can subscribe to: {@code dashboard}, {@code dau}, {@code conversion:{category}}
+ * or {@code popular:{category}}.
+ */
+public record MetricsTopic(Kind kind, String category) {
+
+    public static final MetricsTopic DASHBOARD = new MetricsTopic(Kind.DASHBOARD, null);
+    public static final MetricsTopic DAU = new MetricsTopic(Kind.DAU, null);
+
+    public enum Kind {
+        DASHBOARD("dashboard", false),
+        DAU("dau", false),
+        CONVERSION("conversion", true),
+        POPULAR("popular", true);
+
+        private final String prefix;
+        private final boolean perCategory;
+
+        Kind(String prefix, boolean perCategory) {
+            this.prefix = prefix;
+            this.perCategory = perCategory;
+        }
+    }
+
+    /**
+     * Parses a topic name without checking its category
+     *
+     * @throws IllegalArgumentException if {@code name} is not a topic
+     */
+    public static MetricsTopic parse(String name) {
+        return parse(name, category -> true);
+    }
+
+    /**
+     * @param knownCategory whether a category exists
+     * @throws IllegalArgumentException if {@code name} is not a topic or names an unknown category
+     */
+    public static MetricsTopic parse(String name, Predicate<String> knownCategory) {
+        if (name == null) {
+            throw new IllegalArgumentException("Topic is missing");
+        }
+        int separator = name.indexOf(':');
+        String prefix = separator < 0 ? name : name.substring(0, separator);
+        String category = separator < 0 ? null : name.substring(separator + 1);
+        for (Kind kind : Kind.values()) {
+            if (kind.prefix.equals(prefix)) {
+                if (kind.perCategory == (category == null || category.isBlank())) {
+                    throw new IllegalArgumentException(kind.perCategory
+                            ? "Topic " + prefix + " needs a category, as in " + prefix + ":pizza"
+                            : "Topic " + prefix + " takes no category");
+                }
+                if (category != null && !knownCategory.test(category)) {
+                    throw new IllegalArgumentException("Unknown category: " + category);
+                }
+                return new MetricsTopic(kind, category);
+            }
+        }
+        throw new IllegalArgumentException("Unknown topic: " + name);
+    }
+
+    public String name() {
+        return category != null ? kind.prefix + ":" + category : kind.prefix;
+    }
+
+    /**
+     * Current value of the topic, read through the metrics cache
+     */
+    public Object compute(DashboardMetricsService dashboardMetricsService) {
+        return switch (kind) {
+            case DASHBOARD -> dashboardMetricsService.getDashboardMetrics();
+            case DAU -> dashboardMetricsService.getDauMetrics();
+            case CONVERSION -> dashboardMetricsService.getConversionMetrics(category);
+            case POPULAR -> dashboardMetricsService.getPopularItemsMetrics(category);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
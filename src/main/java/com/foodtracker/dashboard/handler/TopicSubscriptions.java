@@ -0,0 +1,264 @@
+package com.foodtracker.dashboard.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Which WebSocket sessions receive which topics, and how often.
+ * <p>
+ * Sessions that subscribe to the same topic at the same interval share one {@link Stream}, so the topic is
+ * serialized and diffed once for all of them and they all apply the same sequence of deltas. A stream is dropped
+ * with its last subscriber, so a topic nobody subscribes to is neither computed nor kept. A stream is marked dirty
+ * when its topic may have changed and stays dirty until its next push.
+ */
+final class TopicSubscriptions {
+
+    static final int MAX_TOPICS_PER_SESSION = 32;
+    static final Duration MAX_INTERVAL = Duration.ofMinutes(5);
+
+    private final ObjectMapper objectMapper;
+    private final Set<String> volatileFields;
+    private final LongSupplier nanoClock;
+    // Streams of each topic by interval in seconds
+    private final Map<MetricsTopic, Map<Long, Stream>> topicStreams = new ConcurrentHashMap<>();
+    private final Map<String, Map<MetricsTopic, Stream>> sessionStreams = new ConcurrentHashMap<>();
+    // Sessions that only have the subscription every session starts with
+    private final Set<String> implicit = ConcurrentHashMap.newKeySet();
+
+    TopicSubscriptions(ObjectMapper objectMapper, Set<String> volatileFields, LongSupplier nanoClock) {
+        this.objectMapper = objectMapper;
+        this.volatileFields = volatileFields;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Subscription a session starts with, replaced by its first explicit {@link #subscribe}
+     */
+    synchronized Stream subscribeImplicitly(String sessionId, MetricsTopic topic) {
+        Stream stream = subscribe(sessionId, topic, Duration.ZERO);
+        implicit.add(sessionId);
+        return stream;
+    }
+
+    /**
+     * Subscribes a session to {@code topic}, replacing its previous interval for the topic
+     *
+     * @param interval minimum time between two pushes, rounded up to whole seconds; zero for every update
+     * @throws IllegalArgumentException if the interval is out of range or the session has too many topics
+     */
+    synchronized Stream subscribe(String sessionId, MetricsTopic topic, Duration interval) {
+        if (interval.isNegative() || interval.compareTo(MAX_INTERVAL) > 0) {
+            throw new IllegalArgumentException("Interval must be between 0 and " + MAX_INTERVAL.toSeconds() + " s");
+        }
+        if (implicit.remove(sessionId)) {
+            removeSession(sessionId);
+        }
+        Map<MetricsTopic, Stream> subscribed = sessionStreams.computeIfAbsent(sessionId, id -> new HashMap<>());
+        if (!subscribed.containsKey(topic) && subscribed.size() >= MAX_TOPICS_PER_SESSION) {
+            throw new IllegalArgumentException("At most " + MAX_TOPICS_PER_SESSION + " topics per connection");
+        }
+        long seconds = interval.toSeconds() + (interval.toNanosPart() > 0 ? 1 : 0);
+        Stream stream = topicStreams.computeIfAbsent(topic, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(seconds, s -> new Stream(topic, seconds, Duration.ofSeconds(seconds).toNanos(),
+                        new MetricsStream(objectMapper, topic.name(), volatileFields)));
+        Stream previous = subscribed.put(topic, stream);
+        if (previous != null && previous != stream) {
+            leave(previous, sessionId);
+        }
+        stream.sessionIds.add(sessionId);
+        return stream;
+    }
+
+    synchronized boolean unsubscribe(String sessionId, MetricsTopic topic) {
+        implicit.remove(sessionId);
+        Map<MetricsTopic, Stream> subscribed = sessionStreams.get(sessionId);
+        Stream stream = subscribed != null ? subscribed.remove(topic) : null;
+        if (stream == null) {
+            return false;
+        }
+        leave(stream, sessionId);
+        return true;
+    }
+
+    synchronized void removeSession(String sessionId) {
+        implicit.remove(sessionId);
+        Map<MetricsTopic, Stream> subscribed = sessionStreams.remove(sessionId);
+        if (subscribed != null) {
+            subscribed.values().forEach(stream -> leave(stream, sessionId));
+        }
+    }
+
+    synchronized Collection<Stream> streams(String sessionId) {
+        Map<MetricsTopic, Stream> subscribed = sessionStreams.get(sessionId);
+        return subscribed != null ? List.copyOf(subscribed.values()) : List.of();
+    }
+
+    synchronized Stream stream(String sessionId, MetricsTopic topic) {
+        Map<MetricsTopic, Stream> subscribed = sessionStreams.get(sessionId);
+        return subscribed != null ? subscribed.get(topic) : null;
+    }
+
+    /**
+     * Topics with at least one subscriber
+     */
+    Set<MetricsTopic> topics() {
+        return Set.copyOf(topicStreams.keySet());
+    }
+
+    /**
+     * Topics with at least one stream whose interval has passed since its last push
+     */
+    Set<MetricsTopic> dueTopics() {
+        long now = nanoClock.getAsLong();
+        return topicsWith(stream -> stream.isDue(now));
+    }
+
+    /**
+     * Topics with at least one dirty stream whose interval has passed since its last push
+     */
+    Set<MetricsTopic> dirtyTopics() {
+        long now = nanoClock.getAsLong();
+        return topicsWith(stream -> stream.isDirtyAndDue(now));
+    }
+
+    /**
+     * Marks the streams of {@code topic} as changed; costs one lookup if nobody subscribes to it
+     *
+     * @return false if the topic has no subscribers
+     */
+    boolean markDirty(MetricsTopic topic) {
+        Map<Long, Stream> streams = topicStreams.get(topic);
+        if (streams == null) {
+            return false;
+        }
+        streams.values().forEach(Stream::markDirty);
+        return true;
+    }
+
+    /**
+     * Time until the next dirty stream is due, zero if one is due now, empty if no stream is dirty
+     */
+    Optional<Duration> untilNextDirty() {
+        long now = nanoClock.getAsLong();
+        return topicStreams.values().stream()
+                .flatMap(streams -> streams.values().stream())
+                .map(stream -> stream.untilDirtyDue(now))
+                .filter(nanos -> nanos >= 0)
+                .min(Long::compare)
+                .map(Duration::ofNanos);
+    }
+
+    /**
+     * Streams of {@code topic} whose interval has passed, dirty ones only if {@code dirtyOnly}; each is marked
+     * as pushed now
+     */
+    List<Stream> takeDue(MetricsTopic topic, boolean dirtyOnly) {
+        Map<Long, Stream> streams = topicStreams.get(topic);
+        if (streams == null) {
+            return List.of();
+        }
+        long now = nanoClock.getAsLong();
+        return streams.values().stream()
+                .filter(stream -> stream.take(now, dirtyOnly))
+                .toList();
+    }
+
+    private Set<MetricsTopic> topicsWith(Predicate<Stream> condition) {
+        Set<MetricsTopic> topics = new LinkedHashSet<>();
+        topicStreams.forEach((topic, streams) -> {
+            if (streams.values().stream().anyMatch(condition)) {
+                topics.add(topic);
+            }
+        });
+        return topics;
+    }
+
+    private void leave(Stream stream, String sessionId) {
+        stream.sessionIds.remove(sessionId);
+        if (stream.sessionIds.isEmpty()) {
+            topicStreams.computeIfPresent(stream.topic, (topic, streams) -> {
+                streams.remove(stream.intervalSeconds, stream);
+                return streams.isEmpty() ? null : streams;
+            });
+        }
+    }
+
+    /**
+     * One topic pushed at one interval to a set of sessions
+     */
+    static final class Stream {
+        private final MetricsTopic topic;
+        private final long intervalSeconds;
+        private final long intervalNanos;
+        private final MetricsStream metrics;
+        private final Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+        private boolean pushed;
+        private long pushedAt;
+        private boolean dirty;
+
+        private Stream(MetricsTopic topic, long intervalSeconds, long intervalNanos, MetricsStream metrics) {
+            this.topic = topic;
+            this.intervalSeconds = intervalSeconds;
+            this.intervalNanos = intervalNanos;
+            this.metrics = metrics;
+        }
+
+        MetricsTopic topic() {
+            return topic;
+        }
+
+        MetricsStream metrics() {
+            return metrics;
+        }
+
+        Set<String> sessionIds() {
+            return sessionIds;
+        }
+
+        private synchronized void markDirty() {
+            dirty = true;
+        }
+
+        private synchronized boolean isDue(long now) {
+            return untilDue(now) == 0;
+        }
+
+        private synchronized boolean isDirtyAndDue(long now) {
+            return dirty && isDue(now);
+        }
+
+        private synchronized long untilDirtyDue(long now) {
+            return dirty ? untilDue(now) : -1;
+        }
+
+        private synchronized boolean take(long now, boolean dirtyOnly) {
+            if ((dirtyOnly && !dirty) || !isDue(now)) {
+                return false;
+            }
+            pushed = true;
+            pushedAt = now;
+            dirty = false;
+            return true;
+        }
+
+        private long untilDue(long now) {
+            if (!pushed) {
+                return 0;
+            }
+            // A tenth of the interval early is on time, so a push tick slightly early does not skip a whole tick
+            long dueAt = pushedAt + intervalNanos - intervalNanos / 10;
+            return Math.max(dueAt - now, 0);
+        }
+    }
+}
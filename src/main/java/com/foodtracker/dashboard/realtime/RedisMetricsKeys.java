@@ -0,0 +1,64 @@
+package com.foodtracker.dashboard.realtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Key layout of the Redis metrics, bucketed by minute since the epoch.
+ * <ul>
+ *     <li>{@code foodtracker:metrics:v1:users:<category>:<minute>} - HyperLogLog of user IDs</li>
+ *     <li>{@code foodtracker:metrics:v1:items:<category>:<minute>} - sorted set of item views</li>
+ *     <li>{@code foodtracker:metrics:v1:funnel:<minute>} - hash of event counts, field {@code <category>:<eventType>}</li>
+ * </ul>
+ * Every key expires a few minutes after it leaves the one hour window.
+ */
+final class RedisMetricsKeys {
+
+    static final String PREFIX = "foodtracker:metrics:v1:";
+    static final String ALL_CATEGORIES = "all";
+    static final int WINDOW_MINUTES = 60;
+    static final Duration KEY_TTL = Duration.ofMinutes(WINDOW_MINUTES + 5L);
+
+    private RedisMetricsKeys() {
+    }
+
+    static String users(String category, long minute) {
+        return PREFIX + "users:" + category + ":" + minute;
+    }
+
+    static String items(String category, long minute) {
+        return PREFIX + "items:" + category + ":" + minute;
+    }
+
+    static String funnel(long minute) {
+        return PREFIX + "funnel:" + minute;
+    }
+
+    static String field(String category, String eventType) {
+        return category + ":" + eventType;
+    }
+
+    static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    /**
+     * Number of minute buckets covering {@code window}, capped at the one hour window
+     */
+    static int minutes(Duration window) {
+        return (int) Math.min(Math.max(window.toMinutes(), 1), WINDOW_MINUTES);
+    }
+
+    /**
+     * Keys of the last {@code minutes} buckets, oldest first
+     */
+    static List<String> lastMinutes(int minutes, long nowMinute, LongFunction<String> key) {
+        List<String> keys = new ArrayList<>(minutes);
+        for (long minute = nowMinute - minutes + 1; minute <= nowMinute; minute++) {
+            keys.add(key.apply(minute));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,128 @@
+package com.foodtracker.dashboard.realtime;
+
+import com.foodtracker.dashboard.sketch.ItemCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads the Redis metrics written by {@link RedisMetricsWriter} over a window of up to one hour.
+ * <p>
+ * Distinct users are merged by PFCOUNT over the minute keys, funnel counters are summed from the
+ * minute hashes, and top items come from a short-lived ZUNIONSTORE of the minute sorted sets.
+ * Every call is one pipelined round trip.
+ */
+@Component
+@ConditionalOnProperty(name = "app.dashboard.metrics-source", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisMetricsReader {
+
+    public static final String ALL_CATEGORIES = RedisMetricsKeys.ALL_CATEGORIES;
+
+    private static final Duration TOP_ITEMS_TTL = Duration.ofSeconds(5);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Distinct users per category over the window; {@link #ALL_CATEGORIES} counts every user
+     */
+    public Map<String, Long> distinctUsers(Collection<String> categories, Duration window) {
+        int minutes = RedisMetricsKeys.minutes(window);
+        long nowMinute = RedisMetricsKeys.currentMinute();
+        List<String> ordered = new ArrayList<>(categories);
+        List<Object> results = pipelined(operations -> ordered.forEach(category -> operations.opsForHyperLogLog()
+                .size(RedisMetricsKeys.lastMinutes(minutes, nowMinute, minute -> RedisMetricsKeys.users(category, minute))
+                        .toArray(String[]::new))));
+
+        Map<String, Long> users = new LinkedHashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            users.put(ordered.get(i), toLong(results.get(i)));
+        }
+        return users;
+    }
+
+    /**
+     * Event counts by category and event type over the window; {@link #ALL_CATEGORIES} holds the totals
+     */
+    public Map<String, Map<String, Long>> eventCounts(Duration window) {
+        List<String> keys = RedisMetricsKeys.lastMinutes(
+                RedisMetricsKeys.minutes(window), RedisMetricsKeys.currentMinute(), RedisMetricsKeys::funnel);
+        List<Object> results = pipelined(operations -> keys.forEach(key -> operations.opsForHash().entries(key)));
+
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        for (Object result : results) {
+            if (!(result instanceof Map<?, ?> entries)) {
+                continue;
+            }
+            entries.forEach((field, value) -> {
+                String name = field.toString();
+                int separator = name.lastIndexOf(':');
+                if (separator < 0) {
+                    return;
+                }
+                counts.computeIfAbsent(name.substring(0, separator), category -> new HashMap<>())
+                        .merge(name.substring(separator + 1), toLong(value), Long::sum);
+            });
+        }
+        return counts;
+    }
+
+    /**
+     * Most viewed items of a category over the window, highest count first
+     */
+    public List<ItemCount> topItems(String category, Duration window, int limit) {
+        int minutes = RedisMetricsKeys.minutes(window);
+        long nowMinute = RedisMetricsKeys.currentMinute();
+        List<String> keys = RedisMetricsKeys.lastMinutes(minutes, nowMinute, minute -> RedisMetricsKeys.items(category, minute));
+        String destination = RedisMetricsKeys.PREFIX + "top:" + category + ":" + minutes + ":" + nowMinute;
+
+        List<Object> results = pipelined(operations -> {
+            operations.opsForZSet().unionAndStore(keys.get(0), keys.subList(1, keys.size()), destination);
+            operations.expire(destination, TOP_ITEMS_TTL);
+            operations.opsForZSet().reverseRangeWithScores(destination, 0, limit - 1L);
+        });
+
+        List<ItemCount> items = new ArrayList<>();
+        if (results.size() > 2 && results.get(2) instanceof Set<?> tuples) {
+            for (Object tuple : tuples) {
+                if (tuple instanceof ZSetOperations.TypedTuple<?> typed && typed.getValue() != null && typed.getScore() != null) {
+                    items.add(new ItemCount(typed.getValue().toString(), Math.round(typed.getScore()), 0));
+                }
+            }
+        }
+        return items;
+    }
+
+    private List<Object> pipelined(Consumer<RedisOperations<String, String>> commands) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+        return results != null ? results : List.of();
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : 0;
+    }
+}
@@ -0,0 +1,168 @@
+package com.foodtracker.dashboard.realtime;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.dashboard.category.CategoryRegistry;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes tracked events into the Redis metrics described in {@link RedisMetricsKeys}.
+ * <p>
+ * Events are queued at ingest and sent in one pipeline per flush: PFADD of the user per category,
+ * HINCRBY of the funnel counter and, for item views, ZINCRBY of the item, followed by one EXPIRE per
+ * touched key. Ingest never waits for Redis; when the queue is full new events are dropped and counted.
+ * Per-category keys are only written for categories the {@link CategoryRegistry} accepts, so their number stays
+ * within {@code app.dashboard.categories.max}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.dashboard.metrics-source", havingValue = "redis")
+@Slf4j
+public class RedisMetricsWriter {
+
+    static final String ITEM_VIEWED = "item_viewed";
+    static final String ITEM_NAME = "item_name";
+    static final String CATEGORY = "category";
+    static final String FLUSH_JOB = "redis-metrics-flush";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CategoryRegistry categoryRegistry;
+    private final RefreshExecutor refreshExecutor;
+    private final int maxPending;
+    private final Duration flushInterval;
+    private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public RedisMetricsWriter(StringRedisTemplate redisTemplate,
+                              CategoryRegistry categoryRegistry,
+                              RefreshExecutor refreshExecutor,
+                              @Value("${app.dashboard.redis-metrics.max-pending:100000}") int maxPending,
+                              @Value("${app.dashboard.redis-metrics.flush-interval-ms:100}") long flushIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.categoryRegistry = categoryRegistry;
+        this.refreshExecutor = refreshExecutor;
+        this.maxPending = maxPending;
+        this.flushInterval = Duration.ofMillis(flushIntervalMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refreshExecutor.schedule(FLUSH_JOB, flushInterval, this::flush);
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        Event event = eventTracked.event();
+        if (event.getTimestamp() == null || event.getUserId() == null || event.getEventType() == null) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        pending.add(event);
+    }
+
+    /**
+     * Sends the queued events in one pipeline
+     */
+    public void flush() {
+        long droppedEvents = dropped.getAndSet(0);
+        if (droppedEvents > 0) {
+            log.warn("Redis metrics queue full, dropped {} events", droppedEvents);
+        }
+        List<Event> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    write((RedisOperations<String, String>) operations, batch);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Could not write {} events to Redis metrics: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private List<Event> drain() {
+        List<Event> batch = new ArrayList<>();
+        Event event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private void write(RedisOperations<String, String> operations, List<Event> batch) {
+        long oldestMinute = RedisMetricsKeys.currentMinute() - RedisMetricsKeys.WINDOW_MINUTES;
+        Set<String> touched = new LinkedHashSet<>();
+        for (Event event : batch) {
+            long minute = event.getTimestamp().getEpochSecond() / 60;
+            if (minute <= oldestMinute) {
+                continue;
+            }
+            String category = property(event, CATEGORY);
+            String item = ITEM_VIEWED.equals(event.getEventType()) ? property(event, ITEM_NAME) : null;
+
+            String funnelKey = RedisMetricsKeys.funnel(minute);
+            touched.add(funnelKey);
+            for (String target : isTracked(category)
+                    ? List.of(RedisMetricsKeys.ALL_CATEGORIES, category)
+                    : List.of(RedisMetricsKeys.ALL_CATEGORIES)) {
+                String usersKey = RedisMetricsKeys.users(target, minute);
+                operations.opsForHyperLogLog().add(usersKey, event.getUserId());
+                touched.add(usersKey);
+
+                operations.opsForHash().increment(funnelKey, RedisMetricsKeys.field(target, event.getEventType()), 1);
+
+                if (item != null) {
+                    String itemsKey = RedisMetricsKeys.items(target, minute);
+                    operations.opsForZSet().incrementScore(itemsKey, item, 1);
+                    touched.add(itemsKey);
+                }
+            }
+        }
+        touched.forEach(key -> operations.expire(key, RedisMetricsKeys.KEY_TTL));
+    }
+
+    /**
+     * Whether {@code category} gets its own keys; a category named like the overall keys would count twice there
+     */
+    private boolean isTracked(String category) {
+        return category != null && !category.equals(RedisMetricsKeys.ALL_CATEGORIES)
+                && categoryRegistry.contains(category);
+    }
+
+    private static String property(Event event, String name) {
+        Map<String, Object> properties = event.getProperties();
+        Object value = properties != null ? properties.get(name) : null;
+        return value != null && !value.toString().isBlank() ? value.toString() : null;
+    }
+}
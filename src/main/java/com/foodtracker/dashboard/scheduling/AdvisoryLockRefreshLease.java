@@ -0,0 +1,117 @@
+package com.foodtracker.dashboard.scheduling;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Per-key refresh lease on a Postgres session-level advisory lock when
+ * {@code app.dashboard.refresh.coordination=advisory-lock}.
+ * <p>
+ * The locks of all keys are taken with {@code pg_try_advisory_lock} and released with {@code pg_advisory_unlock}
+ * on one connection of this node, outside any transaction, so concurrent refreshes hold a single connection between
+ * them and their own queries get the rest of the pool. If the node dies or the connection drops, the server releases
+ * its locks and another node takes over the key on its next tick. Nodes that find the lock held skip the refresh and
+ * keep reading the shared cache. Locks are reentrant within the session, so runs for the same key on this node must
+ * not overlap, which {@link RefreshExecutor#execute} already ensures.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.dashboard.refresh.coordination", havingValue = "advisory-lock")
+@RequiredArgsConstructor
+@Slf4j
+public class AdvisoryLockRefreshLease implements RefreshLease {
+
+    // First half of the two-key lock, so these locks never collide with other advisory lock users
+    static final int LOCK_NAMESPACE = 0x46544452;
+    static final String TRY_LOCK = "select pg_try_advisory_lock(?, ?)";
+    static final String UNLOCK = "select pg_advisory_unlock(?, ?)";
+    static final String UNLOCK_ALL = "select pg_advisory_unlock_all()";
+
+    private final DataSource dataSource;
+    // Session holding this node's locks, guarded by this
+    private Connection connection;
+
+    @Override
+    public boolean runIfOwner(String key, Runnable task) {
+        int lockKey = key.hashCode();
+        if (!tryLock(lockKey)) {
+            log.debug("Refresh of {} is running on another node", key);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            unlock(key, lockKey);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeConnection();
+    }
+
+    private synchronized boolean tryLock(int lockKey) {
+        try {
+            return query(TRY_LOCK, lockKey);
+        } catch (SQLException e) {
+            closeConnection();
+            throw new IllegalStateException("Could not take advisory lock", e);
+        }
+    }
+
+    private synchronized void unlock(String key, int lockKey) {
+        try {
+            query(UNLOCK, lockKey);
+        } catch (SQLException e) {
+            // The lock went away with the broken session
+            log.warn("Could not release advisory lock of {}: {}", key, e.getMessage());
+            closeConnection();
+        }
+    }
+
+    private boolean query(String sql, int lockKey) throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, lockKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Returns the connection to the pool without any of this node's locks
+     */
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(UNLOCK_ALL)) {
+            statement.execute();
+        } catch (SQLException e) {
+            log.debug("Could not release advisory locks: {}", e.getMessage());
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not close advisory lock connection: {}", e.getMessage());
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.foodtracker.dashboard.scheduling;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node lease: every refresh runs here
+ */
+@Component
+public class LocalRefreshLease implements RefreshLease {
+
+    @Override
+    public boolean runIfOwner(String key, Runnable task) {
+        task.run();
+        return true;
+    }
+}
@@ -0,0 +1,14 @@
+package com.foodtracker.dashboard.scheduling;
+
+/**
+ * Decides which node runs a refresh, so nodes sharing a cache do not all recompute the same value
+ */
+public interface RefreshLease {
+
+    /**
+     * Runs {@code task} while holding the lease for {@code key}
+     *
+     * @return false if another node holds the lease and the task did not run
+     */
+    boolean runIfOwner(String key, Runnable task);
+}
@@ -2,9 +2,16 @@ package com.foodtracker.dashboard.service;
 
 import com.foodtracker.dashboard.dto.*;
 
+import java.time.Instant;
+import java.util.Set;
+
 public interface DashboardMetricsBusinessService {
     DashboardMetricsResponseDto getDashboardMetrics();
+    DashboardMetricsResponseDto getApproximateDashboardMetrics();
+    DashboardMetricsResponseDto getGlobalDashboardMetrics();
     DauMetricsDto getDauMetrics();
     ConversionMetricsDto getConversionMetrics(String category);
+    ConversionMetricsDto getApproximateConversionMetrics(String category);
     PopularItemsMetricsDto getPopularItemsMetrics(String category);
+    TimeSeriesResponseDto getTimeSeries(Instant from, Instant to, Set<String> metrics, int maxPoints);
 }
\ No newline at end of file
@@ -4,11 +4,16 @@ import com.foodtracker.dashboard.dto.*;
 import com.foodtracker.dashboard.usecase.conversion.CalculateConversionMetricsUseCase;
 import com.foodtracker.dashboard.usecase.dashboard.CalculateDashboardMetricsUseCase;
 import com.foodtracker.dashboard.usecase.dau.CalculateDauMetricsUseCase;
+import com.foodtracker.dashboard.usecase.global.CalculateGlobalDashboardMetricsUseCase;
 import com.foodtracker.dashboard.usecase.popular.CalculatePopularItemsMetricsUseCase;
+import com.foodtracker.dashboard.usecase.timeseries.CalculateTimeSeriesUseCase;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -18,12 +23,24 @@ public class DashboardMetricsBusinessServiceImpl implements DashboardMetricsBusi
     private final CalculateDauMetricsUseCase calculateDauMetricsUseCase;
     private final CalculateConversionMetricsUseCase calculateConversionMetricsUseCase;
     private final CalculatePopularItemsMetricsUseCase calculatePopularItemsMetricsUseCase;
+    private final CalculateTimeSeriesUseCase calculateTimeSeriesUseCase;
+    private final CalculateGlobalDashboardMetricsUseCase calculateGlobalDashboardMetricsUseCase;
 
     @Override
     public DashboardMetricsResponseDto getDashboardMetrics() {
         return calculateDashboardMetricsUseCase.calculateDashboardMetrics();
     }
 
+    @Override
+    public DashboardMetricsResponseDto getApproximateDashboardMetrics() {
+        return calculateDashboardMetricsUseCase.calculateApproximateDashboardMetrics();
+    }
+
+    @Override
+    public DashboardMetricsResponseDto getGlobalDashboardMetrics() {
+        return calculateGlobalDashboardMetricsUseCase.calculateGlobalDashboardMetrics();
+    }
+
     @Override
     public DauMetricsDto getDauMetrics() {
         return calculateDauMetricsUseCase.calculateDauMetrics();
@@ -34,8 +51,18 @@ public class DashboardMetricsBusinessServiceImpl implements DashboardMetricsBusi
         return calculateConversionMetricsUseCase.calculateConversionMetrics(category);
     }
 
+    @Override
+    public ConversionMetricsDto getApproximateConversionMetrics(String category) {
+        return calculateConversionMetricsUseCase.calculateApproximateConversionMetrics(category);
+    }
+
     @Override
     public PopularItemsMetricsDto getPopularItemsMetrics(String category) {
         return calculatePopularItemsMetricsUseCase.calculatePopularItemsMetrics(category);
     }
+
+    @Override
+    public TimeSeriesResponseDto getTimeSeries(Instant from, Instant to, Set<String> metrics, int maxPoints) {
+        return calculateTimeSeriesUseCase.calculateTimeSeries(from, to, metrics, maxPoints);
+    }
 }
\ No newline at end of file
@@ -1,10 +1,24 @@
 package com.foodtracker.dashboard.service;
 
 import com.foodtracker.dashboard.dto.*;
+import com.foodtracker.dashboard.handler.MetricsTopic;
+
+import java.time.Instant;
+import java.util.Set;
 
 public interface DashboardMetricsService {
     DashboardMetricsResponseDto getDashboardMetrics();
+    DashboardMetricsResponseDto getApproximateDashboardMetrics();
+    DashboardMetricsResponseDto getGlobalDashboardMetrics();
     DauMetricsDto getDauMetrics();
     ConversionMetricsDto getConversionMetrics(String category);
+    ConversionMetricsDto getApproximateConversionMetrics(String category);
     PopularItemsMetricsDto getPopularItemsMetrics(String category);
+    DashboardOverviewDto getDashboardOverview(String category);
+    TimeSeriesResponseDto getTimeSeries(Instant from, Instant to, Set<String> metrics, int maxPoints);
+
+    /**
+     * Recomputes the value of {@code topic} and replaces its cached value, however fresh that is
+     */
+    Object reload(MetricsTopic topic);
 }
\ No newline at end of file
@@ -1,11 +1,24 @@
 package com.foodtracker.dashboard.service;
 
 import com.foodtracker.dashboard.cache.CacheService;
+import com.foodtracker.dashboard.cache.CacheTtl;
+import com.foodtracker.dashboard.cache.CachedValue;
+import com.foodtracker.dashboard.cache.DashboardCacheRefreshService;
 import com.foodtracker.dashboard.dto.*;
+import com.foodtracker.dashboard.handler.MetricsTopic;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -13,74 +26,183 @@ public class DashboardMetricsServiceImpl implements DashboardMetricsService {
 
     private final DashboardMetricsBusinessService businessService;
     private final CacheService cacheService;
+    private final DashboardCacheRefreshService refreshService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String DASHBOARD_METRICS_KEY = "dashboard:metrics";
     private static final String DAU_METRICS_KEY = "dashboard:dau";
     private static final String CONVERSION_METRICS_KEY = "dashboard:conversion";
     private static final String POPULAR_ITEMS_METRICS_KEY = "dashboard:popular_items";
-    private static final int CACHE_EXPIRY_SECONDS = 30;
+    private static final String APPROX_SUFFIX = ":approx";
+
+    /**
+     * Age after which a cached value is refreshed in the background while still being served
+     */
+    @Value("${app.dashboard.cache.soft-ttl:30s}")
+    private Duration softTtl = Duration.ofSeconds(30);
+
+    /**
+     * Age after which a cached value is dropped and the next caller waits for a recompute
+     */
+    @Value("${app.dashboard.cache.hard-ttl:10m}")
+    private Duration hardTtl = Duration.ofMinutes(10);
 
     @Override
     public DashboardMetricsResponseDto getDashboardMetrics() {
         String key = DASHBOARD_METRICS_KEY;
-        var cachedMetrics = cacheService.get(key, DashboardMetricsResponseDto.class);
-
-        if (cachedMetrics.isEmpty()) {
-            log.info("Cache miss for dashboard metrics, recalculating...");
-            var metrics = businessService.getDashboardMetrics();
-            cacheService.put(key, metrics, CACHE_EXPIRY_SECONDS);
-            return metrics;
-        } else {
-            log.info("Cache hit for dashboard metrics");
-            return cachedMetrics.get();
-        }
+        return cached(key, null, MetricsTopic.DASHBOARD, DashboardMetricsResponseDto.class, () -> {
+            log.info("Recalculating dashboard metrics...");
+            return businessService.getDashboardMetrics();
+        });
+    }
+
+    @Override
+    public DashboardMetricsResponseDto getApproximateDashboardMetrics() {
+        String key = DASHBOARD_METRICS_KEY + APPROX_SUFFIX;
+        return cached(key, null, null, DashboardMetricsResponseDto.class, () -> {
+            log.info("Recalculating approximate dashboard metrics...");
+            return businessService.getApproximateDashboardMetrics();
+        });
+    }
+
+    @Override
+    public DashboardMetricsResponseDto getGlobalDashboardMetrics() {
+        // Merged from partials in Redis that change every second, so caching would only add staleness
+        return businessService.getGlobalDashboardMetrics();
     }
 
     @Override
     public DauMetricsDto getDauMetrics() {
         String key = DAU_METRICS_KEY;
-        var cachedMetrics = cacheService.get(key, DauMetricsDto.class);
-
-        if (cachedMetrics.isEmpty()) {
-            log.info("Cache miss for DAU metrics, recalculating...");
-            var metrics = businessService.getDauMetrics();
-            cacheService.put(key, metrics, CACHE_EXPIRY_SECONDS);
-            return metrics;
-        } else {
-            log.info("Cache hit for DAU metrics");
-            return cachedMetrics.get();
-        }
+        return cached(key, null, MetricsTopic.DAU, DauMetricsDto.class, () -> {
+            log.info("Recalculating DAU metrics...");
+            return businessService.getDauMetrics();
+        });
     }
 
     @Override
     public ConversionMetricsDto getConversionMetrics(String category) {
-        String key = CONVERSION_METRICS_KEY + ":" + (category != null ? category : "all");
-        var cachedMetrics = cacheService.get(key, ConversionMetricsDto.class);
-
-        if (cachedMetrics.isEmpty()) {
-            log.info("Cache miss for conversion metrics, recalculating for category: {}", category);
-            var metrics = businessService.getConversionMetrics(category);
-            cacheService.put(key, metrics, CACHE_EXPIRY_SECONDS);
-            return metrics;
-        } else {
-            log.info("Cache hit for conversion metrics");
-            return cachedMetrics.get();
-        }
+        String key = conversionKey(category);
+        return cached(key, category, categoryTopic(MetricsTopic.Kind.CONVERSION, category), ConversionMetricsDto.class, () -> {
+            log.info("Recalculating conversion metrics for category: {}", category);
+            return businessService.getConversionMetrics(category);
+        });
+    }
+
+    @Override
+    public ConversionMetricsDto getApproximateConversionMetrics(String category) {
+        String key = conversionKey(category) + APPROX_SUFFIX;
+        return cached(key, category, null, ConversionMetricsDto.class, () -> {
+            log.info("Recalculating approximate conversion metrics for category: {}", category);
+            return businessService.getApproximateConversionMetrics(category);
+        });
     }
 
     @Override
     public PopularItemsMetricsDto getPopularItemsMetrics(String category) {
-        String key = POPULAR_ITEMS_METRICS_KEY + ":" + (category != null ? category : "all");
-        var cachedMetrics = cacheService.get(key, PopularItemsMetricsDto.class);
-
-        if (cachedMetrics.isEmpty()) {
-            log.info("Cache miss for popular items metrics, recalculating for category: {}", category);
-            var metrics = businessService.getPopularItemsMetrics(category);
-            cacheService.put(key, metrics, CACHE_EXPIRY_SECONDS);
-            return metrics;
-        } else {
-            log.info("Cache hit for popular items metrics");
-            return cachedMetrics.get();
+        String key = popularItemsKey(category);
+        return cached(key, category, categoryTopic(MetricsTopic.Kind.POPULAR, category), PopularItemsMetricsDto.class, () -> {
+            log.info("Recalculating popular items metrics for category: {}", category);
+            return businessService.getPopularItemsMetrics(category);
+        });
+    }
+
+    /**
+     * Reads all four cached values in one batch; only values that are missing or older than the soft TTL
+     * go through their own getters, which load or refresh them
+     */
+    @Override
+    public DashboardOverviewDto getDashboardOverview(String category) {
+        String conversionKey = conversionKey(category);
+        String popularItemsKey = popularItemsKey(category);
+        Map<String, CachedValue<?>> cached = cacheService.getAll(Map.of(
+                DASHBOARD_METRICS_KEY, DashboardMetricsResponseDto.class,
+                DAU_METRICS_KEY, DauMetricsDto.class,
+                conversionKey, ConversionMetricsDto.class,
+                popularItemsKey, PopularItemsMetricsDto.class));
+
+        cached.keySet().forEach(refreshService::recordAccess);
+
+        return DashboardOverviewDto.builder()
+                .dashboard(fresh(cached, DASHBOARD_METRICS_KEY, DashboardMetricsResponseDto.class)
+                        .orElseGet(this::getDashboardMetrics))
+                .dau(fresh(cached, DAU_METRICS_KEY, DauMetricsDto.class)
+                        .orElseGet(this::getDauMetrics))
+                .conversion(fresh(cached, conversionKey, ConversionMetricsDto.class)
+                        .orElseGet(() -> getConversionMetrics(category)))
+                .popularItems(fresh(cached, popularItemsKey, PopularItemsMetricsDto.class)
+                        .orElseGet(() -> getPopularItemsMetrics(category)))
+                .build();
+    }
+
+    @Override
+    public TimeSeriesResponseDto getTimeSeries(Instant from, Instant to, Set<String> metrics, int maxPoints) {
+        // Series are read from pre-aggregated buckets, so they are cheap enough to skip the cache
+        return businessService.getTimeSeries(from, to, metrics, maxPoints);
+    }
+
+    @Override
+    public Object reload(MetricsTopic topic) {
+        String category = topic.category();
+        return switch (topic.kind()) {
+            case DASHBOARD -> reload(DASHBOARD_METRICS_KEY, businessService::getDashboardMetrics);
+            case DAU -> reload(DAU_METRICS_KEY, businessService::getDauMetrics);
+            case CONVERSION -> reload(conversionKey(category), () -> businessService.getConversionMetrics(category));
+            case POPULAR -> reload(popularItemsKey(category), () -> businessService.getPopularItemsMetrics(category));
+        };
+    }
+
+    /**
+     * Cached value of {@code key}, kept refreshed in the background while it is being read
+     *
+     * @param topic topic announced through {@link MetricsRecomputed} whenever the value is recomputed, or null
+     */
+    private <T> T cached(String key, String category, MetricsTopic topic, Class<T> type, Supplier<T> compute) {
+        Supplier<T> loader = topic == null ? compute : () -> {
+            T value = compute.get();
+            eventPublisher.publishEvent(new MetricsRecomputed(topic, value));
+            return value;
+        };
+        CacheTtl ttl = cacheTtl();
+        refreshService.track(key, category, ttl, loader);
+        return cacheService.getOrLoad(key, type, ttl, loader);
+    }
+
+    private <T> T reload(String key, Supplier<T> compute) {
+        log.debug("Reloading cache key {}", key);
+        T value = compute.get();
+        cacheService.put(key, value, cacheTtl().hardSeconds());
+        return value;
+    }
+
+    private <T> Optional<T> fresh(Map<String, CachedValue<?>> cached, String key, Class<T> type) {
+        CachedValue<?> entry = cached.get(key);
+        if (entry == null || !type.isInstance(entry.value())) {
+            return Optional.empty();
+        }
+        long expiresIn = entry.expiresInMillis();
+        if (expiresIn >= 0 && hardTtl.toMillis() - expiresIn >= softTtl.toMillis()) {
+            return Optional.empty();
         }
+        return Optional.of(type.cast(entry.value()));
+    }
+
+    /**
+     * Topic of a per-category value; values over all categories have none
+     */
+    private static MetricsTopic categoryTopic(MetricsTopic.Kind kind, String category) {
+        return category != null ? new MetricsTopic(kind, category) : null;
+    }
+
+    private static String conversionKey(String category) {
+        return CONVERSION_METRICS_KEY + ":" + (category != null ? category : "all");
+    }
+
+    private static String popularItemsKey(String category) {
+        return POPULAR_ITEMS_METRICS_KEY + ":" + (category != null ? category : "all");
+    }
+
+    private CacheTtl cacheTtl() {
+        return new CacheTtl(softTtl, hardTtl);
     }
-}
\ No newline at end of file
+}
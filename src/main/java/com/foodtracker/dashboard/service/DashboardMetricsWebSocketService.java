@@ -1,49 +1,168 @@
 package com.foodtracker.dashboard.service;
 
-import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import com.foodtracker.core.concurrent.RefreshExecutor;
 import com.foodtracker.dashboard.handler.DashboardMetricsWebSocketHandler;
+import com.foodtracker.dashboard.handler.MetricsTopic;
+import com.foodtracker.shared.event.EventTracked;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes the subscribed metric topics to WebSocket clients when their values change.
+ * <p>
+ * Every committed {@link EventTracked} marks the topics it can affect as dirty: {@code dashboard} and {@code dau},
+ * plus {@code conversion} and {@code popular} of the event's category. Marking does nothing for topics without
+ * subscribers. The first mark schedules a push that reloads the dirty topics, bypassing their cached values, at
+ * least {@code min-push-interval} after the previous push, so a burst of events costs one reload per topic and no
+ * events means no work. A {@link MetricsRecomputed} value from the metrics cache is sent to the due subscribers of
+ * its topic right away. Subscribers with a longer interval get a topic once their interval has passed.
+ * {@code push-interval} optionally re-pushes every subscribed topic; it is off by default.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DashboardMetricsWebSocketService {
 
+    static final String PUSH_JOB = "websocket-push";
+    static final String PUSH_CHANGES_JOB = "websocket-push-changes";
+    private static final String CATEGORY = "category";
+
     private final DashboardMetricsService dashboardMetricsService;
     private final DashboardMetricsWebSocketHandler webSocketHandler;
+    private final RefreshExecutor refreshExecutor;
+    // When the earliest scheduled push of dirty topics runs, Long.MAX_VALUE if none is scheduled
+    private final AtomicLong nextPushAt = new AtomicLong(Long.MAX_VALUE);
+    private volatile long lastPushNanos = System.nanoTime();
+
+    @Value("${app.dashboard.websocket.push-interval:0s}")
+    private Duration pushInterval = Duration.ZERO;
+
+    @Value("${app.dashboard.websocket.min-push-interval:250ms}")
+    private Duration minPushInterval = Duration.ofMillis(250);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (pushInterval.isPositive()) {
+            refreshExecutor.schedule(PUSH_JOB, pushInterval, this::pushMetricsUpdates);
+        }
+    }
 
     /**
-     * Scheduled method to push updated metrics to connected WebSocket clients every 10 seconds
+     * Marks the topics the event can change; runs after the event's transaction commits
      */
-    @Scheduled(fixedRate = 10000) // Update every 10 seconds
-    public void pushMetricsUpdates() {
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventTracked(EventTracked eventTracked) {
+        boolean subscribed = webSocketHandler.markDirty(MetricsTopic.DASHBOARD);
+        subscribed |= webSocketHandler.markDirty(MetricsTopic.DAU);
+        Map<String, Object> properties = eventTracked.event().getProperties();
+        Object category = properties != null ? properties.get(CATEGORY) : null;
+        if (category != null) {
+            subscribed |= webSocketHandler.markDirty(new MetricsTopic(MetricsTopic.Kind.CONVERSION, category.toString()));
+            subscribed |= webSocketHandler.markDirty(new MetricsTopic(MetricsTopic.Kind.POPULAR, category.toString()));
+        }
+        if (subscribed) {
+            schedulePush(Duration.ZERO);
+        }
+    }
+
+    /**
+     * Sends a recomputed value to the subscribers of its topic that are due and schedules a push for the others
+     */
+    @EventListener
+    public void onMetricsRecomputed(MetricsRecomputed recomputed) {
+        MetricsTopic topic = recomputed.topic();
+        if (!webSocketHandler.markDirty(topic)) {
+            return;
+        }
         try {
-            // Only push updates if there are connected clients
-            if (webSocketHandler.getConnectedClientCount() > 0) {
-                DashboardMetricsResponseDto metrics = dashboardMetricsService.getDashboardMetrics();
-                webSocketHandler.broadcastMetrics(metrics);
-                log.debug("Pushed metrics update to {} connected WebSocket clients", 
-                        webSocketHandler.getConnectedClientCount());
-            }
+            webSocketHandler.publishDirty(topic, recomputed.value());
         } catch (Exception e) {
-            log.error("Error pushing metrics updates to WebSocket clients", e);
+            log.error("Error pushing topic {} to WebSocket clients", topic, e);
         }
+        webSocketHandler.untilNextDirtyPush().ifPresent(this::schedulePush);
     }
 
     /**
-     * Push metrics update immediately to all connected clients
+     * Reloads the dirty topics and pushes them to the subscribers that are due, then schedules the next push if
+     * any topic is still dirty, e.g. for subscribers with a longer interval
      */
-    public void pushImmediateUpdate() {
+    public void pushChanges() {
+        // Cleared first, so a topic marked during this push is left for the next one
+        nextPushAt.set(Long.MAX_VALUE);
+        lastPushNanos = System.nanoTime();
         try {
-            DashboardMetricsResponseDto metrics = dashboardMetricsService.getDashboardMetrics();
-            webSocketHandler.broadcastMetrics(metrics);
-            log.info("Pushed immediate metrics update to {} connected WebSocket clients", 
+            for (MetricsTopic topic : webSocketHandler.dirtyTopics()) {
+                try {
+                    webSocketHandler.publishDirty(topic, dashboardMetricsService.reload(topic));
+                } catch (Exception e) {
+                    log.error("Error pushing topic {} to WebSocket clients", topic, e);
+                }
+            }
+        } finally {
+            webSocketHandler.untilNextDirtyPush().ifPresent(this::schedulePush);
+        }
+    }
+
+    /**
+     * Pushes the subscribed topics that are due to their WebSocket subscribers, every {@code push-interval} if set;
+     * each topic is computed once however many clients subscribe to it
+     */
+    public void pushMetricsUpdates() {
+        Set<MetricsTopic> topics = webSocketHandler.dueTopics();
+        push(topics);
+        if (!topics.isEmpty()) {
+            log.debug("Pushed {} topics to {} connected WebSocket clients", topics.size(),
                     webSocketHandler.getConnectedClientCount());
-        } catch (Exception e) {
-            log.error("Error pushing immediate metrics update to WebSocket clients", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Push every subscribed topic immediately
+     */
+    public void pushImmediateUpdate() {
+        Set<MetricsTopic> topics = webSocketHandler.subscribedTopics();
+        push(topics);
+        log.info("Pushed immediate update of {} topics to {} connected WebSocket clients", topics.size(),
+                webSocketHandler.getConnectedClientCount());
+    }
+
+    private void push(Set<MetricsTopic> topics) {
+        for (MetricsTopic topic : topics) {
+            try {
+                webSocketHandler.publish(topic, topic.compute(dashboardMetricsService));
+            } catch (Exception e) {
+                log.error("Error pushing topic {} to WebSocket clients", topic, e);
+            }
+        }
+    }
+
+    /**
+     * Schedules a push of the dirty topics after {@code notBefore}, and at least {@code min-push-interval} after the
+     * previous push, unless one is already scheduled by then. Pushes may overlap; each subscriber still gets a topic
+     * once per interval.
+     */
+    private void schedulePush(Duration notBefore) {
+        long now = System.nanoTime();
+        Duration delay = Duration.ofNanos(Math.max(0,
+                Math.max(notBefore.toNanos(), minPushInterval.toNanos() - (now - lastPushNanos))));
+        long at = now + delay.toNanos();
+        long scheduled = nextPushAt.get();
+        while (at < scheduled) {
+            if (nextPushAt.compareAndSet(scheduled, at)) {
+                refreshExecutor.executeLater(PUSH_CHANGES_JOB, delay, this::pushChanges);
+                return;
+            }
+            scheduled = nextPushAt.get();
+        }
+    }
+}
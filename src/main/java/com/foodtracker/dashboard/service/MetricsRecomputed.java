@@ -0,0 +1,10 @@
+package com.foodtracker.dashboard.service;
+
+import com.foodtracker.dashboard.handler.MetricsTopic;
+
+/**
+ * Published when the value of a topic was recomputed to replace its cached value, by a cold load, a stale read
+ * or a background refresh.
+ */
+public record MetricsRecomputed(MetricsTopic topic, Object value) {
+}
@@ -0,0 +1,11 @@
+package com.foodtracker.dashboard.sketch;
+
+/**
+ * Estimated count of an item in a heavy hitters summary.
+ *
+ * @param item  item name
+ * @param count estimated count, never lower than the true count
+ * @param error maximum over-estimation included in {@code count}
+ */
+public record ItemCount(String item, long count, long error) {
+}
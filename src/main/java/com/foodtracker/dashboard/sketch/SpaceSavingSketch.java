@@ -0,0 +1,150 @@
+package com.foodtracker.dashboard.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy hitters summary (Metwally et al.) that keeps at most {@code capacity} counters.
+ * <p>
+ * Counts are never under-estimated and over-estimated by at most the recorded error.
+ * Two summaries can be merged (Agarwal et al., "Mergeable Summaries"), so per-bucket
+ * or per-node summaries can be combined without going back to the raw events.
+ */
+public class SpaceSavingSketch {
+
+    private static final Comparator<ItemCount> BY_COUNT_DESC =
+            Comparator.comparingLong(ItemCount::count).reversed().thenComparing(ItemCount::item);
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Restore a summary from {@link #items()}, keeping the recorded errors
+     */
+    public static SpaceSavingSketch fromItems(int capacity, List<ItemCount> items) {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        items.stream()
+                .sorted(BY_COUNT_DESC)
+                .limit(capacity)
+                .forEach(item -> sketch.counters.put(item.item(), new Counter(item.count(), item.error())));
+        return sketch;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized void offer(String item, long increment) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += increment;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(increment, 0));
+            return;
+        }
+        // Replace the smallest counter; the new item inherits its count as error
+        String minItem = null;
+        Counter minCounter = null;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (minCounter == null || entry.getValue().count < minCounter.count) {
+                minItem = entry.getKey();
+                minCounter = entry.getValue();
+            }
+        }
+        counters.remove(minItem);
+        counters.put(item, new Counter(minCounter.count + increment, minCounter.count));
+    }
+
+    /**
+     * Merge another summary into this one. The other summary is not modified.
+     */
+    public void merge(SpaceSavingSketch other) {
+        List<ItemCount> otherItems = other.items();
+        long otherFloor = otherItems.size() >= other.capacity ? minCount(otherItems) : 0;
+
+        synchronized (this) {
+            List<ItemCount> ownItems = itemsUnsafe();
+            long ownFloor = ownItems.size() >= capacity ? minCount(ownItems) : 0;
+
+            Map<String, ItemCount> ownByItem = new HashMap<>();
+            ownItems.forEach(item -> ownByItem.put(item.item(), item));
+            Map<String, ItemCount> otherByItem = new HashMap<>();
+            otherItems.forEach(item -> otherByItem.put(item.item(), item));
+
+            Set<String> union = new HashSet<>(ownByItem.keySet());
+            union.addAll(otherByItem.keySet());
+
+            List<ItemCount> merged = new ArrayList<>(union.size());
+            for (String item : union) {
+                ItemCount own = ownByItem.get(item);
+                ItemCount theirs = otherByItem.get(item);
+                long count = (own != null ? own.count() : ownFloor) + (theirs != null ? theirs.count() : otherFloor);
+                long error = (own != null ? own.error() : ownFloor) + (theirs != null ? theirs.error() : otherFloor);
+                merged.add(new ItemCount(item, count, error));
+            }
+            merged.sort(BY_COUNT_DESC);
+
+            counters.clear();
+            merged.stream()
+                    .limit(capacity)
+                    .forEach(item -> counters.put(item.item(), new Counter(item.count(), item.error())));
+        }
+    }
+
+    /**
+     * Tracked items ordered by estimated count, highest first.
+     */
+    public synchronized List<ItemCount> top(int limit) {
+        return itemsUnsafe().stream()
+                .sorted(BY_COUNT_DESC)
+                .limit(limit)
+                .toList();
+    }
+
+    public synchronized List<ItemCount> items() {
+        return itemsUnsafe();
+    }
+
+    public synchronized boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    public synchronized void clear() {
+        counters.clear();
+    }
+
+    private List<ItemCount> itemsUnsafe() {
+        List<ItemCount> items = new ArrayList<>(counters.size());
+        counters.forEach((item, counter) -> items.add(new ItemCount(item, counter.count, counter.error)));
+        return items;
+    }
+
+    private static long minCount(List<ItemCount> items) {
+        return items.stream().mapToLong(ItemCount::count).min().orElse(0);
+    }
+
+    private static final class Counter {
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.foodtracker.dashboard.timeseries;
+
+import java.time.Instant;
+
+/**
+ * Aggregated activity of one time bucket.
+ *
+ * @param start    bucket start
+ * @param events   number of events
+ * @param users    distinct users, estimated for buckets updated at ingest
+ * @param sessions number of app_opened events
+ * @param orders   number of order_placed events
+ * @param revenue  sum of order totals
+ */
+public record BucketSnapshot(Instant start, long events, long users, long sessions, long orders, double revenue) {
+
+    static BucketSnapshot empty(Instant start) {
+        return new BucketSnapshot(start, 0, 0, 0, 0, 0.0);
+    }
+
+    /**
+     * Orders per app open, in percent
+     */
+    public double conversionRate() {
+        return sessions > 0 ? (double) orders / sessions * 100 : 0.0;
+    }
+}
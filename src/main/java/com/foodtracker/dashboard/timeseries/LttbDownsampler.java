@@ -0,0 +1,78 @@
+package com.foodtracker.dashboard.timeseries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013).
+ * <p>
+ * Keeps the first and last points and, for every bucket in between, the point that forms the
+ * largest triangle with the previously kept point and the average of the next bucket.
+ * Peaks and dips survive, which plain averaging would flatten.
+ */
+public final class LttbDownsampler {
+
+    private LttbDownsampler() {
+    }
+
+    /**
+     * Indices of the points to keep, in ascending order.
+     *
+     * @param xs        x values, ascending
+     * @param ys        y values
+     * @param threshold maximum number of points to keep
+     */
+    public static List<Integer> downsample(double[] xs, double[] ys, int threshold) {
+        int size = xs.length;
+        List<Integer> kept = new ArrayList<>();
+        if (threshold >= size || threshold < 3) {
+            for (int i = 0; i < size; i++) {
+                kept.add(i);
+            }
+            return kept;
+        }
+
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+        int previous = 0;
+        kept.add(previous);
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket (the last point for the final bucket)
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += xs[i];
+                avgY += ys[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            if (nextCount > 0) {
+                avgX /= nextCount;
+                avgY /= nextCount;
+            } else {
+                avgX = xs[size - 1];
+                avgY = ys[size - 1];
+            }
+
+            double maxArea = -1;
+            int selected = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((xs[previous] - avgX) * (ys[i] - ys[previous])
+                        - (xs[previous] - xs[i]) * (avgY - ys[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+            kept.add(selected);
+            previous = selected;
+        }
+
+        kept.add(size - 1);
+        return kept;
+    }
+}
@@ -0,0 +1,151 @@
+package com.foodtracker.dashboard.timeseries;
+
+import com.foodtracker.dashboard.sketch.HyperLogLog;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.MetricBucketRow;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Mutable counters of one time bucket.
+ * <p>
+ * Distinct users loaded from the database are kept as an exact count; users seen at ingest
+ * go into a HyperLogLog that is only allocated once the bucket receives live events. An exact
+ * count cannot tell whether a later user is already in it, so it takes no more users until
+ * {@link #seedUsers} replaces it with a sketch of the same users. Users seen while those are being
+ * loaded are held aside and added with them.
+ */
+final class MetricBucket {
+
+    static final String APP_OPENED = "app_opened";
+    static final String ORDER_PLACED = "order_placed";
+    static final String TOTAL = "total";
+
+    private final int hllPrecision;
+    private long index = Long.MIN_VALUE;
+    private long events;
+    private long sessions;
+    private long orders;
+    private double revenue;
+    private long loadedUsers;
+    private boolean exactUsers;
+    // Users seen since the load of the bucket's users started, null when no load is running
+    private Set<String> seedingUsers;
+    private HyperLogLog users;
+
+    MetricBucket(int hllPrecision) {
+        this.hllPrecision = hllPrecision;
+    }
+
+    synchronized long index() {
+        return index;
+    }
+
+    /**
+     * Make this slot hold the given bucket, clearing older data.
+     *
+     * @return false when the slot already holds a newer bucket
+     */
+    synchronized boolean claim(long bucketIndex) {
+        if (index == bucketIndex) {
+            return true;
+        }
+        if (index > bucketIndex) {
+            return false;
+        }
+        index = bucketIndex;
+        events = 0;
+        sessions = 0;
+        orders = 0;
+        revenue = 0;
+        loadedUsers = 0;
+        exactUsers = false;
+        seedingUsers = null;
+        users = null;
+        return true;
+    }
+
+    synchronized void record(Event event) {
+        events++;
+        if (APP_OPENED.equals(event.getEventType())) {
+            sessions++;
+        } else if (ORDER_PLACED.equals(event.getEventType())) {
+            orders++;
+            revenue += orderTotal(event);
+        }
+        if (!exactUsers) {
+            addUser(event.getUserId());
+        } else if (seedingUsers != null) {
+            seedingUsers.add(event.getUserId());
+        }
+    }
+
+    synchronized void load(MetricBucketRow row, boolean includeUsers) {
+        events += row.getEvents();
+        sessions += row.getSessions();
+        orders += row.getOrders();
+        revenue += row.getRevenue() != null ? row.getRevenue() : 0.0;
+        if (includeUsers) {
+            loadedUsers += row.getUsers();
+            exactUsers = true;
+        }
+    }
+
+    /**
+     * Starts a load of the bucket's users for {@link #seedUsers}
+     *
+     * @return false if the users are not an exact count or a load is already running
+     */
+    synchronized boolean startSeeding() {
+        if (!exactUsers || seedingUsers != null) {
+            return false;
+        }
+        seedingUsers = new HashSet<>();
+        return true;
+    }
+
+    /**
+     * Ends a load of the bucket's users that failed, so the next user seen starts another
+     */
+    synchronized void seedingFailed() {
+        seedingUsers = null;
+    }
+
+    /**
+     * Replaces the exact user count with a sketch of {@code userIds}, all users of the bucket,
+     * plus the users seen while they were being loaded, so later users can be added without
+     * counting anyone twice
+     */
+    synchronized void seedUsers(Collection<String> userIds) {
+        users = null;
+        userIds.forEach(this::addUser);
+        if (seedingUsers != null) {
+            seedingUsers.forEach(this::addUser);
+        }
+        seedingUsers = null;
+        loadedUsers = 0;
+        exactUsers = false;
+    }
+
+    synchronized void addUser(String userId) {
+        if (users == null) {
+            users = new HyperLogLog(hllPrecision);
+        }
+        users.add(userId);
+    }
+
+    synchronized BucketSnapshot snapshot(Instant start) {
+        long distinctUsers = loadedUsers + (users != null ? users.cardinality() : 0);
+        return new BucketSnapshot(start, events, distinctUsers, sessions, orders, revenue);
+    }
+
+    private static double orderTotal(Event event) {
+        if (event.getProperties() != null && event.getProperties().get(TOTAL) instanceof Number total) {
+            return total.doubleValue();
+        }
+        return 0.0;
+    }
+}
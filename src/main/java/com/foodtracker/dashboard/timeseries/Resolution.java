@@ -0,0 +1,43 @@
+package com.foodtracker.dashboard.timeseries;
+
+import java.time.Duration;
+
+/**
+ * Bucket widths kept by {@link TimeSeriesStore}, finest first.
+ * Each resolution keeps enough buckets to cover its retention.
+ */
+public enum Resolution {
+    MINUTE(Duration.ofMinutes(1), Duration.ofDays(2), 10),
+    HOUR(Duration.ofHours(1), Duration.ofDays(90), 12),
+    DAY(Duration.ofDays(1), Duration.ofDays(400), 12);
+
+    private final Duration width;
+    private final Duration retention;
+    private final int hllPrecision;
+
+    Resolution(Duration width, Duration retention, int hllPrecision) {
+        this.width = width;
+        this.retention = retention;
+        this.hllPrecision = hllPrecision;
+    }
+
+    public Duration width() {
+        return width;
+    }
+
+    public Duration retention() {
+        return retention;
+    }
+
+    public long widthSeconds() {
+        return width.toSeconds();
+    }
+
+    int bucketCount() {
+        return Math.toIntExact(retention.dividedBy(width));
+    }
+
+    int hllPrecision() {
+        return hllPrecision;
+    }
+}
@@ -0,0 +1,219 @@
+package com.foodtracker.dashboard.timeseries;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.MetricBucketRow;
+import com.foodtracker.shared.repository.UserLastSeen;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-aggregated activity buckets at minute, hour and day resolution.
+ * <p>
+ * Buckets are updated at ingest from {@link EventTracked}, so reading a series costs one
+ * bucket per point whatever the time range. On startup each resolution is rebuilt from one
+ * grouped query over its retention period.
+ */
+@Component
+@Slf4j
+public class TimeSeriesStore {
+
+    static final String SEED_JOB = "time-series-seed-users";
+
+    private final EventRepository eventRepository;
+    private final Map<Resolution, BucketRing> rings = new EnumMap<>(Resolution.class);
+
+    public TimeSeriesStore(EventRepository eventRepository, RefreshExecutor refreshExecutor) {
+        this.eventRepository = eventRepository;
+        for (Resolution resolution : Resolution.values()) {
+            rings.put(resolution, new BucketRing(resolution, eventRepository, refreshExecutor));
+        }
+    }
+
+    /**
+     * Rebuilds all resolutions from the database once, before the application starts taking traffic
+     */
+    @PostConstruct
+    public void backfill() {
+        Instant now = Instant.now();
+        try {
+            for (Resolution resolution : Resolution.values()) {
+                BucketRing ring = rings.get(resolution);
+                long currentIndex = ring.indexOf(now);
+                List<MetricBucketRow> rows = eventRepository.aggregateBucketsBetween(
+                        resolution.widthSeconds(), now.minus(resolution.retention()), now);
+                // Distinct users of the open bucket are replayed below, so later events can be merged into them
+                rows.forEach(row -> ring.load(row, row.getBucket() != currentIndex));
+                log.info("Time series {} resolution backfilled with {} buckets", resolution, rows.size());
+            }
+
+            Instant dayStart = Instant.ofEpochSecond(rings.get(Resolution.DAY).indexOf(now) * Resolution.DAY.widthSeconds());
+            List<UserLastSeen> users = eventRepository.findUsersLastSeenSince(dayStart);
+            for (UserLastSeen user : users) {
+                Instant seen = Instant.ofEpochSecond(user.getSeen());
+                rings.values().forEach(ring -> ring.addUserToOpenBucket(user.getId(), seen, now));
+            }
+        } catch (Exception e) {
+            log.warn("Could not backfill time series store, starting empty", e);
+        }
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        Event event = eventTracked.event();
+        if (event.getTimestamp() == null || event.getUserId() == null) {
+            return;
+        }
+        rings.values().forEach(ring -> ring.record(event));
+    }
+
+    /**
+     * Buckets overlapping {@code [from, to)}, oldest first; buckets without activity are returned as zeros
+     */
+    public List<BucketSnapshot> read(Resolution resolution, Instant from, Instant to) {
+        return rings.get(resolution).read(from, to);
+    }
+
+    /**
+     * Pick the finest resolution that still covers {@code from} and needs at most
+     * {@code maxBuckets} buckets for the range, falling back to the coarsest one.
+     */
+    public Resolution chooseResolution(Instant from, Instant to, int maxBuckets) {
+        Instant now = Instant.now();
+        long rangeSeconds = Math.max(to.getEpochSecond() - from.getEpochSecond(), 1);
+        for (Resolution resolution : Resolution.values()) {
+            boolean covered = !from.isBefore(now.minus(resolution.retention()));
+            long buckets = rangeSeconds / resolution.widthSeconds();
+            if (covered && buckets <= maxBuckets) {
+                return resolution;
+            }
+        }
+        return Resolution.DAY;
+    }
+
+    /**
+     * Fixed ring of buckets for one resolution; a slot is reused once its bucket leaves the retention period
+     */
+    private static final class BucketRing {
+        private final Resolution resolution;
+        private final EventRepository eventRepository;
+        private final RefreshExecutor refreshExecutor;
+        private final MetricBucket[] buckets;
+
+        private BucketRing(Resolution resolution, EventRepository eventRepository, RefreshExecutor refreshExecutor) {
+            this.resolution = resolution;
+            this.eventRepository = eventRepository;
+            this.refreshExecutor = refreshExecutor;
+            this.buckets = new MetricBucket[resolution.bucketCount()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new MetricBucket(resolution.hllPrecision());
+            }
+        }
+
+        private long indexOf(Instant instant) {
+            return Math.floorDiv(instant.getEpochSecond(), resolution.widthSeconds());
+        }
+
+        private MetricBucket slot(long index) {
+            return buckets[(int) Math.floorMod(index, (long) buckets.length)];
+        }
+
+        private boolean inRetention(long index, Instant now) {
+            long currentIndex = indexOf(now);
+            return index > currentIndex - buckets.length && index <= currentIndex;
+        }
+
+        private void record(Event event) {
+            long index = indexOf(event.getTimestamp());
+            if (!inRetention(index, Instant.now())) {
+                return;
+            }
+            MetricBucket bucket = slot(index);
+            boolean seed;
+            synchronized (bucket) {
+                if (!bucket.claim(index)) {
+                    return;
+                }
+                // Late event for a bucket closed at startup; its users are loaded once, off the caller's thread
+                seed = bucket.startSeeding();
+                bucket.record(event);
+            }
+            if (seed) {
+                refreshExecutor.executeLater(SEED_JOB, Duration.ZERO, () -> seedUsers(bucket, index));
+            }
+        }
+
+        private void seedUsers(MetricBucket bucket, long index) {
+            Instant start = Instant.ofEpochSecond(index * resolution.widthSeconds());
+            List<String> userIds;
+            try {
+                // The event that started the load is already stored, so its user is among these
+                userIds = eventRepository.findDistinctUserIdsBetween(start, start.plusSeconds(resolution.widthSeconds()));
+            } catch (Exception e) {
+                log.warn("Could not load users of {} bucket {}, its user count stays at the backfilled value",
+                        resolution, start, e);
+                synchronized (bucket) {
+                    if (bucket.index() == index) {
+                        bucket.seedingFailed();
+                    }
+                }
+                return;
+            }
+            synchronized (bucket) {
+                // The slot may have moved on to a newer bucket while the users were loading
+                if (bucket.index() == index) {
+                    bucket.seedUsers(userIds);
+                }
+            }
+        }
+
+        private void load(MetricBucketRow row, boolean includeUsers) {
+            long index = row.getBucket();
+            MetricBucket bucket = slot(index);
+            synchronized (bucket) {
+                if (bucket.claim(index)) {
+                    bucket.load(row, includeUsers);
+                }
+            }
+        }
+
+        private void addUserToOpenBucket(String userId, Instant seen, Instant now) {
+            long currentIndex = indexOf(now);
+            if (indexOf(seen) != currentIndex) {
+                return;
+            }
+            MetricBucket bucket = slot(currentIndex);
+            synchronized (bucket) {
+                if (bucket.claim(currentIndex)) {
+                    bucket.addUser(userId);
+                }
+            }
+        }
+
+        private List<BucketSnapshot> read(Instant from, Instant to) {
+            Instant now = Instant.now();
+            long fromIndex = Math.max(indexOf(from), indexOf(now) - buckets.length + 1);
+            long toIndex = Math.min(indexOf(to.minus(1, ChronoUnit.NANOS)), indexOf(now));
+
+            List<BucketSnapshot> snapshots = new ArrayList<>();
+            for (long index = fromIndex; index <= toIndex; index++) {
+                Instant start = Instant.ofEpochSecond(index * resolution.widthSeconds());
+                MetricBucket bucket = slot(index);
+                snapshots.add(bucket.index() == index ? bucket.snapshot(start) : BucketSnapshot.empty(start));
+            }
+            return snapshots;
+        }
+    }
+}
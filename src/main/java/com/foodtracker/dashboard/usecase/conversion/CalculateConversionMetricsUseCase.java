@@ -4,4 +4,9 @@ import com.foodtracker.dashboard.dto.ConversionMetricsDto;
 
 public interface CalculateConversionMetricsUseCase {
     ConversionMetricsDto calculateConversionMetrics(String category);
+
+    /**
+     * Conversion steps scaled up from a sample of users, with confidence intervals
+     */
+    ConversionMetricsDto calculateApproximateConversionMetrics(String category);
 }
\ No newline at end of file
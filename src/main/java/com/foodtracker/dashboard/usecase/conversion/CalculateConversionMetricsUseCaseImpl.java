@@ -1,8 +1,12 @@
 package com.foodtracker.dashboard.usecase.conversion;
 
+import com.foodtracker.dashboard.dto.ApproximationDto;
 import com.foodtracker.dashboard.dto.ConversionMetricsDto;
 import com.foodtracker.dashboard.dto.ConversionStepDto;
 import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.sampling.Estimate;
+import com.foodtracker.shared.sampling.SampledEventStats;
+import com.foodtracker.shared.sampling.SampledEventStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -12,6 +16,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -21,24 +26,25 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CalculateConversionMetricsUseCaseImpl implements CalculateConversionMetricsUseCase {
 
+    // Define the conversion steps in order
+    static final List<String> CONVERSION_STEPS = Arrays.asList(
+            "app_opened",
+            "screen_viewed",
+            "item_viewed",
+            "item_added_to_cart",
+            "checkout_started",
+            "order_placed"
+    );
+
     private final EventRepository eventRepository;
+    private final SampledEventStatsService sampledEventStatsService;
 
     @Override
     public ConversionMetricsDto calculateConversionMetrics(String category) {
-        // Define the conversion steps in order
-        List<String> conversionSteps = Arrays.asList(
-                "app_opened",
-                "screen_viewed",
-                "item_viewed",
-                "item_added_to_cart",
-                "checkout_started",
-                "order_placed"
-        );
-
         Instant oneHourAgo = Instant.now().minus(Duration.ofHours(1));
         Map<String, Long> stepCounts = new HashMap<>();
 
-        for (String step : conversionSteps) {
+        for (String step : CONVERSION_STEPS) {
             long count;
             if (category != null && !category.isEmpty()) {
                 count = eventRepository.countByEventTypeAndCategory(step, category, oneHourAgo);
@@ -55,7 +61,7 @@ public class CalculateConversionMetricsUseCaseImpl implements CalculateConversio
         long ordersPlaced = stepCounts.get("order_placed");
         Double conversionRate = totalSessions > 0 ? (double) ordersPlaced / totalSessions * 100 : 0.0;
 
-        List<ConversionStepDto> conversionStepDtos = conversionSteps.stream()
+        List<ConversionStepDto> conversionStepDtos = CONVERSION_STEPS.stream()
                 .map(step -> ConversionStepDto.builder()
                         .stepName(step)
                         .stepCount(stepCounts.get(step).intValue())
@@ -72,4 +78,40 @@ public class CalculateConversionMetricsUseCaseImpl implements CalculateConversio
                 .conversionSteps(conversionStepDtos)
                 .build();
     }
+
+    @Override
+    public ConversionMetricsDto calculateApproximateConversionMetrics(String category) {
+        Instant now = Instant.now();
+        String sampledCategory = category != null && !category.isEmpty() ? category : null;
+        // All steps come from one query over the sampled users
+        SampledEventStats stats = sampledEventStatsService.sample(now.minus(Duration.ofHours(1)), now, sampledCategory);
+
+        Estimate sessions = stats.events("app_opened");
+        Estimate orders = stats.events("order_placed");
+        Estimate conversionRate = Estimate.ratePercent(orders, sessions);
+
+        Map<String, Estimate> estimates = new LinkedHashMap<>();
+        estimates.put("conversionRate", conversionRate);
+        List<ConversionStepDto> conversionStepDtos = CONVERSION_STEPS.stream()
+                .map(step -> {
+                    Estimate stepCount = stats.events(step);
+                    estimates.put(step, stepCount);
+                    return ConversionStepDto.builder()
+                            .stepName(step)
+                            .stepCount(Math.toIntExact(stepCount.rounded()))
+                            .conversionRate(Estimate.ratePercent(stepCount, sessions).value())
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        return ConversionMetricsDto.builder()
+                .conversionRate(conversionRate.value())
+                .category(category)
+                .totalSessions(Math.toIntExact(sessions.rounded()))
+                .conversions(Math.toIntExact(orders.rounded()))
+                .timestamp(LocalDateTime.now())
+                .conversionSteps(conversionStepDtos)
+                .approximation(ApproximationDto.of(stats.sampleRate(), estimates))
+                .build();
+    }
 }
\ No newline at end of file
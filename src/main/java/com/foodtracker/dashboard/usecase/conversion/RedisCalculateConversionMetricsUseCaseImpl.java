@@ -0,0 +1,70 @@
+package com.foodtracker.dashboard.usecase.conversion;
+
+import com.foodtracker.dashboard.dto.ConversionMetricsDto;
+import com.foodtracker.dashboard.dto.ConversionStepDto;
+import com.foodtracker.dashboard.realtime.RedisMetricsReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Conversion funnel from the Redis funnel counters when {@code app.dashboard.metrics-source=redis}.
+ * Approximate metrics still come from the sampled database query.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.dashboard.metrics-source", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisCalculateConversionMetricsUseCaseImpl implements CalculateConversionMetricsUseCase {
+
+    private final RedisMetricsReader redisMetricsReader;
+    private final CalculateConversionMetricsUseCaseImpl databaseUseCase;
+
+    @Override
+    public ConversionMetricsDto calculateConversionMetrics(String category) {
+        String target = category != null && !category.isEmpty() ? category : RedisMetricsReader.ALL_CATEGORIES;
+        Map<String, Long> stepCounts = redisMetricsReader.eventCounts(Duration.ofHours(1))
+                .getOrDefault(target, Map.of());
+
+        long totalSessions = stepCounts.getOrDefault("app_opened", 0L);
+        long ordersPlaced = stepCounts.getOrDefault("order_placed", 0L);
+
+        List<ConversionStepDto> conversionStepDtos = CalculateConversionMetricsUseCaseImpl.CONVERSION_STEPS.stream()
+                .map(step -> {
+                    long count = stepCounts.getOrDefault(step, 0L);
+                    return ConversionStepDto.builder()
+                            .stepName(step)
+                            .stepCount(Math.toIntExact(count))
+                            .conversionRate(rate(count, totalSessions))
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        return ConversionMetricsDto.builder()
+                .conversionRate(rate(ordersPlaced, totalSessions))
+                .category(category)
+                .totalSessions(Math.toIntExact(totalSessions))
+                .conversions(Math.toIntExact(ordersPlaced))
+                .timestamp(LocalDateTime.now())
+                .conversionSteps(conversionStepDtos)
+                .build();
+    }
+
+    @Override
+    public ConversionMetricsDto calculateApproximateConversionMetrics(String category) {
+        return databaseUseCase.calculateApproximateConversionMetrics(category);
+    }
+
+    private static Double rate(long count, long sessions) {
+        return sessions > 0 ? (double) count / sessions * 100 : 0.0;
+    }
+}
@@ -4,4 +4,9 @@ import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
 
 public interface CalculateDashboardMetricsUseCase {
     DashboardMetricsResponseDto calculateDashboardMetrics();
+
+    /**
+     * DAU and conversion rate scaled up from a sample of users, with confidence intervals
+     */
+    DashboardMetricsResponseDto calculateApproximateDashboardMetrics();
 }
\ No newline at end of file
@@ -1,117 +1,175 @@
 package com.foodtracker.dashboard.usecase.dashboard;
 
+import com.foodtracker.core.concurrent.FanOutScope;
+import com.foodtracker.dashboard.aggregate.PopularItemsAggregator;
+import com.foodtracker.dashboard.category.CategoryRegistry;
 import com.foodtracker.dashboard.dto.*;
-import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.CategoryMetricsRow;
 import com.foodtracker.shared.repository.EventRepository;
-import lombok.RequiredArgsConstructor;
+import com.foodtracker.shared.sampling.Estimate;
+import com.foodtracker.shared.sampling.SampledEventStats;
+import com.foodtracker.shared.sampling.SampledEventStatsService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CalculateDashboardMetricsUseCaseImpl implements CalculateDashboardMetricsUseCase {
 
+    private static final int POPULAR_ITEMS_LIMIT = 10;
+
     private final EventRepository eventRepository;
+    private final PopularItemsAggregator popularItemsAggregator;
+    private final CategoryRegistry categoryRegistry;
+    private final SampledEventStatsService sampledEventStatsService;
+    /**
+     * Bounds the sub-queries running at once across all calculations, so they never take over the connection pool
+     */
+    private final Semaphore queryPermits;
+    /**
+     * Deadline shared by all sub-queries of one dashboard calculation
+     */
+    private final Duration queryTimeout;
+
+    public CalculateDashboardMetricsUseCaseImpl(EventRepository eventRepository,
+                                                PopularItemsAggregator popularItemsAggregator,
+                                                CategoryRegistry categoryRegistry,
+                                                SampledEventStatsService sampledEventStatsService,
+                                                @Value("${app.dashboard.query-parallelism:4}") int queryParallelism,
+                                                @Value("${app.dashboard.query-timeout:5s}") Duration queryTimeout) {
+        this.eventRepository = eventRepository;
+        this.popularItemsAggregator = popularItemsAggregator;
+        this.categoryRegistry = categoryRegistry;
+        this.sampledEventStatsService = sampledEventStatsService;
+        this.queryPermits = new Semaphore(queryParallelism);
+        this.queryTimeout = queryTimeout;
+    }
 
     @Override
     public DashboardMetricsResponseDto calculateDashboardMetrics() {
         Instant oneHourAgo = getOneHourAgo();
 
-        // Calculate DAU (users who had events in the last hour)
-        Long dau = eventRepository.countDistinctUsersSince(oneHourAgo);
+        // The sub-queries are independent, so run them concurrently on virtual threads
+        try (FanOutScope scope = new FanOutScope(queryTimeout, queryPermits)) {
+            // Calculate DAU (users who had events in the last hour)
+            Future<Long> dau = scope.fork(() -> eventRepository.countDistinctUsersSince(oneHourAgo));
 
-        // Calculate conversion rate
-        Double conversionRate = calculateConversionRate();
+            // Calculate conversion rate
+            Future<Long> sessions = scope.fork(() -> eventRepository.countByEventTypeSince("app_opened", oneHourAgo));
+            Future<Long> orders = scope.fork(() -> eventRepository.countByEventTypeSince("order_placed", oneHourAgo));
 
-        // Get popular items
-        Map<String, Long> popularItems = getPopularItems("all");
+            // Get popular items
+            Future<Map<String, Long>> popularItems = scope.fork(() -> getPopularItems(PopularItemsAggregator.ALL_CATEGORIES));
 
-        // Get category metrics
-        Map<String, Object> categoryMetrics = getCategoryMetrics();
+            // Get category metrics for all categories in one grouped query
+            Future<List<CategoryMetricsRow>> categoryRows = scope.fork(() -> eventRepository.countCategoryMetricsSince(oneHourAgo));
 
-        return DashboardMetricsResponseDto.builder()
-                .timestamp(LocalDateTime.now())
-                .dau(dau)
-                .conversionRate(conversionRate)
-                .popularItems(popularItems)
-                .categoryMetrics(categoryMetrics)
-                .build();
-    }
+            join(scope);
 
-    private Instant getOneHourAgo() {
-        return Instant.now().minus(Duration.ofHours(1));
-    }
-
-    private Double calculateConversionRate() {
-        Instant oneHourAgo = getOneHourAgo();
-        long sessions = eventRepository.countByEventTypeSince("app_opened", oneHourAgo);
-        long orders = eventRepository.countByEventTypeSince("order_placed", oneHourAgo);
+            Map<String, Object> categoryMetrics = getCategoryMetrics(categoryRows.resultNow());
 
-        return sessions > 0 ? (double) orders / sessions * 100 : 0.0;
+            return DashboardMetricsResponseDto.builder()
+                    .timestamp(LocalDateTime.now())
+                    .dau(dau.resultNow())
+                    .conversionRate(conversionRate(sessions.resultNow(), orders.resultNow()))
+                    .popularItems(popularItems.resultNow())
+                    .categoryMetrics(categoryMetrics)
+                    .build();
+        }
     }
 
-    private Map<String, Long> getPopularItems(String category) {
-        Instant oneHourAgo = getOneHourAgo();
-
-        List<Event> events;
-        if ("all".equals(category) || category == null) {
-            events = eventRepository.findByEventTypeSince("item_viewed", oneHourAgo);
-        } else {
-            events = eventRepository.findByEventTypeAndCategory("item_viewed", category, oneHourAgo);
+    @Override
+    public DashboardMetricsResponseDto calculateApproximateDashboardMetrics() {
+        Instant now = Instant.now();
+        Instant oneHourAgo = now.minus(Duration.ofHours(1));
+
+        try (FanOutScope scope = new FanOutScope(queryTimeout, queryPermits)) {
+            // DAU and both conversion counts come from one query over the sampled users, category metrics from another
+            Future<SampledEventStats> sample = scope.fork(() -> sampledEventStatsService.sample(oneHourAgo, now, null));
+            Future<Map<String, Long>> popularItems = scope.fork(() -> getPopularItems(PopularItemsAggregator.ALL_CATEGORIES));
+            Future<List<CategoryMetricsRow>> categoryRows = scope.fork(() -> sampledEventStatsService.categoryMetrics(oneHourAgo, now));
+
+            join(scope);
+
+            SampledEventStats stats = sample.resultNow();
+            Estimate dau = stats.distinctUsers();
+            Estimate conversionRate = Estimate.ratePercent(stats.events("order_placed"), stats.events("app_opened"));
+
+            Map<String, Estimate> estimates = new LinkedHashMap<>();
+            estimates.put("dau", dau);
+            estimates.put("conversionRate", conversionRate);
+
+            return DashboardMetricsResponseDto.builder()
+                    .timestamp(LocalDateTime.now())
+                    .dau(dau.rounded())
+                    .conversionRate(conversionRate.value())
+                    .popularItems(popularItems.resultNow())
+                    .categoryMetrics(getCategoryMetrics(categoryRows.resultNow()))
+                    .approximation(ApproximationDto.of(stats.sampleRate(), estimates))
+                    .build();
         }
-
-        Map<String, Long> popularItems = events.stream()
-                .map(event -> getPropertyName(event, "item_name"))
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(
-                        item -> item,
-                        Collectors.counting()
-                ));
-
-        return new HashMap<>(popularItems);
     }
 
-    private Map<String, Object> getCategoryMetrics() {
-        Instant oneHourAgo = getOneHourAgo();
-
-        Map<String, Object> metrics = new HashMap<>();
-
-        // Pizza metrics
-        metrics.put("pizza", Map.of(
-            "dau", eventRepository.countDistinctUsersByCategorySince("pizza", oneHourAgo),
-            "conversions", eventRepository.countOrdersByCategorySince("pizza", oneHourAgo),
-            "conversion_rate", calculateConversionRateForCategory("pizza")
-        ));
-
-        // Burger metrics
-        metrics.put("burger", Map.of(
-            "dau", eventRepository.countDistinctUsersByCategorySince("burger", oneHourAgo),
-            "conversions", eventRepository.countOrdersByCategorySince("burger", oneHourAgo),
-            "conversion_rate", calculateConversionRateForCategory("burger")
-        ));
+    private void join(FanOutScope scope) {
+        try {
+            scope.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dashboard metrics calculation was interrupted", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Dashboard metrics calculation exceeded " + queryTimeout, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Dashboard metrics calculation failed", e.getCause());
+        }
+    }
 
-        return metrics;
+    private Instant getOneHourAgo() {
+        return Instant.now().minus(Duration.ofHours(1));
     }
 
-    private String getPropertyName(Event event, String propertyName) {
-        if (event.getProperties() != null && event.getProperties().containsKey(propertyName)) {
-            return event.getProperties().get(propertyName).toString();
-        }
-        return null;
+    private static Double conversionRate(long sessions, long orders) {
+        return sessions > 0 ? (double) orders / sessions * 100 : 0.0;
     }
 
-    private Double calculateConversionRateForCategory(String category) {
-        Instant oneHourAgo = getOneHourAgo();
-        long sessions = eventRepository.countByEventTypeAndCategory("app_opened", category, oneHourAgo);
-        long orders = eventRepository.countByEventTypeAndCategory("order_placed", category, oneHourAgo);
+    private Map<String, Long> getPopularItems(String category) {
+        // Top items from the ingest-time summary, ordered by view count
+        Map<String, Long> popularItems = new LinkedHashMap<>();
+        popularItemsAggregator.topItems(category, Duration.ofHours(1), POPULAR_ITEMS_LIMIT)
+                .forEach(item -> popularItems.put(item.item(), item.count()));
+        return popularItems;
+    }
 
-        return sessions > 0 ? (double) orders / sessions * 100 : 0.0;
+    private Map<String, Object> getCategoryMetrics(List<CategoryMetricsRow> rows) {
+        Map<String, CategoryMetricsRow> rowsByCategory = rows.stream()
+                .collect(Collectors.toMap(CategoryMetricsRow::getCategory, Function.identity()));
+        categoryRegistry.registerAll(rowsByCategory.keySet());
+
+        // Every known category is reported, with zeros when it had no activity in the window
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (String category : categoryRegistry.categories()) {
+            CategoryMetricsRow row = rowsByCategory.get(category);
+            long sessions = row != null ? row.getSessions() : 0;
+            long orders = row != null ? row.getConversions() : 0;
+            metrics.put(category, Map.of(
+                    "dau", row != null ? row.getDau() : 0L,
+                    "conversions", orders,
+                    "conversion_rate", conversionRate(sessions, orders)
+            ));
+        }
+        return metrics;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.foodtracker.dashboard.usecase.dashboard;
+
+import com.foodtracker.dashboard.category.CategoryRegistry;
+import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import com.foodtracker.dashboard.realtime.RedisMetricsReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard metrics from the Redis counters when {@code app.dashboard.metrics-source=redis}, so every
+ * node reports the same numbers without touching the database. Approximate metrics still come from
+ * the sampled database query.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.dashboard.metrics-source", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisCalculateDashboardMetricsUseCaseImpl implements CalculateDashboardMetricsUseCase {
+
+    private static final int POPULAR_ITEMS_LIMIT = 10;
+    private static final Duration WINDOW = Duration.ofHours(1);
+
+    private final RedisMetricsReader redisMetricsReader;
+    private final CategoryRegistry categoryRegistry;
+    private final CalculateDashboardMetricsUseCaseImpl databaseUseCase;
+
+    @Override
+    public DashboardMetricsResponseDto calculateDashboardMetrics() {
+        Map<String, Map<String, Long>> counts = redisMetricsReader.eventCounts(WINDOW);
+        counts.keySet().stream()
+                .filter(category -> !RedisMetricsReader.ALL_CATEGORIES.equals(category))
+                .forEach(categoryRegistry::register);
+
+        List<String> categories = new ArrayList<>();
+        categories.add(RedisMetricsReader.ALL_CATEGORIES);
+        categories.addAll(categoryRegistry.categories());
+        Map<String, Long> users = redisMetricsReader.distinctUsers(categories, WINDOW);
+
+        Map<String, Long> popularItems = new LinkedHashMap<>();
+        redisMetricsReader.topItems(RedisMetricsReader.ALL_CATEGORIES, WINDOW, POPULAR_ITEMS_LIMIT)
+                .forEach(item -> popularItems.put(item.item(), item.count()));
+
+        // Every known category is reported, with zeros when it had no activity in the window
+        Map<String, Object> categoryMetrics = new LinkedHashMap<>();
+        for (String category : categoryRegistry.categories()) {
+            Map<String, Long> categoryCounts = counts.getOrDefault(category, Map.of());
+            long sessions = categoryCounts.getOrDefault("app_opened", 0L);
+            long orders = categoryCounts.getOrDefault("order_placed", 0L);
+            categoryMetrics.put(category, Map.of(
+                    "dau", users.getOrDefault(category, 0L),
+                    "conversions", orders,
+                    "conversion_rate", conversionRate(sessions, orders)
+            ));
+        }
+
+        Map<String, Long> totals = counts.getOrDefault(RedisMetricsReader.ALL_CATEGORIES, Map.of());
+        return DashboardMetricsResponseDto.builder()
+                .timestamp(LocalDateTime.now())
+                .dau(users.getOrDefault(RedisMetricsReader.ALL_CATEGORIES, 0L))
+                .conversionRate(conversionRate(totals.getOrDefault("app_opened", 0L), totals.getOrDefault("order_placed", 0L)))
+                .popularItems(popularItems)
+                .categoryMetrics(categoryMetrics)
+                .build();
+    }
+
+    @Override
+    public DashboardMetricsResponseDto calculateApproximateDashboardMetrics() {
+        return databaseUseCase.calculateApproximateDashboardMetrics();
+    }
+
+    private static Double conversionRate(long sessions, long orders) {
+        return sessions > 0 ? (double) orders / sessions * 100 : 0.0;
+    }
+}
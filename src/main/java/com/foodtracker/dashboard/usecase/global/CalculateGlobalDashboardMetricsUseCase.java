@@ -0,0 +1,11 @@
+package com.foodtracker.dashboard.usecase.global;
+
+import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+
+public interface CalculateGlobalDashboardMetricsUseCase {
+
+    /**
+     * Dashboard metrics for the last hour merged from the partials of all nodes
+     */
+    DashboardMetricsResponseDto calculateGlobalDashboardMetrics();
+}
@@ -0,0 +1,59 @@
+package com.foodtracker.dashboard.usecase.global;
+
+import com.foodtracker.dashboard.cluster.MinutePartial;
+import com.foodtracker.dashboard.cluster.NodePartialsExchange;
+import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CalculateGlobalDashboardMetricsUseCaseImpl implements CalculateGlobalDashboardMetricsUseCase {
+
+    private static final int POPULAR_ITEMS_LIMIT = 10;
+
+    private final NodePartialsExchange nodePartialsExchange;
+
+    @Override
+    public DashboardMetricsResponseDto calculateGlobalDashboardMetrics() {
+        NodePartialsExchange.GlobalPartials global = nodePartialsExchange.global(Duration.ofHours(1));
+        MinutePartial merged = global.merged();
+        log.debug("Global dashboard metrics merged from {} nodes", global.nodes());
+
+        Map<String, Long> popularItems = new LinkedHashMap<>();
+        merged.topItems(MinutePartial.ALL_CATEGORIES, POPULAR_ITEMS_LIMIT)
+                .forEach(item -> popularItems.put(item.item(), item.count()));
+
+        Map<String, Object> categoryMetrics = new LinkedHashMap<>();
+        for (String category : merged.categories()) {
+            long sessions = merged.count(category, "app_opened");
+            long orders = merged.count(category, "order_placed");
+            categoryMetrics.put(category, Map.of(
+                    "dau", merged.distinctUsers(category),
+                    "conversions", orders,
+                    "conversion_rate", conversionRate(sessions, orders)
+            ));
+        }
+
+        return DashboardMetricsResponseDto.builder()
+                .timestamp(LocalDateTime.now())
+                .dau(merged.distinctUsers(MinutePartial.ALL_CATEGORIES))
+                .conversionRate(conversionRate(
+                        merged.count(MinutePartial.ALL_CATEGORIES, "app_opened"),
+                        merged.count(MinutePartial.ALL_CATEGORIES, "order_placed")))
+                .popularItems(popularItems)
+                .categoryMetrics(categoryMetrics)
+                .build();
+    }
+
+    private static Double conversionRate(long sessions, long orders) {
+        return sessions > 0 ? (double) orders / sessions * 100 : 0.0;
+    }
+}
@@ -1,19 +1,16 @@
 package com.foodtracker.dashboard.usecase.popular;
 
+import com.foodtracker.dashboard.aggregate.PopularItemsAggregator;
 import com.foodtracker.dashboard.dto.PopularItemDto;
 import com.foodtracker.dashboard.dto.PopularItemsMetricsDto;
-import com.foodtracker.shared.repository.Event;
-import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.dashboard.sketch.ItemCount;
 import com.foodtracker.shared.service.TimeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,41 +18,22 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CalculatePopularItemsMetricsUseCaseImpl implements CalculatePopularItemsMetricsUseCase {
 
-    private final EventRepository eventRepository;
+    private final PopularItemsAggregator popularItemsAggregator;
     private final TimeService timeService;
 
     @Override
     public PopularItemsMetricsDto calculatePopularItemsMetrics(String category) {
-        Instant oneHourAgo = Instant.now().minus(Duration.ofHours(1));
+        // Top 10 popular items of the last hour, already counted at ingest
+        List<ItemCount> topItems = popularItemsAggregator.topItems(category, Duration.ofHours(1), 10);
 
-        List<Event> events;
-        if (category != null && !category.isEmpty()) {
-            events = eventRepository.findByEventTypeAndCategory("item_viewed", category, oneHourAgo);
-        } else {
-            events = eventRepository.findByEventTypeSince("item_viewed", oneHourAgo);
-        }
-
-        // Group by item name and count occurrences
-        Map<String, Long> itemViewCounts = events.stream()
-                .map(event -> getPropertyName(event, "item_name"))
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(
-                        item -> item,
-                        Collectors.counting()
-                ));
-
-        // Sort by view count descending
-        List<PopularItemDto> popularItems = itemViewCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(10) // Top 10 popular items
-                .map(entry -> {
-                    String itemName = entry.getKey();
-                    Integer viewCount = Math.toIntExact(entry.getValue());
+        List<PopularItemDto> popularItems = topItems.stream()
+                .map(item -> {
+                    Integer viewCount = Math.toIntExact(item.count());
 
                     // For simplicity, using view count as popularity score for now
                     // We could add more sophisticated calculation here
                     return PopularItemDto.builder()
-                            .itemName(itemName)
+                            .itemName(item.item())
                             .viewCount(viewCount)
                             .popularityScore((double) viewCount)
                             .build();
@@ -68,11 +46,4 @@ public class CalculatePopularItemsMetricsUseCaseImpl implements CalculatePopular
                 .category(category)
                 .build();
     }
-
-    private String getPropertyName(Event event, String propertyName) {
-        if (event.getProperties() != null && event.getProperties().containsKey(propertyName)) {
-            return event.getProperties().get(propertyName).toString();
-        }
-        return null;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.foodtracker.dashboard.usecase.popular;
+
+import com.foodtracker.dashboard.dto.PopularItemDto;
+import com.foodtracker.dashboard.dto.PopularItemsMetricsDto;
+import com.foodtracker.dashboard.realtime.RedisMetricsReader;
+import com.foodtracker.shared.service.TimeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Popular items from the Redis item sorted sets when {@code app.dashboard.metrics-source=redis}
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.dashboard.metrics-source", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisCalculatePopularItemsMetricsUseCaseImpl implements CalculatePopularItemsMetricsUseCase {
+
+    private final RedisMetricsReader redisMetricsReader;
+    private final TimeService timeService;
+
+    @Override
+    public PopularItemsMetricsDto calculatePopularItemsMetrics(String category) {
+        String target = category != null && !category.isEmpty() ? category : RedisMetricsReader.ALL_CATEGORIES;
+
+        List<PopularItemDto> popularItems = redisMetricsReader.topItems(target, Duration.ofHours(1), 10).stream()
+                .map(item -> {
+                    Integer viewCount = Math.toIntExact(item.count());
+                    return PopularItemDto.builder()
+                            .itemName(item.item())
+                            .viewCount(viewCount)
+                            .popularityScore((double) viewCount)
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        return PopularItemsMetricsDto.builder()
+                .popularItems(popularItems)
+                .timestamp(timeService.getLocalDateTimeNow())
+                .category(category)
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.foodtracker.dashboard.usecase.timeseries;
+
+import com.foodtracker.dashboard.dto.TimeSeriesResponseDto;
+
+import java.time.Instant;
+import java.util.Set;
+
+public interface CalculateTimeSeriesUseCase {
+    TimeSeriesResponseDto calculateTimeSeries(Instant from, Instant to, Set<String> metrics, int maxPoints);
+}
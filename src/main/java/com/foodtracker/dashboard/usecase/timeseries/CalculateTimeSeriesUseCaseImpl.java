@@ -0,0 +1,92 @@
+package com.foodtracker.dashboard.usecase.timeseries;
+
+import com.foodtracker.dashboard.dto.TimeSeriesPointDto;
+import com.foodtracker.dashboard.dto.TimeSeriesResponseDto;
+import com.foodtracker.dashboard.timeseries.BucketSnapshot;
+import com.foodtracker.dashboard.timeseries.LttbDownsampler;
+import com.foodtracker.dashboard.timeseries.Resolution;
+import com.foodtracker.dashboard.timeseries.TimeSeriesStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CalculateTimeSeriesUseCaseImpl implements CalculateTimeSeriesUseCase {
+
+    public static final String EVENTS = "events";
+    public static final String DAU = "dau";
+    public static final String CONVERSION = "conversion";
+    public static final String REVENUE = "revenue";
+
+    private static final Map<String, ToDoubleFunction<BucketSnapshot>> METRICS = Map.of(
+            EVENTS, BucketSnapshot::events,
+            DAU, BucketSnapshot::users,
+            CONVERSION, BucketSnapshot::conversionRate,
+            REVENUE, BucketSnapshot::revenue
+    );
+
+    /**
+     * Buckets read per requested point before LTTB downsampling takes over from a coarser resolution
+     */
+    private static final int BUCKETS_PER_POINT = 4;
+
+    private final TimeSeriesStore timeSeriesStore;
+
+    @Override
+    public TimeSeriesResponseDto calculateTimeSeries(Instant from, Instant to, Set<String> metrics, int maxPoints) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("maxPoints must be at least 3");
+        }
+        for (String metric : metrics) {
+            if (!METRICS.containsKey(metric)) {
+                throw new IllegalArgumentException("Unknown metric: " + metric + ", expected one of " + METRICS.keySet());
+            }
+        }
+
+        Resolution resolution = timeSeriesStore.chooseResolution(from, to, maxPoints * BUCKETS_PER_POINT);
+        List<BucketSnapshot> buckets = timeSeriesStore.read(resolution, from, to);
+
+        double[] xs = buckets.stream().mapToDouble(bucket -> bucket.start().getEpochSecond()).toArray();
+        Map<String, List<TimeSeriesPointDto>> series = new LinkedHashMap<>();
+        for (String metric : List.of(EVENTS, DAU, CONVERSION, REVENUE)) {
+            if (metrics.contains(metric)) {
+                series.put(metric, toPoints(buckets, xs, METRICS.get(metric), maxPoints));
+            }
+        }
+
+        return TimeSeriesResponseDto.builder()
+                .from(LocalDateTime.ofInstant(from, ZoneOffset.UTC))
+                .to(LocalDateTime.ofInstant(to, ZoneOffset.UTC))
+                .resolution(resolution.name().toLowerCase())
+                .bucketSeconds(resolution.widthSeconds())
+                .series(series)
+                .build();
+    }
+
+    private static List<TimeSeriesPointDto> toPoints(List<BucketSnapshot> buckets,
+                                                     double[] xs,
+                                                     ToDoubleFunction<BucketSnapshot> metric,
+                                                     int maxPoints) {
+        double[] ys = buckets.stream().mapToDouble(metric).toArray();
+        return LttbDownsampler.downsample(xs, ys, maxPoints).stream()
+                .map(index -> TimeSeriesPointDto.builder()
+                        .timestamp(LocalDateTime.ofInstant(buckets.get(index).start(), ZoneOffset.UTC))
+                        .value(ys[index])
+                        .build())
+                .toList();
+    }
+}
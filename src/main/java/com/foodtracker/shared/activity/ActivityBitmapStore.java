@@ -0,0 +1,321 @@
+package com.foodtracker.shared.activity;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.shared.event.EventKeysBackfilled;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.ActivityBitmap;
+import com.foodtracker.shared.repository.ActivityBitmapRepository;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.UserActivityRow;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compressed bitmaps of active user keys per minute, hour and day, per event type and category.
+ * <p>
+ * Bitmaps are updated at ingest from {@link EventTracked} using the dense user keys of the ID
+ * dictionary, and flushed to the {@code activity_bitmaps} table periodically. Distinct user counts
+ * and segments such as "viewed pizza AND ordered" become unions and intersections of a handful of
+ * bitmaps instead of self-joins over events.
+ * <p>
+ * On startup, buckets that closed before yesterday are loaded from their persisted blobs and the
+ * rest are rebuilt from events. Each node tracks the events it ingested; a flush ORs its bitmap into
+ * the persisted one under a row lock, so persisted bitmaps hold the users of every node.
+ */
+@Component
+@Slf4j
+public class ActivityBitmapStore {
+
+    static final String CATEGORY = "category";
+    static final String FLUSH_JOB = "activity-flush";
+
+    private final EventRepository eventRepository;
+    private final ActivityBitmapRepository activityBitmapRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RefreshExecutor refreshExecutor;
+    private final Duration flushInterval;
+    private final Map<BitmapKey, RoaringBitmap> bitmaps = new ConcurrentHashMap<>();
+    private final Set<BitmapKey> dirty = ConcurrentHashMap.newKeySet();
+
+    public ActivityBitmapStore(EventRepository eventRepository, ActivityBitmapRepository activityBitmapRepository,
+                               TransactionTemplate transactionTemplate, RefreshExecutor refreshExecutor,
+                               @Value("${app.activity.flush-interval-ms:60000}") long flushIntervalMillis) {
+        this.eventRepository = eventRepository;
+        this.activityBitmapRepository = activityBitmapRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.refreshExecutor = refreshExecutor;
+        this.flushInterval = Duration.ofMillis(flushIntervalMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refreshExecutor.schedule(FLUSH_JOB, flushInterval, this::flush);
+    }
+
+    @PostConstruct
+    public void load() {
+        Instant now = Instant.now();
+        Instant rebuildFrom = now.truncatedTo(ChronoUnit.DAYS).minus(1, ChronoUnit.DAYS);
+        try {
+            for (Granularity granularity : Granularity.values()) {
+                long fromBucket = oldestBucket(granularity, now);
+                // Last bucket that closed before the rebuild horizon
+                long toBucket = granularity.bucketOf(rebuildFrom.getEpochSecond()) - 1;
+                List<ActivityBitmap> persisted = activityBitmapRepository.findByGranularityAndBucketBetween(
+                        granularity.name(), fromBucket, toBucket);
+                persisted.forEach(row -> bitmaps.put(
+                        new BitmapKey(granularity, row.getBucket(), new Segment(row.getEventType(), row.getCategory())),
+                        deserialize(row.getBitmap())));
+                log.info("Activity bitmaps {} loaded {} persisted buckets", granularity, persisted.size());
+            }
+
+            rebuild(rebuildFrom, now);
+        } catch (Exception e) {
+            log.warn("Could not load activity bitmaps, starting empty", e);
+        }
+    }
+
+    /**
+     * Adds recent events that only got their user keys after startup
+     */
+    @EventListener
+    public void onEventKeysBackfilled(EventKeysBackfilled backfilled) {
+        Instant now = Instant.now();
+        try {
+            rebuild(now.truncatedTo(ChronoUnit.DAYS).minus(1, ChronoUnit.DAYS), now);
+        } catch (Exception e) {
+            log.warn("Could not add backfilled events to activity bitmaps", e);
+        }
+    }
+
+    @EventListener
+    public void onEventTracked(EventTracked eventTracked) {
+        Event event = eventTracked.event();
+        if (event.getUserKey() == null || event.getTimestamp() == null) {
+            return;
+        }
+        Map<String, Object> properties = event.getProperties();
+        String category = properties != null && properties.get(CATEGORY) != null ? properties.get(CATEGORY).toString() : null;
+        record(event.getUserKey(), event.getEventType(), category, event.getTimestamp().getEpochSecond(), Instant.now());
+    }
+
+    /**
+     * Users in {@code segment} with activity in {@code [from, to)}.
+     * <p>
+     * The range is covered with whole days, then hours, then minutes. Where a finer bucket is past
+     * its retention, the enclosing coarser bucket is used, so the edges of old ranges are rounded
+     * outward to the hour or day.
+     *
+     * @return a new bitmap the caller may modify
+     */
+    public RoaringBitmap users(Segment segment, Instant from, Instant to) {
+        Instant now = Instant.now();
+        long end = to.getEpochSecond();
+        long t = Granularity.MINUTE.bucketOf(from.getEpochSecond()) * Granularity.MINUTE.widthSeconds();
+        List<RoaringBitmap> parts = new ArrayList<>();
+        while (t < end) {
+            Granularity granularity = coveringGranularity(t, end, now);
+            long bucket = granularity.bucketOf(t);
+            RoaringBitmap bitmap = bitmaps.get(new BitmapKey(granularity, bucket, segment));
+            if (bitmap != null) {
+                synchronized (bitmap) {
+                    parts.add(bitmap.clone());
+                }
+            }
+            t = (bucket + 1) * granularity.widthSeconds();
+        }
+        return RoaringBitmap.or(parts.iterator());
+    }
+
+    /**
+     * Users in every {@code all} segment, in at least one {@code any} segment if given,
+     * and in no {@code none} segment, with activity in {@code [from, to)}
+     */
+    public RoaringBitmap segment(Collection<Segment> all, Collection<Segment> any, Collection<Segment> none,
+                                 Instant from, Instant to) {
+        RoaringBitmap result = null;
+        for (Segment segment : all) {
+            RoaringBitmap users = users(segment, from, to);
+            result = result == null ? users : RoaringBitmap.and(result, users);
+        }
+        if (!any.isEmpty()) {
+            RoaringBitmap union = new RoaringBitmap();
+            any.forEach(segment -> union.or(users(segment, from, to)));
+            result = result == null ? union : RoaringBitmap.and(result, union);
+        }
+        if (result == null) {
+            result = users(Segment.ALL_USERS, from, to);
+        }
+        for (Segment segment : none) {
+            result.andNot(users(segment, from, to));
+        }
+        return result;
+    }
+
+    /**
+     * Distinct users with any activity in the {@code days} UTC days ending with the day of {@code day}
+     */
+    public long activeUsers(Instant day, int days) {
+        Instant end = day.truncatedTo(ChronoUnit.DAYS).plus(1, ChronoUnit.DAYS);
+        return users(Segment.ALL_USERS, end.minus(days, ChronoUnit.DAYS), end).getLongCardinality();
+    }
+
+    /**
+     * Persists bitmaps changed since the last flush and drops buckets past their retention
+     */
+    public void flush() {
+        Instant now = Instant.now();
+        int flushed = 0;
+        try {
+            for (BitmapKey key : List.copyOf(dirty)) {
+                RoaringBitmap bitmap = bitmaps.get(key);
+                // Cleared first, so changes made while writing are flushed next time
+                dirty.remove(key);
+                if (bitmap == null) {
+                    continue;
+                }
+                RoaringBitmap local;
+                synchronized (bitmap) {
+                    bitmap.runOptimize();
+                    local = bitmap.clone();
+                }
+                RoaringBitmap merged = persistMerged(key, local);
+                // Other nodes' users of the bucket become visible here too
+                synchronized (bitmap) {
+                    bitmap.or(merged);
+                }
+                flushed++;
+            }
+            for (Granularity granularity : Granularity.values()) {
+                long oldest = oldestBucket(granularity, now);
+                bitmaps.keySet().removeIf(key -> key.granularity() == granularity && key.bucket() < oldest);
+                activityBitmapRepository.deleteOlderThan(granularity.name(), oldest);
+            }
+            log.debug("Flushed {} activity bitmaps", flushed);
+        } catch (Exception e) {
+            log.error("Error flushing activity bitmaps", e);
+        }
+    }
+
+    /**
+     * Stores the union of {@code local} and the persisted bitmap of {@code key}
+     *
+     * @return the union
+     */
+    private RoaringBitmap persistMerged(BitmapKey key, RoaringBitmap local) {
+        String granularity = key.granularity().name();
+        String eventType = key.segment().eventType();
+        String category = key.segment().category();
+        return transactionTemplate.execute(status -> {
+            Optional<ActivityBitmap> row = activityBitmapRepository.findForUpdate(granularity, key.bucket(), eventType, category);
+            if (row.isEmpty()) {
+                if (activityBitmapRepository.insertIfAbsent(granularity, key.bucket(), eventType, category, serialize(local)) > 0) {
+                    return local;
+                }
+                // Inserted by another node since the lookup
+                row = activityBitmapRepository.findForUpdate(granularity, key.bucket(), eventType, category);
+            }
+            ActivityBitmap persisted = row.orElseThrow();
+            RoaringBitmap merged = RoaringBitmap.or(deserialize(persisted.getBitmap()), local);
+            merged.runOptimize();
+            activityBitmapRepository.updateBitmap(persisted.getId(), serialize(merged));
+            return merged;
+        });
+    }
+
+    private void rebuild(Instant from, Instant now) {
+        List<UserActivityRow> activity = eventRepository.findUserActivitySince(from);
+        for (UserActivityRow row : activity) {
+            long epochSecond = row.getMinute() * Granularity.MINUTE.widthSeconds();
+            record(row.getUserkey(), row.getType(), row.getCategory(), epochSecond, now);
+        }
+        log.info("Activity bitmaps rebuilt from {} user minutes since {}", activity.size(), from);
+    }
+
+    private void record(int userKey, String eventType, String category, long epochSecond, Instant now) {
+        List<Segment> segments = category != null
+                ? List.of(Segment.ALL_USERS, new Segment(eventType, Segment.ANY),
+                new Segment(Segment.ANY, category), new Segment(eventType, category))
+                : List.of(Segment.ALL_USERS, new Segment(eventType, Segment.ANY));
+        for (Granularity granularity : Granularity.values()) {
+            long bucket = granularity.bucketOf(epochSecond);
+            if (bucket < oldestBucket(granularity, now)) {
+                continue;
+            }
+            for (Segment segment : segments) {
+                BitmapKey key = new BitmapKey(granularity, bucket, segment);
+                RoaringBitmap bitmap = bitmaps.computeIfAbsent(key, k -> new RoaringBitmap());
+                boolean added;
+                synchronized (bitmap) {
+                    added = bitmap.checkedAdd(userKey);
+                }
+                if (added) {
+                    dirty.add(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks the coarsest bucket starting at {@code t} that fits before {@code end} and is still retained
+     */
+    private static Granularity coveringGranularity(long t, long end, Instant now) {
+        for (Granularity granularity : List.of(Granularity.DAY, Granularity.HOUR, Granularity.MINUTE)) {
+            long width = granularity.widthSeconds();
+            if (t % width == 0 && t + width <= end && granularity.bucketOf(t) >= oldestBucket(granularity, now)) {
+                return granularity;
+            }
+        }
+        // A partial hour or day: use minutes while retained, otherwise round out to the enclosing bucket
+        for (Granularity granularity : Granularity.values()) {
+            if (granularity.bucketOf(t) >= oldestBucket(granularity, now)) {
+                return granularity;
+            }
+        }
+        return Granularity.DAY;
+    }
+
+    private static long oldestBucket(Granularity granularity, Instant now) {
+        return granularity.bucketOf(now.getEpochSecond()) - granularity.bucketCount() + 1;
+    }
+
+    static byte[] serialize(RoaringBitmap bitmap) {
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        return buffer.array();
+    }
+
+    static RoaringBitmap deserialize(byte[] bytes) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        try {
+            bitmap.deserialize(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bitmap;
+    }
+
+    private record BitmapKey(Granularity granularity, long bucket, Segment segment) {
+    }
+}
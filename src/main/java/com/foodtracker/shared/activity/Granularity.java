@@ -0,0 +1,36 @@
+package com.foodtracker.shared.activity;
+
+import java.time.Duration;
+
+/**
+ * Width and retention of activity bitmaps
+ */
+public enum Granularity {
+    MINUTE(Duration.ofMinutes(1), Duration.ofDays(2)),
+    HOUR(Duration.ofHours(1), Duration.ofDays(35)),
+    DAY(Duration.ofDays(1), Duration.ofDays(400));
+
+    private final Duration width;
+    private final Duration retention;
+
+    Granularity(Duration width, Duration retention) {
+        this.width = width;
+        this.retention = retention;
+    }
+
+    public long widthSeconds() {
+        return width.getSeconds();
+    }
+
+    public Duration retention() {
+        return retention;
+    }
+
+    public long bucketOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, widthSeconds());
+    }
+
+    public long bucketCount() {
+        return retention.getSeconds() / widthSeconds();
+    }
+}
@@ -0,0 +1,35 @@
+package com.foodtracker.shared.activity;
+
+/**
+ * Users who had an event of a type, optionally in one category. {@link #ANY} matches every value.
+ *
+ * @param eventType event type or {@link #ANY}
+ * @param category  category or {@link #ANY}
+ */
+public record Segment(String eventType, String category) {
+
+    public static final String ANY = "*";
+
+    public static final Segment ALL_USERS = new Segment(ANY, ANY);
+
+    /**
+     * Parse {@code eventType} or {@code eventType:category}, e.g. {@code item_viewed:pizza}
+     */
+    public static Segment parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Segment must not be empty");
+        }
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            return new Segment(value.trim(), ANY);
+        }
+        String eventType = value.substring(0, separator).trim();
+        String category = value.substring(separator + 1).trim();
+        return new Segment(eventType.isEmpty() ? ANY : eventType, category.isEmpty() ? ANY : category);
+    }
+
+    @Override
+    public String toString() {
+        return eventType + ":" + category;
+    }
+}
@@ -0,0 +1,6 @@
+@ApplicationModule(
+        type = ApplicationModule.Type.OPEN
+)
+package com.foodtracker.shared.activity;
+
+import org.springframework.modulith.ApplicationModule;
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.foodtracker.shared.event;
+
+/**
+ * Published once events stored before the ID dictionary existed have been given their user and
+ * session keys, so indexes built from user keys at startup can pick those events up.
+ */
+public record EventKeysBackfilled(int users, int sessions) {
+}
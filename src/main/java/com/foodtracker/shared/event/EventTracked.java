@@ -0,0 +1,10 @@
+package com.foodtracker.shared.event;
+
+import com.foodtracker.shared.repository.Event;
+
+/**
+ * Published by the tracking module after an event has been stored,
+ * so in-memory aggregates can be updated at ingest time.
+ */
+public record EventTracked(Event event) {
+}
@@ -0,0 +1,40 @@
+package com.foodtracker.shared.repository;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Serialized bitmap of the user keys active in one time bucket, per event type and category
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "activity_bitmaps", uniqueConstraints = @UniqueConstraint(
+        name = "uk_activity_bitmaps_bucket", columnNames = {"granularity", "bucket", "event_type", "category"}))
+public class ActivityBitmap {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String granularity;
+
+    /**
+     * Bucket index, i.e. epoch seconds divided by the granularity width
+     */
+    @Column(nullable = false)
+    private Long bucket;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] bitmap;
+}
@@ -0,0 +1,54 @@
+package com.foodtracker.shared.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActivityBitmapRepository extends JpaRepository<ActivityBitmap, Long> {
+
+    List<ActivityBitmap> findByGranularityAndBucketBetween(String granularity, Long fromBucket, Long toBucket);
+
+    /**
+     * Row of one bitmap, locked until the surrounding transaction ends
+     */
+    @Query(value = """
+            SELECT * FROM ACTIVITY_BITMAPS B
+            WHERE B.GRANULARITY = :granularity AND B.BUCKET = :bucket AND B.EVENT_TYPE = :eventType AND B.CATEGORY = :category
+            FOR UPDATE
+            """, nativeQuery = true)
+    Optional<ActivityBitmap> findForUpdate(@Param("granularity") String granularity,
+                                           @Param("bucket") long bucket,
+                                           @Param("eventType") String eventType,
+                                           @Param("category") String category);
+
+    /**
+     * @return 0 if another node stored the bitmap first
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO ACTIVITY_BITMAPS (GRANULARITY, BUCKET, EVENT_TYPE, CATEGORY, BITMAP)
+            VALUES (:granularity, :bucket, :eventType, :category, :bitmap)
+            ON CONFLICT (GRANULARITY, BUCKET, EVENT_TYPE, CATEGORY) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("granularity") String granularity,
+                       @Param("bucket") long bucket,
+                       @Param("eventType") String eventType,
+                       @Param("category") String category,
+                       @Param("bitmap") byte[] bitmap);
+
+    @Modifying
+    @Query(value = "UPDATE ACTIVITY_BITMAPS SET BITMAP = :bitmap WHERE ID = :id", nativeQuery = true)
+    int updateBitmap(@Param("id") long id, @Param("bitmap") byte[] bitmap);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ActivityBitmap b WHERE b.granularity = :granularity AND b.bucket < :bucket")
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("bucket") long bucket);
+}
@@ -0,0 +1,24 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * Per-category activity counts, as returned by grouped native queries.
+ */
+public interface CategoryMetricsRow {
+
+    String getCategory();
+
+    /**
+     * Distinct users with any event in the category
+     */
+    Long getDau();
+
+    /**
+     * Number of order_placed events in the category
+     */
+    Long getConversions();
+
+    /**
+     * Number of app_opened events in the category
+     */
+    Long getSessions();
+}
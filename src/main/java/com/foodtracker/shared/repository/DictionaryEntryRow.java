@@ -0,0 +1,17 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * Dictionary mapping, as returned by native queries.
+ */
+public interface DictionaryEntryRow {
+
+    /**
+     * Dense key
+     */
+    Integer getId();
+
+    /**
+     * External user or session ID
+     */
+    String getName();
+}
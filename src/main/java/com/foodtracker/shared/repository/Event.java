@@ -19,7 +19,11 @@ import java.util.Map;
 @Builder
 @Data
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_user_key", columnList = "user_key"),
+        @Index(name = "idx_events_session_key", columnList = "session_key"),
+        @Index(name = "idx_events_sample_bucket_timestamp", columnList = "sample_bucket, timestamp")
+})
 public class Event implements TrackEvent {
 
     @Id
@@ -35,6 +39,26 @@ public class Event implements TrackEvent {
     @Column(name = "session_id", nullable = false)
     private String sessionId;
 
+    /**
+     * Dense dictionary key of {@link #userId}
+     */
+    @Column(name = "user_key")
+    private Integer userKey;
+
+    /**
+     * Dense dictionary key of {@link #sessionId}
+     */
+    @Column(name = "session_key")
+    private Integer sessionKey;
+
+    /**
+     * Hash slot of {@link #userId} out of 10000, deciding whether the user is in approximate samples.
+     * Computed by the database, so existing rows get it when the column is added
+     */
+    @Column(name = "sample_bucket", insertable = false, updatable = false,
+            columnDefinition = "smallint GENERATED ALWAYS AS (CAST((HASHTEXT(user_id) & 2147483647) % 10000 AS SMALLINT)) STORED")
+    private Short sampleBucket;
+
     @Column(nullable = false, columnDefinition = "timestamptz")
     private Instant timestamp;
 
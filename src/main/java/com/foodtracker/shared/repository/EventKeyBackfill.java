@@ -0,0 +1,92 @@
+package com.foodtracker.shared.repository;
+
+import com.foodtracker.shared.event.EventKeysBackfilled;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives dictionary keys to events stored before the ID dictionary existed.
+ * <p>
+ * Runs once per start on a background thread, after the application is taking traffic, and walks
+ * the events in ranges of {@code batch-size} IDs so each statement locks and rewrites a bounded
+ * number of rows. New events are keyed at ingest, so only events older than the start are visited.
+ * Nodes starting together may backfill the same ranges; the statements only touch events still
+ * without keys, so this is harmless.
+ */
+@Component
+@Slf4j
+public class EventKeyBackfill {
+
+    private final EventRepository eventRepository;
+    private final UserDictionaryRepository userDictionaryRepository;
+    private final SessionDictionaryRepository sessionDictionaryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private volatile boolean stopped;
+
+    public EventKeyBackfill(EventRepository eventRepository,
+                            UserDictionaryRepository userDictionaryRepository,
+                            SessionDictionaryRepository sessionDictionaryRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${app.dictionary.backfill.batch-size:10000}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.userDictionaryRepository = userDictionaryRepository;
+        this.sessionDictionaryRepository = sessionDictionaryRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("event-key-backfill").start(this::backfill);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+    }
+
+    void backfill() {
+        try {
+            if (!eventRepository.existsByUserKeyIsNullOrSessionKeyIsNull()) {
+                return;
+            }
+            long maxId = eventRepository.findMaxId();
+            int users = 0;
+            int sessions = 0;
+            for (long fromId = 0; fromId < maxId; fromId += batchSize) {
+                if (stopped) {
+                    log.info("Event key backfill stopped before event {}, it resumes on the next start", fromId);
+                    return;
+                }
+                long toId = Math.min(fromId + batchSize, maxId);
+                users += fill(userDictionaryRepository::fillEventKeys, fromId, toId);
+                sessions += fill(sessionDictionaryRepository::fillEventKeys, fromId, toId);
+            }
+            log.info("Event key backfill keyed {} user and {} session references up to event {}", users, sessions, maxId);
+            eventPublisher.publishEvent(new EventKeysBackfilled(users, sessions));
+        } catch (Exception e) {
+            log.warn("Could not backfill event keys, retrying on the next start", e);
+        }
+    }
+
+    private static int fill(RangeFill rangeFill, long fromId, long toId) {
+        // An ID whose key another writer assigns during the statement is not visible to it; the next pass keys it
+        int total = 0;
+        int filled;
+        while ((filled = rangeFill.fill(fromId, toId)) > 0) {
+            total += filled;
+        }
+        return total;
+    }
+
+    @FunctionalInterface
+    private interface RangeFill {
+        int fill(long fromId, long toId);
+    }
+}
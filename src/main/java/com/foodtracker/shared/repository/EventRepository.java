@@ -15,6 +15,11 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     List<Event> findByUserId(String userId);
 
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM Event e")
+    long findMaxId();
+
+    boolean existsByUserKeyIsNullOrSessionKeyIsNull();
+
     @Query("SELECT COUNT(DISTINCT e.userId) " +
             "FROM Event e " +
             "WHERE e.eventType = :eventType AND e.timestamp >= :fromDate")
@@ -89,4 +94,130 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             """, nativeQuery = true)
     long countOrdersByCategorySince(@Param("category") String category,
                                   @Param("since") Instant since);
+
+    @Query(value = """
+            SELECT E.PROPERTIES ->> 'category' AS category,
+                   E.PROPERTIES ->> 'item_name' AS item,
+                   CAST(FLOOR(EXTRACT(EPOCH FROM E.TIMESTAMP) / 60) AS BIGINT) AS minute,
+                   COUNT(*) AS views
+            FROM EVENTS E
+            WHERE E.EVENT_TYPE = :eventType
+            AND E.TIMESTAMP >= :since
+            AND E.PROPERTIES ->> 'item_name' IS NOT NULL
+            GROUP BY 1, 2, 3
+            """, nativeQuery = true)
+    List<ItemMinuteCount> countItemsByCategoryAndMinuteSince(@Param("eventType") String eventType,
+                                                             @Param("since") Instant since);
+
+    @Query(value = """
+            SELECT E.PROPERTIES ->> 'category' AS category,
+                   COUNT(DISTINCT E.USER_ID) AS dau,
+                   COUNT(*) FILTER (WHERE E.EVENT_TYPE = 'order_placed') AS conversions,
+                   COUNT(*) FILTER (WHERE E.EVENT_TYPE = 'app_opened') AS sessions
+            FROM EVENTS E
+            WHERE E.TIMESTAMP >= :since
+            AND E.PROPERTIES ->> 'category' IS NOT NULL
+            GROUP BY 1
+            """, nativeQuery = true)
+    List<CategoryMetricsRow> countCategoryMetricsSince(@Param("since") Instant since);
+
+    /**
+     * Per-category counts in {@code [since, until)} over the users in the first {@code sampleThreshold}
+     * of 10000 hash slots, unscaled
+     */
+    @Query(value = """
+            SELECT E.PROPERTIES ->> 'category' AS category,
+                   COUNT(DISTINCT E.USER_ID) AS dau,
+                   COUNT(*) FILTER (WHERE E.EVENT_TYPE = 'order_placed') AS conversions,
+                   COUNT(*) FILTER (WHERE E.EVENT_TYPE = 'app_opened') AS sessions
+            FROM EVENTS E
+            WHERE E.SAMPLE_BUCKET < :sampleThreshold
+            AND E.TIMESTAMP >= :since
+            AND E.TIMESTAMP < :until
+            AND E.PROPERTIES ->> 'category' IS NOT NULL
+            GROUP BY 1
+            """, nativeQuery = true)
+    List<CategoryMetricsRow> sampleCategoryMetrics(@Param("since") Instant since,
+                                                   @Param("until") Instant until,
+                                                   @Param("sampleThreshold") int sampleThreshold);
+
+    @Query(value = """
+            SELECT DISTINCT E.PROPERTIES ->> 'category'
+            FROM EVENTS E
+            WHERE E.TIMESTAMP >= :since
+            AND E.PROPERTIES ->> 'category' IS NOT NULL
+            """, nativeQuery = true)
+    List<String> findDistinctCategoriesSince(@Param("since") Instant since);
+
+    @Query(value = """
+            SELECT CAST(FLOOR(EXTRACT(EPOCH FROM E.TIMESTAMP) / :bucketSeconds) AS BIGINT) AS bucket,
+                   COUNT(*) AS events,
+                   COUNT(DISTINCT E.USER_ID) AS users,
+                   COUNT(*) FILTER (WHERE E.EVENT_TYPE = 'app_opened') AS sessions,
+                   COUNT(*) FILTER (WHERE E.EVENT_TYPE = 'order_placed') AS orders,
+                   CAST(COALESCE(SUM(CAST(E.PROPERTIES ->> 'total' AS NUMERIC))
+                       FILTER (WHERE E.EVENT_TYPE = 'order_placed'
+                               AND JSONB_TYPEOF(E.PROPERTIES -> 'total') = 'number'), 0) AS DOUBLE PRECISION) AS revenue
+            FROM EVENTS E
+            WHERE E.TIMESTAMP >= :since
+            AND E.TIMESTAMP < :until
+            GROUP BY 1
+            """, nativeQuery = true)
+    List<MetricBucketRow> aggregateBucketsBetween(@Param("bucketSeconds") long bucketSeconds,
+                                                  @Param("since") Instant since,
+                                                  @Param("until") Instant until);
+
+    @Query(value = """
+            SELECT E.USER_ID AS id,
+                   CAST(EXTRACT(EPOCH FROM MAX(E.TIMESTAMP)) AS BIGINT) AS seen
+            FROM EVENTS E
+            WHERE E.TIMESTAMP >= :since
+            GROUP BY E.USER_ID
+            """, nativeQuery = true)
+    List<UserLastSeen> findUsersLastSeenSince(@Param("since") Instant since);
+
+    @Query(value = """
+            SELECT DISTINCT E.USER_ID
+            FROM EVENTS E
+            WHERE E.TIMESTAMP >= :since
+            AND E.TIMESTAMP < :until
+            """, nativeQuery = true)
+    List<String> findDistinctUserIdsBetween(@Param("since") Instant since, @Param("until") Instant until);
+
+    /**
+     * Event and user counts per event type over the users whose ID hashes into the first
+     * {@code sampleThreshold} of 10000 slots, i.e. a stable user-level sample. Only the
+     * sampled rows are read, through the sample bucket index.
+     */
+    @Query(value = """
+            SELECT S.EVENT_TYPE AS type,
+                   CAST(SUM(S.CNT) AS BIGINT) AS events,
+                   CAST(SUM(S.CNT * S.CNT) AS BIGINT) AS squares,
+                   COUNT(DISTINCT S.USER_ID) AS users
+            FROM (
+                SELECT E.EVENT_TYPE, E.USER_ID, COUNT(*) AS CNT
+                FROM EVENTS E
+                WHERE E.TIMESTAMP >= :since
+                AND E.TIMESTAMP < :until
+                AND (CAST(:category AS TEXT) IS NULL OR E.PROPERTIES ->> 'category' = CAST(:category AS TEXT))
+                AND E.SAMPLE_BUCKET < :sampleThreshold
+                GROUP BY E.EVENT_TYPE, E.USER_ID
+            ) S
+            GROUP BY ROLLUP (S.EVENT_TYPE)
+            """, nativeQuery = true)
+    List<SampledEventTypeStats> sampleEventTypeStats(@Param("since") Instant since,
+                                                     @Param("until") Instant until,
+                                                     @Param("category") String category,
+                                                     @Param("sampleThreshold") int sampleThreshold);
+
+    @Query(value = """
+            SELECT DISTINCT E.USER_KEY AS userkey,
+                   E.EVENT_TYPE AS type,
+                   E.PROPERTIES ->> 'category' AS category,
+                   CAST(FLOOR(EXTRACT(EPOCH FROM E.TIMESTAMP) / 60) AS BIGINT) AS minute
+            FROM EVENTS E
+            WHERE E.TIMESTAMP >= :since
+            AND E.USER_KEY IS NOT NULL
+            """, nativeQuery = true)
+    List<UserActivityRow> findUserActivitySince(@Param("since") Instant since);
 }
\ No newline at end of file
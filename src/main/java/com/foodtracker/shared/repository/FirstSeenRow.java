@@ -0,0 +1,17 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * First activity day of a user, as returned by native queries.
+ */
+public interface FirstSeenRow {
+
+    /**
+     * Dictionary key of the user
+     */
+    Integer getUserkey();
+
+    /**
+     * Days since the epoch (UTC)
+     */
+    Long getDay();
+}
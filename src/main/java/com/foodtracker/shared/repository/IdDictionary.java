@@ -0,0 +1,70 @@
+package com.foodtracker.shared.repository;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Cached two-way mapping between external IDs and dense keys of one persisted dictionary.
+ * Keys are assigned by the database, so every node maps an ID to the same key.
+ */
+final class IdDictionary {
+
+    private final StringIntHashMap keys;
+    private final Function<String, Integer> resolver;
+    private final IntFunction<String> reverseResolver;
+    private volatile String[] names;
+
+    /**
+     * @param resolver        finds or assigns the persisted key of an ID
+     * @param reverseResolver finds the persisted ID of a key, or null
+     */
+    IdDictionary(int expectedSize, Function<String, Integer> resolver, IntFunction<String> reverseResolver) {
+        this.keys = new StringIntHashMap(expectedSize);
+        this.resolver = resolver;
+        this.reverseResolver = reverseResolver;
+        this.names = new String[Math.max(expectedSize, 16)];
+    }
+
+    int keyOf(String name) {
+        int key = keys.get(name);
+        if (key != StringIntHashMap.MISSING) {
+            return key;
+        }
+        // Concurrent misses for the same ID resolve to the same persisted key
+        return load(resolver.apply(name), name);
+    }
+
+    /**
+     * ID mapped to {@code key}, or null if the key was never assigned
+     */
+    String nameOf(int key) {
+        String[] current = names;
+        String name = key >= 0 && key < current.length ? current[key] : null;
+        if (name == null) {
+            name = reverseResolver.apply(key);
+            if (name != null) {
+                load(key, name);
+            }
+        }
+        return name;
+    }
+
+    int load(int key, String name) {
+        int mapped = keys.putIfAbsent(name, key);
+        synchronized (this) {
+            String[] current = names;
+            if (mapped >= current.length) {
+                current = Arrays.copyOf(current, Math.max(mapped + 1, current.length << 1));
+            }
+            current[mapped] = name;
+            // Volatile write publishes the element to lock-free readers
+            names = current;
+        }
+        return mapped;
+    }
+
+    int size() {
+        return keys.size();
+    }
+}
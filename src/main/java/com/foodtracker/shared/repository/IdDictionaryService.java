@@ -0,0 +1,98 @@
+package com.foodtracker.shared.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Function;
+
+/**
+ * Dense integer keys for user and session IDs.
+ * <p>
+ * Keys are assigned once in the {@code user_dictionary} and {@code session_dictionary} tables and
+ * cached in memory, so ingest resolves known IDs without a database round trip. Small dense keys
+ * keep indexes compact and make bitmaps and distinct counts over users and sessions cheap.
+ * <p>
+ * All user keys stay resident. Sessions are short-lived and far more numerous, so only the most
+ * recently used session keys are cached and the rest are resolved on demand. Events stored before
+ * the dictionary existed are keyed in the background by {@link EventKeyBackfill}.
+ */
+@Service
+@Slf4j
+public class IdDictionaryService {
+
+    private final UserDictionaryRepository userDictionaryRepository;
+    private final SessionDictionaryRepository sessionDictionaryRepository;
+    private final IdDictionary users;
+    private final Cache<String, Integer> sessionKeys;
+
+    public IdDictionaryService(UserDictionaryRepository userDictionaryRepository,
+                               SessionDictionaryRepository sessionDictionaryRepository,
+                               @Value("${app.dictionary.expected-users:100000}") int expectedUsers,
+                               @Value("${app.dictionary.max-cached-sessions:100000}") long maxCachedSessions) {
+        this.userDictionaryRepository = userDictionaryRepository;
+        this.sessionDictionaryRepository = sessionDictionaryRepository;
+        this.users = new IdDictionary(expectedUsers,
+                name -> resolve(name, userDictionaryRepository::findIdByExternalId, userDictionaryRepository::insertIfAbsent),
+                key -> userDictionaryRepository.findById(key).map(UserDictionaryEntry::getExternalId).orElse(null));
+        this.sessionKeys = Caffeine.newBuilder()
+                .maximumSize(maxCachedSessions)
+                .build();
+    }
+
+    /**
+     * Loads all user keys into memory before the application starts taking traffic
+     */
+    @PostConstruct
+    public void warmUp() {
+        try {
+            userDictionaryRepository.findAllEntries().forEach(row -> users.load(row.getId(), row.getName()));
+            log.info("Dictionary loaded {} users", users.size());
+        } catch (Exception e) {
+            log.warn("Could not warm up ID dictionary, keys will be resolved on demand", e);
+        }
+    }
+
+    public int userKey(String userId) {
+        return users.keyOf(userId);
+    }
+
+    public int sessionKey(String sessionId) {
+        return sessionKeys.get(sessionId,
+                name -> resolve(name, sessionDictionaryRepository::findIdByExternalId, sessionDictionaryRepository::insertIfAbsent));
+    }
+
+    /**
+     * User ID of a key, or null if the key was never assigned
+     */
+    public String userId(int userKey) {
+        return users.nameOf(userKey);
+    }
+
+    /**
+     * Session ID of a key, or null if the key was never assigned
+     */
+    public String sessionId(int sessionKey) {
+        return sessionDictionaryRepository.findById(sessionKey).map(SessionDictionaryEntry::getExternalId).orElse(null);
+    }
+
+    private static int resolve(String name,
+                               Function<String, Integer> lookup,
+                               Function<String, Integer> insert) {
+        Integer key = lookup.apply(name);
+        if (key == null) {
+            key = insert.apply(name);
+        }
+        if (key == null) {
+            // Lost the race against another writer; its key is committed now
+            key = lookup.apply(name);
+        }
+        if (key == null) {
+            throw new IllegalStateException("Could not assign a dictionary key to " + name);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,18 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * Item view count for one category and one minute, as returned by grouped native queries.
+ */
+public interface ItemMinuteCount {
+
+    String getCategory();
+
+    String getItem();
+
+    /**
+     * Minutes since the epoch
+     */
+    Long getMinute();
+
+    Long getViews();
+}
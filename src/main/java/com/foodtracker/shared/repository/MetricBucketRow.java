@@ -0,0 +1,34 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * Event activity for one time bucket, as returned by grouped native queries.
+ */
+public interface MetricBucketRow {
+
+    /**
+     * Bucket index, i.e. epoch seconds divided by the bucket width
+     */
+    Long getBucket();
+
+    Long getEvents();
+
+    /**
+     * Distinct users with any event in the bucket
+     */
+    Long getUsers();
+
+    /**
+     * Number of app_opened events
+     */
+    Long getSessions();
+
+    /**
+     * Number of order_placed events
+     */
+    Long getOrders();
+
+    /**
+     * Sum of the numeric "total" property of order_placed events
+     */
+    Double getRevenue();
+}
@@ -0,0 +1,25 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * Per event type counts over a user-hash sample, as returned by grouped native queries.
+ * A row with a null type holds the totals over all event types.
+ */
+public interface SampledEventTypeStats {
+
+    String getType();
+
+    /**
+     * Number of sampled events
+     */
+    Long getEvents();
+
+    /**
+     * Sum over sampled users of their squared event count, used for the variance of the scaled count
+     */
+    Long getSquares();
+
+    /**
+     * Distinct sampled users
+     */
+    Long getUsers();
+}
@@ -0,0 +1,24 @@
+package com.foodtracker.shared.repository;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dense integer key assigned to a session ID
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "session_dictionary")
+public class SessionDictionaryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "external_id", nullable = false, unique = true)
+    private String externalId;
+}
@@ -0,0 +1,56 @@
+package com.foodtracker.shared.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SessionDictionaryRepository extends JpaRepository<SessionDictionaryEntry, Integer> {
+
+    @Query(value = "SELECT D.ID FROM SESSION_DICTIONARY D WHERE D.EXTERNAL_ID = :externalId", nativeQuery = true)
+    Integer findIdByExternalId(@Param("externalId") String externalId);
+
+    /**
+     * Assign a key to {@code externalId}; returns null if another writer assigned it first
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO SESSION_DICTIONARY (EXTERNAL_ID) VALUES (:externalId)
+            ON CONFLICT (EXTERNAL_ID) DO NOTHING
+            RETURNING ID
+            """, nativeQuery = true)
+    Integer insertIfAbsent(@Param("externalId") String externalId);
+
+    /**
+     * Assign keys to the sessions of events in {@code (fromId, toId]} stored before the dictionary existed,
+     * and copy the keys onto those events. IDs that already have a key are left out of the insert, since each
+     * conflicting row would still use up a key and leave a gap in the dense key range.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH NEW_KEYS AS (
+                INSERT INTO SESSION_DICTIONARY (EXTERNAL_ID)
+                SELECT DISTINCT E.SESSION_ID FROM EVENTS E
+                WHERE E.ID > :fromId AND E.ID <= :toId AND E.SESSION_KEY IS NULL
+                AND NOT EXISTS (SELECT 1 FROM SESSION_DICTIONARY D WHERE D.EXTERNAL_ID = E.SESSION_ID)
+                ON CONFLICT (EXTERNAL_ID) DO NOTHING
+                RETURNING ID, EXTERNAL_ID
+            ), KEYS AS (
+                SELECT N.ID, N.EXTERNAL_ID FROM NEW_KEYS N
+                UNION ALL
+                SELECT D.ID, D.EXTERNAL_ID FROM SESSION_DICTIONARY D
+                WHERE D.EXTERNAL_ID IN (
+                    SELECT E.SESSION_ID FROM EVENTS E
+                    WHERE E.ID > :fromId AND E.ID <= :toId AND E.SESSION_KEY IS NULL
+                )
+            )
+            UPDATE EVENTS E SET SESSION_KEY = K.ID
+            FROM KEYS K
+            WHERE E.ID > :fromId AND E.ID <= :toId AND E.SESSION_KEY IS NULL AND K.EXTERNAL_ID = E.SESSION_ID
+            """, nativeQuery = true)
+    int fillEventKeys(@Param("fromId") long fromId, @Param("toId") long toId);
+}
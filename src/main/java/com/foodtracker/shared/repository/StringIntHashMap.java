@@ -0,0 +1,121 @@
+package com.foodtracker.shared.repository;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * String to int map with open addressing and linear probing, backed by two parallel arrays,
+ * so values are stored unboxed and there is no entry object per mapping.
+ * <p>
+ * Reads are optimistic and only take the read lock when a write happened concurrently;
+ * writes are serialized. Mappings cannot be removed.
+ */
+final class StringIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final float MAX_LOAD = 0.5f;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private int size;
+
+    StringIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / MAX_LOAD), 16) - 1) << 1;
+        this.table = new Table(new String[capacity], new int[capacity]);
+    }
+
+    /**
+     * Value mapped to {@code key}, or {@link #MISSING}
+     */
+    int get(String key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            // Never fuller than MAX_LOAD, so probing ends even while a writer is active
+            int value = find(table, key);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(table, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Map {@code key} to {@code value} unless it is already mapped; returns the value now mapped
+     */
+    int putIfAbsent(String key, int value) {
+        long stamp = lock.writeLock();
+        try {
+            int existing = find(table, key);
+            if (existing != MISSING) {
+                return existing;
+            }
+            if (size + 1 > table.keys().length * MAX_LOAD) {
+                resize(table.keys().length << 1);
+            }
+            insert(table, key, value);
+            size++;
+            return value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int find(Table table, String key) {
+        String[] keys = table.keys();
+        int mask = keys.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            String candidate = keys[slot];
+            if (candidate == null) {
+                return MISSING;
+            }
+            if (candidate.equals(key)) {
+                return table.values()[slot];
+            }
+        }
+    }
+
+    private static void insert(Table table, String key, int value) {
+        String[] keys = table.keys();
+        int mask = keys.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        // Value first: a racing optimistic reader that sees the key must not see a stale value
+        table.values()[slot] = value;
+        keys[slot] = key;
+    }
+
+    private void resize(int capacity) {
+        Table resized = new Table(new String[capacity], new int[capacity]);
+        String[] keys = table.keys();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                insert(resized, keys[i], table.values()[i]);
+            }
+        }
+        // Keys and values are swapped as one reference, so a reader never mixes arrays of different sizes
+        table = resized;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B1;
+    }
+
+    private record Table(String[] keys, int[] values) {
+    }
+}
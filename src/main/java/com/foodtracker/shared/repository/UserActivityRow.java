@@ -0,0 +1,24 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * A user active in one minute for an event type and category, as returned by native queries.
+ */
+public interface UserActivityRow {
+
+    /**
+     * Dictionary key of the user
+     */
+    Integer getUserkey();
+
+    String getType();
+
+    /**
+     * Category property of the event, or null
+     */
+    String getCategory();
+
+    /**
+     * Minute index, i.e. epoch seconds divided by 60
+     */
+    Long getMinute();
+}
@@ -0,0 +1,27 @@
+package com.foodtracker.shared.repository;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Day of the first event of a user, keyed by the user's dictionary key
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "user_first_seen")
+public class UserFirstSeen {
+
+    @Id
+    @Column(name = "user_key")
+    private Integer userKey;
+
+    /**
+     * Days since the epoch (UTC)
+     */
+    @Column(name = "first_day", nullable = false)
+    private Long firstDay;
+}
@@ -0,0 +1,60 @@
+package com.foodtracker.shared.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserFirstSeenRepository extends JpaRepository<UserFirstSeen, Integer> {
+
+    /**
+     * Record {@code firstDay} unless an earlier day is already known for the user
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO USER_FIRST_SEEN (USER_KEY, FIRST_DAY) VALUES (:userKey, :firstDay)
+            ON CONFLICT (USER_KEY) DO UPDATE SET FIRST_DAY = LEAST(USER_FIRST_SEEN.FIRST_DAY, EXCLUDED.FIRST_DAY)
+            """, nativeQuery = true)
+    int upsertEarliest(@Param("userKey") int userKey, @Param("firstDay") long firstDay);
+
+    /**
+     * Record first days for the users of all events
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO USER_FIRST_SEEN (USER_KEY, FIRST_DAY)
+            SELECT E.USER_KEY, MIN(CAST(FLOOR(EXTRACT(EPOCH FROM E.TIMESTAMP) / 86400) AS BIGINT))
+            FROM EVENTS E
+            WHERE E.USER_KEY IS NOT NULL
+            GROUP BY E.USER_KEY
+            ON CONFLICT (USER_KEY) DO UPDATE SET FIRST_DAY = LEAST(USER_FIRST_SEEN.FIRST_DAY, EXCLUDED.FIRST_DAY)
+            """, nativeQuery = true)
+    int backfillAll();
+
+    /**
+     * Record first days for the users of events since {@code since}
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO USER_FIRST_SEEN (USER_KEY, FIRST_DAY)
+            SELECT E.USER_KEY, MIN(CAST(FLOOR(EXTRACT(EPOCH FROM E.TIMESTAMP) / 86400) AS BIGINT))
+            FROM EVENTS E
+            WHERE E.USER_KEY IS NOT NULL
+            AND E.TIMESTAMP >= :since
+            GROUP BY E.USER_KEY
+            ON CONFLICT (USER_KEY) DO UPDATE SET FIRST_DAY = LEAST(USER_FIRST_SEEN.FIRST_DAY, EXCLUDED.FIRST_DAY)
+            """, nativeQuery = true)
+    int backfillSince(@Param("since") Instant since);
+
+    @Query(value = "SELECT F.USER_KEY AS userkey, F.FIRST_DAY AS day FROM USER_FIRST_SEEN F", nativeQuery = true)
+    List<FirstSeenRow> findAllEntries();
+}
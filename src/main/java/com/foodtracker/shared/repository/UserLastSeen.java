@@ -0,0 +1,17 @@
+package com.foodtracker.shared.repository;
+
+/**
+ * Latest event time of a user, as returned by grouped native queries.
+ */
+public interface UserLastSeen {
+
+    /**
+     * User ID
+     */
+    String getId();
+
+    /**
+     * Epoch seconds of the user's latest event
+     */
+    Long getSeen();
+}
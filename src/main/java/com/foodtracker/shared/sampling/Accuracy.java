@@ -0,0 +1,31 @@
+package com.foodtracker.shared.sampling;
+
+import java.util.Locale;
+
+/**
+ * Requested accuracy of an analytics query
+ */
+public enum Accuracy {
+    /**
+     * Exact counts over all matching events
+     */
+    EXACT,
+    /**
+     * Counts scaled up from a stable sample of users, reported with confidence intervals
+     */
+    APPROX;
+
+    /**
+     * Parse a request parameter such as {@code exact} or {@code approx}, case-insensitively
+     */
+    public static Accuracy fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown accuracy: " + value + ", expected exact or approx");
+        }
+    }
+}
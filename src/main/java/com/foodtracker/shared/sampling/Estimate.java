@@ -0,0 +1,59 @@
+package com.foodtracker.shared.sampling;
+
+/**
+ * A value scaled up from a sample, with its standard error and the sample rate it was computed from.
+ * Bounds are for a 95% confidence level using the normal approximation.
+ */
+public record Estimate(double value, double standardError, double sampleRate) {
+
+    public static final double CONFIDENCE_LEVEL = 0.95;
+
+    private static final double Z = 1.959964;
+
+    public double lower() {
+        return Math.max(0, value - Z * standardError);
+    }
+
+    public double upper() {
+        return value + Z * standardError;
+    }
+
+    public long rounded() {
+        return Math.round(value);
+    }
+
+    /**
+     * Percentage {@code numerator / denominator * 100}, with the standard error from the delta method.
+     * The covariance term is dropped; counts from the same users are positively correlated,
+     * so this overstates the error rather than understating it.
+     */
+    public static Estimate ratePercent(Estimate numerator, Estimate denominator) {
+        if (denominator.value() <= 0) {
+            return new Estimate(0, 0, denominator.sampleRate());
+        }
+        double rate = numerator.value() / denominator.value();
+        double variance = (numerator.standardError() * numerator.standardError()
+                + rate * rate * denominator.standardError() * denominator.standardError())
+                / (denominator.value() * denominator.value());
+        return new Estimate(rate * 100, Math.sqrt(variance) * 100, denominator.sampleRate());
+    }
+
+    /**
+     * Horvitz-Thompson estimate of a total from a Bernoulli sample of users.
+     *
+     * @param sampledTotal   sum of the per-user values over the sampled users
+     * @param sampledSquares sum of the squared per-user values over the sampled users
+     * @param sampleRate     probability of a user being sampled
+     */
+    static Estimate scaled(long sampledTotal, long sampledSquares, double sampleRate) {
+        if (sampleRate >= 1) {
+            return new Estimate(sampledTotal, 0, 1);
+        }
+        if (sampledTotal == 0) {
+            // Nothing sampled: the rule of three bounds the total at 3 / p
+            return new Estimate(0, 3 / sampleRate / Z, sampleRate);
+        }
+        double variance = (1 - sampleRate) / (sampleRate * sampleRate) * sampledSquares;
+        return new Estimate(sampledTotal / sampleRate, Math.sqrt(variance), sampleRate);
+    }
+}
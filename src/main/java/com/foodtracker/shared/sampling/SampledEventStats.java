@@ -0,0 +1,25 @@
+package com.foodtracker.shared.sampling;
+
+import java.util.Map;
+
+/**
+ * Event and distinct user estimates per event type from one user-hash sample
+ *
+ * @param sampleRate    fraction of users actually sampled
+ * @param events        estimated event count per event type
+ * @param users         estimated distinct users per event type
+ * @param distinctUsers estimated distinct users over all event types
+ */
+public record SampledEventStats(double sampleRate,
+                                Map<String, Estimate> events,
+                                Map<String, Estimate> users,
+                                Estimate distinctUsers) {
+
+    public Estimate events(String eventType) {
+        return events.getOrDefault(eventType, Estimate.scaled(0, 0, sampleRate));
+    }
+
+    public Estimate users(String eventType) {
+        return users.getOrDefault(eventType, Estimate.scaled(0, 0, sampleRate));
+    }
+}
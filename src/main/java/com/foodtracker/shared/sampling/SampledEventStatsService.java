@@ -0,0 +1,108 @@
+package com.foodtracker.shared.sampling;
+
+import com.foodtracker.shared.repository.CategoryMetricsRow;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.SampledEventTypeStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate event statistics over a stable sample of users.
+ * <p>
+ * A user is in the sample when the hash of their ID falls into the first slots of
+ * {@value #SAMPLE_SLOTS}, so all events of a sampled user are counted and distinct
+ * user counts scale without bias. Totals are scaled by the inverse of the sample rate
+ * and reported with their standard error.
+ */
+@Service
+public class SampledEventStatsService {
+
+    static final int SAMPLE_SLOTS = 10000;
+
+    private final EventRepository eventRepository;
+    private final int sampleThreshold;
+
+    public SampledEventStatsService(EventRepository eventRepository,
+                                    @Value("${app.analytics.approx.sample-rate:0.01}") double sampleRate) {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("app.analytics.approx.sample-rate must be in (0, 1]");
+        }
+        this.eventRepository = eventRepository;
+        this.sampleThreshold = (int) Math.max(1, Math.round(sampleRate * SAMPLE_SLOTS));
+    }
+
+    /**
+     * Sample rate actually used, after rounding to whole hash slots
+     */
+    public double sampleRate() {
+        return (double) sampleThreshold / SAMPLE_SLOTS;
+    }
+
+    /**
+     * Estimates for events in {@code [since, until)}, optionally restricted to one category
+     */
+    public SampledEventStats sample(Instant since, Instant until, String category) {
+        double sampleRate = sampleRate();
+        List<SampledEventTypeStats> rows = eventRepository.sampleEventTypeStats(since, until, category, sampleThreshold);
+
+        Map<String, Estimate> events = new HashMap<>();
+        Map<String, Estimate> users = new HashMap<>();
+        Estimate distinctUsers = Estimate.scaled(0, 0, sampleRate);
+        for (SampledEventTypeStats row : rows) {
+            // Every sampled user counts once, so the squares of the user indicator equal the user count
+            Estimate userEstimate = Estimate.scaled(row.getUsers(), row.getUsers(), sampleRate);
+            if (row.getType() == null) {
+                distinctUsers = userEstimate;
+            } else {
+                events.put(row.getType(), Estimate.scaled(row.getEvents(), row.getSquares(), sampleRate));
+                users.put(row.getType(), userEstimate);
+            }
+        }
+        return new SampledEventStats(sampleRate, events, users, distinctUsers);
+    }
+
+    /**
+     * Estimated per-category counts for events in {@code [since, until)}, scaled to all users
+     */
+    public List<CategoryMetricsRow> categoryMetrics(Instant since, Instant until) {
+        double sampleRate = sampleRate();
+        return eventRepository.sampleCategoryMetrics(since, until, sampleThreshold).stream()
+                .<CategoryMetricsRow>map(row -> new ScaledCategoryMetrics(row.getCategory(),
+                        scale(row.getDau(), sampleRate), scale(row.getConversions(), sampleRate),
+                        scale(row.getSessions(), sampleRate)))
+                .toList();
+    }
+
+    private static Long scale(Long sampled, double sampleRate) {
+        return sampled != null ? Math.round(sampled / sampleRate) : 0L;
+    }
+
+    private record ScaledCategoryMetrics(String category, Long dau, Long conversions, Long sessions)
+            implements CategoryMetricsRow {
+
+        @Override
+        public String getCategory() {
+            return category;
+        }
+
+        @Override
+        public Long getDau() {
+            return dau;
+        }
+
+        @Override
+        public Long getConversions() {
+            return conversions;
+        }
+
+        @Override
+        public Long getSessions() {
+            return sessions;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.foodtracker.tracking.service;
 
 import com.foodtracker.api.tracking.EventRequest;
+import com.foodtracker.shared.event.EventTracked;
 import com.foodtracker.shared.repository.Event;
 import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.IdDictionaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,6 +16,8 @@ import org.springframework.stereotype.Service;
 public class EventServiceImpl implements EventService {
 
     private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdDictionaryService idDictionaryService;
 
     @Override
     public Event trackEvent(EventRequest eventRequest) {
@@ -21,11 +26,16 @@ public class EventServiceImpl implements EventService {
 
         // Create event entity from DTO using Instant timestamp
         Event event = map(eventRequest);
+        event.setUserKey(idDictionaryService.userKey(event.getUserId()));
+        event.setSessionKey(idDictionaryService.sessionKey(event.getSessionId()));
 
         // Save to database
         Event savedEvent = eventRepository.save(event);
         log.debug("Event saved with ID: {}", savedEvent.getId());
 
+        // Let in-memory aggregates pick up the stored event
+        eventPublisher.publishEvent(new EventTracked(savedEvent));
+
         return savedEvent;
     }
 
@@ -0,0 +1,130 @@
+package com.foodtracker.analytics.cohort;
+
+import com.foodtracker.api.analytics.CohortRetentionResponse;
+import com.foodtracker.api.analytics.CohortRow;
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.shared.activity.ActivityBitmapStore;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.ActivityBitmapRepository;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.UserFirstSeenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CohortRetentionEngineTest {
+
+    @Mock
+    private UserFirstSeenRepository userFirstSeenRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ActivityBitmapRepository activityBitmapRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    private FirstSeenIndex firstSeenIndex;
+    private ActivityBitmapStore activityBitmapStore;
+    private CohortRetentionEngine sut;
+
+    private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+    @BeforeEach
+    void setUp() {
+        firstSeenIndex = new FirstSeenIndex(userFirstSeenRepository);
+        activityBitmapStore = new ActivityBitmapStore(eventRepository, activityBitmapRepository, transactionTemplate,
+                refreshExecutor, 60000);
+        sut = new CohortRetentionEngine(firstSeenIndex, activityBitmapStore);
+    }
+
+    @Test
+    void retention_ShouldIntersectCohortsWithDailyActivity() {
+        // Given - users 1 and 2 first seen 2 days ago, user 3 yesterday
+        LocalDate start = today.minusDays(2);
+        track(1, start);
+        track(2, start);
+        track(1, start.plusDays(1));
+        track(3, start.plusDays(1));
+        track(1, today);
+        track(3, today);
+
+        // When
+        CohortRetentionResponse result = sut.retention(start, 3);
+
+        // Then
+        assertThat(result.getDays()).isEqualTo(3);
+        assertThat(result.getCohorts()).hasSize(3);
+        CohortRow first = result.getCohorts().get(0);
+        assertThat(first.getCohortDate()).isEqualTo(start);
+        assertThat(first.getSize()).isEqualTo(2);
+        assertThat(first.getRetained()).containsExactly(2L, 1L, 1L);
+        assertThat(first.getRetentionRates()).containsExactly(100.0, 50.0, 50.0);
+        assertThat(result.getCohorts().get(1).getRetained()).containsExactly(1L, 1L);
+        assertThat(result.getCohorts().get(2).getSize()).isZero();
+        assertThat(result.getCohorts().get(2).getRetained()).containsExactly(0L);
+    }
+
+    @Test
+    void retention_ShouldStopAtToday() {
+        // When
+        CohortRetentionResponse result = sut.retention(today.minusDays(1), 90);
+
+        // Then
+        assertThat(result.getDays()).isEqualTo(2);
+    }
+
+    @Test
+    void retention_WhenDaysOutOfRange_ShouldThrow() {
+        assertThatThrownBy(() -> sut.retention(today, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sut.retention(today, CohortRetentionEngine.MAX_DAYS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void onEventTracked_WhenOlderEventArrives_ShouldMoveUserToEarlierCohort() {
+        // Given
+        track(7, today);
+
+        // When
+        track(7, today.minusDays(5));
+
+        // Then
+        assertThat(firstSeenIndex.firstDay(7)).isEqualTo(today.minusDays(5).toEpochDay());
+        assertThat(firstSeenIndex.cohort(today.toEpochDay()).isEmpty()).isTrue();
+        assertThat(firstSeenIndex.cohort(today.minusDays(5).toEpochDay()).contains(7)).isTrue();
+        verify(userFirstSeenRepository).upsertEarliest(7, today.minusDays(5).toEpochDay());
+    }
+
+    private void track(int userKey, LocalDate day) {
+        Event event = Event.builder()
+                .eventType("app_opened")
+                .userId("user_" + userKey)
+                .sessionId("session_" + userKey)
+                .userKey(userKey)
+                .timestamp(day.atStartOfDay().plusHours(1).toInstant(ZoneOffset.UTC))
+                .properties(Map.of())
+                .build();
+        EventTracked eventTracked = new EventTracked(event);
+        firstSeenIndex.onEventTracked(eventTracked);
+        activityBitmapStore.onEventTracked(eventTracked);
+    }
+}
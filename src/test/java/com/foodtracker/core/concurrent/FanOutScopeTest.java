@@ -0,0 +1,107 @@
+package com.foodtracker.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FanOutScopeTest {
+
+    @Test
+    void join_WithSuccessfulSubtasks_ShouldRunThemConcurrently() throws Exception {
+        // Given
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        try (FanOutScope scope = new FanOutScope(Duration.ofSeconds(5))) {
+            // When - each subtask only finishes once the other one has started
+            Future<String> first = scope.fork(() -> {
+                bothStarted.countDown();
+                bothStarted.await();
+                return "first";
+            });
+            Future<Integer> second = scope.fork(() -> {
+                bothStarted.countDown();
+                bothStarted.await();
+                return 2;
+            });
+            scope.join();
+
+            // Then
+            assertThat(first.resultNow()).isEqualTo("first");
+            assertThat(second.resultNow()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void join_WithFailingSubtask_ShouldCancelSiblingsAndRethrowCause() {
+        try (FanOutScope scope = new FanOutScope(Duration.ofSeconds(5))) {
+            // Given
+            Future<Object> slow = scope.fork(() -> {
+                Thread.sleep(Duration.ofSeconds(10));
+                return null;
+            });
+            scope.fork(() -> {
+                throw new IllegalArgumentException("query failed");
+            });
+
+            // When & Then
+            assertThatThrownBy(scope::join)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+            assertThat(slow.isCancelled()).isTrue();
+        }
+    }
+
+    @Test
+    void join_WhenDeadlinePasses_ShouldThrowTimeoutAndCancelSubtasks() {
+        try (FanOutScope scope = new FanOutScope(Duration.ofMillis(100))) {
+            // Given
+            Future<Object> slow = scope.fork(() -> {
+                Thread.sleep(Duration.ofSeconds(10));
+                return null;
+            });
+
+            // When & Then
+            assertThatThrownBy(scope::join).isInstanceOf(TimeoutException.class);
+            assertThat(slow.isCancelled()).isTrue();
+        }
+    }
+
+    @Test
+    void join_WithSharedPermits_ShouldNotRunMoreSubtasksAtOnceThanPermits() throws Exception {
+        // Given
+        Semaphore permits = new Semaphore(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (FanOutScope scope = new FanOutScope(Duration.ofSeconds(5), permits)) {
+            // When
+            List<Future<Integer>> subtasks = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                int value = i;
+                subtasks.add(scope.fork(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(Duration.ofMillis(20));
+                    running.decrementAndGet();
+                    return value;
+                }));
+            }
+            scope.join();
+
+            // Then
+            assertThat(subtasks).extracting(Future::resultNow).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+            assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+            assertThat(permits.availablePermits()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.foodtracker.core.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RefreshExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshExecutor refreshExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refreshExecutor = new RefreshExecutor(meterRegistry, 4, 0.1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdown();
+    }
+
+    @Test
+    void execute_WhileSameKeyIsRunning_ShouldSkipAndCountOverrun() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        refreshExecutor.execute("cache-refresh", "dashboard:dau", () -> awaitQuietly(release));
+
+        // When
+        boolean second = refreshExecutor.execute("cache-refresh", "dashboard:dau", () -> {
+        });
+        boolean otherKey = refreshExecutor.execute("cache-refresh", "dashboard:metrics", () -> {
+        });
+        release.countDown();
+
+        // Then
+        assertThat(second).isFalse();
+        assertThat(otherKey).isTrue();
+        assertThat(skipped("cache-refresh", RefreshExecutor.OVERRUN)).isEqualTo(1);
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() ->
+                assertThat(meterRegistry.get("dashboard.job.duration").tag("job", "cache-refresh").timer().count()).isEqualTo(2));
+    }
+
+    @Test
+    void executeLater_ShouldRunOnceAfterDelay() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        long start = System.nanoTime();
+        AtomicLong ranAfter = new AtomicLong();
+
+        // When
+        refreshExecutor.executeLater("websocket-push-changes", Duration.ofMillis(100), () -> {
+            ranAfter.set(System.nanoTime() - start);
+            runs.incrementAndGet();
+        });
+
+        // Then
+        await().atMost(Duration.ofSeconds(2)).until(() -> runs.get() == 1);
+        assertThat(ranAfter.get()).isGreaterThanOrEqualTo(Duration.ofMillis(100).toNanos());
+        sleep(200);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void executeLater_ScheduledFromItsOwnRun_ShouldRunAgain() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        Runnable[] task = new Runnable[1];
+        task[0] = () -> {
+            if (runs.incrementAndGet() < 3) {
+                refreshExecutor.executeLater("websocket-push-changes", Duration.ZERO, task[0]);
+                // Still running when the next run starts
+                sleep(50);
+            }
+        };
+
+        // When
+        refreshExecutor.executeLater("websocket-push-changes", Duration.ZERO, task[0]);
+
+        // Then
+        await().atMost(Duration.ofSeconds(2)).until(() -> runs.get() == 3);
+    }
+
+    @Test
+    void schedule_WithRunLongerThanPeriod_ShouldNeverOverlapAndCountSkips() {
+        // Given
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        AtomicInteger runs = new AtomicInteger();
+
+        // When
+        refreshExecutor.schedule("slow", Duration.ofMillis(20), () -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            sleep(70);
+            concurrent.decrementAndGet();
+            runs.incrementAndGet();
+        });
+
+        // Then
+        await().atMost(Duration.ofSeconds(3)).until(() -> runs.get() >= 3);
+        assertThat(maxConcurrent).hasValue(1);
+        assertThat(skipped("slow", RefreshExecutor.OVERRUN)).isPositive();
+    }
+
+    @Test
+    void schedule_WithFailingTask_ShouldKeepRunning() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        refreshExecutor.schedule("failing", Duration.ofMillis(20), () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        });
+
+        // Then
+        await().atMost(Duration.ofSeconds(3)).until(() -> attempts.get() >= 3);
+    }
+
+    private double skipped(String job, String reason) {
+        return meterRegistry.get("dashboard.job.skipped").tag("job", job).tag("reason", reason).counter().count();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
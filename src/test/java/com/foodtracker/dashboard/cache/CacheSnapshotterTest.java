@@ -0,0 +1,147 @@
+package com.foodtracker.dashboard.cache;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class CacheSnapshotterTest {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(15);
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    @TempDir
+    private Path directory;
+
+    private final AtomicLong wallClock = new AtomicLong(1_000_000);
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("cache-snapshot.bin");
+    }
+
+    @Test
+    void restore_AfterWrite_ShouldLoadValuesWithRemainingExpiry() {
+        // Given
+        InMemoryCacheServiceImpl source = cache();
+        DashboardMetricsResponseDto metrics = metrics();
+        source.put("dashboard:metrics", metrics, 600);
+        source.put("dashboard:label", "pizza", 60);
+        snapshotter(source).write();
+
+        // When
+        wallClock.addAndGet(Duration.ofSeconds(20).toMillis());
+        InMemoryCacheServiceImpl target = cache();
+        snapshotter(target).restore();
+
+        // Then
+        assertThat(target.get("dashboard:metrics", DashboardMetricsResponseDto.class)).contains(metrics);
+        assertThat(target.get("dashboard:label", String.class)).contains("pizza");
+        assertThat(target.getEntry("dashboard:label", String.class).orElseThrow().expiresInMillis())
+                .isEqualTo(Duration.ofSeconds(40).toMillis());
+    }
+
+    @Test
+    void restore_WithEntryExpiredSinceSnapshot_ShouldSkipIt() {
+        // Given
+        InMemoryCacheServiceImpl source = cache();
+        source.put("short", "gone", 10);
+        source.put("long", "kept", 600);
+        snapshotter(source).write();
+
+        // When
+        wallClock.addAndGet(Duration.ofSeconds(30).toMillis());
+        InMemoryCacheServiceImpl target = cache();
+        snapshotter(target).restore();
+
+        // Then
+        assertThat(target.get("short", String.class)).isEmpty();
+        assertThat(target.get("long", String.class)).contains("kept");
+    }
+
+    @Test
+    void restore_WithSnapshotOlderThanMaxAge_ShouldStartEmpty() {
+        // Given
+        InMemoryCacheServiceImpl source = cache();
+        source.put("key", "value", 3600);
+        snapshotter(source).write();
+
+        // When
+        wallClock.addAndGet(MAX_AGE.plusSeconds(1).toMillis());
+        InMemoryCacheServiceImpl target = cache();
+        snapshotter(target).restore();
+
+        // Then
+        assertThat(target.get("key", String.class)).isEmpty();
+    }
+
+    @Test
+    void restore_WithCorruptFile_ShouldStartEmpty() throws IOException {
+        // Given
+        Files.write(file, new byte[]{1, 2, 3, 4});
+        InMemoryCacheServiceImpl target = cache();
+
+        // When
+        snapshotter(target).restore();
+
+        // Then
+        assertThat(target.stats().size()).isZero();
+    }
+
+    @Test
+    void write_ShouldReplaceSnapshotWithoutLeavingTemporaryFiles() throws IOException {
+        // Given
+        InMemoryCacheServiceImpl source = cache();
+        CacheSnapshotter snapshotter = snapshotter(source);
+        source.put("first", "1", 600);
+        snapshotter.write();
+
+        // When
+        source.put("second", "2", 600);
+        snapshotter.write();
+
+        // Then
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+        InMemoryCacheServiceImpl target = cache();
+        snapshotter(target).restore();
+        assertThat(target.get("second", String.class)).contains("2");
+    }
+
+    private InMemoryCacheServiceImpl cache() {
+        return new InMemoryCacheServiceImpl(EvictionPolicy.create(EvictionPolicy.Type.LRU, 100), wallClock::get, false);
+    }
+
+    private CacheSnapshotter snapshotter(CacheService cacheService) {
+        return new CacheSnapshotter(cacheService, refreshExecutor, file, Duration.ofSeconds(30), MAX_AGE, wallClock::get);
+    }
+
+    private static DashboardMetricsResponseDto metrics() {
+        return DashboardMetricsResponseDto.builder()
+                .timestamp(LocalDateTime.of(2025, 1, 15, 12, 30))
+                .dau(1234L)
+                .conversionRate(12.5)
+                .popularItems(Map.of("margherita", 42L))
+                .categoryMetrics(Map.of("pizza", "popular"))
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.foodtracker.dashboard.cache;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.dashboard.scheduling.LocalRefreshLease;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCacheRefreshServiceTest {
+
+    private static final CacheTtl TTL = new CacheTtl(Duration.ofSeconds(30), Duration.ofMinutes(10));
+
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    private final AtomicLong now = new AtomicLong();
+    private DashboardCacheRefreshService refreshService;
+
+    @BeforeEach
+    void setUp() {
+        refreshService = new DashboardCacheRefreshService(cacheService, refreshExecutor, new LocalRefreshLease(), Duration.ofSeconds(1),
+                Duration.ofSeconds(5), Duration.ofSeconds(60), Duration.ofMinutes(2), now::get);
+        // Refreshes run inline so their effect is visible right away
+        lenient().when(refreshExecutor.execute(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return true;
+        });
+    }
+
+    @Test
+    void refreshDueKeys_WithUntrackedKeys_ShouldDoNothing() {
+        // When
+        refreshService.refreshDueKeys();
+
+        // Then
+        verify(cacheService, never()).put(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void refreshDueKeys_AfterIntervalOfRarelyReadKey_ShouldRefreshOnce() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        refreshService.track("dashboard:dau", null, TTL, () -> "dau-" + loads.incrementAndGet());
+
+        // When
+        advance(Duration.ofSeconds(30));
+        refreshService.refreshDueKeys();
+        advance(Duration.ofSeconds(31));
+        refreshService.refreshDueKeys();
+
+        // Then
+        assertThat(loads).hasValue(1);
+        verify(cacheService).put("dashboard:dau", "dau-1", 600);
+    }
+
+    @Test
+    void interval_WithHotKeyInBusyCategory_ShouldShrinkToMinimum() {
+        // Given
+        for (int i = 0; i < 600; i++) {
+            refreshService.track("dashboard:conversion:pizza", "pizza", TTL, () -> "value");
+            refreshService.track("dashboard:conversion:burger", "burger", TTL, () -> "value");
+            refreshService.onEventTracked(event("pizza"));
+            refreshService.onEventTracked(event("pizza"));
+            advance(Duration.ofMillis(100));
+        }
+
+        // When
+        Duration busy = refreshService.interval("dashboard:conversion:pizza");
+        Duration quiet = refreshService.interval("dashboard:conversion:burger");
+
+        // Then
+        assertThat(busy).isEqualTo(Duration.ofSeconds(5));
+        assertThat(quiet).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void refreshDueKeys_WhenValueWasJustRefreshedElsewhere_ShouldSkipRecompute() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        refreshService.track("dashboard:dau", null, TTL, () -> "dau-" + loads.incrementAndGet());
+        when(cacheService.getEntry("dashboard:dau", Object.class))
+                .thenReturn(Optional.of(new CachedValue<>("dau-elsewhere", TTL.hard().minusSeconds(2).toMillis())));
+
+        // When
+        advance(Duration.ofSeconds(61));
+        refreshService.refreshDueKeys();
+
+        // Then
+        assertThat(loads).hasValue(0);
+        verify(cacheService, never()).put(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void refreshDueKeys_WithIdleKey_ShouldStopRefreshingIt() {
+        // Given
+        refreshService.track("dashboard:metrics", null, TTL, () -> "value");
+
+        // When
+        advance(Duration.ofMinutes(3));
+        refreshService.refreshDueKeys();
+        advance(Duration.ofMinutes(3));
+        refreshService.refreshDueKeys();
+
+        // Then
+        assertThat(refreshService.trackedKeys()).isEmpty();
+        verify(cacheService, times(0)).put(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void recordAccess_OfTrackedKey_ShouldKeepItActive() {
+        // Given
+        refreshService.track("dashboard:metrics", null, TTL, () -> "value");
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            advance(Duration.ofMinutes(1));
+            refreshService.recordAccess("dashboard:metrics");
+            refreshService.refreshDueKeys();
+        }
+
+        // Then
+        assertThat(refreshService.trackedKeys()).containsExactly("dashboard:metrics");
+        verify(cacheService, times(6)).put("dashboard:metrics", "value", 600);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static EventTracked event(String category) {
+        return new EventTracked(Event.builder()
+                .eventType("item_viewed")
+                .userId("user")
+                .sessionId("session_user")
+                .timestamp(Instant.now())
+                .properties(Map.of("category", category))
+                .build());
+    }
+}
@@ -0,0 +1,87 @@
+package com.foodtracker.dashboard.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EvictionPolicyTest {
+
+    @Test
+    void lru_ShouldEvictLeastRecentlyUsedKey() {
+        // Given
+        EvictionPolicy policy = EvictionPolicy.create(EvictionPolicy.Type.LRU, 2);
+        policy.recordInsert("a");
+        policy.recordInsert("b");
+        policy.recordAccess("a");
+
+        // When
+        policy.recordInsert("c");
+
+        // Then
+        assertThat(policy.nextVictim()).isEqualTo("b");
+        assertThat(policy.nextVictim()).isNull();
+    }
+
+    @Test
+    void lfu_ShouldEvictLeastFrequentlyUsedKey() {
+        // Given
+        EvictionPolicy policy = EvictionPolicy.create(EvictionPolicy.Type.LFU, 2);
+        policy.recordInsert("a");
+        policy.recordInsert("b");
+        policy.recordAccess("a");
+        policy.recordAccess("b");
+        policy.recordAccess("b");
+
+        // When
+        policy.recordInsert("c");
+
+        // Then
+        assertThat(policy.nextVictim()).isEqualTo("c");
+    }
+
+    @Test
+    void windowTinyLfu_ShouldKeepFrequentKeysDuringScan() {
+        // Given
+        EvictionPolicy policy = EvictionPolicy.create(EvictionPolicy.Type.W_TINY_LFU, 100);
+        for (int i = 0; i < 100; i++) {
+            policy.recordInsert("hot" + i);
+            drain(policy);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                policy.recordAccess("hot" + i);
+            }
+        }
+
+        // When
+        List<String> evicted = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            policy.recordInsert("cold" + i);
+            evicted.addAll(drain(policy));
+        }
+
+        // Then
+        long hotEvicted = evicted.stream().filter(key -> key.startsWith("hot")).count();
+        assertThat(evicted).hasSize(1_000);
+        assertThat(hotEvicted).isLessThan(25);
+    }
+
+    @Test
+    void create_WithNonPositiveSize_ShouldThrow() {
+        assertThatThrownBy(() -> EvictionPolicy.create(EvictionPolicy.Type.LRU, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> drain(EvictionPolicy policy) {
+        List<String> victims = new ArrayList<>();
+        String victim;
+        while ((victim = policy.nextVictim()) != null) {
+            victims.add(victim);
+        }
+        return victims;
+    }
+}
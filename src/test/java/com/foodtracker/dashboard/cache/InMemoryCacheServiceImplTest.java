@@ -5,7 +5,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -193,4 +196,89 @@ class InMemoryCacheServiceImplTest {
         Optional<String> result = cacheService.get(key, String.class);
         assertThat(result).isPresent().get().isEqualTo(value);
     }
-}
\ No newline at end of file
+
+    @Test
+    void put_BeyondMaximumSize_ShouldEvictAndCountEvictions() {
+        // Given
+        InMemoryCacheServiceImpl bounded = new InMemoryCacheServiceImpl(
+                EvictionPolicy.create(EvictionPolicy.Type.LRU, 2), new AtomicLong()::get, false);
+        bounded.put("key1", "value1", 30);
+        bounded.put("key2", "value2", 30);
+        bounded.get("key1", String.class);
+
+        // When
+        bounded.put("key3", "value3", 30);
+
+        // Then
+        assertThat(bounded.get("key1", String.class)).contains("value1");
+        assertThat(bounded.get("key2", String.class)).isEmpty();
+        assertThat(bounded.get("key3", String.class)).contains("value3");
+        assertThat(bounded.stats().evictions()).isEqualTo(1);
+        assertThat(bounded.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void cleanUp_AfterExpiry_ShouldRemoveEntriesThatAreNeverReadAgain() {
+        // Given
+        AtomicLong now = new AtomicLong(1_000);
+        InMemoryCacheServiceImpl manual = new InMemoryCacheServiceImpl(
+                EvictionPolicy.create(EvictionPolicy.Type.W_TINY_LFU, 100), now::get, false);
+        manual.put("short", "value", 1);
+        manual.put("long", "value", 60);
+
+        // When
+        now.addAndGet(2_000);
+        manual.cleanUp();
+
+        // Then
+        assertThat(manual.stats().expirations()).isEqualTo(1);
+        assertThat(manual.stats().size()).isEqualTo(1);
+        assertThat(manual.get("long", String.class)).isPresent();
+    }
+
+    @Test
+    void stats_ShouldCountHitsAndMisses() {
+        // Given
+        cacheService.put("key", "value", 30);
+
+        // When
+        cacheService.get("key", String.class);
+        cacheService.get("missing", String.class);
+
+        // Then
+        CacheStats stats = cacheService.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void putAllAndGetAll_WithMixedTypes_ShouldReturnEachAsItsType() {
+        // Given
+        cacheService.putAll(Map.of("text", "value", "number", 42), 30);
+
+        // When
+        Map<String, CachedValue<?>> result = cacheService.getAll(Map.of(
+                "text", String.class, "number", Integer.class, "missing", String.class));
+
+        // Then
+        assertThat(result).containsOnlyKeys("text", "number");
+        assertThat(result.get("text").value()).isEqualTo("value");
+        assertThat(result.get("number").value()).isEqualTo(42);
+        assertThat(result.get("text").expiresInMillis()).isPositive();
+    }
+
+    @Test
+    void evictAll_ShouldRemoveOnlyTheGivenKeys() {
+        // Given
+        cacheService.putAll(Map.of("first", "1", "second", "2", "third", "3"), 30);
+
+        // When
+        cacheService.evictAll(List.of("first", "second"));
+
+        // Then
+        assertThat(cacheService.get("first", String.class)).isEmpty();
+        assertThat(cacheService.get("second", String.class)).isEmpty();
+        assertThat(cacheService.get("third", String.class)).contains("3");
+    }
+}
@@ -2,15 +2,28 @@ package com.foodtracker.dashboard.cache;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -41,7 +54,7 @@ class RedisCacheServiceImplTest {
         // Given
         String key = "testKey";
         String value = "testValue";
-        when(valueOperations.get(key)).thenReturn(value);
+        when(valueOperations.get(stored(key))).thenReturn(value);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
@@ -50,14 +63,14 @@ class RedisCacheServiceImplTest {
         // Then
         assertThat(result).isPresent();
         assertThat(result.get()).isEqualTo(value);
-        verify(valueOperations).get(key);
+        verify(valueOperations).get(stored(key));
     }
 
     @Test
     void get_WithNonExistentKey_ShouldReturnEmptyOptional() {
         // Given
         String key = "nonExistentKey";
-        when(valueOperations.get(key)).thenReturn(null);
+        when(valueOperations.get(stored(key))).thenReturn(null);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
@@ -65,7 +78,7 @@ class RedisCacheServiceImplTest {
 
         // Then
         assertThat(result).isEmpty();
-        verify(valueOperations).get(key);
+        verify(valueOperations).get(stored(key));
     }
 
     @Test
@@ -77,7 +90,7 @@ class RedisCacheServiceImplTest {
         mapValue.put("age", 30);
         Person expectedPerson = new Person("John Doe", 30);
 
-        when(valueOperations.get(key)).thenReturn(mapValue);
+        when(valueOperations.get(stored(key))).thenReturn(mapValue);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
@@ -87,7 +100,7 @@ class RedisCacheServiceImplTest {
         assertThat(result).isPresent();
         assertThat(result.get().getName()).isEqualTo(expectedPerson.getName());
         assertThat(result.get().getAge()).isEqualTo(expectedPerson.getAge());
-        verify(valueOperations).get(key);
+        verify(valueOperations).get(stored(key));
     }
 
     @Test
@@ -98,14 +111,14 @@ class RedisCacheServiceImplTest {
         mapValue.put("invalidField", new Object()); // This will cause conversion to fail
 
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(key)).thenReturn(mapValue);
+        when(valueOperations.get(stored(key))).thenReturn(mapValue);
 
         // When
         Optional<Person> result = cacheService.get(key, Person.class);
 
         // Then
         assertThat(result).isEmpty();
-        verify(valueOperations).get(key);
+        verify(valueOperations).get(stored(key));
     }
 
     @Test
@@ -120,7 +133,7 @@ class RedisCacheServiceImplTest {
         cacheService.put(key, value, expirySeconds);
 
         // Then
-        verify(valueOperations).set(eq(key), eq(value), eq((long) expirySeconds), eq(TimeUnit.SECONDS));
+        verify(valueOperations).set(eq(stored(key)), eq(value), eq((long) expirySeconds), eq(TimeUnit.SECONDS));
     }
 
     @Test
@@ -132,7 +145,7 @@ class RedisCacheServiceImplTest {
         cacheService.evict(key);
 
         // Then
-        verify(redisTemplate).delete(key);
+        verify(redisTemplate).delete(stored(key));
     }
 
     @Test
@@ -142,25 +155,48 @@ class RedisCacheServiceImplTest {
 
         // When & Then (should not throw any exception)
         assertThatCode(() -> cacheService.evict(key)).doesNotThrowAnyException();
-        verify(redisTemplate).delete(key);
+        verify(redisTemplate).delete(stored(key));
     }
 
     @Test
-    void clear_WithMultipleEntries_ShouldFlushAllRedisData() {
+    void clear_ShouldMoveToNextGenerationWithoutFlushingRedis() {
         // Given
-        var connectionFactory = mock(org.springframework.data.redis.connection.RedisConnectionFactory.class);
-        var connection = mock(org.springframework.data.redis.connection.RedisConnection.class);
-        var serverCommands = mock(org.springframework.data.redis.connection.RedisServerCommands.class);
-
-        when(redisTemplate.getConnectionFactory()).thenReturn(connectionFactory);
-        when(connectionFactory.getConnection()).thenReturn(connection);
-        when(connection.serverCommands()).thenReturn(serverCommands);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(3L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
         cacheService.clear();
+        cacheService.put("key", "value", 30);
+
+        // Then
+        verify(valueOperations).set(RedisCacheServiceImpl.NAMESPACE + "3:key", "value", 30, TimeUnit.SECONDS);
+        verify(redisTemplate, never()).getConnectionFactory();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reapOrphanedGenerations_ShouldUnlinkOnlyOlderGenerationsOnce() {
+        // Given
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, true, true, false);
+        when(cursor.next()).thenReturn(
+                RedisCacheServiceImpl.NAMESPACE + "0:a",
+                RedisCacheServiceImpl.NAMESPACE + "2:b",
+                RedisCacheServiceImpl.NAMESPACE + "1:c",
+                RedisCacheServiceImpl.NAMESPACE + "3:d");
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn("2".getBytes(StandardCharsets.UTF_8));
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(redisTemplate.unlink(anyCollection())).thenReturn(2L);
+
+        // When
+        long reaped = cacheService.reapOrphanedGenerations();
+        long reapedAgain = cacheService.reapOrphanedGenerations();
 
         // Then
-        verify(serverCommands).flushAll();
+        assertThat(reaped).isEqualTo(2);
+        assertThat(reapedAgain).isZero();
+        verify(redisTemplate).unlink(List.of(RedisCacheServiceImpl.NAMESPACE + "0:a", RedisCacheServiceImpl.NAMESPACE + "1:c"));
+        verify(redisTemplate, times(1)).scan(any(ScanOptions.class));
     }
 
     @Test
@@ -171,8 +207,8 @@ class RedisCacheServiceImplTest {
         String stringValue = "testString";
         Integer intValue = 42;
 
-        when(valueOperations.get(stringKey)).thenReturn(stringValue);
-        when(valueOperations.get(intKey)).thenReturn(intValue);
+        when(valueOperations.get(stored(stringKey))).thenReturn(stringValue);
+        when(valueOperations.get(stored(intKey))).thenReturn(intValue);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
@@ -182,8 +218,8 @@ class RedisCacheServiceImplTest {
         // Then
         assertThat(stringResult).isPresent().get().isEqualTo(stringValue);
         assertThat(intResult).isPresent().get().isEqualTo(intValue);
-        verify(valueOperations).get(stringKey);
-        verify(valueOperations).get(intKey);
+        verify(valueOperations).get(stored(stringKey));
+        verify(valueOperations).get(stored(intKey));
     }
 
     @Test
@@ -191,7 +227,7 @@ class RedisCacheServiceImplTest {
         // Given
         String key = "unexpectedTypeKey";
         Object unexpectedValue = new Object(); // This is not a Map or the expected type
-        when(valueOperations.get(key)).thenReturn(unexpectedValue);
+        when(valueOperations.get(stored(key))).thenReturn(unexpectedValue);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
@@ -199,11 +235,116 @@ class RedisCacheServiceImplTest {
 
         // Then
         assertThat(result).isEmpty();
-        verify(valueOperations).get(key);
+        verify(valueOperations).get(stored(key));
+    }
+
+    @Test
+    void getOrLoad_WithLoadLockAcquired_ShouldLoadCacheAndReleaseLock() {
+        // Given
+        RedisCacheServiceImpl lockingCache = new RedisCacheServiceImpl(redisTemplate, Duration.ofSeconds(10));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(stored("key"))).thenReturn(null);
+        when(valueOperations.setIfAbsent(eq("lock:" + stored("key")), anyString(), eq(Duration.ofSeconds(10)))).thenReturn(true);
+
+        // When
+        String result = lockingCache.getOrLoad("key", String.class, 30, () -> "value");
+
+        // Then
+        assertThat(result).isEqualTo("value");
+        verify(valueOperations).set(stored("key"), "value", 30, TimeUnit.SECONDS);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("lock:" + stored("key"))), anyString());
+    }
+
+    @Test
+    void getOrLoad_WhenAnotherNodeHoldsLoadLock_ShouldWaitForItsValue() {
+        // Given
+        RedisCacheServiceImpl lockingCache = new RedisCacheServiceImpl(redisTemplate, Duration.ofSeconds(10));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(stored("key"))).thenReturn(null, null, "loaded elsewhere");
+        when(valueOperations.setIfAbsent(eq("lock:" + stored("key")), anyString(), eq(Duration.ofSeconds(10)))).thenReturn(false);
+
+        // When
+        String result = lockingCache.getOrLoad("key", String.class, 30, () -> {
+            throw new AssertionError("Should not load while another node holds the lock");
+        });
+
+        // Then
+        assertThat(result).isEqualTo("loaded elsewhere");
+        verify(valueOperations, never()).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void getOrLoad_WithoutLoadLock_ShouldLoadOnMissOnly() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(stored("key"))).thenReturn("cached");
+
+        // When
+        String result = cacheService.getOrLoad("key", String.class, 30, () -> "loaded");
+
+        // Then
+        assertThat(result).isEqualTo("cached");
+        verify(valueOperations, never()).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void getAll_WithSomeKeysMissing_ShouldReturnHitsWithTheirExpiry() {
+        // Given
+        Map<String, Object> person = Map.of("name", "Jane", "age", 25);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(Arrays.asList(Arrays.asList("value", person, null), 5_000L, 10_000L, -2L));
+        Map<String, Class<?>> keyTypes = new LinkedHashMap<>();
+        keyTypes.put("string", String.class);
+        keyTypes.put("person", Person.class);
+        keyTypes.put("missing", String.class);
+
+        // When
+        Map<String, CachedValue<?>> result = cacheService.getAll(keyTypes);
+
+        // Then
+        assertThat(result).containsOnlyKeys("string", "person");
+        assertThat(result.get("string")).isEqualTo(new CachedValue<>("value", 5_000L));
+        assertThat(((Person) result.get("person").value()).getName()).isEqualTo("Jane");
+        assertThat(result.get("person").expiresInMillis()).isEqualTo(10_000L);
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void putAll_WithSeveralValues_ShouldSetEachWithExpiryInOnePipeline() {
+        // Given
+        RedisOperations<String, Object> operations = mock(RedisOperations.class);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        Map<String, Object> values = Map.of("first", "1", "second", "2");
+
+        // When
+        cacheService.putAll(values, 30);
+
+        // Then
+        ArgumentCaptor<SessionCallback<Object>> callback = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(redisTemplate, times(1)).executePipelined(callback.capture());
+        callback.getValue().execute(operations);
+        verify(valueOperations).set(stored("first"), "1", 30, TimeUnit.SECONDS);
+        verify(valueOperations).set(stored("second"), "2", 30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void evictAll_WithSeveralKeys_ShouldDeleteThemInOneCommand() {
+        // When
+        cacheService.evictAll(List.of("first", "second"));
+
+        // Then
+        verify(redisTemplate).delete(List.of(stored("first"), stored("second")));
+    }
+
+    private static String stored(String key) {
+        return RedisCacheServiceImpl.NAMESPACE + "0:" + key;
     }
 
     // Helper class for testing Map conversion
     @Getter
+    @NoArgsConstructor
     @AllArgsConstructor
     static class Person {
         private String name;
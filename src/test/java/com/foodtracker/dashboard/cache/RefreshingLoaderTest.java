@@ -0,0 +1,101 @@
+package com.foodtracker.dashboard.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RefreshingLoaderTest {
+
+    private static final CacheTtl TTL = new CacheTtl(Duration.ofSeconds(30), Duration.ofMinutes(10));
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger loads = new AtomicInteger();
+    private InMemoryCacheServiceImpl cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InMemoryCacheServiceImpl(EvictionPolicy.create(EvictionPolicy.Type.LRU, 100), now::get, false);
+    }
+
+    @Test
+    void getOrLoad_WhenMissing_ShouldLoadSynchronously() {
+        // When
+        String result = cache.getOrLoad("key", String.class, TTL, this::load);
+
+        // Then
+        assertThat(result).isEqualTo("value-1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void getOrLoad_WhenFresh_ShouldNotRefresh() {
+        // Given
+        cache.getOrLoad("key", String.class, TTL, this::load);
+        now.addAndGet(Duration.ofSeconds(10).toMillis());
+
+        // When
+        String result = cache.getOrLoad("key", String.class, TTL, this::load);
+
+        // Then
+        assertThat(result).isEqualTo("value-1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void getOrLoad_PastSoftTtl_ShouldServeStaleValueAndRefreshOnce() {
+        // Given
+        cache.getOrLoad("key", String.class, TTL, this::load);
+        now.addAndGet(Duration.ofSeconds(31).toMillis());
+
+        // When
+        String stale = cache.getOrLoad("key", String.class, TTL, this::load);
+
+        // Then
+        assertThat(stale).isEqualTo("value-1");
+        await().atMost(Duration.ofSeconds(2)).until(() -> cache.get("key", String.class).orElseThrow().equals("value-2"));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void getOrLoad_ForHotKey_ShouldRefreshAheadOfSoftTtl() {
+        // Given
+        RefreshingLoader loader = new RefreshingLoader(new SingleFlight());
+        loader.getOrLoad(cache, "key", String.class, TTL, this::load);
+        for (int i = 0; i < 20; i++) {
+            loader.getOrLoad(cache, "key", String.class, TTL, this::load);
+        }
+        assertThat(loader.accessRate("key")).isGreaterThanOrEqualTo(RefreshingLoader.HOT_ACCESS_RATE);
+        now.addAndGet(Duration.ofSeconds(25).toMillis());
+
+        // When
+        loader.getOrLoad(cache, "key", String.class, TTL, this::load);
+
+        // Then
+        await().atMost(Duration.ofSeconds(2)).until(() -> loads.get() == 2);
+    }
+
+    @Test
+    void getOrLoad_ForKeyNoLongerRead_ShouldForgetItsAccessRate() {
+        // Given
+        AtomicLong ticker = new AtomicLong();
+        RefreshingLoader loader = new RefreshingLoader(new SingleFlight(), ticker::get);
+        loader.getOrLoad(cache, "conversion:pizza", String.class, TTL, this::load);
+        assertThat(loader.accessRate("conversion:pizza")).isPositive();
+
+        // When
+        ticker.addAndGet(RefreshingLoader.RATE_IDLE_EXPIRY.plusSeconds(1).toNanos());
+
+        // Then
+        assertThat(loader.accessRate("conversion:pizza")).isZero();
+    }
+
+    private String load() {
+        return "value-" + loads.incrementAndGet();
+    }
+}
@@ -0,0 +1,77 @@
+package com.foodtracker.dashboard.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void getOrLoad_WithConcurrentMisses_ShouldLoadOnceAndShareResult() throws Exception {
+        // Given
+        InMemoryCacheServiceImpl cache = new InMemoryCacheServiceImpl();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.getOrLoad(cache, "key", String.class, 30, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "value";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("key", String.class)).contains("value");
+    }
+
+    @Test
+    void execute_WhenLoadFails_ShouldRethrowAndAllowRetry() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("database down");
+
+        String retried = singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            return "value";
+        });
+        assertThat(retried).isEqualTo("value");
+        assertThat(loads).hasValue(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.foodtracker.dashboard.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TieredCacheServiceImplTest {
+
+    @Mock
+    private CacheService l2;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private TieredCacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new TieredCacheServiceImpl(l2, redisTemplate, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get_AfterRemoteHit_ShouldServeRepeatedReadsLocally() {
+        // Given
+        when(l2.getEntry("key", String.class)).thenReturn(Optional.of(new CachedValue<>("value", 30_000)));
+
+        // When
+        Optional<String> first = cacheService.get("key", String.class);
+        Optional<String> second = cacheService.get("key", String.class);
+
+        // Then
+        assertThat(first).contains("value");
+        assertThat(second).contains("value");
+        verify(l2, times(1)).getEntry("key", String.class);
+    }
+
+    @Test
+    void put_ShouldWriteBothTiersAndPublishInvalidation() {
+        // When
+        cacheService.put("key", "value", 30);
+        Optional<String> result = cacheService.get("key", String.class);
+
+        // Then
+        assertThat(result).contains("value");
+        verify(l2).put("key", "value", 30);
+        verify(l2, never()).getEntry(anyString(), eq(String.class));
+        verify(redisTemplate).convertAndSend(TieredCacheServiceImpl.INVALIDATION_CHANNEL, cacheService.nodeId() + " key");
+    }
+
+    @Test
+    void onInvalidation_FromAnotherNode_ShouldDropLocalCopy() {
+        // Given
+        cacheService.put("key", "old", 30);
+        when(l2.getEntry("key", String.class)).thenReturn(Optional.of(new CachedValue<>("new", 30_000)));
+
+        // When
+        cacheService.onInvalidation("other-node key");
+        Optional<String> result = cacheService.get("key", String.class);
+
+        // Then
+        assertThat(result).contains("new");
+    }
+
+    @Test
+    void onInvalidation_FromThisNode_ShouldKeepLocalCopy() {
+        // Given
+        cacheService.put("key", "value", 30);
+
+        // When
+        cacheService.onInvalidation(cacheService.nodeId() + " key");
+        Optional<String> result = cacheService.get("key", String.class);
+
+        // Then
+        assertThat(result).contains("value");
+        verify(l2, never()).getEntry(anyString(), eq(String.class));
+    }
+
+    @Test
+    void onInvalidation_WithClearAll_ShouldDropEveryLocalCopy() {
+        // Given
+        cacheService.put("first", "1", 30);
+        cacheService.put("second", "2", 30);
+        when(l2.getEntry(anyString(), eq(String.class))).thenReturn(Optional.empty());
+
+        // When
+        cacheService.onInvalidation("other-node " + TieredCacheServiceImpl.CLEAR_ALL);
+
+        // Then
+        assertThat(cacheService.get("first", String.class)).isEmpty();
+        assertThat(cacheService.get("second", String.class)).isEmpty();
+    }
+
+    @Test
+    void getAll_WithSomeKeysInL1_ShouldFetchOnlyTheRestFromL2() {
+        // Given
+        cacheService.put("local", "1", 30);
+        when(l2.getAll(Map.of("remote", String.class))).thenReturn(Map.of("remote", new CachedValue<>("2", 30_000)));
+
+        // When
+        Map<String, CachedValue<?>> result = cacheService.getAll(Map.of("local", String.class, "remote", String.class));
+        Optional<String> remoteAgain = cacheService.get("remote", String.class);
+
+        // Then
+        assertThat(result.get("local").value()).isEqualTo("1");
+        assertThat(result.get("remote").value()).isEqualTo("2");
+        assertThat(remoteAgain).contains("2");
+        verify(l2, never()).getEntry(anyString(), eq(String.class));
+    }
+
+    @Test
+    void evictAll_ShouldPublishOneInvalidationForAllKeys() {
+        // When
+        cacheService.evictAll(List.of("first", "second"));
+
+        // Then
+        verify(l2).evictAll(List.of("first", "second"));
+        verify(redisTemplate).convertAndSend(TieredCacheServiceImpl.INVALIDATION_CHANNEL, cacheService.nodeId() + " first\nsecond");
+    }
+
+    @Test
+    void onInvalidation_WithSeveralKeys_ShouldDropEachLocalCopy() {
+        // Given
+        cacheService.put("first", "1", 30);
+        cacheService.put("second", "2", 30);
+        when(l2.getEntry(anyString(), eq(String.class))).thenReturn(Optional.empty());
+
+        // When
+        cacheService.onInvalidation("other-node first\nsecond");
+
+        // Then
+        assertThat(cacheService.get("first", String.class)).isEmpty();
+        assertThat(cacheService.get("second", String.class)).isEmpty();
+    }
+}
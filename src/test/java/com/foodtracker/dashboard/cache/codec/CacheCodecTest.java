@@ -0,0 +1,101 @@
+package com.foodtracker.dashboard.cache.codec;
+
+import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheCodecTest {
+
+    @Test
+    void smile_WithDashboardMetrics_ShouldRoundTripIntoRequestedType() {
+        // Given
+        CacheCodec codec = JacksonCacheCodec.smile();
+        DashboardMetricsResponseDto metrics = metrics(3);
+
+        // When
+        DashboardMetricsResponseDto decoded = codec.decode(codec.encode(metrics), DashboardMetricsResponseDto.class);
+
+        // Then
+        assertThat(decoded).isEqualTo(metrics);
+    }
+
+    @Test
+    void cbor_WithDashboardMetrics_ShouldRoundTripIntoRequestedType() {
+        // Given
+        CacheCodec codec = JacksonCacheCodec.cbor();
+        DashboardMetricsResponseDto metrics = metrics(3);
+
+        // When
+        DashboardMetricsResponseDto decoded = codec.decode(codec.encode(metrics), DashboardMetricsResponseDto.class);
+
+        // Then
+        assertThat(decoded).isEqualTo(metrics);
+    }
+
+    @Test
+    void compressing_WithPayloadAboveThreshold_ShouldDeflateAndRoundTrip() {
+        // Given
+        CacheCodec codec = new CompressingCacheCodec(JacksonCacheCodec.smile(), 256);
+        DashboardMetricsResponseDto metrics = metrics(200);
+
+        // When
+        byte[] bytes = codec.encode(metrics);
+
+        // Then
+        assertThat(bytes[0]).isEqualTo(CompressingCacheCodec.DEFLATED);
+        assertThat(bytes.length).isLessThan(JacksonCacheCodec.smile().encode(metrics).length);
+        assertThat(codec.decode(bytes, DashboardMetricsResponseDto.class)).isEqualTo(metrics);
+    }
+
+    @Test
+    void compressing_WithPayloadBelowThreshold_ShouldStorePlain() {
+        // Given
+        CacheCodec codec = new CompressingCacheCodec(JacksonCacheCodec.smile(), 4096);
+        DashboardMetricsResponseDto metrics = metrics(1);
+
+        // When
+        byte[] bytes = codec.encode(metrics);
+
+        // Then
+        assertThat(bytes[0]).isEqualTo(CompressingCacheCodec.PLAIN);
+        assertThat(codec.decode(bytes, DashboardMetricsResponseDto.class)).isEqualTo(metrics);
+    }
+
+    @Test
+    void decode_WithCorruptPayload_ShouldThrowIllegalArgumentException() {
+        // Given
+        CacheCodec codec = new CompressingCacheCodec(JacksonCacheCodec.smile(), 256);
+
+        // When / Then
+        assertThatThrownBy(() -> codec.decode(new byte[]{CompressingCacheCodec.DEFLATED, 1, 2, 3}, DashboardMetricsResponseDto.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void create_WithJson_ShouldKeepTemplateSerializer() {
+        assertThat(CacheCodec.create("json", 1024)).isNull();
+        assertThat(CacheCodec.create("cbor", 0)).isInstanceOf(JacksonCacheCodec.class);
+        assertThat(CacheCodec.create("smile", 1024)).isInstanceOf(CompressingCacheCodec.class);
+        assertThatThrownBy(() -> CacheCodec.create("lz4", 1024)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DashboardMetricsResponseDto metrics(int items) {
+        Map<String, Long> popularItems = new LinkedHashMap<>();
+        for (int i = 0; i < items; i++) {
+            popularItems.put("item-" + i, (long) i * 7);
+        }
+        return DashboardMetricsResponseDto.builder()
+                .timestamp(LocalDateTime.of(2025, 1, 15, 12, 30))
+                .dau(1234L)
+                .conversionRate(12.5)
+                .popularItems(popularItems)
+                .categoryMetrics(Map.of("pizza", "popular"))
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.foodtracker.dashboard.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NodePartialsExchangeTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Test
+    void global_WhenDisabled_ShouldUseLocalPartials() {
+        // Given
+        NodePartialRecorder recorder = new NodePartialRecorder(10, 16);
+        NodePartialsExchange sut = new NodePartialsExchange(recorder, redisTemplateProvider, objectMapper,
+                refreshExecutor, 1000, false, "node-a");
+        track(recorder, "user_1", "item_viewed", "pizza", "margherita");
+        track(recorder, "user_2", "item_viewed", "pizza", "margherita");
+
+        // When
+        NodePartialsExchange.GlobalPartials global = sut.global(Duration.ofHours(1));
+        sut.publish();
+
+        // Then
+        assertThat(global.nodes()).isEqualTo(1);
+        assertThat(global.merged().count(MinutePartial.ALL_CATEGORIES, "item_viewed")).isEqualTo(2);
+        assertThat(global.merged().distinctUsers("pizza")).isEqualTo(2);
+        assertThat(global.merged().topItems("pizza", 1).get(0).count()).isEqualTo(2);
+        verifyNoInteractions(redisTemplateProvider);
+    }
+
+    @Test
+    void publish_ShouldWriteOnlyChangedMinutes() throws Exception {
+        // Given
+        NodePartialRecorder recorder = new NodePartialRecorder(10, 16);
+        NodePartialsExchange sut = new NodePartialsExchange(recorder, redisTemplateProvider, objectMapper,
+                refreshExecutor, 1000, true, "node-a");
+        when(redisTemplateProvider.getObject()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        track(recorder, "user_1", "app_opened", null, null);
+
+        // When
+        sut.publish();
+        sut.publish();
+
+        // Then
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations, times(1)).set(startsWith(NodePartialsExchange.KEY_PREFIX + "node-a:"),
+                payload.capture(), any(Duration.class));
+        assertThat(objectMapper.readValue(payload.getValue(), PartialPayload.class).sequence()).isEqualTo(1);
+        verify(zSetOperations, times(2)).add(eq(NodePartialsExchange.NODES_KEY), eq("node-a"), anyDouble());
+    }
+
+    @Test
+    void global_WhenEnabled_ShouldMergePartialsOfAllNodes() throws Exception {
+        // Given - two nodes that ingested overlapping users
+        NodePartialRecorder nodeA = new NodePartialRecorder(10, 16);
+        NodePartialRecorder nodeB = new NodePartialRecorder(10, 16);
+        track(nodeA, "user_1", "app_opened", "pizza", null);
+        track(nodeA, "user_1", "order_placed", "pizza", null);
+        track(nodeA, "user_2", "item_viewed", "pizza", "margherita");
+        track(nodeB, "user_2", "app_opened", "pizza", null);
+        track(nodeB, "user_3", "item_viewed", "burger", "cheeseburger");
+        track(nodeB, "user_3", "item_viewed", "pizza", "margherita");
+
+        long minute = NodePartialRecorder.currentMinute();
+        PartialPayload partialA = nodeA.partials(minute - 1, minute).get(0).toPayload("node-a");
+        PartialPayload partialB = nodeB.partials(minute - 1, minute).get(0).toPayload("node-b");
+        Map<String, String> stored = Map.of(
+                NodePartialsExchange.key("node-a", partialA.minute()), objectMapper.writeValueAsString(partialA),
+                NodePartialsExchange.key("node-b", partialB.minute()), objectMapper.writeValueAsString(partialB));
+
+        NodePartialsExchange sut = new NodePartialsExchange(nodeA, redisTemplateProvider, objectMapper,
+                refreshExecutor, 1000, true, "node-a");
+        when(redisTemplateProvider.getObject()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq(NodePartialsExchange.NODES_KEY), anyDouble(), anyDouble()))
+                .thenReturn(new LinkedHashSet<>(List.of("node-a", "node-b")));
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(0);
+            return keys.stream().map(stored::get).toList();
+        });
+
+        // When
+        NodePartialsExchange.GlobalPartials global = sut.global(Duration.ofHours(1));
+
+        // Then
+        MinutePartial merged = global.merged();
+        assertThat(global.nodes()).isEqualTo(2);
+        assertThat(merged.count(MinutePartial.ALL_CATEGORIES, "app_opened")).isEqualTo(2);
+        assertThat(merged.count("pizza", "order_placed")).isEqualTo(1);
+        assertThat(merged.distinctUsers(MinutePartial.ALL_CATEGORIES)).isEqualTo(3);
+        assertThat(merged.distinctUsers("pizza")).isEqualTo(3);
+        assertThat(merged.topItems(MinutePartial.ALL_CATEGORIES, 1).get(0).item()).isEqualTo("margherita");
+        assertThat(merged.topItems(MinutePartial.ALL_CATEGORIES, 1).get(0).count()).isEqualTo(2);
+        assertThat(merged.categories()).containsExactly("burger", "pizza");
+        verify(zSetOperations).removeRangeByScore(eq(NodePartialsExchange.NODES_KEY), eq(0.0), anyDouble());
+    }
+
+    @Test
+    void global_WithMoreCategoriesThanAllowed_ShouldKeepOnlyTheFirstOnes() {
+        // Given
+        NodePartialRecorder recorder = new NodePartialRecorder(10, 2);
+        NodePartialsExchange sut = new NodePartialsExchange(recorder, redisTemplateProvider, objectMapper,
+                refreshExecutor, 1000, false, "node-a");
+        track(recorder, "user_1", "item_viewed", "pizza", "margherita");
+        track(recorder, "user_2", "item_viewed", "sushi", "maki");
+        track(recorder, "user_3", "item_viewed", "burger", "cheeseburger");
+        track(recorder, "user_4", "item_viewed", MinutePartial.ALL_CATEGORIES, "margherita");
+
+        // When
+        MinutePartial merged = sut.global(Duration.ofHours(1)).merged();
+
+        // Then - the overall bucket neither takes a category slot nor counts an event twice
+        assertThat(merged.categories()).containsExactly("pizza", "sushi");
+        assertThat(merged.count(MinutePartial.ALL_CATEGORIES, "item_viewed")).isEqualTo(4);
+    }
+
+    private static void track(NodePartialRecorder recorder, String userId, String eventType, String category, String item) {
+        Map<String, Object> properties = new HashMap<>();
+        if (category != null) {
+            properties.put("category", category);
+        }
+        if (item != null) {
+            properties.put("item_name", item);
+        }
+        Event event = Event.builder()
+                .eventType(eventType)
+                .userId(userId)
+                .sessionId("session_" + userId)
+                .timestamp(Instant.now())
+                .properties(properties)
+                .build();
+        recorder.onEventTracked(new EventTracked(event));
+    }
+}
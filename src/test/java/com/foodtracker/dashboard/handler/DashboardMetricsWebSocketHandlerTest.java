@@ -1,25 +1,41 @@
 package com.foodtracker.dashboard.handler;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.foodtracker.dashboard.category.CategoryRegistry;
+import com.foodtracker.dashboard.dto.ConversionMetricsDto;
 import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import com.foodtracker.dashboard.dto.DauMetricsDto;
 import com.foodtracker.dashboard.service.DashboardMetricsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.awaitility.Awaitility.await;
 
 @ExtendWith(MockitoExtension.class)
 class DashboardMetricsWebSocketHandlerTest {
@@ -32,12 +48,20 @@ class DashboardMetricsWebSocketHandlerTest {
 
     private ObjectMapper objectMapper;
 
+    private CategoryRegistry categoryRegistry;
+
     private DashboardMetricsWebSocketHandler webSocketHandler;
 
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        webSocketHandler = new DashboardMetricsWebSocketHandler(dashboardMetricsService, objectMapper);
+        categoryRegistry = new CategoryRegistry(null, Duration.ofDays(30), 256);
+        categoryRegistry.register("pizza");
+        // Snapshot sent to clients when they connect
+        lenient().when(dashboardMetricsService.getDashboardMetrics())
+                .thenReturn(DashboardMetricsResponseDto.builder().dau(90L).build());
+        webSocketHandler = new DashboardMetricsWebSocketHandler(dashboardMetricsService, objectMapper,
+                categoryRegistry, Runnable::run, Duration.ofSeconds(5), 64 * 1024, OverflowStrategy.DROP);
     }
 
     @Test
@@ -90,12 +114,13 @@ class DashboardMetricsWebSocketHandlerTest {
                 .popularItems(Map.of("pizza", 50L, "burger", 30L))
                 .build();
         when(dashboardMetricsService.getDashboardMetrics()).thenReturn(mockMetrics);
+        webSocketHandler.afterConnectionEstablished(session);
 
         // Act
         webSocketHandler.handleMessage(session, refreshMessage);
 
-        // Assert
-        verify(session, times(1)).sendMessage(any(TextMessage.class));
+        // Assert - the snapshot on connect and the one asked for
+        verify(session, times(2)).sendMessage(any(TextMessage.class));
     }
 
     @Test
@@ -224,6 +249,7 @@ class DashboardMetricsWebSocketHandlerTest {
     @Test
     void testBroadcastMetrics_withClosedSession_skipsSendMessage() throws Exception {
         // Arrange
+        when(session.getId()).thenReturn("test-session-1");
         when(session.isOpen()).thenReturn(false); // Closed session
 
         WebSocketSession session2 = mock(WebSocketSession.class);
@@ -277,6 +303,229 @@ class DashboardMetricsWebSocketHandlerTest {
         verify(session2, times(2)).sendMessage(any(TextMessage.class)); // Only session2 should receive message
     }
 
+    @Test
+    void testBroadcastMetrics_withSlowSession_doesNotDelayOtherSessions() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        DashboardMetricsWebSocketHandler handler = new DashboardMetricsWebSocketHandler(dashboardMetricsService,
+                objectMapper, categoryRegistry, executor, Duration.ofSeconds(30), 64 * 1024, OverflowStrategy.DROP);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowSendStarted = new CountDownLatch(1);
+
+        when(session.getId()).thenReturn("slow-session");
+        when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+        doAnswer(invocation -> {
+            slowSendStarted.countDown();
+            release.await();
+            return null;
+        }).when(session).sendMessage(any(TextMessage.class));
+
+        WebSocketSession session2 = mock(WebSocketSession.class);
+        when(session2.getId()).thenReturn("test-session-2");
+        when(session2.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session2);
+
+        try {
+            // Act - the first broadcast leaves a pool thread writing to the slow session
+            handler.broadcastMetrics(DashboardMetricsResponseDto.builder().dau(100L).build());
+            assertTrue(slowSendStarted.await(5, TimeUnit.SECONDS));
+            handler.broadcastMetrics(DashboardMetricsResponseDto.builder().dau(101L).build());
+            handler.broadcastMetrics(DashboardMetricsResponseDto.builder().dau(102L).build());
+
+            // Assert - later pushes to the slow session are queued, the other session gets every push
+            await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                    verify(session2, times(4)).sendMessage(any(TextMessage.class)));
+            verify(session, times(2)).sendMessage(any(TextMessage.class));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBroadcastMetrics_withSessionOverBufferLimit_disconnectsItWhenTerminating() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        DashboardMetricsWebSocketHandler handler = new DashboardMetricsWebSocketHandler(dashboardMetricsService,
+                objectMapper, categoryRegistry, Runnable::run, Duration.ofSeconds(30), 1, OverflowStrategy.TERMINATE);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowSendStarted = new CountDownLatch(1);
+
+        when(session.getId()).thenReturn("slow-session");
+        when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+        doAnswer(invocation -> {
+            slowSendStarted.countDown();
+            release.await();
+            return null;
+        }).when(session).sendMessage(any(TextMessage.class));
+
+        try {
+            // Act - one push is stuck on another thread, the next one overflows the buffer
+            executor.execute(() -> handler.broadcastMetrics(DashboardMetricsResponseDto.builder().dau(100L).build()));
+            assertTrue(slowSendStarted.await(5, TimeUnit.SECONDS));
+            handler.broadcastMetrics(DashboardMetricsResponseDto.builder().dau(101L).build());
+
+            // Assert
+            verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+            assertEquals(0, handler.getConnectedClientCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBroadcastMetrics_withOnlyTimestampChanged_sendsNothing() throws Exception {
+        // Arrange
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        DashboardMetricsWebSocketHandler handler = new DashboardMetricsWebSocketHandler(dashboardMetricsService,
+                mapper, categoryRegistry, Runnable::run, Duration.ofSeconds(5), 64 * 1024, OverflowStrategy.DROP);
+        when(session.getId()).thenReturn("test-session-1");
+        when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+        DashboardMetricsResponseDto metrics = DashboardMetricsResponseDto.builder()
+                .timestamp(LocalDateTime.of(2025, 1, 15, 12, 30))
+                .dau(100L)
+                .build();
+        handler.broadcastMetrics(metrics);
+
+        // Act
+        metrics.setTimestamp(LocalDateTime.of(2025, 1, 15, 12, 31));
+        handler.broadcastMetrics(metrics);
+
+        // Assert - the snapshot and the first change only
+        verify(session, times(2)).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    void testBroadcastMetrics_sendsSnapshotThenNumberedDeltas() throws Exception {
+        // Arrange
+        when(session.getId()).thenReturn("test-session-1");
+        when(session.isOpen()).thenReturn(true);
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+        webSocketHandler.afterConnectionEstablished(session);
+
+        // Act
+        webSocketHandler.broadcastMetrics(DashboardMetricsResponseDto.builder().dau(100L).build());
+        webSocketHandler.handleMessage(session, new TextMessage("resync"));
+
+        // Assert
+        verify(session, times(3)).sendMessage(messages.capture());
+        JsonNode snapshot = objectMapper.readTree(messages.getAllValues().get(0).getPayload());
+        JsonNode delta = objectMapper.readTree(messages.getAllValues().get(1).getPayload());
+        JsonNode resync = objectMapper.readTree(messages.getAllValues().get(2).getPayload());
+        assertEquals("snapshot", snapshot.get("type").asText());
+        assertEquals(1, snapshot.get("seq").asLong());
+        assertEquals(90, snapshot.get("data").get("dau").asLong());
+        assertEquals("delta", delta.get("type").asText());
+        assertEquals(2, delta.get("seq").asLong());
+        assertEquals(objectMapper.readTree("{\"dau\":100}"), delta.get("patch"));
+        assertEquals("snapshot", resync.get("type").asText());
+        assertEquals(2, resync.get("seq").asLong());
+        assertEquals(100, resync.get("data").get("dau").asLong());
+    }
+
+    @Test
+    void testHandleMessage_withSubscribe_replacesDashboardWithRequestedTopic() throws Exception {
+        // Arrange
+        when(session.getId()).thenReturn("test-session-1");
+        when(session.isOpen()).thenReturn(true);
+        when(dashboardMetricsService.getConversionMetrics("pizza"))
+                .thenReturn(ConversionMetricsDto.builder().category("pizza").conversionRate(12.5).build());
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+        webSocketHandler.afterConnectionEstablished(session);
+
+        // Act
+        webSocketHandler.handleMessage(session,
+                new TextMessage("{\"action\":\"subscribe\",\"topic\":\"conversion:pizza\",\"intervalMs\":5000}"));
+        webSocketHandler.broadcastMetrics(DashboardMetricsResponseDto.builder().dau(100L).build());
+
+        // Assert - the dashboard snapshot on connect, then only the subscribed topic
+        verify(session, times(2)).sendMessage(messages.capture());
+        JsonNode snapshot = objectMapper.readTree(messages.getAllValues().get(1).getPayload());
+        assertEquals("conversion:pizza", snapshot.get("topic").asText());
+        assertEquals("snapshot", snapshot.get("type").asText());
+        assertEquals(12.5, snapshot.get("data").get("conversionRate").asDouble());
+        assertEquals(Set.of(MetricsTopic.parse("conversion:pizza")), webSocketHandler.subscribedTopics());
+    }
+
+    @Test
+    void testPublish_sendsTopicOnlyToItsSubscribers() throws Exception {
+        // Arrange
+        when(session.getId()).thenReturn("test-session-1");
+        when(session.isOpen()).thenReturn(true);
+        when(dashboardMetricsService.getDauMetrics()).thenReturn(DauMetricsDto.builder().dauCount(10L).build());
+        WebSocketSession session2 = mock(WebSocketSession.class);
+        when(session2.getId()).thenReturn("test-session-2");
+        when(session2.isOpen()).thenReturn(true);
+        webSocketHandler.afterConnectionEstablished(session);
+        webSocketHandler.afterConnectionEstablished(session2);
+        webSocketHandler.handleMessage(session, new TextMessage("{\"action\":\"subscribe\",\"topic\":\"dau\"}"));
+
+        // Act
+        webSocketHandler.publish(MetricsTopic.DAU, DauMetricsDto.builder().dauCount(11L).build());
+
+        // Assert - dashboard and dau snapshots plus one dau delta; the other session only has its dashboard snapshot
+        verify(session, times(3)).sendMessage(any(TextMessage.class));
+        verify(session2, times(1)).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    void testHandleMessage_withUnsubscribeOfLastSubscriber_dropsTopic() throws Exception {
+        // Arrange
+        when(session.getId()).thenReturn("test-session-1");
+        when(session.isOpen()).thenReturn(true);
+        when(dashboardMetricsService.getDauMetrics()).thenReturn(DauMetricsDto.builder().dauCount(10L).build());
+        webSocketHandler.afterConnectionEstablished(session);
+        webSocketHandler.handleMessage(session, new TextMessage("{\"action\":\"subscribe\",\"topic\":\"dau\"}"));
+
+        // Act
+        webSocketHandler.handleMessage(session, new TextMessage("{\"action\":\"unsubscribe\",\"topic\":\"dau\"}"));
+
+        // Assert
+        assertTrue(webSocketHandler.subscribedTopics().isEmpty());
+        assertTrue(webSocketHandler.dueTopics().isEmpty());
+    }
+
+    @Test
+    void testHandleMessage_withUnknownTopic_sendsError() throws Exception {
+        // Arrange
+        when(session.getId()).thenReturn("test-session-1");
+        when(session.isOpen()).thenReturn(true);
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+
+        // Act
+        webSocketHandler.handleMessage(session, new TextMessage("{\"action\":\"subscribe\",\"topic\":\"revenue\"}"));
+
+        // Assert
+        verify(session).sendMessage(messages.capture());
+        JsonNode error = objectMapper.readTree(messages.getValue().getPayload());
+        assertEquals("error", error.get("type").asText());
+        assertEquals("Unknown topic: revenue", error.get("message").asText());
+    }
+
+    @Test
+    void testHandleMessage_withUnknownCategory_sendsErrorAndDoesNotSubscribe() throws Exception {
+        // Arrange
+        when(session.getId()).thenReturn("test-session-1");
+        when(session.isOpen()).thenReturn(true);
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+
+        // Act
+        webSocketHandler.handleMessage(session,
+                new TextMessage("{\"action\":\"subscribe\",\"topic\":\"popular:no-such-category\"}"));
+
+        // Assert
+        verify(session).sendMessage(messages.capture());
+        JsonNode error = objectMapper.readTree(messages.getValue().getPayload());
+        assertEquals("error", error.get("type").asText());
+        assertEquals("Unknown category: no-such-category", error.get("message").asText());
+        assertTrue(webSocketHandler.subscribedTopics().isEmpty());
+        verify(dashboardMetricsService, never()).getPopularItemsMetrics(any());
+    }
+
     @Test
     void testGetConnectedClientCount_returnsCorrectCount() throws Exception {
         // Arrange
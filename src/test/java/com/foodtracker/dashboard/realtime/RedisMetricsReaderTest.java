@@ -0,0 +1,73 @@
+package com.foodtracker.dashboard.realtime;
+
+import com.foodtracker.dashboard.sketch.ItemCount;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisMetricsReaderTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void eventCounts_ShouldSumMinuteHashesByCategoryAndType() {
+        // Given
+        RedisMetricsReader sut = new RedisMetricsReader(redisTemplate);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(
+                Map.of("all:app_opened", "3", "pizza:app_opened", "2"),
+                Map.of(),
+                Map.of("all:app_opened", "1", "all:order_placed", "1")));
+
+        // When
+        Map<String, Map<String, Long>> counts = sut.eventCounts(Duration.ofMinutes(3));
+
+        // Then
+        assertThat(counts.get("all")).containsEntry("app_opened", 4L).containsEntry("order_placed", 1L);
+        assertThat(counts.get("pizza")).containsEntry("app_opened", 2L);
+    }
+
+    @Test
+    void distinctUsers_ShouldMapPipelinedCountsToCategories() {
+        // Given
+        RedisMetricsReader sut = new RedisMetricsReader(redisTemplate);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(10L, 4L));
+
+        // When
+        Map<String, Long> users = sut.distinctUsers(List.of("all", "pizza"), Duration.ofHours(1));
+
+        // Then
+        assertThat(users).containsExactly(Map.entry("all", 10L), Map.entry("pizza", 4L));
+    }
+
+    @Test
+    void topItems_ShouldReadUnionInScoreOrder() {
+        // Given
+        RedisMetricsReader sut = new RedisMetricsReader(redisTemplate);
+        Set<Object> tuples = new LinkedHashSet<>();
+        tuples.add(new DefaultTypedTuple<>("margherita", 7.0));
+        tuples.add(new DefaultTypedTuple<>("pepperoni", 3.0));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(2L, true, tuples));
+
+        // When
+        List<ItemCount> items = sut.topItems("pizza", Duration.ofHours(1), 2);
+
+        // Then
+        assertThat(items).containsExactly(new ItemCount("margherita", 7, 0), new ItemCount("pepperoni", 3, 0));
+    }
+}
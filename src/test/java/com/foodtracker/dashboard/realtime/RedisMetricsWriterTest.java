@@ -0,0 +1,171 @@
+package com.foodtracker.dashboard.realtime;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.dashboard.category.CategoryRegistry;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisMetricsWriterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    @Mock
+    private HyperLogLogOperations<String, String> hyperLogLogOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Test
+    void flush_ShouldPipelineCountersForAllAndCategory() {
+        // Given
+        RedisMetricsWriter sut = new RedisMetricsWriter(redisTemplate, categoryRegistry, refreshExecutor, 100, 100);
+        stubPipeline();
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(categoryRegistry.contains("pizza")).thenReturn(true);
+        Instant now = Instant.now();
+        long minute = now.getEpochSecond() / 60;
+        sut.onEventTracked(new EventTracked(event("user_1", "item_viewed", now, "pizza", "margherita")));
+        sut.onEventTracked(new EventTracked(event("user_2", "app_opened", now, null, null)));
+
+        // When
+        sut.flush();
+
+        // Then
+        verify(hyperLogLogOperations).add(RedisMetricsKeys.users("all", minute), "user_1");
+        verify(hyperLogLogOperations).add(RedisMetricsKeys.users("pizza", minute), "user_1");
+        verify(hyperLogLogOperations).add(RedisMetricsKeys.users("all", minute), "user_2");
+        verify(hashOperations).increment(RedisMetricsKeys.funnel(minute), "pizza:item_viewed", 1);
+        verify(hashOperations).increment(RedisMetricsKeys.funnel(minute), "all:app_opened", 1);
+        verify(zSetOperations).incrementScore(RedisMetricsKeys.items("pizza", minute), "margherita", 1);
+        verify(zSetOperations).incrementScore(RedisMetricsKeys.items("all", minute), "margherita", 1);
+        // funnel, two user keys and two item keys, each expired once
+        verify(redisTemplate, times(5)).expire(anyString(), eq(RedisMetricsKeys.KEY_TTL));
+    }
+
+    @Test
+    void flush_WithCategoryNamedAll_ShouldCountOnceInOverallKeys() {
+        // Given
+        RedisMetricsWriter sut = new RedisMetricsWriter(redisTemplate, categoryRegistry, refreshExecutor, 100, 100);
+        stubPipeline();
+        Instant now = Instant.now();
+        long minute = now.getEpochSecond() / 60;
+        sut.onEventTracked(new EventTracked(event("user_1", "app_opened", now, "all", null)));
+
+        // When
+        sut.flush();
+
+        // Then
+        verify(hyperLogLogOperations, times(1)).add(RedisMetricsKeys.users("all", minute), "user_1");
+        verify(hashOperations, times(1)).increment(RedisMetricsKeys.funnel(minute), "all:app_opened", 1);
+        verify(categoryRegistry, never()).contains(anyString());
+    }
+
+    @Test
+    void flush_WithCategoryOverTheLimit_ShouldOnlyWriteOverallKeys() {
+        // Given
+        RedisMetricsWriter sut = new RedisMetricsWriter(redisTemplate, categoryRegistry, refreshExecutor, 100, 100);
+        stubPipeline();
+        when(categoryRegistry.contains("sushi")).thenReturn(false);
+        Instant now = Instant.now();
+        long minute = now.getEpochSecond() / 60;
+        sut.onEventTracked(new EventTracked(event("user_1", "app_opened", now, "sushi", null)));
+
+        // When
+        sut.flush();
+
+        // Then
+        verify(hyperLogLogOperations).add(RedisMetricsKeys.users("all", minute), "user_1");
+        verify(hyperLogLogOperations, never()).add(eq(RedisMetricsKeys.users("sushi", minute)), anyString());
+        verify(hashOperations, never()).increment(RedisMetricsKeys.funnel(minute), "sushi:app_opened", 1);
+    }
+
+    @Test
+    void flush_WhenQueueIsFull_ShouldDropNewEvents() {
+        // Given
+        RedisMetricsWriter sut = new RedisMetricsWriter(redisTemplate, categoryRegistry, refreshExecutor, 1, 100);
+        stubPipeline();
+        Instant now = Instant.now();
+        sut.onEventTracked(new EventTracked(event("user_1", "app_opened", now, null, null)));
+        sut.onEventTracked(new EventTracked(event("user_2", "app_opened", now, null, null)));
+
+        // When
+        sut.flush();
+
+        // Then
+        verify(hyperLogLogOperations).add(anyString(), eq("user_1"));
+        verify(hyperLogLogOperations, never()).add(anyString(), eq("user_2"));
+    }
+
+    @Test
+    void flush_WhenNothingQueued_ShouldNotCallRedis() {
+        // Given
+        RedisMetricsWriter sut = new RedisMetricsWriter(redisTemplate, categoryRegistry, refreshExecutor, 100, 100);
+
+        // When
+        sut.flush();
+
+        // Then
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private void stubPipeline() {
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hyperLogLogOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+    }
+
+    private static Event event(String userId, String eventType, Instant timestamp, String category, String itemName) {
+        Map<String, Object> properties = new HashMap<>();
+        if (category != null) {
+            properties.put("category", category);
+        }
+        if (itemName != null) {
+            properties.put("item_name", itemName);
+        }
+        return Event.builder()
+                .eventType(eventType)
+                .userId(userId)
+                .sessionId("session_" + userId)
+                .timestamp(timestamp)
+                .properties(properties)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.foodtracker.dashboard.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisoryLockRefreshLeaseTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private AdvisoryLockRefreshLease lease;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lease = new AdvisoryLockRefreshLease(dataSource);
+        lenient().when(dataSource.getConnection()).thenReturn(connection);
+        lenient().when(connection.prepareStatement(anyString())).thenReturn(statement);
+        lenient().when(statement.executeQuery()).thenReturn(resultSet);
+        lenient().when(resultSet.next()).thenReturn(true);
+    }
+
+    @Test
+    void runIfOwner_WhenLockAcquired_ShouldRunTaskAndReleaseLock() throws Exception {
+        // Given
+        AtomicBoolean ran = new AtomicBoolean();
+        when(resultSet.getBoolean(1)).thenReturn(true);
+
+        // When
+        boolean owner = lease.runIfOwner("dashboard:dau", () -> ran.set(true));
+
+        // Then
+        assertThat(owner).isTrue();
+        assertThat(ran).isTrue();
+        InOrder order = inOrder(connection, statement);
+        order.verify(connection).prepareStatement(AdvisoryLockRefreshLease.TRY_LOCK);
+        order.verify(statement).setInt(2, "dashboard:dau".hashCode());
+        order.verify(connection).prepareStatement(AdvisoryLockRefreshLease.UNLOCK);
+        order.verify(statement).setInt(2, "dashboard:dau".hashCode());
+    }
+
+    @Test
+    void runIfOwner_WhenAnotherNodeHoldsLock_ShouldSkipTask() throws Exception {
+        // Given
+        when(resultSet.getBoolean(1)).thenReturn(false);
+
+        // When
+        boolean owner = lease.runIfOwner("dashboard:dau", () -> {
+            throw new AssertionError("Should not run without the lock");
+        });
+
+        // Then
+        assertThat(owner).isFalse();
+        verify(connection, never()).prepareStatement(AdvisoryLockRefreshLease.UNLOCK);
+    }
+
+    @Test
+    void runIfOwner_WithTaskFailing_ShouldStillReleaseLock() throws Exception {
+        // Given
+        when(resultSet.getBoolean(1)).thenReturn(true);
+
+        // When / Then
+        assertThatThrownBy(() -> lease.runIfOwner("dashboard:dau", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        verify(connection).prepareStatement(AdvisoryLockRefreshLease.UNLOCK);
+    }
+
+    @Test
+    void runIfOwner_ForSeveralKeys_ShouldHoldOneConnection() throws Exception {
+        // Given
+        when(resultSet.getBoolean(1)).thenReturn(true);
+
+        // When
+        lease.runIfOwner("dashboard:dau", () -> lease.runIfOwner("dashboard:metrics", () -> {
+        }));
+
+        // Then
+        verify(dataSource, times(1)).getConnection();
+        verify(connection, never()).close();
+    }
+}
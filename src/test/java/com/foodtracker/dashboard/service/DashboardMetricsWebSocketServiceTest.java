@@ -0,0 +1,173 @@
+package com.foodtracker.dashboard.service;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import com.foodtracker.dashboard.dto.DauMetricsDto;
+import com.foodtracker.dashboard.handler.DashboardMetricsWebSocketHandler;
+import com.foodtracker.dashboard.handler.MetricsTopic;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardMetricsWebSocketServiceTest {
+
+    @Mock
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Mock
+    private DashboardMetricsWebSocketHandler webSocketHandler;
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    private DashboardMetricsWebSocketService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DashboardMetricsWebSocketService(dashboardMetricsService, webSocketHandler, refreshExecutor);
+    }
+
+    @Test
+    void onEventTracked_WithSubscribers_ShouldMarkAffectedTopicsAndScheduleOnePush() {
+        // Given
+        when(webSocketHandler.markDirty(any())).thenReturn(true);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            service.onEventTracked(event("pizza"));
+        }
+
+        // Then
+        verify(webSocketHandler, times(10)).markDirty(MetricsTopic.DASHBOARD);
+        verify(webSocketHandler, times(10)).markDirty(MetricsTopic.DAU);
+        verify(webSocketHandler, times(10)).markDirty(new MetricsTopic(MetricsTopic.Kind.CONVERSION, "pizza"));
+        verify(webSocketHandler, times(10)).markDirty(new MetricsTopic(MetricsTopic.Kind.POPULAR, "pizza"));
+        ArgumentCaptor<Duration> delay = ArgumentCaptor.forClass(Duration.class);
+        verify(refreshExecutor, times(1)).executeLater(eq(DashboardMetricsWebSocketService.PUSH_CHANGES_JOB), delay.capture(), any());
+        assertThat(delay.getValue()).isPositive().isLessThanOrEqualTo(Duration.ofMillis(250));
+    }
+
+    @Test
+    void onEventTracked_WithoutSubscribers_ShouldNotSchedulePush() {
+        // When
+        service.onEventTracked(event("pizza"));
+
+        // Then
+        verify(refreshExecutor, never()).executeLater(any(), any(), any());
+    }
+
+    @Test
+    void onMetricsRecomputed_WithSubscribers_ShouldPublishValueRightAway() {
+        // Given
+        DauMetricsDto dau = DauMetricsDto.builder().build();
+        when(webSocketHandler.markDirty(MetricsTopic.DAU)).thenReturn(true);
+
+        // When
+        service.onMetricsRecomputed(new MetricsRecomputed(MetricsTopic.DAU, dau));
+
+        // Then
+        verify(webSocketHandler).publishDirty(MetricsTopic.DAU, dau);
+        verify(refreshExecutor, never()).executeLater(any(), any(), any());
+    }
+
+    @Test
+    void onMetricsRecomputed_WithoutSubscribers_ShouldDoNothing() {
+        // When
+        service.onMetricsRecomputed(new MetricsRecomputed(MetricsTopic.DAU, DauMetricsDto.builder().build()));
+
+        // Then
+        verify(webSocketHandler, never()).publishDirty(any(), any());
+        verify(refreshExecutor, never()).executeLater(any(), any(), any());
+    }
+
+    @Test
+    void onMetricsRecomputed_WithSubscribersNotDue_ShouldScheduleOnePushWhenDue() {
+        // Given
+        when(webSocketHandler.markDirty(any())).thenReturn(true);
+        when(webSocketHandler.untilNextDirtyPush()).thenReturn(Optional.of(Duration.ofSeconds(5)));
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            service.onMetricsRecomputed(new MetricsRecomputed(MetricsTopic.DAU, DauMetricsDto.builder().build()));
+        }
+
+        // Then
+        verify(refreshExecutor, times(1)).executeLater(eq(DashboardMetricsWebSocketService.PUSH_CHANGES_JOB), eq(Duration.ofSeconds(5)), any());
+    }
+
+    @Test
+    void onMetricsRecomputed_WithSubscribersDueEarlier_ShouldScheduleEarlierPush() {
+        // Given
+        when(webSocketHandler.markDirty(any())).thenReturn(true);
+        when(webSocketHandler.untilNextDirtyPush()).thenReturn(Optional.of(Duration.ofSeconds(60)), Optional.of(Duration.ofSeconds(3)));
+
+        // When
+        service.onMetricsRecomputed(new MetricsRecomputed(MetricsTopic.DAU, DauMetricsDto.builder().build()));
+        service.onMetricsRecomputed(new MetricsRecomputed(MetricsTopic.DASHBOARD, DashboardMetricsResponseDto.builder().build()));
+
+        // Then
+        ArgumentCaptor<Duration> delay = ArgumentCaptor.forClass(Duration.class);
+        verify(refreshExecutor, times(2)).executeLater(eq(DashboardMetricsWebSocketService.PUSH_CHANGES_JOB), delay.capture(), any());
+        assertThat(delay.getAllValues()).containsExactly(Duration.ofSeconds(60), Duration.ofSeconds(3));
+    }
+
+    @Test
+    void pushChanges_ShouldPublishReloadedDirtyTopics() {
+        // Given
+        DashboardMetricsResponseDto metrics = DashboardMetricsResponseDto.builder().dau(100L).build();
+        when(webSocketHandler.dirtyTopics()).thenReturn(Set.of(MetricsTopic.DASHBOARD));
+        when(dashboardMetricsService.reload(MetricsTopic.DASHBOARD)).thenReturn(metrics);
+
+        // When
+        service.pushChanges();
+
+        // Then
+        verify(webSocketHandler).publishDirty(MetricsTopic.DASHBOARD, metrics);
+        verify(dashboardMetricsService, never()).getDashboardMetrics();
+        verify(refreshExecutor, never()).executeLater(any(), any(), any());
+    }
+
+    @Test
+    void pushChanges_WithTopicsStillDirty_ShouldScheduleNextPushWhenDue() {
+        // Given
+        when(webSocketHandler.untilNextDirtyPush()).thenReturn(Optional.of(Duration.ofSeconds(5)));
+
+        // When
+        service.pushChanges();
+
+        // Then
+        ArgumentCaptor<Duration> delay = ArgumentCaptor.forClass(Duration.class);
+        verify(refreshExecutor).executeLater(eq(DashboardMetricsWebSocketService.PUSH_CHANGES_JOB), delay.capture(), any());
+        assertThat(delay.getValue()).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    private static EventTracked event(String category) {
+        return new EventTracked(Event.builder()
+                .eventType("item_viewed")
+                .userId("user")
+                .sessionId("session_user")
+                .timestamp(Instant.now())
+                .properties(Map.of("category", category))
+                .build());
+    }
+}
@@ -0,0 +1,96 @@
+package com.foodtracker.dashboard.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void offer_WithFewerItemsThanCapacity_ShouldCountExactly() {
+        // Given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+
+        // When
+        sketch.offer("margherita", 3);
+        sketch.offer("pepperoni", 1);
+        sketch.offer("margherita", 2);
+
+        // Then
+        assertThat(sketch.top(10)).containsExactly(
+                new ItemCount("margherita", 5, 0),
+                new ItemCount("pepperoni", 1, 0));
+    }
+
+    @Test
+    void offer_WithMoreItemsThanCapacity_ShouldKeepHeavyHittersAndBoundMemory() {
+        // Given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(5);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer("cheeseburger", 1);
+            sketch.offer("item_" + i, 1);
+            if (i % 4 != 0) {
+                sketch.offer("margherita", 1);
+            }
+        }
+
+        // Then
+        assertThat(sketch.items()).hasSize(5);
+        List<ItemCount> top = sketch.top(2);
+        assertThat(top).extracting(ItemCount::item).containsExactly("cheeseburger", "margherita");
+        assertThat(top.getFirst().count()).isGreaterThanOrEqualTo(1000);
+        assertThat(top.getFirst().count() - top.getFirst().error()).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    void merge_WithDisjointBuckets_ShouldSumCounts() {
+        // Given
+        SpaceSavingSketch first = new SpaceSavingSketch(10);
+        first.offer("margherita", 4);
+        first.offer("pepperoni", 1);
+        SpaceSavingSketch second = new SpaceSavingSketch(10);
+        second.offer("margherita", 2);
+        second.offer("cheeseburger", 3);
+
+        // When
+        first.merge(second);
+
+        // Then
+        assertThat(first.top(3)).containsExactly(
+                new ItemCount("margherita", 6, 0),
+                new ItemCount("cheeseburger", 3, 0),
+                new ItemCount("pepperoni", 1, 0));
+        assertThat(second.top(3)).hasSize(2);
+    }
+
+    @Test
+    void merge_WithFullSketches_ShouldKeepCapacityAndUpperBounds() {
+        // Given
+        SpaceSavingSketch first = new SpaceSavingSketch(2);
+        first.offer("a", 10);
+        first.offer("b", 5);
+        SpaceSavingSketch second = new SpaceSavingSketch(2);
+        second.offer("a", 7);
+        second.offer("c", 6);
+
+        // When
+        first.merge(second);
+
+        // Then
+        assertThat(first.items()).hasSize(2);
+        assertThat(first.top(1)).containsExactly(new ItemCount("a", 17, 0));
+        // "b" was not tracked by the second sketch, so its count includes the second sketch's minimum as error
+        assertThat(first.top(2).get(1)).isEqualTo(new ItemCount("b", 11, 6));
+    }
+
+    @Test
+    void constructor_WithNonPositiveCapacity_ShouldThrow() {
+        assertThatThrownBy(() -> new SpaceSavingSketch(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,191 @@
+package com.foodtracker.dashboard.timeseries;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.MetricBucketRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimeSeriesStoreTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    private TimeSeriesStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TimeSeriesStore(eventRepository, refreshExecutor);
+    }
+
+    @Test
+    void onEventTracked_ShouldAggregateEventsIntoBuckets() {
+        // Given
+        Instant minute = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        track("app_opened", "user_1", minute, Map.of());
+        track("app_opened", "user_2", minute, Map.of());
+        track("order_placed", "user_1", minute.plusSeconds(5), Map.of("total", 1200));
+        track("screen_viewed", "user_1", minute.minus(Duration.ofMinutes(3)), Map.of());
+
+        // When
+        List<BucketSnapshot> buckets = store.read(Resolution.MINUTE, minute.minus(Duration.ofMinutes(4)), minute.plusSeconds(60));
+
+        // Then
+        assertThat(buckets).hasSize(5);
+        assertThat(buckets.get(1)).isEqualTo(new BucketSnapshot(minute.minus(Duration.ofMinutes(3)), 1, 1, 0, 0, 0.0));
+        assertThat(buckets.get(2).events()).isZero();
+        BucketSnapshot current = buckets.get(4);
+        assertThat(current.start()).isEqualTo(minute);
+        assertThat(current.events()).isEqualTo(3);
+        assertThat(current.users()).isEqualTo(2);
+        assertThat(current.orders()).isEqualTo(1);
+        assertThat(current.revenue()).isEqualTo(1200.0);
+        assertThat(current.conversionRate()).isEqualTo(50.0);
+    }
+
+    @Test
+    void onEventTracked_WithEventOutsideRetention_ShouldIgnoreIt() {
+        // Given
+        track("app_opened", "user_1", Instant.now().minus(Duration.ofDays(3)), Map.of());
+
+        // When
+        List<BucketSnapshot> buckets = store.read(Resolution.MINUTE, Instant.now().minus(Duration.ofDays(4)), Instant.now());
+
+        // Then
+        assertThat(buckets).allMatch(bucket -> bucket.events() == 0);
+    }
+
+    @Test
+    void onEventTracked_WithLateEventInBackfilledBucket_ShouldNotCountKnownUsersTwice() {
+        // Given - a closed minute backfilled with two users
+        Instant closed = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(Duration.ofMinutes(5));
+        long bucket = closed.getEpochSecond() / 60;
+        when(eventRepository.aggregateBucketsBetween(anyLong(), any(Instant.class), any(Instant.class))).thenReturn(List.of());
+        when(eventRepository.aggregateBucketsBetween(eq(60L), any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of(new Row(bucket, 4L, 2L)));
+        when(eventRepository.findDistinctUserIdsBetween(closed, closed.plusSeconds(60)))
+                .thenReturn(List.of("user_1", "user_2", "user_3"));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return null;
+        }).when(refreshExecutor).executeLater(eq(TimeSeriesStore.SEED_JOB), any(), any());
+        store.backfill();
+
+        // When - late events of a known user and of a new one
+        track("screen_viewed", "user_1", closed.plusSeconds(10), Map.of());
+        track("screen_viewed", "user_3", closed.plusSeconds(20), Map.of());
+
+        // Then
+        BucketSnapshot snapshot = store.read(Resolution.MINUTE, closed, closed.plusSeconds(60)).get(0);
+        assertThat(snapshot.events()).isEqualTo(6);
+        assertThat(snapshot.users()).isEqualTo(3);
+        verify(eventRepository, times(1)).findDistinctUserIdsBetween(closed, closed.plusSeconds(60));
+    }
+
+    @Test
+    void onEventTracked_WithLateEventsWhileUsersLoad_ShouldLoadOnceOffThreadAndKeepTheirUsers() {
+        // Given - a closed minute backfilled with two users
+        Instant closed = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(Duration.ofMinutes(5));
+        long bucket = closed.getEpochSecond() / 60;
+        when(eventRepository.aggregateBucketsBetween(anyLong(), any(Instant.class), any(Instant.class))).thenReturn(List.of());
+        when(eventRepository.aggregateBucketsBetween(eq(60L), any(Instant.class), any(Instant.class)))
+                .thenReturn(List.of(new Row(bucket, 4L, 2L)));
+        when(eventRepository.findDistinctUserIdsBetween(closed, closed.plusSeconds(60)))
+                .thenReturn(List.of("user_1", "user_2", "user_3"));
+        store.backfill();
+
+        // When - the users load after two more late events, one of a user the load does not see yet
+        track("screen_viewed", "user_3", closed.plusSeconds(10), Map.of());
+        track("screen_viewed", "user_1", closed.plusSeconds(20), Map.of());
+        track("screen_viewed", "user_4", closed.plusSeconds(30), Map.of());
+        ArgumentCaptor<Runnable> seed = ArgumentCaptor.forClass(Runnable.class);
+        verify(refreshExecutor, times(1)).executeLater(eq(TimeSeriesStore.SEED_JOB), eq(Duration.ZERO), seed.capture());
+        verify(eventRepository, never()).findDistinctUserIdsBetween(any(), any());
+        seed.getValue().run();
+
+        // Then
+        BucketSnapshot snapshot = store.read(Resolution.MINUTE, closed, closed.plusSeconds(60)).get(0);
+        assertThat(snapshot.events()).isEqualTo(7);
+        assertThat(snapshot.users()).isEqualTo(4);
+    }
+
+    @Test
+    void chooseResolution_ShouldPickFinestResolutionWithinBudget() {
+        Instant now = Instant.now();
+
+        assertThat(store.chooseResolution(now.minus(Duration.ofHours(1)), now, 2000)).isEqualTo(Resolution.MINUTE);
+        assertThat(store.chooseResolution(now.minus(Duration.ofDays(7)), now, 2000)).isEqualTo(Resolution.HOUR);
+        assertThat(store.chooseResolution(now.minus(Duration.ofDays(90)), now, 2000)).isEqualTo(Resolution.DAY);
+        assertThat(store.chooseResolution(now.minus(Duration.ofDays(1000)), now, 2000)).isEqualTo(Resolution.DAY);
+    }
+
+    private void track(String eventType, String userId, Instant timestamp, Map<String, Object> properties) {
+        Event event = Event.builder()
+                .eventType(eventType)
+                .userId(userId)
+                .sessionId("session_1")
+                .timestamp(timestamp)
+                .properties(properties)
+                .build();
+        store.onEventTracked(new EventTracked(event));
+    }
+
+    private record Row(Long bucket, Long events, Long users) implements MetricBucketRow {
+
+        @Override
+        public Long getBucket() {
+            return bucket;
+        }
+
+        @Override
+        public Long getEvents() {
+            return events;
+        }
+
+        @Override
+        public Long getUsers() {
+            return users;
+        }
+
+        @Override
+        public Long getSessions() {
+            return 0L;
+        }
+
+        @Override
+        public Long getOrders() {
+            return 0L;
+        }
+
+        @Override
+        public Double getRevenue() {
+            return 0.0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.foodtracker.dashboard.usecase.dashboard;
+
+import com.foodtracker.dashboard.aggregate.PopularItemsAggregator;
+import com.foodtracker.dashboard.category.CategoryRegistry;
+import com.foodtracker.dashboard.dto.DashboardMetricsResponseDto;
+import com.foodtracker.dashboard.sketch.ItemCount;
+import com.foodtracker.shared.repository.CategoryMetricsRow;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.sampling.SampledEventStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CalculateDashboardMetricsUseCaseImplTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private PopularItemsAggregator popularItemsAggregator;
+
+    private CategoryRegistry categoryRegistry;
+
+    private CalculateDashboardMetricsUseCaseImpl sut;
+
+    @BeforeEach
+    void setUp() {
+        categoryRegistry = new CategoryRegistry(eventRepository, Duration.ofDays(30), 256);
+        sut = new CalculateDashboardMetricsUseCaseImpl(eventRepository, popularItemsAggregator, categoryRegistry,
+                new SampledEventStatsService(eventRepository, 0.01), 4, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void calculateDashboardMetrics_ShouldCombineAllSubQueries() {
+        // Given
+        categoryRegistry.register("burger");
+        when(eventRepository.countDistinctUsersSince(any(Instant.class))).thenReturn(42L);
+        when(eventRepository.countByEventTypeSince(eq("app_opened"), any(Instant.class))).thenReturn(10L);
+        when(eventRepository.countByEventTypeSince(eq("order_placed"), any(Instant.class))).thenReturn(4L);
+        when(popularItemsAggregator.topItems(eq(PopularItemsAggregator.ALL_CATEGORIES), any(Duration.class), eq(10)))
+                .thenReturn(List.of(new ItemCount("margherita", 7, 0), new ItemCount("cheeseburger", 3, 0)));
+        when(eventRepository.countCategoryMetricsSince(any(Instant.class)))
+                .thenReturn(List.of(new Row("pizza", 5L, 2L, 4L), new Row("sushi", 1L, 0L, 0L)));
+
+        // When
+        DashboardMetricsResponseDto result = sut.calculateDashboardMetrics();
+
+        // Then
+        assertThat(result.getDau()).isEqualTo(42L);
+        assertThat(result.getConversionRate()).isEqualTo(40.0);
+        assertThat(result.getPopularItems()).containsExactly(
+                Map.entry("margherita", 7L), Map.entry("cheeseburger", 3L));
+        assertThat(result.getCategoryMetrics()).containsOnlyKeys("burger", "pizza", "sushi");
+        assertThat(result.getCategoryMetrics().get("pizza")).isEqualTo(Map.of(
+                "dau", 5L, "conversions", 2L, "conversion_rate", 50.0));
+        assertThat(result.getCategoryMetrics().get("burger")).isEqualTo(Map.of(
+                "dau", 0L, "conversions", 0L, "conversion_rate", 0.0));
+        assertThat(categoryRegistry.categories()).containsExactly("burger", "pizza", "sushi");
+    }
+
+    @Test
+    void calculateDashboardMetrics_WhenSubQueryFails_ShouldThrow() {
+        // Given
+        when(eventRepository.countDistinctUsersSince(any(Instant.class)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        // When & Then
+        assertThatThrownBy(() -> sut.calculateDashboardMetrics())
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("database unavailable");
+    }
+
+    @Test
+    void calculateApproximateDashboardMetrics_ShouldReadCategoryMetricsFromSample() {
+        // Given
+        when(eventRepository.sampleEventTypeStats(any(Instant.class), any(Instant.class), isNull(), eq(100)))
+                .thenReturn(List.of());
+        when(eventRepository.sampleCategoryMetrics(any(Instant.class), any(Instant.class), eq(100)))
+                .thenReturn(List.of(new Row("pizza", 2L, 1L, 2L)));
+
+        // When
+        DashboardMetricsResponseDto result = sut.calculateApproximateDashboardMetrics();
+
+        // Then
+        assertThat(result.getCategoryMetrics().get("pizza")).isEqualTo(Map.of(
+                "dau", 200L, "conversions", 100L, "conversion_rate", 50.0));
+        verify(eventRepository, never()).countCategoryMetricsSince(any(Instant.class));
+    }
+
+    private record Row(String category, Long dau, Long conversions, Long sessions) implements CategoryMetricsRow {
+
+        @Override
+        public String getCategory() {
+            return category;
+        }
+
+        @Override
+        public Long getDau() {
+            return dau;
+        }
+
+        @Override
+        public Long getConversions() {
+            return conversions;
+        }
+
+        @Override
+        public Long getSessions() {
+            return sessions;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.foodtracker.dashboard.usecase.popular;
 
+import com.foodtracker.dashboard.aggregate.PopularItemsAggregator;
 import com.foodtracker.dashboard.dto.PopularItemDto;
 import com.foodtracker.dashboard.dto.PopularItemsMetricsDto;
-import com.foodtracker.shared.repository.Event;
-import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.dashboard.sketch.ItemCount;
 import com.foodtracker.shared.service.TimeService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,17 +12,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.List;
-import java.util.Map;
 
 import static org.mockito.Mockito.*;
 
 class CalculatePopularItemsMetricsUseCaseImplTest {
     @Mock
-    EventRepository eventRepository;
+    PopularItemsAggregator popularItemsAggregator;
     @Mock
     TimeService timeService;
     @InjectMocks
@@ -36,18 +35,8 @@ class CalculatePopularItemsMetricsUseCaseImplTest {
     @Test
     void testCalculatePopularItemsMetrics() {
         String category = "category";
-        String itemViewed = "item_viewed";
-        Event e1 = Event.builder()
-                .id(1L)
-                .eventType("itemType1")
-                .userId("userId1")
-                .sessionId("sessionId1")
-                .timestamp(Instant.now())
-                .properties(Map.of("item_name", "item_name1"))
-                .build();
-        List<Event> events = List.of(e1);
-        when(eventRepository.findByEventTypeAndCategory(eq(itemViewed), eq(category), any(Instant.class)))
-                .thenReturn(events);
+        when(popularItemsAggregator.topItems(eq(category), any(Duration.class), eq(10)))
+                .thenReturn(List.of(new ItemCount("item_name1", 1, 0)));
 
         LocalDateTime timestamp = LocalDateTime.of(2025, Month.NOVEMBER, 30, 22, 10, 7);
         when(timeService.getLocalDateTimeNow()).thenReturn(timestamp);
@@ -63,4 +52,3 @@ class CalculatePopularItemsMetricsUseCaseImplTest {
         Assertions.assertEquals(expected, result);
     }
 }
-
@@ -0,0 +1,179 @@
+package com.foodtracker.shared.activity;
+
+import com.foodtracker.core.concurrent.RefreshExecutor;
+import com.foodtracker.shared.event.EventTracked;
+import com.foodtracker.shared.repository.ActivityBitmap;
+import com.foodtracker.shared.repository.ActivityBitmapRepository;
+import com.foodtracker.shared.repository.Event;
+import com.foodtracker.shared.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityBitmapStoreTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ActivityBitmapRepository activityBitmapRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RefreshExecutor refreshExecutor;
+
+    private ActivityBitmapStore sut;
+
+    private final Instant now = Instant.now();
+
+    @BeforeEach
+    void setUp() {
+        sut = new ActivityBitmapStore(eventRepository, activityBitmapRepository, transactionTemplate,
+                refreshExecutor, 60000);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void segment_ShouldIntersectAndExcludeUserSets() {
+        // Given
+        track(1, "item_viewed", "pizza", now);
+        track(1, "order_placed", "pizza", now);
+        track(2, "item_viewed", "pizza", now);
+        track(2, "order_placed", "burger", now);
+        track(3, "item_viewed", "sushi", now);
+        track(3, "order_placed", "sushi", now);
+        track(2, "checkout_started", null, now);
+
+        Instant from = now.minus(Duration.ofHours(1));
+        Instant to = now.plusSeconds(60);
+
+        // When
+        RoaringBitmap viewedPizzaAndOrdered = sut.segment(
+                List.of(Segment.parse("item_viewed:pizza"), Segment.parse("order_placed")), List.of(), List.of(), from, to);
+        RoaringBitmap orderedWithoutCheckout = sut.segment(
+                List.of(Segment.parse("order_placed")), List.of(), List.of(Segment.parse("checkout_started")), from, to);
+        RoaringBitmap pizzaOrSushi = sut.segment(
+                List.of(), List.of(Segment.parse(":pizza"), Segment.parse(":sushi")), List.of(), from, to);
+
+        // Then
+        assertThat(viewedPizzaAndOrdered.toArray()).containsExactly(1, 2);
+        assertThat(orderedWithoutCheckout.toArray()).containsExactly(1, 3);
+        assertThat(pizzaOrSushi.toArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void activeUsers_ShouldCountDistinctUsersOverDailyBuckets() {
+        // Given
+        Instant today = now.truncatedTo(ChronoUnit.DAYS).plus(Duration.ofHours(1));
+        track(1, "app_opened", null, today);
+        track(1, "app_opened", null, today.minus(Duration.ofDays(3)));
+        track(2, "app_opened", null, today.minus(Duration.ofDays(3)));
+        track(3, "app_opened", null, today.minus(Duration.ofDays(20)));
+
+        // When / Then
+        assertThat(sut.activeUsers(now, 1)).isEqualTo(1);
+        assertThat(sut.activeUsers(now, 7)).isEqualTo(2);
+        assertThat(sut.activeUsers(now, 30)).isEqualTo(3);
+    }
+
+    @Test
+    void users_ShouldOnlyIncludeBucketsInsideRange() {
+        // Given
+        Instant minuteStart = now.truncatedTo(ChronoUnit.MINUTES);
+        track(1, "app_opened", null, minuteStart.minus(Duration.ofMinutes(10)));
+        track(2, "app_opened", null, minuteStart);
+
+        // When
+        RoaringBitmap recent = sut.users(Segment.ALL_USERS, minuteStart.minus(Duration.ofMinutes(5)), minuteStart.plusSeconds(60));
+
+        // Then
+        assertThat(recent.toArray()).containsExactly(2);
+    }
+
+    @Test
+    void flush_ShouldPersistOnlyChangedBitmaps() {
+        // Given
+        track(1, "app_opened", null, now);
+        when(activityBitmapRepository.insertIfAbsent(anyString(), anyLong(), anyString(), anyString(), any(byte[].class))).thenReturn(1);
+
+        // When
+        sut.flush();
+        sut.flush();
+
+        // Then - all users and event type segments at minute, hour and day granularity, once
+        verify(activityBitmapRepository, times(6)).insertIfAbsent(anyString(), anyLong(), anyString(), anyString(), any(byte[].class));
+        verify(activityBitmapRepository, times(2)).deleteOlderThan(eq(Granularity.DAY.name()), anyLong());
+    }
+
+    @Test
+    void flush_WithBitmapPersistedByAnotherNode_ShouldStoreAndServeTheUnion() {
+        // Given
+        track(1, "app_opened", null, now);
+        when(activityBitmapRepository.findForUpdate(anyString(), anyLong(), anyString(), anyString())).thenAnswer(invocation ->
+                Optional.of(new ActivityBitmap(7L, invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2), invocation.getArgument(3), ActivityBitmapStore.serialize(RoaringBitmap.bitmapOf(2)))));
+
+        // When
+        sut.flush();
+
+        // Then
+        ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+        verify(activityBitmapRepository, times(6)).updateBitmap(eq(7L), stored.capture());
+        assertThat(stored.getAllValues()).allSatisfy(bytes ->
+                assertThat(ActivityBitmapStore.deserialize(bytes).toArray()).containsExactly(1, 2));
+        verify(activityBitmapRepository, never()).insertIfAbsent(anyString(), anyLong(), anyString(), anyString(), any(byte[].class));
+        assertThat(sut.activeUsers(now, 1)).isEqualTo(2);
+    }
+
+    @Test
+    void serialize_ShouldRoundTrip() {
+        // Given
+        RoaringBitmap bitmap = RoaringBitmap.bitmapOf(1, 42, 100_000, 7_000_000);
+
+        // When
+        RoaringBitmap restored = ActivityBitmapStore.deserialize(ActivityBitmapStore.serialize(bitmap));
+
+        // Then
+        assertThat(restored).isEqualTo(bitmap);
+    }
+
+    private void track(int userKey, String eventType, String category, Instant timestamp) {
+        Event event = Event.builder()
+                .eventType(eventType)
+                .userId("user_" + userKey)
+                .sessionId("session_" + userKey)
+                .userKey(userKey)
+                .timestamp(timestamp)
+                .properties(category != null ? Map.of("category", category) : Map.of())
+                .build();
+        sut.onEventTracked(new EventTracked(event));
+    }
+}
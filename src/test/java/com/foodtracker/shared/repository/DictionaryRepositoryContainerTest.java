@@ -0,0 +1,93 @@
+package com.foodtracker.shared.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("container")
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DictionaryRepositoryContainerTest {
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserDictionaryRepository userDictionaryRepository;
+
+    @Autowired
+    private SessionDictionaryRepository sessionDictionaryRepository;
+
+    @Test
+    void fillEventKeys_AcrossBatchesWithKnownIds_ShouldKeepKeysContiguous() {
+        // Given
+        userDictionaryRepository.insertIfAbsent("user_a");
+        sessionDictionaryRepository.insertIfAbsent("session_a");
+        long firstBatchEnd = save("user_a", "session_a", "user_b", "session_b");
+        long secondBatchEnd = save("user_a", "session_a", "user_b", "session_b", "user_c", "session_c");
+
+        // When
+        userDictionaryRepository.fillEventKeys(0, firstBatchEnd);
+        sessionDictionaryRepository.fillEventKeys(0, firstBatchEnd);
+        userDictionaryRepository.fillEventKeys(firstBatchEnd, secondBatchEnd);
+        sessionDictionaryRepository.fillEventKeys(firstBatchEnd, secondBatchEnd);
+
+        // Then
+        List<UserDictionaryEntry> users = userDictionaryRepository.findAll(BY_ID);
+        assertContiguous(users.stream().map(UserDictionaryEntry::getId).toList());
+        assertThat(users).extracting(UserDictionaryEntry::getExternalId).containsExactly("user_a", "user_b", "user_c");
+        List<SessionDictionaryEntry> sessions = sessionDictionaryRepository.findAll(BY_ID);
+        assertContiguous(sessions.stream().map(SessionDictionaryEntry::getId).toList());
+        assertThat(sessions).extracting(SessionDictionaryEntry::getExternalId)
+                .containsExactly("session_a", "session_b", "session_c");
+        assertThat(eventRepository.existsByUserKeyIsNullOrSessionKeyIsNull()).isFalse();
+    }
+
+    /**
+     * Saves one event per user and session pair and returns the ID of the last one
+     */
+    private long save(String... userAndSessionIds) {
+        long lastId = 0;
+        for (int i = 0; i < userAndSessionIds.length; i += 2) {
+            lastId = eventRepository.saveAndFlush(Event.builder()
+                    .eventType("item_viewed")
+                    .userId(userAndSessionIds[i])
+                    .sessionId(userAndSessionIds[i + 1])
+                    .timestamp(Instant.now())
+                    .build()).getId();
+        }
+        return lastId;
+    }
+
+    private static void assertContiguous(List<Integer> keys) {
+        int first = keys.getFirst();
+        assertThat(keys).containsExactlyElementsOf(IntStream.range(first, first + keys.size()).boxed().toList());
+    }
+}
@@ -0,0 +1,92 @@
+package com.foodtracker.shared.repository;
+
+import com.foodtracker.shared.event.EventKeysBackfilled;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventKeyBackfillTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private UserDictionaryRepository userDictionaryRepository;
+
+    @Mock
+    private SessionDictionaryRepository sessionDictionaryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private EventKeyBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new EventKeyBackfill(eventRepository, userDictionaryRepository, sessionDictionaryRepository,
+                eventPublisher, 2);
+    }
+
+    @Test
+    void backfill_WithEventsWithoutKeys_ShouldFillEveryRangeUntilNothingIsLeft() {
+        // Given
+        when(eventRepository.existsByUserKeyIsNullOrSessionKeyIsNull()).thenReturn(true);
+        when(eventRepository.findMaxId()).thenReturn(5L);
+        when(userDictionaryRepository.fillEventKeys(anyLong(), anyLong())).thenReturn(2, 0, 1, 0, 0);
+        when(sessionDictionaryRepository.fillEventKeys(anyLong(), anyLong())).thenReturn(2, 0, 2, 0, 1, 0);
+
+        // When
+        backfill.backfill();
+
+        // Then
+        InOrder order = inOrder(userDictionaryRepository, sessionDictionaryRepository);
+        order.verify(userDictionaryRepository, times(2)).fillEventKeys(0, 2);
+        order.verify(sessionDictionaryRepository, times(2)).fillEventKeys(0, 2);
+        order.verify(userDictionaryRepository, times(2)).fillEventKeys(2, 4);
+        order.verify(sessionDictionaryRepository, times(2)).fillEventKeys(2, 4);
+        order.verify(userDictionaryRepository).fillEventKeys(4, 5);
+        order.verify(sessionDictionaryRepository, times(2)).fillEventKeys(4, 5);
+        verify(eventPublisher).publishEvent(new EventKeysBackfilled(3, 5));
+    }
+
+    @Test
+    void backfill_WithAllEventsKeyed_ShouldDoNothing() {
+        // Given
+        when(eventRepository.existsByUserKeyIsNullOrSessionKeyIsNull()).thenReturn(false);
+
+        // When
+        backfill.backfill();
+
+        // Then
+        verify(userDictionaryRepository, never()).fillEventKeys(anyLong(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void backfill_WhenStopped_ShouldNotPublish() {
+        // Given
+        when(eventRepository.existsByUserKeyIsNullOrSessionKeyIsNull()).thenReturn(true);
+        when(eventRepository.findMaxId()).thenReturn(5L);
+        backfill.shutdown();
+
+        // When
+        backfill.backfill();
+
+        // Then
+        verify(userDictionaryRepository, never()).fillEventKeys(anyLong(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
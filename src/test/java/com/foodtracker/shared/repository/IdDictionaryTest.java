@@ -0,0 +1,104 @@
+package com.foodtracker.shared.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdDictionaryTest {
+
+    @Test
+    void stringIntHashMap_ShouldGrowPastInitialCapacity() {
+        // Given
+        StringIntHashMap map = new StringIntHashMap(4);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            map.putIfAbsent("user_" + i, i);
+        }
+
+        // Then
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.get("user_0")).isZero();
+        assertThat(map.get("user_9999")).isEqualTo(9999);
+        assertThat(map.get("user_10000")).isEqualTo(StringIntHashMap.MISSING);
+    }
+
+    @Test
+    void stringIntHashMap_PutIfAbsent_ShouldKeepFirstValue() {
+        // Given
+        StringIntHashMap map = new StringIntHashMap(16);
+        map.putIfAbsent("user_001", 1);
+
+        // When
+        int mapped = map.putIfAbsent("user_001", 2);
+
+        // Then
+        assertThat(mapped).isEqualTo(1);
+        assertThat(map.get("user_001")).isEqualTo(1);
+    }
+
+    @Test
+    void keyOf_ShouldResolveEachIdOnceAndCacheIt() {
+        // Given
+        Map<String, Integer> store = new ConcurrentHashMap<>();
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicInteger resolverCalls = new AtomicInteger();
+        IdDictionary dictionary = new IdDictionary(16, name -> {
+            resolverCalls.incrementAndGet();
+            return store.computeIfAbsent(name, n -> sequence.incrementAndGet());
+        }, key -> null);
+
+        // When
+        int first = dictionary.keyOf("user_001");
+        int second = dictionary.keyOf("user_002");
+        int again = dictionary.keyOf("user_001");
+
+        // Then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(2);
+        assertThat(again).isEqualTo(1);
+        assertThat(resolverCalls).hasValue(2);
+        assertThat(dictionary.nameOf(2)).isEqualTo("user_002");
+        assertThat(dictionary.nameOf(3)).isNull();
+    }
+
+    @Test
+    void keyOf_WhenCalledConcurrently_ShouldMapEveryIdToOneKey() throws InterruptedException {
+        // Given
+        Map<String, Integer> store = new ConcurrentHashMap<>();
+        AtomicInteger sequence = new AtomicInteger();
+        IdDictionary dictionary = new IdDictionary(16,
+                name -> store.computeIfAbsent(name, n -> sequence.incrementAndGet()), key -> null);
+        Map<String, Integer> seen = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    String name = "user_" + i;
+                    int key = dictionary.keyOf(name);
+                    Integer previous = seen.putIfAbsent(name, key);
+                    if (previous != null && previous != key) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(conflicts).hasValue(0);
+        assertThat(dictionary.size()).isEqualTo(5_000);
+        assertThat(dictionary.nameOf(store.get("user_4321"))).isEqualTo("user_4321");
+    }
+}
@@ -0,0 +1,145 @@
+package com.foodtracker.shared.sampling;
+
+import com.foodtracker.shared.repository.CategoryMetricsRow;
+import com.foodtracker.shared.repository.EventRepository;
+import com.foodtracker.shared.repository.SampledEventTypeStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SampledEventStatsServiceTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Test
+    void sample_ShouldScaleCountsByInverseSampleRate() {
+        // Given
+        SampledEventStatsService sut = new SampledEventStatsService(eventRepository, 0.1);
+        when(eventRepository.sampleEventTypeStats(any(Instant.class), any(Instant.class), isNull(), eq(1000)))
+                .thenReturn(List.of(
+                        new Row("app_opened", 200L, 400L, 100L),
+                        new Row("order_placed", 50L, 50L, 50L),
+                        new Row(null, 250L, 0L, 120L)));
+
+        // When
+        SampledEventStats stats = sut.sample(Instant.EPOCH, Instant.now(), null);
+
+        // Then
+        assertThat(stats.sampleRate()).isEqualTo(0.1);
+        assertThat(stats.events("app_opened").value()).isCloseTo(2000.0, within(1e-9));
+        assertThat(stats.users("app_opened").value()).isCloseTo(1000.0, within(1e-9));
+        assertThat(stats.distinctUsers().rounded()).isEqualTo(1200L);
+        // Var = (1 - p) / p^2 * sum of squares = 0.9 / 0.01 * 400
+        assertThat(stats.events("app_opened").standardError()).isCloseTo(Math.sqrt(36000), within(1e-9));
+        assertThat(stats.events("app_opened").lower()).isLessThan(2000.0);
+        assertThat(stats.events("app_opened").upper()).isGreaterThan(2000.0);
+    }
+
+    @Test
+    void sample_WhenEventTypeNotSampled_ShouldReturnZeroWithRuleOfThreeUpperBound() {
+        // Given
+        SampledEventStatsService sut = new SampledEventStatsService(eventRepository, 0.01);
+        when(eventRepository.sampleEventTypeStats(any(Instant.class), any(Instant.class), eq("pizza"), eq(100)))
+                .thenReturn(List.of());
+
+        // When
+        Estimate orders = sut.sample(Instant.EPOCH, Instant.now(), "pizza").events("order_placed");
+
+        // Then
+        assertThat(orders.value()).isZero();
+        assertThat(orders.lower()).isZero();
+        assertThat(orders.upper()).isCloseTo(300.0, within(1e-6));
+    }
+
+    @Test
+    void categoryMetrics_ShouldScaleSampledCountsByInverseSampleRate() {
+        // Given
+        SampledEventStatsService sut = new SampledEventStatsService(eventRepository, 0.1);
+        CategoryMetricsRow sampled = mock(CategoryMetricsRow.class);
+        when(sampled.getCategory()).thenReturn("pizza");
+        when(sampled.getDau()).thenReturn(12L);
+        when(sampled.getConversions()).thenReturn(3L);
+        when(sampled.getSessions()).thenReturn(20L);
+        when(eventRepository.sampleCategoryMetrics(any(Instant.class), any(Instant.class), eq(1000)))
+                .thenReturn(List.of(sampled));
+
+        // When
+        List<CategoryMetricsRow> rows = sut.categoryMetrics(Instant.EPOCH, Instant.now());
+
+        // Then
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.getCategory()).isEqualTo("pizza");
+            assertThat(row.getDau()).isEqualTo(120L);
+            assertThat(row.getConversions()).isEqualTo(30L);
+            assertThat(row.getSessions()).isEqualTo(200L);
+        });
+    }
+
+    @Test
+    void ratePercent_ShouldCombineErrorsOfNumeratorAndDenominator() {
+        // Given
+        Estimate orders = new Estimate(50, 5, 0.1);
+        Estimate sessions = new Estimate(200, 10, 0.1);
+
+        // When
+        Estimate rate = Estimate.ratePercent(orders, sessions);
+
+        // Then
+        assertThat(rate.value()).isCloseTo(25.0, within(1e-9));
+        assertThat(rate.standardError()).isGreaterThan(0);
+        assertThat(rate.lower()).isLessThan(25.0);
+        assertThat(rate.upper()).isGreaterThan(25.0);
+    }
+
+    @Test
+    void constructor_WhenSampleRateOutOfRange_ShouldThrow() {
+        assertThatThrownBy(() -> new SampledEventStatsService(eventRepository, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromParameter_ShouldParseCaseInsensitivelyAndRejectUnknownValues() {
+        assertThat(Accuracy.fromParameter("approx")).isEqualTo(Accuracy.APPROX);
+        assertThat(Accuracy.fromParameter("EXACT")).isEqualTo(Accuracy.EXACT);
+        assertThat(Accuracy.fromParameter(null)).isEqualTo(Accuracy.EXACT);
+        assertThatThrownBy(() -> Accuracy.fromParameter("roughly"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private record Row(String type, Long events, Long squares, Long users) implements SampledEventTypeStats {
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public Long getEvents() {
+            return events;
+        }
+
+        @Override
+        public Long getSquares() {
+            return squares;
+        }
+
+        @Override
+        public Long getUsers() {
+            return users;
+        }
+    }
+}